@@ -0,0 +1 @@
+java -cp ./target/ThreadCommunication-1.0.jar common.journal.JournalReader $1 $2 $3
\ No newline at end of file
@@ -0,0 +1 @@
+java -cp ./target/ThreadCommunication-1.0.jar process.ProcessCommunicationBenchmark $1 $2
\ No newline at end of file
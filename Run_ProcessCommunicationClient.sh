@@ -1 +1 @@
-java -cp ./target/ThreadCommunication-1.0.jar process.ProcessCommunicationClient $1 $2 $3
\ No newline at end of file
+java -cp ./target/ThreadCommunication-1.0.jar process.ProcessCommunicationClient $1 $2 $3 $4 $5 $6
\ No newline at end of file
@@ -1 +1 @@
-java -cp ./target/ThreadCommunication-1.0.jar process.ProcessCommunicationServer $1 $2 $3 $4
\ No newline at end of file
+java -cp ./target/ThreadCommunication-1.0.jar process.ProcessCommunicationServer $1 $2 $3 $4 $5 $6 $7 $8
\ No newline at end of file
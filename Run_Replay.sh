@@ -0,0 +1 @@
+java -cp ./target/ThreadCommunication-1.0.jar replay.Replay $1 $2 $3 $4
\ No newline at end of file
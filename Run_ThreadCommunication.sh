@@ -1 +1 @@
-java -cp ./target/ThreadCommunication-1.0.jar thread.ThreadCommunication $1 $2 $3
\ No newline at end of file
+java -cp ./target/ThreadCommunication-1.0.jar thread.ThreadCommunication "$@"
\ No newline at end of file
@@ -0,0 +1 @@
+java -cp ./target/ThreadCommunication-1.0.jar thread.TopologyCommunication $1 $2 $3 $4 $5 $6 $7
\ No newline at end of file
@@ -0,0 +1,109 @@
+package benchmark;
+
+import common.MessageMode;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import process.wire.DirectChannel;
+import process.wire.Framing;
+import process.wire.MessageChannel;
+import process.wire.WireOptions;
+
+import java.io.IOException;
+import java.net.InetSocketAddress;
+import java.nio.channels.ServerSocketChannel;
+import java.nio.channels.SocketChannel;
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures a single compact round trip over loopback with binary framing: the benchmark thread receives a message
+ * and sends the reply, an echo thread on a DirectChannel answers in place. BINARY goes through the stream based
+ * BinaryChannel and Strings, DIRECT through DirectChannel#receiveFrame and DirectChannel#sendReply.
+ * <p>
+ * Run with '-prof gc' to compare the allocation rate per round trip.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode({Mode.AverageTime, Mode.SampleTime})
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class DirectChannelBenchmark {
+
+    @Param({"BINARY", "DIRECT"})
+    String channel;
+
+    /**
+     * length of the payload of the compact message
+     */
+    @Param({"5", "1000"})
+    int messageSize;
+
+    private final byte[] origin = "Player".getBytes(StandardCharsets.UTF_8);
+    private ServerSocketChannel server;
+    private MessageChannel client;
+    private DirectChannel direct;
+    private Thread echo;
+    private int counter;
+
+    @Setup(Level.Trial)
+    public void setUp() throws IOException {
+        server = ServerSocketChannel.open().bind(new InetSocketAddress("localhost", 0));
+        SocketChannel clientChannel = SocketChannel.open(server.getLocalAddress());
+        DirectChannel accepted = new DirectChannel(server.accept());
+        if ("DIRECT".equals(channel)) {
+            direct = new DirectChannel(clientChannel);
+            client = direct;
+        } else {
+            WireOptions options = new WireOptions();
+            options.setDirectBuffers(false);
+            client = Framing.BINARY.open(clientChannel.socket(), options);
+        }
+        byte[] initiator = "Initiator".getBytes(StandardCharsets.UTF_8);
+        echo = new Thread(() -> {
+            try {
+                while (accepted.receiveFrame() >= 0) {
+                    accepted.sendReply(MessageMode.COMPACT, initiator, 0);
+                }
+                accepted.close();
+            } catch (IOException e) {
+                // benchmark finished
+            }
+        }, "EchoThread");
+        echo.setDaemon(true);
+        echo.start();
+        client.send(MessageMode.COMPACT.initial("x".repeat(messageSize), "Player", 0));
+        client.flush();
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() throws IOException, InterruptedException {
+        client.close();
+        echo.join();
+        server.close();
+    }
+
+    @Benchmark
+    public int roundTrip() throws IOException {
+        counter++;
+        if (direct != null) {
+            direct.receiveFrame();
+            return direct.sendReply(MessageMode.COMPACT, origin, counter);
+        }
+        String reply = MessageMode.COMPACT.reply(client.receive(), "Player", counter);
+        client.send(reply);
+        client.flush();
+        return reply.length();
+    }
+}
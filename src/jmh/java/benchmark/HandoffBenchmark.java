@@ -0,0 +1,83 @@
+package benchmark;
+
+import common.WaitStrategy;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import thread.mailbox.Mailbox;
+import thread.mailbox.MailboxType;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures a single round trip (put + take) over the pair of mailboxes that ThreadCommunication wires between the
+ * two players. An echo thread plays the role of the responder, so one benchmark operation is exactly one message sent
+ * and one reply received. Use the SampleTime mode for p50/p99/p99.9 round-trip percentiles.
+ * <p>
+ * busy_spin only gives meaningful numbers when the benchmark and echo threads have a core each.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode({Mode.AverageTime, Mode.SampleTime, Mode.Throughput})
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class HandoffBenchmark {
+
+    /**
+     * length of the message that is handed off
+     */
+    @Param({"8", "1000"})
+    int messageSize;
+
+    @Param({"SYNCHRONOUS", "ARRAY_BLOCKING", "SPSC_RING"})
+    MailboxType mailboxType;
+
+    @Param({"PARK", "YIELD", "BUSY_SPIN"})
+    WaitStrategy waitStrategy;
+
+    private Mailbox<String> mailBox1;
+    private Mailbox<String> mailBox2;
+    private Thread echo;
+    private String message;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        mailBox1 = mailboxType.create(1, waitStrategy);
+        mailBox2 = mailboxType.create(1, waitStrategy);
+        message = "x".repeat(messageSize);
+        echo = new Thread(() -> {
+            try {
+                while (!Thread.currentThread().isInterrupted()) {
+                    mailBox1.put(mailBox2.take());
+                }
+            } catch (InterruptedException e) {
+                // benchmark finished
+            }
+        }, "EchoThread");
+        echo.setDaemon(true);
+        echo.start();
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() throws InterruptedException {
+        echo.interrupt();
+        echo.join();
+    }
+
+    @Benchmark
+    public String roundTrip() throws InterruptedException {
+        mailBox2.put(message);
+        return mailBox1.take();
+    }
+}
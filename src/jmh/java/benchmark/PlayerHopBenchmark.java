@@ -0,0 +1,59 @@
+package benchmark;
+
+import common.WaitStrategy;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import thread.mailbox.Mailbox;
+import thread.mailbox.MailboxType;
+import thread.player.Player;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures the cost that Player itself adds to one hop (sendMessage followed by readMessage), without any waiting:
+ * the player's outbox is its own inbox, a lock-free ring, so a message is always available when it is read.
+ * <p>
+ * 'hopWithMonitor' takes the player's monitor around both calls, like the former synchronized readMessage() and
+ * sendMessage() did, so the difference between the two benchmarks is the per-hop cost of that monitor.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class PlayerHopBenchmark {
+
+    private Player player;
+
+    @Setup(Level.Iteration)
+    public void setUp() {
+        Mailbox<String> loopback = MailboxType.SPSC_RING.create(1, WaitStrategy.BUSY_SPIN);
+        player = new Player("HopPlayer", loopback, loopback, Integer.MAX_VALUE, false);
+    }
+
+    @Benchmark
+    public String hop() throws InterruptedException {
+        player.sendMessage("x");
+        return player.readMessage();
+    }
+
+    @Benchmark
+    public String hopWithMonitor() throws InterruptedException {
+        synchronized (player) {
+            player.sendMessage("x");
+        }
+        synchronized (player) {
+            return player.readMessage();
+        }
+    }
+}
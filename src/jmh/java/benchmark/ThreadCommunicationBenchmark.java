@@ -0,0 +1,62 @@
+package benchmark;
+
+import common.MessageMode;
+import common.Stats;
+import common.ThreadMode;
+import common.WaitStrategy;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import thread.ThreadCommunication;
+import thread.mailbox.MailboxType;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures complete games of ThreadCommunication#play. One benchmark operation is one game, ie. stopCondition round
+ * trips between the Initiator and the responder, including the start and join of both player threads.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode({Mode.AverageTime, Mode.SampleTime, Mode.Throughput})
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class ThreadCommunicationBenchmark {
+
+    @Param({"10", "100", "1000"})
+    int stopCondition;
+
+    /**
+     * length of the initial message
+     */
+    @Param({"5", "1000"})
+    int messageSize;
+
+    @Param({"false", "true"})
+    boolean verboseLogging;
+
+    @Param({"CONCATENATED", "COMPACT"})
+    MessageMode messageMode;
+
+    private String initialMessage;
+
+    @Setup
+    public void setUp() {
+        initialMessage = "x".repeat(messageSize);
+    }
+
+    @Benchmark
+    public Stats play() {
+        return ThreadCommunication.play(stopCondition, initialMessage, verboseLogging, MailboxType.SYNCHRONOUS, 1,
+                WaitStrategy.PARK, messageMode, ThreadMode.PLATFORM);
+    }
+}
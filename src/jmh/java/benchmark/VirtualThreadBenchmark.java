@@ -0,0 +1,51 @@
+package benchmark;
+
+import common.Stats;
+import common.ThreadMode;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import thread.Tournament;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Compares platform and virtual threads by running a whole Tournament per operation at 1, 100 and 100k pairs.
+ * Platform players share a fixed pool of poolSize threads (one thread per player is not feasible at 100k pairs),
+ * virtual players get a thread each. The VIRTUAL runs need Java 21 or newer.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3)
+@Measurement(iterations = 10)
+@Fork(1)
+public class VirtualThreadBenchmark {
+
+    @Param({"1", "100", "100000"})
+    int pairs;
+
+    @Param({"PLATFORM", "VIRTUAL"})
+    ThreadMode threadMode;
+
+    @Param({"10"})
+    int stopCondition;
+
+    /**
+     * number of platform threads, ignored by VIRTUAL
+     */
+    @Param({"256"})
+    int poolSize;
+
+    @Benchmark
+    public Stats tournament() {
+        return Tournament.play(pairs, stopCondition, "Hello", false, threadMode, poolSize);
+    }
+}
@@ -0,0 +1,107 @@
+package benchmark;
+
+import common.MessageMode;
+import common.Stats;
+import common.ThreadMode;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import process.ProcessCommunicationClient;
+import process.player.WebSocketServer;
+import process.wire.FlushPolicy;
+import process.wire.Framing;
+import process.wire.Transport;
+import process.wire.WireOptions;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures complete games between a WebSocketServer and a WebSocketPlayer over loopback, both running in the
+ * benchmark JVM. One benchmark operation is one game, ie. stopCondition round trips over the socket. Connection
+ * setup is part of the measured time, the server is started before each invocation, on a port picked by the system
+ * so that no game waits for the port of the previous one to be released.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode({Mode.AverageTime, Mode.SampleTime, Mode.Throughput})
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class WebSocketBenchmark {
+
+    @Param({"10", "100", "1000"})
+    int stopCondition;
+
+    /**
+     * length of the initial message
+     */
+    @Param({"5", "1000"})
+    int messageSize;
+
+    @Param({"false", "true"})
+    boolean verboseLogging;
+
+    @Param({"TEXT", "BINARY"})
+    Framing framing;
+
+    /**
+     * messages the initiator keeps in flight, 1 is stop-and-wait
+     */
+    @Param({"1", "16"})
+    int window;
+
+    @Param({"MESSAGE", "BATCH"})
+    FlushPolicy flushPolicy;
+
+    @Param({"SOCKET", "SHARED_MEMORY"})
+    Transport transport;
+
+    private String initialMessage;
+    private WireOptions wireOptions;
+    private Thread server;
+    private int port;
+
+    @Setup(Level.Trial)
+    public void setUpTrial() {
+        initialMessage = "x".repeat(messageSize);
+        wireOptions = new WireOptions();
+        wireOptions.setFraming(framing);
+        wireOptions.setWindow(window);
+        wireOptions.setFlushPolicy(flushPolicy);
+        wireOptions.setTransport(transport);
+    }
+
+    @Setup(Level.Invocation)
+    public void startServer() throws InterruptedException {
+        WebSocketServer initiator = new WebSocketServer("WebSocketInitiator", stopCondition, verboseLogging, 0,
+                initialMessage, MessageMode.CONCATENATED, new WireOptions(wireOptions));
+        server = new Thread(initiator::play, "WebSocketServerThread");
+        server.start();
+        // bound once this returns, so that the client connects on its first attempt
+        port = initiator.awaitLocalPort();
+        if (port < 0) {
+            throw new IllegalStateException("Benchmark server could not be started");
+        }
+    }
+
+    @TearDown(Level.Invocation)
+    public void joinServer() throws InterruptedException {
+        server.join();
+    }
+
+    @Benchmark
+    public Stats play() {
+        return ProcessCommunicationClient.play(stopCondition, verboseLogging, port, MessageMode.CONCATENATED,
+                ThreadMode.PLATFORM, wireOptions);
+    }
+}
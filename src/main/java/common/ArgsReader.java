@@ -1,13 +1,19 @@
 package common;
 
+import common.affinity.CpuSet;
 
 public class ArgsReader {
 
 
     public static int readStopCondition(String[] args, int index) {
+        return readStopCondition(args, index, MessageMode.CONCATENATED);
+    }
+
+    public static int readStopCondition(String[] args, int index, MessageMode messageMode) {
         int stopCondition = Integer.parseInt(args.length > index ? args[index] : Configuration.read(Configuration.KEY_STOP_CONDITION));
-        // validation to limit the number and thereby size of messages
-        int maxStopCondition = Integer.parseInt(Configuration.read(Configuration.KEY_STOP_CONDITION_MAX));
+        // validation to limit the number and thereby size of messages. Compact messages do not grow, so their limit is higher.
+        int maxStopCondition = Configuration.readInt(messageMode == MessageMode.COMPACT
+                ? Configuration.KEY_STOP_CONDITION_COMPACT_MAX : Configuration.KEY_STOP_CONDITION_MAX);
         if (stopCondition > maxStopCondition || stopCondition < 1) {
             throw new IllegalArgumentException("Invalid stop condition. Allowed range is 1 to " + maxStopCondition);
         }
@@ -23,7 +29,7 @@ public class ArgsReader {
         if (initialMessage == null) {
             throw new IllegalArgumentException("Initial message cannot be null");
         }
-        int maxInitialMessageLength = Integer.parseInt(Configuration.read(Configuration.KEY_INITIAL_MESSAGE_MAX));
+        int maxInitialMessageLength = Configuration.readInt(Configuration.KEY_INITIAL_MESSAGE_MAX);
         if (initialMessage.length() > maxInitialMessageLength) {
             throw new IllegalArgumentException("Maximum allowed length of initial message is " + maxInitialMessageLength);
         }
@@ -37,4 +43,95 @@ public class ArgsReader {
         }
         return port;
     }
+
+    public static int readMailboxCapacity(String[] args, int index) {
+        int capacity = Integer.parseInt(args.length > index ? args[index] : Configuration.read(Configuration.KEY_MAILBOX_CAPACITY));
+        if (capacity < 1) {
+            throw new IllegalArgumentException("Invalid mailbox capacity. Must be at least 1");
+        }
+        return capacity;
+    }
+
+    public static WaitStrategy readWaitStrategy(String[] args, int index) {
+        return WaitStrategy.of(args.length > index ? args[index] : Configuration.read(Configuration.KEY_WAIT_STRATEGY));
+    }
+
+    public static MessageMode readMessageMode(String[] args, int index) {
+        return MessageMode.of(args.length > index ? args[index] : Configuration.read(Configuration.KEY_MESSAGE_MODE));
+    }
+
+    public static ThreadMode readThreadMode(String[] args, int index) {
+        return ThreadMode.of(args.length > index ? args[index] : Configuration.read(Configuration.KEY_THREAD_MODE));
+    }
+
+    public static int readPairs(String[] args, int index) {
+        int pairs = Integer.parseInt(args.length > index ? args[index] : Configuration.read(Configuration.KEY_TOURNAMENT_PAIRS));
+        if (pairs < 1) {
+            throw new IllegalArgumentException("Invalid number of pairs. Must be at least 1");
+        }
+        return pairs;
+    }
+
+    public static int readNodes(String[] args, int index) {
+        int nodes = Integer.parseInt(args.length > index ? args[index] : Configuration.read(Configuration.KEY_TOPOLOGY_NODES));
+        if (nodes < 2) {
+            throw new IllegalArgumentException("Invalid number of nodes. Must be at least 2");
+        }
+        return nodes;
+    }
+
+    public static long readMessages(String[] args, int index, MessageMode messageMode) {
+        long messages = Long.parseLong(args.length > index ? args[index] : Configuration.read(Configuration.KEY_TOPOLOGY_MESSAGES));
+        // concatenated messages grow along every chain of replies, so the same limits as for the stop condition apply
+        int maxMessages = Configuration.readInt(messageMode == MessageMode.COMPACT
+                ? Configuration.KEY_STOP_CONDITION_COMPACT_MAX : Configuration.KEY_STOP_CONDITION_MAX);
+        if (messages > maxMessages || messages < 1) {
+            throw new IllegalArgumentException("Invalid number of messages. Allowed range is 1 to " + maxMessages);
+        }
+        return messages;
+    }
+
+    public static int readEventLoops(String[] args, int index) {
+        int eventLoops = Integer.parseInt(read(args, index, Configuration.KEY_NIO_EVENT_LOOPS));
+        if (eventLoops < 1) {
+            throw new IllegalArgumentException("Invalid number of event loops. Must be at least 1");
+        }
+        return eventLoops;
+    }
+
+    public static int readPoolSize(String[] args, int index) {
+        int poolSize = Integer.parseInt(args.length > index ? args[index] : Configuration.read(Configuration.KEY_TOURNAMENT_POOL_SIZE));
+        if (poolSize < 0 || poolSize == 1) {
+            throw new IllegalArgumentException("Invalid pool size. Must be 0 (one thread per player) or at least 2");
+        }
+        return poolSize;
+    }
+
+    public static int readFlowPoolSize(String[] args, int index) {
+        int poolSize = Integer.parseInt(args.length > index ? args[index] : Configuration.read(Configuration.KEY_FLOW_POOL_SIZE));
+        if (poolSize < 0) {
+            throw new IllegalArgumentException("Invalid pool size. Must be 0 (common pool) or at least 1");
+        }
+        return poolSize;
+    }
+
+    public static int readDemandBatch(String[] args, int index) {
+        int demandBatch = Integer.parseInt(args.length > index ? args[index] : Configuration.read(Configuration.KEY_FLOW_DEMAND_BATCH));
+        if (demandBatch < 1) {
+            throw new IllegalArgumentException("Invalid demand batch. Must be at least 1");
+        }
+        return demandBatch;
+    }
+
+    public static CpuSet readCpuSet(String[] args, int index, String key) {
+        return CpuSet.of(read(args, index, key));
+    }
+
+    /**
+     * @return the argument at the index if supplied, else the configured value of the key. Options of the other
+     * packages are parsed from this by their own 'of' method, so that common does not depend on them.
+     */
+    public static String read(String[] args, int index, String key) {
+        return args.length > index ? args[index] : Configuration.read(key);
+    }
 }
@@ -1,8 +1,15 @@
 package common;
 
+import java.io.File;
 import java.io.IOException;
 import java.io.InputStream;
+import java.net.URISyntaxException;
+import java.net.URL;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Map;
 import java.util.Properties;
+import java.util.concurrent.TimeUnit;
 
 /**
  * This class holds all the constants and defaults used in the project. Can be used to read from the property file
@@ -14,41 +21,287 @@ public class Configuration {
     public static final String KEY_STOP_CONDITION = "stop.condition";
     public static final String KEY_VERBOSE_LOGGING = "log.verbose";
     public static final String KEY_PORT_NUMBER = "websocket.port";
+    public static final String KEY_MAILBOX_TYPE = "mailbox.type";
+    public static final String KEY_MAILBOX_CAPACITY = "mailbox.capacity";
+    public static final String KEY_WAIT_STRATEGY = "mailbox.wait.strategy";
+    public static final String KEY_MESSAGE_MODE = "message.mode";
+    public static final String KEY_THREAD_MODE = "thread.mode";
+    public static final String KEY_TOURNAMENT_PAIRS = "tournament.pairs";
+    public static final String KEY_TOURNAMENT_POOL_SIZE = "tournament.pool.size";
+    public static final String KEY_FLOW_POOL_SIZE = "flow.pool.size";
+    public static final String KEY_FLOW_DEMAND_BATCH = "flow.demand.batch";
+    public static final String KEY_WIRE_FRAMING = "wire.framing";
+    public static final String KEY_WIRE_WINDOW = "wire.window";
+    public static final String KEY_WIRE_WINDOW_BYTES = "wire.window.bytes";
+    public static final String KEY_WIRE_FLUSH_POLICY = "wire.flush.policy";
+    public static final String KEY_WIRE_TRANSPORT = "wire.transport";
+    public static final String KEY_WIRE_DIRECT_BUFFERS = "wire.direct.buffers";
+    public static final String KEY_WIRE_DELTA = "wire.delta";
+    public static final String KEY_WIRE_HEARTBEAT_INTERVAL_MILLIS = "wire.heartbeat.interval.millis";
+    public static final String KEY_WIRE_IDLE_TIMEOUT_MILLIS = "wire.idle.timeout.millis";
+    public static final String KEY_WIRE_SHM_CAPACITY = "wire.shm.capacity";
+    public static final String KEY_WIRE_SHM_WAIT_STRATEGY = "wire.shm.wait.strategy";
+    public static final String KEY_WIRE_SHM_DIRECTORY = "wire.shm.directory";
+    public static final String KEY_WIRE_FLUSH_BATCH = "wire.flush.batch";
+    public static final String KEY_WIRE_FLUSH_INTERVAL_MICROS = "wire.flush.interval.micros";
+    public static final String KEY_SOCKET_TCP_NODELAY = "socket.tcp.nodelay";
+    public static final String KEY_SOCKET_SEND_BUFFER = "socket.send.buffer";
+    public static final String KEY_SOCKET_RECEIVE_BUFFER = "socket.receive.buffer";
+    public static final String KEY_CONNECT_INITIAL_DELAY_MILLIS = "connect.initial.delay.millis";
+    public static final String KEY_CONNECT_MAX_DELAY_MILLIS = "connect.max.delay.millis";
+    public static final String KEY_CONNECT_DEADLINE_MILLIS = "connect.deadline.millis";
+    public static final String KEY_SESSION_GAMES = "session.games";
+    public static final String KEY_BENCHMARK_STOP_CONDITIONS = "benchmark.stop.conditions";
+    public static final String KEY_BENCHMARK_MESSAGE_SIZES = "benchmark.message.sizes";
+    public static final String KEY_BENCHMARK_WARMUP_GAMES = "benchmark.warmup.games";
+    public static final String KEY_BENCHMARK_GAMES = "benchmark.games";
+    public static final String KEY_BENCHMARK_REPORT_FORMAT = "benchmark.report.format";
+    public static final String KEY_BENCHMARK_REPORT_FILE = "benchmark.report.file";
+    public static final String KEY_TOPOLOGY_TYPE = "topology.type";
+    public static final String KEY_TOPOLOGY_NODES = "topology.nodes";
+    public static final String KEY_TOPOLOGY_MESSAGES = "topology.messages";
+    public static final String KEY_TOPOLOGY_DEGREE = "topology.degree";
+    public static final String KEY_TOPOLOGY_SEED = "topology.seed";
+    public static final String KEY_AFFINITY_INITIATOR_CPUS = "affinity.initiator.cpus";
+    public static final String KEY_AFFINITY_RESPONDER_CPUS = "affinity.responder.cpus";
+    public static final String KEY_JOURNAL_ENABLED = "journal.enabled";
+    public static final String KEY_JOURNAL_DIRECTORY = "journal.directory";
+    public static final String KEY_JOURNAL_SEGMENT_SIZE = "journal.segment.size";
+    public static final String KEY_REPLAY_PLAYER = "replay.player";
+    public static final String KEY_REPLAY_TARGET = "replay.target";
+    public static final String KEY_REPLAY_PACING = "replay.pacing";
+    public static final String KEY_SERVER_MODE = "server.mode";
+    public static final String KEY_NIO_EVENT_LOOPS = "nio.event.loops";
+    public static final String KEY_NIO_CONNECTIONS = "nio.connections";
+    public static final String KEY_CONFIG_RELOAD_INTERVAL_MILLIS = "config.reload.interval.millis";
+    public static final String KEY_METRICS_ENABLED = "metrics.enabled";
+    public static final String KEY_LOG_ASYNC = "log.async";
+    public static final String KEY_LOG_ASYNC_CAPACITY = "log.async.capacity";
+    public static final String KEY_LOG_FILE = "log.file";
+    public static final String KEY_METRICS_REPORT_INTERVAL_MILLIS = "metrics.report.interval.millis";
 
     public static final String KEY_STOP_CONDITION_MAX = "stop.condition.max";
     public static final String KEY_INITIAL_MESSAGE_MAX = "message.initial.max";
+    public static final String KEY_STOP_CONDITION_COMPACT_MAX = "stop.condition.compact.max";
 
     public static final String DEFAULT_INITIAL_MESSAGE = "Hi";
     public static final String DEFAULT_STOP_CONDITION = "10";
     public static final String DEFAULT_STOP_CONDITION_MAX = "1000";
     public static final String DEFAULT_INITIAL_MESSAGE_MAX = "1000";
+    public static final String DEFAULT_STOP_CONDITION_COMPACT_MAX = "100000000";
     public static final String DEFAULT_verboseLogging = "true";
     public static final String DEFAULT_PORT_NUMBER = "1101";
+    public static final String DEFAULT_MAILBOX_TYPE = "synchronous";
+    public static final String DEFAULT_MAILBOX_CAPACITY = "1";
+    public static final String DEFAULT_WAIT_STRATEGY = "park";
+    public static final String DEFAULT_MESSAGE_MODE = "concatenated";
+    public static final String DEFAULT_THREAD_MODE = "platform";
+    public static final String DEFAULT_TOURNAMENT_PAIRS = "100";
+    public static final String DEFAULT_TOURNAMENT_POOL_SIZE = "0";
+    public static final String DEFAULT_FLOW_POOL_SIZE = "0";
+    public static final String DEFAULT_FLOW_DEMAND_BATCH = "16";
+    public static final String DEFAULT_WIRE_FRAMING = "text";
+    public static final String DEFAULT_WIRE_WINDOW = "1";
+    public static final String DEFAULT_WIRE_WINDOW_BYTES = "65536";
+    public static final String DEFAULT_WIRE_FLUSH_POLICY = "message";
+    public static final String DEFAULT_WIRE_TRANSPORT = "socket";
+    public static final String DEFAULT_WIRE_DIRECT_BUFFERS = "false";
+    public static final String DEFAULT_WIRE_DELTA = "false";
+    public static final String DEFAULT_WIRE_HEARTBEAT_INTERVAL_MILLIS = "1000";
+    public static final String DEFAULT_WIRE_IDLE_TIMEOUT_MILLIS = "30000";
+    public static final String DEFAULT_WIRE_SHM_CAPACITY = "1048576";
+    public static final String DEFAULT_WIRE_SHM_WAIT_STRATEGY = "yield";
+    public static final String DEFAULT_WIRE_SHM_DIRECTORY = "";
+    public static final String DEFAULT_WIRE_FLUSH_BATCH = "16";
+    public static final String DEFAULT_WIRE_FLUSH_INTERVAL_MICROS = "100";
+    public static final String DEFAULT_SOCKET_TCP_NODELAY = "true";
+    public static final String DEFAULT_SOCKET_SEND_BUFFER = "0";
+    public static final String DEFAULT_SOCKET_RECEIVE_BUFFER = "0";
+    public static final String DEFAULT_CONNECT_INITIAL_DELAY_MILLIS = "1";
+    public static final String DEFAULT_CONNECT_MAX_DELAY_MILLIS = "50";
+    public static final String DEFAULT_CONNECT_DEADLINE_MILLIS = "30000";
+    public static final String DEFAULT_SESSION_GAMES = "1";
+    public static final String DEFAULT_BENCHMARK_STOP_CONDITIONS = "10,100,1000";
+    public static final String DEFAULT_BENCHMARK_MESSAGE_SIZES = "5,1000";
+    public static final String DEFAULT_BENCHMARK_WARMUP_GAMES = "20";
+    public static final String DEFAULT_BENCHMARK_GAMES = "50";
+    public static final String DEFAULT_BENCHMARK_REPORT_FORMAT = "csv";
+    public static final String DEFAULT_BENCHMARK_REPORT_FILE = "";
+    public static final String DEFAULT_TOPOLOGY_TYPE = "ring";
+    public static final String DEFAULT_TOPOLOGY_NODES = "8";
+    public static final String DEFAULT_TOPOLOGY_MESSAGES = "1000";
+    public static final String DEFAULT_TOPOLOGY_DEGREE = "2";
+    public static final String DEFAULT_TOPOLOGY_SEED = "1";
+    public static final String DEFAULT_AFFINITY_INITIATOR_CPUS = "";
+    public static final String DEFAULT_AFFINITY_RESPONDER_CPUS = "";
+    public static final String DEFAULT_JOURNAL_ENABLED = "false";
+    public static final String DEFAULT_JOURNAL_DIRECTORY = "journal";
+    public static final String DEFAULT_JOURNAL_SEGMENT_SIZE = "67108864";
+    public static final String DEFAULT_REPLAY_PLAYER = "InitiatorThread";
+    public static final String DEFAULT_REPLAY_TARGET = "thread";
+    public static final String DEFAULT_REPLAY_PACING = "recorded";
+    public static final String DEFAULT_SERVER_MODE = "blocking";
+    public static final String DEFAULT_NIO_EVENT_LOOPS = "2";
+    public static final String DEFAULT_NIO_CONNECTIONS = "1";
+    public static final String DEFAULT_CONFIG_RELOAD_INTERVAL_MILLIS = "1000";
+    public static final String DEFAULT_METRICS_ENABLED = "false";
+    public static final String DEFAULT_LOG_ASYNC = "true";
+    public static final String DEFAULT_LOG_ASYNC_CAPACITY = "65536";
+    public static final String DEFAULT_LOG_FILE = "";
+    public static final String DEFAULT_METRICS_REPORT_INTERVAL_MILLIS = "0";
 
     private static final String CONFIG_FILE_PATH = "config.properties";
 
-    private static final Properties defaultProps = new Properties(getDefaults());
+    /**
+     * property file to load instead of the one on the class path, null for the one on the class path
+     */
+    private static volatile URL source;
+
+    /**
+     * values currently in effect. Replaced as a whole on reload, so readers never see a half loaded file.
+     */
+    private static volatile Snapshot snapshot = load();
+
+    /**
+     * System#nanoTime after which the property file is checked for changes again
+     */
+    private static volatile long nextCheck = System.nanoTime() + snapshot.reloadIntervalNanos;
 
     /**
      * Returns the value of the specified key from the property file, or failing that, from the defaults.
-     * Returns null if property is not found. This method reads directly from the property file every time, so that
-     * properties can be changed at runtime.
+     * Returns null if property is not found. The property file is parsed once, and parsed again when it has been
+     * modified, checked at most once per 'config.reload.interval.millis', so that properties can be changed at runtime.
      *
      * @param key key
      * @return value as String
      */
     public static String read(String key) {
-        try (InputStream input = Configuration.class.getClassLoader().getResourceAsStream(CONFIG_FILE_PATH)) {
-            if (input == null) {
-                System.out.println("config.properties not found.");
-            } else {
-                defaultProps.load(input);
+        return current().values.get(key);
+    }
+
+    /**
+     * @param key key
+     * @return value as int
+     * @throws NumberFormatException if the value is not an int.
+     */
+    public static int readInt(String key) {
+        Long value = current().longs.get(key);
+        if (value == null || value != value.intValue()) {
+            return Integer.parseInt(read(key));
+        }
+        return value.intValue();
+    }
+
+    /**
+     * @param key key
+     * @return value as long
+     * @throws NumberFormatException if the value is not a long.
+     */
+    public static long readLong(String key) {
+        Long value = current().longs.get(key);
+        return value == null ? Long.parseLong(read(key)) : value;
+    }
+
+    /**
+     * @param key key
+     * @return value as boolean, false if the value is not 'true' (case insensitive)
+     */
+    public static boolean readBoolean(String key) {
+        return Boolean.parseBoolean(read(key));
+    }
+
+    /**
+     * Loads the properties from the specified file from now on, so that tests can change properties without touching
+     * the file on the class path, which other tests read at the same time.
+     *
+     * @param url property file, null for the one on the class path
+     */
+    static void setSource(URL url) {
+        source = url;
+        reload();
+    }
+
+    /**
+     * Parses the property file again, whether it has been modified or not.
+     */
+    public static void reload() {
+        snapshot = load();
+        nextCheck = System.nanoTime() + snapshot.reloadIntervalNanos;
+    }
+
+    private static Snapshot current() {
+        Snapshot current = snapshot;
+        if (current.reloadIntervalNanos > 0 && System.nanoTime() - nextCheck >= 0) {
+            // several threads may get here at the same time, they would all load the same file
+            nextCheck = System.nanoTime() + current.reloadIntervalNanos;
+            if (lastModified(current.file) != current.lastModified) {
+                current = load();
+                snapshot = current;
+            }
+        }
+        return current;
+    }
+
+    private static Snapshot load() {
+        Properties properties = new Properties(getDefaults());
+        File file = null;
+        URL url = source != null ? source : Configuration.class.getClassLoader().getResource(CONFIG_FILE_PATH);
+        if (url == null) {
+            System.out.println("config.properties not found.");
+        } else {
+            if ("file".equals(url.getProtocol())) {
+                try {
+                    file = new File(url.toURI());
+                } catch (URISyntaxException | IllegalArgumentException e) {
+                    // not a plain file, it is loaded once and never reloaded
+                }
+            }
+            try (InputStream input = url.openStream()) {
+                properties.load(input);
+            } catch (IOException ex) {
+                ex.printStackTrace();
             }
+        }
+        return new Snapshot(properties, file);
+    }
+
+    private static long lastModified(File file) {
+        return file == null ? 0 : file.lastModified();
+    }
+
+    /**
+     * Immutable view of the properties, with the values already parsed into their types.
+     */
+    private static final class Snapshot {
+
+        private final Map<String, String> values;
+        private final Map<String, Long> longs;
+        /**
+         * property file that was loaded, null if it is not a plain file (eg. packaged in a jar)
+         */
+        private final File file;
+        private final long lastModified;
+        private final long reloadIntervalNanos;
 
-        } catch (IOException ex) {
-            ex.printStackTrace();
+        private Snapshot(Properties properties, File file) {
+            Map<String, String> values = new HashMap<>();
+            Map<String, Long> longs = new HashMap<>();
+            for (String key : properties.stringPropertyNames()) {
+                String value = properties.getProperty(key);
+                values.put(key, value);
+                try {
+                    longs.put(key, Long.parseLong(value.trim()));
+                } catch (NumberFormatException e) {
+                    // not a number
+                }
+            }
+            this.values = Collections.unmodifiableMap(values);
+            this.longs = Collections.unmodifiableMap(longs);
+            this.file = file;
+            this.lastModified = lastModified(file);
+            Long interval = longs.get(KEY_CONFIG_RELOAD_INTERVAL_MILLIS);
+            this.reloadIntervalNanos = file == null || interval == null ? 0 : TimeUnit.MILLISECONDS.toNanos(interval);
         }
-        return defaultProps.getProperty(key);
     }
 
     /**
@@ -65,6 +318,65 @@ public class Configuration {
         defaultProp.setProperty(KEY_INITIAL_MESSAGE_MAX, DEFAULT_INITIAL_MESSAGE_MAX);
         defaultProp.setProperty(KEY_VERBOSE_LOGGING, DEFAULT_verboseLogging);
         defaultProp.setProperty(KEY_PORT_NUMBER, DEFAULT_PORT_NUMBER);
+        defaultProp.setProperty(KEY_MAILBOX_TYPE, DEFAULT_MAILBOX_TYPE);
+        defaultProp.setProperty(KEY_MAILBOX_CAPACITY, DEFAULT_MAILBOX_CAPACITY);
+        defaultProp.setProperty(KEY_WAIT_STRATEGY, DEFAULT_WAIT_STRATEGY);
+        defaultProp.setProperty(KEY_MESSAGE_MODE, DEFAULT_MESSAGE_MODE);
+        defaultProp.setProperty(KEY_STOP_CONDITION_COMPACT_MAX, DEFAULT_STOP_CONDITION_COMPACT_MAX);
+        defaultProp.setProperty(KEY_THREAD_MODE, DEFAULT_THREAD_MODE);
+        defaultProp.setProperty(KEY_TOURNAMENT_PAIRS, DEFAULT_TOURNAMENT_PAIRS);
+        defaultProp.setProperty(KEY_TOURNAMENT_POOL_SIZE, DEFAULT_TOURNAMENT_POOL_SIZE);
+        defaultProp.setProperty(KEY_FLOW_POOL_SIZE, DEFAULT_FLOW_POOL_SIZE);
+        defaultProp.setProperty(KEY_FLOW_DEMAND_BATCH, DEFAULT_FLOW_DEMAND_BATCH);
+        defaultProp.setProperty(KEY_WIRE_FRAMING, DEFAULT_WIRE_FRAMING);
+        defaultProp.setProperty(KEY_WIRE_WINDOW, DEFAULT_WIRE_WINDOW);
+        defaultProp.setProperty(KEY_WIRE_WINDOW_BYTES, DEFAULT_WIRE_WINDOW_BYTES);
+        defaultProp.setProperty(KEY_WIRE_FLUSH_POLICY, DEFAULT_WIRE_FLUSH_POLICY);
+        defaultProp.setProperty(KEY_WIRE_TRANSPORT, DEFAULT_WIRE_TRANSPORT);
+        defaultProp.setProperty(KEY_WIRE_DIRECT_BUFFERS, DEFAULT_WIRE_DIRECT_BUFFERS);
+        defaultProp.setProperty(KEY_WIRE_DELTA, DEFAULT_WIRE_DELTA);
+        defaultProp.setProperty(KEY_WIRE_HEARTBEAT_INTERVAL_MILLIS, DEFAULT_WIRE_HEARTBEAT_INTERVAL_MILLIS);
+        defaultProp.setProperty(KEY_WIRE_IDLE_TIMEOUT_MILLIS, DEFAULT_WIRE_IDLE_TIMEOUT_MILLIS);
+        defaultProp.setProperty(KEY_WIRE_SHM_CAPACITY, DEFAULT_WIRE_SHM_CAPACITY);
+        defaultProp.setProperty(KEY_WIRE_SHM_WAIT_STRATEGY, DEFAULT_WIRE_SHM_WAIT_STRATEGY);
+        defaultProp.setProperty(KEY_WIRE_SHM_DIRECTORY, DEFAULT_WIRE_SHM_DIRECTORY);
+        defaultProp.setProperty(KEY_WIRE_FLUSH_BATCH, DEFAULT_WIRE_FLUSH_BATCH);
+        defaultProp.setProperty(KEY_WIRE_FLUSH_INTERVAL_MICROS, DEFAULT_WIRE_FLUSH_INTERVAL_MICROS);
+        defaultProp.setProperty(KEY_SOCKET_TCP_NODELAY, DEFAULT_SOCKET_TCP_NODELAY);
+        defaultProp.setProperty(KEY_SOCKET_SEND_BUFFER, DEFAULT_SOCKET_SEND_BUFFER);
+        defaultProp.setProperty(KEY_SOCKET_RECEIVE_BUFFER, DEFAULT_SOCKET_RECEIVE_BUFFER);
+        defaultProp.setProperty(KEY_CONNECT_INITIAL_DELAY_MILLIS, DEFAULT_CONNECT_INITIAL_DELAY_MILLIS);
+        defaultProp.setProperty(KEY_CONNECT_MAX_DELAY_MILLIS, DEFAULT_CONNECT_MAX_DELAY_MILLIS);
+        defaultProp.setProperty(KEY_CONNECT_DEADLINE_MILLIS, DEFAULT_CONNECT_DEADLINE_MILLIS);
+        defaultProp.setProperty(KEY_SESSION_GAMES, DEFAULT_SESSION_GAMES);
+        defaultProp.setProperty(KEY_BENCHMARK_STOP_CONDITIONS, DEFAULT_BENCHMARK_STOP_CONDITIONS);
+        defaultProp.setProperty(KEY_BENCHMARK_MESSAGE_SIZES, DEFAULT_BENCHMARK_MESSAGE_SIZES);
+        defaultProp.setProperty(KEY_BENCHMARK_WARMUP_GAMES, DEFAULT_BENCHMARK_WARMUP_GAMES);
+        defaultProp.setProperty(KEY_BENCHMARK_GAMES, DEFAULT_BENCHMARK_GAMES);
+        defaultProp.setProperty(KEY_BENCHMARK_REPORT_FORMAT, DEFAULT_BENCHMARK_REPORT_FORMAT);
+        defaultProp.setProperty(KEY_BENCHMARK_REPORT_FILE, DEFAULT_BENCHMARK_REPORT_FILE);
+        defaultProp.setProperty(KEY_TOPOLOGY_TYPE, DEFAULT_TOPOLOGY_TYPE);
+        defaultProp.setProperty(KEY_TOPOLOGY_NODES, DEFAULT_TOPOLOGY_NODES);
+        defaultProp.setProperty(KEY_TOPOLOGY_MESSAGES, DEFAULT_TOPOLOGY_MESSAGES);
+        defaultProp.setProperty(KEY_TOPOLOGY_DEGREE, DEFAULT_TOPOLOGY_DEGREE);
+        defaultProp.setProperty(KEY_TOPOLOGY_SEED, DEFAULT_TOPOLOGY_SEED);
+        defaultProp.setProperty(KEY_AFFINITY_INITIATOR_CPUS, DEFAULT_AFFINITY_INITIATOR_CPUS);
+        defaultProp.setProperty(KEY_AFFINITY_RESPONDER_CPUS, DEFAULT_AFFINITY_RESPONDER_CPUS);
+        defaultProp.setProperty(KEY_JOURNAL_ENABLED, DEFAULT_JOURNAL_ENABLED);
+        defaultProp.setProperty(KEY_JOURNAL_DIRECTORY, DEFAULT_JOURNAL_DIRECTORY);
+        defaultProp.setProperty(KEY_JOURNAL_SEGMENT_SIZE, DEFAULT_JOURNAL_SEGMENT_SIZE);
+        defaultProp.setProperty(KEY_REPLAY_PLAYER, DEFAULT_REPLAY_PLAYER);
+        defaultProp.setProperty(KEY_REPLAY_TARGET, DEFAULT_REPLAY_TARGET);
+        defaultProp.setProperty(KEY_REPLAY_PACING, DEFAULT_REPLAY_PACING);
+        defaultProp.setProperty(KEY_SERVER_MODE, DEFAULT_SERVER_MODE);
+        defaultProp.setProperty(KEY_NIO_EVENT_LOOPS, DEFAULT_NIO_EVENT_LOOPS);
+        defaultProp.setProperty(KEY_NIO_CONNECTIONS, DEFAULT_NIO_CONNECTIONS);
+        defaultProp.setProperty(KEY_CONFIG_RELOAD_INTERVAL_MILLIS, DEFAULT_CONFIG_RELOAD_INTERVAL_MILLIS);
+        defaultProp.setProperty(KEY_METRICS_ENABLED, DEFAULT_METRICS_ENABLED);
+        defaultProp.setProperty(KEY_LOG_ASYNC, DEFAULT_LOG_ASYNC);
+        defaultProp.setProperty(KEY_LOG_ASYNC_CAPACITY, DEFAULT_LOG_ASYNC_CAPACITY);
+        defaultProp.setProperty(KEY_LOG_FILE, DEFAULT_LOG_FILE);
+        defaultProp.setProperty(KEY_METRICS_REPORT_INTERVAL_MILLIS, DEFAULT_METRICS_REPORT_INTERVAL_MILLIS);
         return defaultProp;
     }
 }
@@ -0,0 +1,117 @@
+package common;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Fixed-size message record used by MessageMode#COMPACT. Instead of carrying the whole history of counters like
+ * the concatenated messages do, each message only carries the original payload, who sent it, its position in the
+ * game and the one counter that its sender appended. The size of a message therefore does not grow during a game.
+ * <p>
+ * The full concatenated text of any message can be reconstructed from the transcript of all messages up to it,
+ * see {@link #transcript(List)}.
+ */
+public final class Message {
+
+    private static final char SEPARATOR = '|';
+
+    /**
+     * the initial message of the game, shared by every message of the game
+     */
+    private final String payload;
+    /**
+     * name of the player that sent this message
+     */
+    private final String origin;
+    /**
+     * position of this message in the game. The initial message has sequence 0.
+     */
+    private final int sequence;
+    /**
+     * the counter appended by the sender (its received messages count at the time of sending)
+     */
+    private final int counter;
+
+    public Message(String payload, String origin, int sequence, int counter) {
+        this.payload = payload;
+        this.origin = origin;
+        this.sequence = sequence;
+        this.counter = counter;
+    }
+
+    /**
+     * @param origin name of the player sending the reply
+     * @param counter counter appended by that player
+     * @return the message that replies to this one
+     */
+    public Message reply(String origin, int counter) {
+        return new Message(payload, origin, sequence + 1, counter);
+    }
+
+    /**
+     * @return this message in its wire format: sequence|counter|origin|payload
+     */
+    public String encode() {
+        return sequence + "" + SEPARATOR + counter + SEPARATOR + origin + SEPARATOR + payload;
+    }
+
+    /**
+     * Parses a message from its wire format.
+     *
+     * @param encoded message in the format produced by {@link #encode()}
+     * @return message
+     */
+    public static Message decode(String encoded) {
+        int first = encoded.indexOf(SEPARATOR);
+        int second = encoded.indexOf(SEPARATOR, first + 1);
+        int third = encoded.indexOf(SEPARATOR, second + 1);
+        if (first < 0 || second < 0 || third < 0) {
+            throw new IllegalArgumentException("Not a compact message: " + encoded);
+        }
+        return new Message(encoded.substring(third + 1), encoded.substring(second + 1, third),
+                Integer.parseInt(encoded, 0, first, 10), Integer.parseInt(encoded, first + 1, second, 10));
+    }
+
+    /**
+     * Reconstructs the concatenated text (as sent in MessageMode#CONCATENATED) of each message of a game.
+     *
+     * @param messages all messages of a game in the order they were sent, starting with the initial message
+     * @return the concatenated text of each of the messages
+     */
+    public static List<String> transcript(List<Message> messages) {
+        List<String> texts = new ArrayList<>(messages.size());
+        StringBuilder text = new StringBuilder();
+        for (Message message : messages) {
+            if (message.sequence != texts.size()) {
+                throw new IllegalArgumentException("Missing message with sequence " + texts.size());
+            }
+            if (text.length() == 0) {
+                text.append(message.payload);
+            }
+            text.append(' ').append(message.counter);
+            texts.add(text.toString());
+        }
+        return texts;
+    }
+
+    public String getPayload() {
+        return payload;
+    }
+
+    public String getOrigin() {
+        return origin;
+    }
+
+    public int getSequence() {
+        return sequence;
+    }
+
+    public int getCounter() {
+        return counter;
+    }
+
+    @Override
+    public String toString() {
+        return encode();
+    }
+}
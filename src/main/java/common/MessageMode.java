@@ -0,0 +1,173 @@
+package common;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * Decides how a player builds the messages it sends.
+ */
+public enum MessageMode {
+
+    /**
+     * every message is the received message with the sender's counter appended, eg. "Hello 0 1 1 2".
+     * Message n is O(n) long, so a game costs O(n^2) in allocation and copying.
+     */
+    CONCATENATED {
+        @Override
+        public String initial(String payload, String origin, int counter) {
+            return payload + " " + counter;
+        }
+
+        @Override
+        public String reply(String received, String origin, int counter) {
+            return received + " " + counter;
+        }
+
+        @Override
+        public long maxLength(String payload, String origin, int stopCondition) {
+            // the payload followed by a space and a counter per message
+            return utf8Length(payload) + (long) stopCondition * (1 + digits(stopCondition));
+        }
+
+        @Override
+        public void reply(ByteBuffer received, int offset, int length, ByteBuffer reply, byte[] origin, int counter) {
+            copy(received, offset, length, reply);
+            reply.put((byte) ' ');
+            putDecimal(reply, counter);
+        }
+    },
+    /**
+     * every message is a fixed-size Message record (sequence, counter, origin, payload), so message size stays flat
+     * for any number of rounds. The concatenated text can be reconstructed with Message#transcript.
+     */
+    COMPACT {
+        @Override
+        public String initial(String payload, String origin, int counter) {
+            return new Message(payload, origin, 0, counter).encode();
+        }
+
+        @Override
+        public String reply(String received, String origin, int counter) {
+            return Message.decode(received).reply(origin, counter).encode();
+        }
+
+        @Override
+        public long maxLength(String payload, String origin, int stopCondition) {
+            // sequence|counter|origin|payload, the sequence being at most twice the stop condition
+            return digits(2 * stopCondition) + 1 + digits(stopCondition) + 1 + utf8Length(origin) + 1
+                    + utf8Length(payload);
+        }
+
+        @Override
+        public void reply(ByteBuffer received, int offset, int length, ByteBuffer reply, byte[] origin, int counter) {
+            // sequence|counter|origin|payload, see Message#encode
+            int end = offset + length;
+            int first = indexOf(received, offset, end, SEPARATOR);
+            int second = indexOf(received, first + 1, end, SEPARATOR);
+            int third = indexOf(received, second + 1, end, SEPARATOR);
+            if (first < 0 || second < 0 || third < 0) {
+                throw new IllegalArgumentException("Not a compact message");
+            }
+            int sequence = 0;
+            for (int i = offset; i < first; i++) {
+                sequence = 10 * sequence + (received.get(i) - '0');
+            }
+            putDecimal(reply, sequence + 1);
+            reply.put(SEPARATOR);
+            putDecimal(reply, counter);
+            reply.put(SEPARATOR);
+            reply.put(origin);
+            reply.put(SEPARATOR);
+            copy(received, third + 1, end - third - 1, reply);
+        }
+    };
+
+    private static final byte SEPARATOR = '|';
+
+    /**
+     * @param payload the initial message of the game
+     * @param origin name of the sending player
+     * @param counter counter to append
+     * @return the first message of a game
+     */
+    public abstract String initial(String payload, String origin, int counter);
+
+    /**
+     * @param received the message being replied to
+     * @param origin name of the sending player
+     * @param counter counter to append
+     * @return the reply to the received message
+     */
+    public abstract String reply(String received, String origin, int counter);
+
+    /**
+     * @param payload       the initial message of the game
+     * @param origin        name of the sending player
+     * @param stopCondition number of messages each player sends
+     * @return upper bound of the UTF-8 length in bytes of the messages the player sends in a game
+     */
+    public abstract long maxLength(String payload, String origin, int stopCondition);
+
+    /**
+     * Builds the reply to a UTF-8 encoded message straight into a buffer, without creating any object. The result is
+     * the UTF-8 encoding of reply(String, String, int).
+     *
+     * @param received buffer holding the message being replied to, its position and limit are not changed
+     * @param offset   index of the message in received
+     * @param length   length of the message in bytes
+     * @param reply    buffer the reply is put into, at its position. Must have enough room.
+     * @param origin   name of the sending player, UTF-8 encoded
+     * @param counter  counter to append
+     */
+    public abstract void reply(ByteBuffer received, int offset, int length, ByteBuffer reply, byte[] origin,
+                               int counter);
+
+    private static void copy(ByteBuffer from, int offset, int length, ByteBuffer to) {
+        to.put(to.position(), from, offset, length);
+        to.position(to.position() + length);
+    }
+
+    private static int indexOf(ByteBuffer buffer, int from, int to, byte value) {
+        for (int i = from; i < to; i++) {
+            if (buffer.get(i) == value) {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    private static int utf8Length(String s) {
+        return s.getBytes(StandardCharsets.UTF_8).length;
+    }
+
+    private static int digits(int value) {
+        int digits = 1;
+        for (int v = value; v >= 10; v /= 10) {
+            digits++;
+        }
+        return digits;
+    }
+
+    /**
+     * puts the decimal digits of a non-negative int
+     */
+    private static void putDecimal(ByteBuffer buffer, int value) {
+        int digits = digits(value);
+        int position = buffer.position();
+        for (int i = position + digits - 1; i >= position; i--) {
+            buffer.put(i, (byte) ('0' + value % 10));
+            value /= 10;
+        }
+        buffer.position(position + digits);
+    }
+
+    /**
+     * Parses the name of a message mode (case insensitive), eg. 'compact'.
+     *
+     * @param name name of the mode
+     * @return the mode
+     */
+    public static MessageMode of(String name) {
+        return valueOf(name.trim().toUpperCase());
+    }
+}
@@ -38,4 +38,32 @@ public class Stats {
     public void setPlayerSentMessagesCount(int playerSentMessagesCount) {
         this.playerSentMessagesCount = playerSentMessagesCount;
     }
+
+    /**
+     * Adds the counts of the given stats to these stats, eg. to aggregate the results of many games.
+     *
+     * @param other stats to add
+     * @throws ArithmeticException if a count overflows an int.
+     */
+    public void add(Stats other) {
+        initiatorSentMessagesCount = Math.addExact(initiatorSentMessagesCount, other.initiatorSentMessagesCount);
+        initiatorReceivedMessagesCount = Math.addExact(initiatorReceivedMessagesCount,
+                other.initiatorReceivedMessagesCount);
+        playerSentMessagesCount = Math.addExact(playerSentMessagesCount, other.playerSentMessagesCount);
+        playerReceivedMessagesCount = Math.addExact(playerReceivedMessagesCount, other.playerReceivedMessagesCount);
+    }
+
+    /**
+     * Checks, before playing them, that the counts of the given games can be added up.
+     *
+     * @param games         number of games
+     * @param stopCondition number of messages that each player of a game sends as well as receives
+     * @throws IllegalArgumentException if the total number of messages per count does not fit into an int.
+     */
+    public static void checkTotal(int games, int stopCondition) {
+        if ((long) games * stopCondition > Integer.MAX_VALUE) {
+            throw new IllegalArgumentException("Invalid number of games. At most " + Integer.MAX_VALUE / stopCondition
+                    + " games of " + stopCondition + " messages can be counted");
+        }
+    }
 }
@@ -0,0 +1,107 @@
+package common;
+
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+/**
+ * Decides which kind of threads the players run on.
+ * <p>
+ * The project is compiled for Java 17, so virtual threads (Java 21) are looked up reflectively. VIRTUAL fails with
+ * an UnsupportedOperationException on older runtimes.
+ */
+public enum ThreadMode {
+
+    /**
+     * classic platform (OS) threads
+     */
+    PLATFORM {
+        @Override
+        public ExecutorService newExecutor(int poolSize) {
+            return Executors.newFixedThreadPool(poolSize);
+        }
+
+        @Override
+        public Thread newThread(Runnable task, String name) {
+            return new Thread(task, name);
+        }
+    },
+    /**
+     * one virtual thread per task. Needs Java 21 or newer.
+     */
+    VIRTUAL {
+        @Override
+        public ExecutorService newExecutor(int poolSize) {
+            try {
+                return (ExecutorService) Executors.class.getMethod("newVirtualThreadPerTaskExecutor").invoke(null);
+            } catch (NoSuchMethodException e) {
+                throw new UnsupportedOperationException("Virtual threads require Java 21 or newer, running on "
+                        + System.getProperty("java.version"), e);
+            } catch (IllegalAccessException | InvocationTargetException e) {
+                throw new IllegalStateException("Unable to create a virtual thread executor", e);
+            }
+        }
+
+        @Override
+        public Thread newThread(Runnable task, String name) {
+            try {
+                // Thread.ofVirtual().name(name).unstarted(task)
+                Object builder = Thread.class.getMethod("ofVirtual").invoke(null);
+                Class<?> builderClass = Class.forName("java.lang.Thread$Builder");
+                builder = builderClass.getMethod("name", String.class).invoke(builder, name);
+                Method unstarted = builderClass.getMethod("unstarted", Runnable.class);
+                return (Thread) unstarted.invoke(builder, task);
+            } catch (NoSuchMethodException | ClassNotFoundException e) {
+                throw new UnsupportedOperationException("Virtual threads require Java 21 or newer, running on "
+                        + System.getProperty("java.version"), e);
+            } catch (IllegalAccessException | InvocationTargetException e) {
+                throw new IllegalStateException("Unable to create a virtual thread", e);
+            }
+        }
+    };
+
+    /**
+     * Creates an executor that runs each submitted player.
+     *
+     * @param poolSize number of threads in the pool. Ignored by VIRTUAL, which starts one thread per task.
+     * @return new executor
+     */
+    public abstract ExecutorService newExecutor(int poolSize);
+
+    /**
+     * Creates a new, not yet started thread of this kind.
+     *
+     * @param task what the thread runs
+     * @param name name of the thread
+     * @return new unstarted thread
+     */
+    public abstract Thread newThread(Runnable task, String name);
+
+    /**
+     * Runs the task on a new thread of this kind and waits for it to finish. Waiting with join() also makes sure that
+     * everything the task did is visible to the calling thread afterwards.
+     *
+     * @param task task to run
+     * @param name name of the thread
+     */
+    public void runAndWait(Runnable task, String name) {
+        Thread thread = newThread(task, name);
+        thread.start();
+        try {
+            thread.join();
+        } catch (InterruptedException e) {
+            e.printStackTrace();
+        }
+    }
+
+    /**
+     * Parses the name of a thread mode (case insensitive), eg. 'virtual'.
+     *
+     * @param name name of the mode
+     * @return the mode
+     */
+    public static ThreadMode of(String name) {
+        return valueOf(name.trim().toUpperCase());
+    }
+}
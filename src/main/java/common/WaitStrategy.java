@@ -0,0 +1,68 @@
+package common;
+
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Describes what a thread does while it waits for a lock-free structure (eg. a ring buffer) to become ready.
+ * The strategies trade CPU usage against wake-up latency.
+ */
+public enum WaitStrategy {
+
+    /**
+     * spins on the CPU. Lowest latency, but burns a full core per waiting thread. Only makes sense when each waiting
+     * thread has a core of its own.
+     */
+    BUSY_SPIN {
+        @Override
+        protected void doIdle() {
+            Thread.onSpinWait();
+        }
+    },
+    /**
+     * gives up the rest of the time slice to other runnable threads, then retries.
+     */
+    YIELD {
+        @Override
+        protected void doIdle() {
+            Thread.yield();
+        }
+    },
+    /**
+     * parks the thread for a short period, then retries. Cheapest on the CPU, but adds the park period to the latency.
+     */
+    PARK {
+        @Override
+        protected void doIdle() {
+            LockSupport.parkNanos(PARK_NANOS);
+        }
+    };
+
+    /**
+     * time that a parked thread sleeps before it checks again
+     */
+    private static final long PARK_NANOS = 1_000;
+
+    /**
+     * Waits once according to the strategy. Meant to be called in a loop that re-checks the awaited condition.
+     *
+     * @throws InterruptedException if the waiting thread has been interrupted.
+     */
+    public void idle() throws InterruptedException {
+        doIdle();
+        if (Thread.interrupted()) {
+            throw new InterruptedException();
+        }
+    }
+
+    protected abstract void doIdle();
+
+    /**
+     * Parses the name of a strategy (case insensitive), eg. 'busy_spin'.
+     *
+     * @param name name of the strategy
+     * @return the strategy
+     */
+    public static WaitStrategy of(String name) {
+        return valueOf(name.trim().toUpperCase());
+    }
+}
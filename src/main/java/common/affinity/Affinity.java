@@ -0,0 +1,120 @@
+package common.affinity;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Pins threads to a set of CPUs, so that the scheduler does not migrate them between cores (which costs their caches).
+ * <p>
+ * Java has no API for this, and the project does without native code, so on Linux the calling thread looks up its own
+ * native thread id in /proc/thread-self and lets 'taskset' (util-linux), which calls sched_setaffinity(2), change the
+ * affinity of that id. Anywhere else, or if taskset is missing or refuses, the thread is not pinned: pin() returns false
+ * and the game runs unpinned. Only platform threads can be pinned; a virtual thread would pin its carrier, which runs
+ * other virtual threads too.
+ */
+public final class Affinity {
+
+    private static final Path THREAD_SELF = Paths.get("/proc/thread-self");
+    private static final String TASKSET = "taskset";
+    private static final long TASKSET_TIMEOUT_SECONDS = 5;
+    private static final String CPUS_ALLOWED_LIST = "Cpus_allowed_list:";
+
+    private Affinity() {
+    }
+
+    /**
+     * @return true if threads can be pinned on this system at all (Linux with /proc/thread-self)
+     */
+    public static boolean isSupported() {
+        return System.getProperty("os.name", "").toLowerCase().startsWith("linux") && Files.isDirectory(THREAD_SELF);
+    }
+
+    /**
+     * Pins the calling thread to the given CPUs. Does nothing for the empty set.
+     *
+     * @param cpus CPUs that the calling thread may run on from now on
+     * @return true if the thread has been pinned, false if not (the reason has been printed to System.err)
+     */
+    public static boolean pin(CpuSet cpus) {
+        if (cpus.isEmpty()) {
+            return false;
+        }
+        String thread = Thread.currentThread().getName();
+        if (!isSupported()) {
+            System.err.println("Unable to pin " + thread + " to CPUs " + cpus + ": only supported on Linux");
+            return false;
+        }
+        try {
+            // the link points to <pid>/task/<tid>
+            String tid = Files.readSymbolicLink(THREAD_SELF).getFileName().toString();
+            Process taskset = new ProcessBuilder(TASKSET, "-p", "-c", cpus.toString(), tid)
+                    .redirectErrorStream(true).start();
+            String output = read(taskset.getInputStream());
+            if (!taskset.waitFor(TASKSET_TIMEOUT_SECONDS, TimeUnit.SECONDS)) {
+                taskset.destroyForcibly();
+                System.err.println("Unable to pin " + thread + " to CPUs " + cpus + ": taskset did not finish");
+                return false;
+            }
+            if (taskset.exitValue() != 0) {
+                System.err.println("Unable to pin " + thread + " to CPUs " + cpus + ": " + output.trim());
+                return false;
+            }
+            return true;
+        } catch (IOException e) {
+            System.err.println("Unable to pin " + thread + " to CPUs " + cpus + ": " + e.getMessage());
+            return false;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return false;
+        }
+    }
+
+    /**
+     * Wraps a task so that the thread running it pins itself before it starts the task.
+     *
+     * @param task task to run
+     * @param cpus CPUs to pin to, the task itself is returned for the empty set
+     * @return the wrapping task
+     */
+    public static Runnable pinned(Runnable task, CpuSet cpus) {
+        if (cpus.isEmpty()) {
+            return task;
+        }
+        return () -> {
+            pin(cpus);
+            task.run();
+        };
+    }
+
+    /**
+     * @return the CPUs that the calling thread may run on, empty if unknown (not on Linux)
+     */
+    public static CpuSet current() {
+        if (!isSupported()) {
+            return CpuSet.EMPTY;
+        }
+        try {
+            List<String> status = Files.readAllLines(THREAD_SELF.resolve("status"), StandardCharsets.US_ASCII);
+            for (String line : status) {
+                if (line.startsWith(CPUS_ALLOWED_LIST)) {
+                    return CpuSet.of(line.substring(CPUS_ALLOWED_LIST.length()));
+                }
+            }
+        } catch (IOException e) {
+            // unknown
+        }
+        return CpuSet.EMPTY;
+    }
+
+    private static String read(InputStream in) throws IOException {
+        try (in) {
+            return new String(in.readAllBytes(), StandardCharsets.UTF_8);
+        }
+    }
+}
@@ -0,0 +1,113 @@
+package common.affinity;
+
+import java.util.BitSet;
+
+/**
+ * An immutable set of logical CPUs, written in the list format of taskset and /sys, eg. '0-3,6'.
+ */
+public final class CpuSet {
+
+    /**
+     * no CPU at all, meaning 'not pinned'
+     */
+    public static final CpuSet EMPTY = new CpuSet(new BitSet());
+
+    private final BitSet cpus;
+
+    private CpuSet(BitSet cpus) {
+        this.cpus = cpus;
+    }
+
+    /**
+     * Parses a CPU list, eg. '0-3,6'. Blanks are ignored.
+     *
+     * @param list comma separated CPUs and ranges of CPUs, null or empty for the empty set
+     * @return the set
+     * @throws IllegalArgumentException if the list is malformed
+     */
+    public static CpuSet of(String list) {
+        if (list == null || list.isBlank()) {
+            return EMPTY;
+        }
+        BitSet cpus = new BitSet();
+        for (String part : list.split(",")) {
+            String range = part.trim();
+            try {
+                int dash = range.indexOf('-');
+                int first = Integer.parseInt((dash < 0 ? range : range.substring(0, dash)).trim());
+                int last = dash < 0 ? first : Integer.parseInt(range.substring(dash + 1).trim());
+                if (first < 0 || last < first) {
+                    throw new IllegalArgumentException("Invalid CPU range '" + range + "' in '" + list + "'");
+                }
+                cpus.set(first, last + 1);
+            } catch (NumberFormatException e) {
+                throw new IllegalArgumentException("Invalid CPU list '" + list + "'", e);
+            }
+        }
+        return new CpuSet(cpus);
+    }
+
+    /**
+     * @param cpus logical CPUs
+     * @return the set of the given CPUs
+     */
+    public static CpuSet of(int... cpus) {
+        BitSet set = new BitSet();
+        for (int cpu : cpus) {
+            set.set(cpu);
+        }
+        return new CpuSet(set);
+    }
+
+    public boolean isEmpty() {
+        return cpus.isEmpty();
+    }
+
+    public boolean contains(int cpu) {
+        return cpus.get(cpu);
+    }
+
+    /**
+     * @return true if both sets have a CPU in common
+     */
+    public boolean intersects(CpuSet other) {
+        return cpus.intersects(other.cpus);
+    }
+
+    /**
+     * @return the CPUs in ascending order
+     */
+    public int[] toArray() {
+        return cpus.stream().toArray();
+    }
+
+    /**
+     * @return the set in list format, ranges of three or more CPUs folded, eg. '0-3,6'. Empty for the empty set.
+     */
+    @Override
+    public String toString() {
+        StringBuilder list = new StringBuilder();
+        int first = cpus.nextSetBit(0);
+        while (first >= 0) {
+            int last = cpus.nextClearBit(first) - 1;
+            list.append(list.length() == 0 ? "" : ",").append(first);
+            if (last == first + 1) {
+                list.append(',').append(last);
+            } else if (last > first) {
+                list.append('-').append(last);
+            }
+            first = cpus.nextSetBit(last + 1);
+        }
+        return list.toString();
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        return o instanceof CpuSet && cpus.equals(((CpuSet) o).cpus);
+    }
+
+    @Override
+    public int hashCode() {
+        return cpus.hashCode();
+    }
+}
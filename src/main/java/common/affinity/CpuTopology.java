@@ -0,0 +1,134 @@
+package common.affinity;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+
+/**
+ * Which core and which socket (package) each online logical CPU belongs to, as read from /sys on Linux.
+ */
+public final class CpuTopology {
+
+    private static final Path CPU_DIRECTORY = Paths.get("/sys/devices/system/cpu");
+
+    private final int[] cpus;
+    /**
+     * core id and socket id of cpus[i], core ids are only unique within a socket
+     */
+    private final int[] cores;
+    private final int[] sockets;
+
+    /**
+     * @param cpus    online logical CPUs
+     * @param cores   core of each CPU
+     * @param sockets socket of each CPU
+     */
+    public CpuTopology(int[] cpus, int[] cores, int[] sockets) {
+        if (cores.length != cpus.length || sockets.length != cpus.length) {
+            throw new IllegalArgumentException("Invalid topology. Need a core and a socket for each CPU");
+        }
+        this.cpus = cpus.clone();
+        this.cores = cores.clone();
+        this.sockets = sockets.clone();
+    }
+
+    /**
+     * Reads the topology of the CPUs of this machine that the calling thread may run on (see Affinity#current()).
+     * Outside Linux, or if /sys cannot be read, all available processors are assumed to be separate cores of a single
+     * socket.
+     *
+     * @return the topology
+     */
+    public static CpuTopology read() {
+        return readAll().restrictTo(Affinity.current());
+    }
+
+    private static CpuTopology readAll() {
+        try {
+            int[] cpus = CpuSet.of(readLine(CPU_DIRECTORY.resolve("online"))).toArray();
+            int[] cores = new int[cpus.length];
+            int[] sockets = new int[cpus.length];
+            for (int i = 0; i < cpus.length; i++) {
+                Path topology = CPU_DIRECTORY.resolve("cpu" + cpus[i]).resolve("topology");
+                cores[i] = Integer.parseInt(readLine(topology.resolve("core_id")));
+                sockets[i] = Integer.parseInt(readLine(topology.resolve("physical_package_id")));
+            }
+            return new CpuTopology(cpus, cores, sockets);
+        } catch (IOException | RuntimeException e) {
+            int processors = Runtime.getRuntime().availableProcessors();
+            int[] cpus = new int[processors];
+            for (int i = 0; i < processors; i++) {
+                cpus[i] = i;
+            }
+            return new CpuTopology(cpus, cpus, new int[processors]);
+        }
+    }
+
+    /**
+     * @param allowed CPUs to keep, empty if unknown
+     * @return the topology of the allowed CPUs, this one if all of them are allowed or the allowed CPUs are unknown
+     */
+    public CpuTopology restrictTo(CpuSet allowed) {
+        if (allowed.isEmpty()) {
+            return this;
+        }
+        int count = 0;
+        for (int cpu : cpus) {
+            if (allowed.contains(cpu)) {
+                count++;
+            }
+        }
+        if (count == cpus.length) {
+            return this;
+        }
+        int[] allowedCpus = new int[count];
+        int[] allowedCores = new int[count];
+        int[] allowedSockets = new int[count];
+        for (int i = 0, j = 0; i < cpus.length; i++) {
+            if (allowed.contains(cpus[i])) {
+                allowedCpus[j] = cpus[i];
+                allowedCores[j] = cores[i];
+                allowedSockets[j++] = sockets[i];
+            }
+        }
+        return new CpuTopology(allowedCpus, allowedCores, allowedSockets);
+    }
+
+    /**
+     * Finds two CPUs placed relative to each other as given.
+     *
+     * @param placement how the two CPUs relate to each other
+     * @return the two CPUs, or null if this machine has no such pair (always for Placement#UNPINNED). The same CPU
+     * twice for Placement#SAME_CPU.
+     */
+    public int[] pair(Placement placement) {
+        for (int i = 0; i < cpus.length; i++) {
+            for (int j = placement == Placement.SAME_CPU ? i : i + 1; j < cpus.length; j++) {
+                if (placement.matches(i == j, sockets[i] == sockets[j], cores[i] == cores[j])) {
+                    return new int[]{cpus[i], cpus[j]};
+                }
+            }
+        }
+        return null;
+    }
+
+    public int getCpuCount() {
+        return cpus.length;
+    }
+
+    @Override
+    public String toString() {
+        StringBuilder description = new StringBuilder();
+        for (int i = 0; i < cpus.length; i++) {
+            description.append(i == 0 ? "" : ", ").append("cpu").append(cpus[i]).append(" (socket ")
+                    .append(sockets[i]).append(", core ").append(cores[i]).append(')');
+        }
+        return description.toString();
+    }
+
+    private static String readLine(Path file) throws IOException {
+        return new String(Files.readAllBytes(file), StandardCharsets.US_ASCII).trim();
+    }
+}
@@ -0,0 +1,57 @@
+package common.affinity;
+
+/**
+ * Where the two players of a game run relative to each other. The closer they are, the more caches they share, and the
+ * cheaper handing a message over is, as long as they do not compete for the same CPU.
+ */
+public enum Placement {
+
+    /**
+     * not pinned, the scheduler decides and may migrate the threads
+     */
+    UNPINNED,
+    /**
+     * both players pinned to one and the same logical CPU, they take turns
+     */
+    SAME_CPU,
+    /**
+     * two hyper-threads (SMT siblings) of the same physical core, sharing its L1 and L2 caches
+     */
+    SAME_CORE,
+    /**
+     * two different cores of the same socket, sharing its last level cache
+     */
+    SAME_SOCKET,
+    /**
+     * cores of two different sockets, messages cross the interconnect between them
+     */
+    CROSS_SOCKET;
+
+    /**
+     * @return true if two CPUs with the given relation are placed like this
+     */
+    boolean matches(boolean sameCpu, boolean sameSocket, boolean sameCore) {
+        switch (this) {
+            case SAME_CPU:
+                return sameCpu;
+            case SAME_CORE:
+                return !sameCpu && sameSocket && sameCore;
+            case SAME_SOCKET:
+                return sameSocket && !sameCore;
+            case CROSS_SOCKET:
+                return !sameSocket;
+            default:
+                return false;
+        }
+    }
+
+    /**
+     * Parses the name of a placement (case insensitive), eg. 'same_socket'.
+     *
+     * @param name name of the placement
+     * @return the placement
+     */
+    public static Placement of(String name) {
+        return valueOf(name.trim().toUpperCase());
+    }
+}
@@ -0,0 +1,27 @@
+package common.journal;
+
+/**
+ * Whether a journal record is a message that the player sent or one that it received.
+ */
+public enum Direction {
+
+    SENT(1),
+    RECEIVED(2);
+
+    /**
+     * code of the direction in a record, never 0, which marks the end of the records of a segment
+     */
+    final int code;
+
+    Direction(int code) {
+        this.code = code;
+    }
+
+    /**
+     * @param code code read from a record
+     * @return the direction, or null if the code is not one of a direction
+     */
+    static Direction of(int code) {
+        return code == SENT.code ? SENT : code == RECEIVED.code ? RECEIVED : null;
+    }
+}
@@ -0,0 +1,305 @@
+package common.journal;
+
+import common.Configuration;
+import common.Utf8;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * Append-only record of every message a player sends and receives, written to memory-mapped segment files, so that
+ * million-message games can be audited without the cost of console output.
+ * <p>
+ * The records of a player go to the files '&lt;player&gt;-&lt;index&gt;.journal' of the journal directory, each of
+ * 'journal.segment.size' bytes. A new journal continues after the segments already in the directory, so earlier runs
+ * are kept. Once a record does not fit into the rest of a segment, the next segment is mapped. Appending a record is a
+ * sequential copy into the mapped memory: no system call and, once the encoding buffer has grown to the largest
+ * message, no allocation. The operating system writes the pages back to the file, close() forces them to disk.
+ * <p>
+ * Layout of a segment (numbers in big endian)
+ * <pre>
+ *     int    magic 'JRNL'
+ *     int    version
+ *     int    index of the segment
+ *     int    length of the player name
+ *     long   time the journal was opened, in nanoseconds since the epoch
+ *     int    run, the index of the first segment of the journal
+ *     byte[] player name, UTF-8, up to 'HEADER_LENGTH' bytes from the start of the segment
+ *     records, each one
+ *         int    direction, see Direction, 0 after the last record
+ *         int    length of the payload
+ *         long   sequence, counted per direction from 1
+ *         long   timestamp, in nanoseconds since the epoch
+ *         byte[] payload, the message in UTF-8, padded to a multiple of 8 bytes
+ * </pre>
+ * The direction is written last, so a record that was cut short (eg. by a crash) ends the segment instead of being
+ * read half. A journal has a single writer: the player's own thread.
+ */
+public class Journal implements Closeable {
+
+    /**
+     * journal of a player whose messages are not recorded, appending does nothing
+     */
+    public static final Journal DISABLED = new Journal();
+
+    static final int MAGIC = 0x4A524E4C;
+    static final int VERSION = 2;
+    static final int HEADER_LENGTH = 128;
+    static final int RUN_OFFSET = 24;
+    static final int NAME_OFFSET = 28;
+    static final int RECORD_HEADER_LENGTH = 24;
+    static final String SUFFIX = ".journal";
+    private static final int MIN_SEGMENT_SIZE = 4096;
+
+    private final boolean enabled;
+    private final Path directory;
+    private final String player;
+    private final int segmentSize;
+    /**
+     * nanoseconds since the epoch and System#nanoTime when the journal was opened, timestamps are taken from the
+     * monotonic clock relative to these
+     */
+    private final long epochNanos;
+    private final long nanoTime;
+    /**
+     * index of the first segment of this journal, tells the runs of a player apart
+     */
+    private final int run;
+    private int segmentIndex;
+    private MappedByteBuffer segment;
+    private int position;
+    private long sentSequence;
+    private long receivedSequence;
+    private byte[] scratch = new byte[256];
+
+    private Journal() {
+        this.enabled = false;
+        this.directory = null;
+        this.player = "disabled";
+        this.segmentSize = 0;
+        this.epochNanos = 0;
+        this.nanoTime = 0;
+        this.run = 0;
+    }
+
+    /**
+     * Class constructor. Maps the first segment.
+     *
+     * @param directory   directory of the segment files, created if missing
+     * @param player      name of the player, also the prefix of the segment files
+     * @param segmentSize size of each segment file in bytes
+     * @throws IOException exception.
+     */
+    public Journal(Path directory, String player, int segmentSize) throws IOException {
+        if (segmentSize < MIN_SEGMENT_SIZE) {
+            throw new IllegalArgumentException("Invalid segment size " + segmentSize + ". Must be at least "
+                    + MIN_SEGMENT_SIZE);
+        }
+        this.enabled = true;
+        this.directory = directory;
+        this.player = player;
+        this.segmentSize = segmentSize;
+        this.epochNanos = System.currentTimeMillis() * 1_000_000;
+        this.nanoTime = System.nanoTime();
+        Files.createDirectories(directory);
+        this.segmentIndex = lastSegmentIndex(directory, player);
+        this.run = segmentIndex + 1;
+        roll();
+    }
+
+    /**
+     * Opens the journal of a player as configured by 'journal.enabled', 'journal.directory' and
+     * 'journal.segment.size'.
+     *
+     * @param player name of the player
+     * @return the journal, or DISABLED if journals are not enabled or the journal cannot be opened
+     */
+    public static Journal create(String player) {
+        if (!Configuration.readBoolean(Configuration.KEY_JOURNAL_ENABLED)) {
+            return DISABLED;
+        }
+        String directory = Configuration.read(Configuration.KEY_JOURNAL_DIRECTORY);
+        try {
+            return new Journal(Paths.get(directory.trim()), player,
+                    Configuration.readInt(Configuration.KEY_JOURNAL_SEGMENT_SIZE));
+        } catch (IOException e) {
+            System.err.println("Unable to open the journal of " + player + " in " + directory + ", not recording: "
+                    + e.getMessage());
+            return DISABLED;
+        }
+    }
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    /**
+     * Records a message that the player has sent.
+     */
+    public void sent(String message) {
+        if (enabled) {
+            append(Direction.SENT, ++sentSequence, message);
+        }
+    }
+
+    /**
+     * Records a message that the player has received.
+     */
+    public void received(String message) {
+        if (enabled) {
+            append(Direction.RECEIVED, ++receivedSequence, message);
+        }
+    }
+
+    /**
+     * Records a message that the player has sent, given as UTF-8 bytes.
+     *
+     * @param buffer buffer holding the message, its position and limit are not changed
+     * @param offset index of the first byte of the message in the buffer
+     * @param length length of the message in bytes
+     */
+    public void sent(ByteBuffer buffer, int offset, int length) {
+        if (enabled) {
+            append(Direction.SENT, ++sentSequence, buffer, offset, length);
+        }
+    }
+
+    /**
+     * Records a message that the player has received, given as UTF-8 bytes.
+     *
+     * @param buffer buffer holding the message, its position and limit are not changed
+     * @param offset index of the first byte of the message in the buffer
+     * @param length length of the message in bytes
+     */
+    public void received(ByteBuffer buffer, int offset, int length) {
+        if (enabled) {
+            append(Direction.RECEIVED, ++receivedSequence, buffer, offset, length);
+        }
+    }
+
+    /**
+     * Forces the records to disk. The journal must not be used afterwards.
+     */
+    @Override
+    public void close() {
+        if (segment != null) {
+            segment.force();
+            segment = null;
+        }
+    }
+
+    private void append(Direction direction, long sequence, String message) {
+        // UTF-8 needs at most 3 bytes per char
+        if (scratch.length < 3 * message.length()) {
+            scratch = new byte[Math.max(3 * message.length(), 2 * scratch.length)];
+        }
+        int length = Utf8.encode(message, scratch, 0);
+        int start = startRecord(length, sequence);
+        segment.put(start + RECORD_HEADER_LENGTH, scratch, 0, length);
+        endRecord(start, direction, length);
+    }
+
+    private void append(Direction direction, long sequence, ByteBuffer buffer, int offset, int length) {
+        int start = startRecord(length, sequence);
+        segment.put(start + RECORD_HEADER_LENGTH, buffer, offset, length);
+        endRecord(start, direction, length);
+    }
+
+    /**
+     * rolls over to the next segment if the record does not fit, writes all of its header but the direction
+     *
+     * @return offset of the record in the segment
+     */
+    private int startRecord(int length, long sequence) {
+        int recordLength = recordLength(length);
+        if (recordLength > segmentSize - HEADER_LENGTH) {
+            throw new IllegalArgumentException("Message of " + length + " bytes does not fit into a journal segment of "
+                    + segmentSize + " bytes");
+        }
+        if (position + recordLength > segmentSize) {
+            try {
+                roll();
+            } catch (IOException e) {
+                throw new IllegalStateException("Unable to map the next journal segment of " + player, e);
+            }
+        }
+        int start = position;
+        segment.putInt(start + 4, length);
+        segment.putLong(start + 8, sequence);
+        segment.putLong(start + 16, epochNanos + System.nanoTime() - nanoTime);
+        return start;
+    }
+
+    private void endRecord(int start, Direction direction, int length) {
+        segment.putInt(start, direction.code);
+        position = start + recordLength(length);
+    }
+
+    /**
+     * maps the next segment and writes its header
+     */
+    private void roll() throws IOException {
+        if (segment != null) {
+            segment.force();
+        }
+        segmentIndex++;
+        Path file = directory.resolve(segmentName(player, segmentIndex));
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.CREATE_NEW, StandardOpenOption.READ,
+                StandardOpenOption.WRITE)) {
+            // mapping beyond the end of the empty file extends it with zeros
+            segment = channel.map(FileChannel.MapMode.READ_WRITE, 0, segmentSize);
+        }
+        byte[] name = player.getBytes(StandardCharsets.UTF_8);
+        int nameLength = Math.min(name.length, HEADER_LENGTH - NAME_OFFSET);
+        segment.putInt(0, MAGIC);
+        segment.putInt(4, VERSION);
+        segment.putInt(8, segmentIndex);
+        segment.putInt(12, nameLength);
+        segment.putLong(16, epochNanos);
+        segment.putInt(RUN_OFFSET, run);
+        segment.put(NAME_OFFSET, name, 0, nameLength);
+        position = HEADER_LENGTH;
+    }
+
+    static int recordLength(int payloadLength) {
+        return (RECORD_HEADER_LENGTH + payloadLength + 7) & ~7;
+    }
+
+    /**
+     * @return name of the segment file, characters other than letters, digits, '.', '_' and '-' replaced by '_'
+     */
+    static String segmentName(String player, int index) {
+        return filePrefix(player) + String.format("%06d", index) + SUFFIX;
+    }
+
+    static String filePrefix(String player) {
+        return player.replaceAll("[^A-Za-z0-9._-]", "_") + "-";
+    }
+
+    /**
+     * @return highest index of the segments of the player in the directory, 0 if there are none
+     */
+    private static int lastSegmentIndex(Path directory, String player) throws IOException {
+        String prefix = filePrefix(player);
+        int last = 0;
+        try (DirectoryStream<Path> files = Files.newDirectoryStream(directory, prefix + "*" + SUFFIX)) {
+            for (Path file : files) {
+                String name = file.getFileName().toString();
+                String index = name.substring(prefix.length(), name.length() - SUFFIX.length());
+                if (index.matches("[0-9]+")) {
+                    last = Math.max(last, Integer.parseInt(index));
+                }
+            }
+        }
+        return last;
+    }
+}
@@ -0,0 +1,233 @@
+package common.journal;
+
+import common.Configuration;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Scans the segments written by Journal, record by record, in the order they were written.
+ * <p>
+ * Each segment is mapped read-only in turn. next() moves to the next record, the getters describe the current one.
+ * Only getMessage() allocates.
+ */
+public class JournalReader implements Closeable {
+
+    private final List<Path> segments;
+    private int nextSegment;
+    private MappedByteBuffer segment;
+    private String player;
+    private long openedEpochNanos;
+    private int run;
+    /**
+     * offset of the current record, and of the one after it
+     */
+    private int record = -1;
+    private int position;
+    private Direction direction;
+    private int length;
+
+    /**
+     * @param segments segment files, read in the given order
+     */
+    public JournalReader(List<Path> segments) {
+        this.segments = new ArrayList<>(segments);
+    }
+
+    /**
+     * Reads the segments of a player, or of all players, in the given directory.
+     *
+     * @param directory directory of the segment files
+     * @param player    name of the player, null or empty for all players (one player after the other)
+     * @return the reader
+     * @throws IOException exception.
+     */
+    public static JournalReader open(Path directory, String player) throws IOException {
+        List<Path> segments = new ArrayList<>();
+        String glob = player == null || player.isEmpty() ? "*" + Journal.SUFFIX
+                : Journal.filePrefix(player) + "[0-9]*" + Journal.SUFFIX;
+        try (DirectoryStream<Path> files = Files.newDirectoryStream(directory, glob)) {
+            files.forEach(segments::add);
+        }
+        // the index has a fixed width, so the names sort by player and then by index
+        segments.sort(null);
+        return new JournalReader(segments);
+    }
+
+    /**
+     * Moves to the next record, mapping the next segment if the current one has no more records.
+     *
+     * @return false if there are no more records
+     * @throws IOException if a segment cannot be read or is not a journal segment
+     */
+    public boolean next() throws IOException {
+        while (true) {
+            if (segment != null && position + Journal.RECORD_HEADER_LENGTH <= segment.capacity()) {
+                direction = Direction.of(segment.getInt(position));
+                if (direction != null) {
+                    length = segment.getInt(position + 4);
+                    if (length < 0 || position + Journal.recordLength(length) > segment.capacity()) {
+                        throw new IOException("Invalid record length " + length + " at " + position + " of segment "
+                                + segments.get(nextSegment - 1));
+                    }
+                    record = position;
+                    position += Journal.recordLength(length);
+                    return true;
+                }
+            }
+            if (nextSegment == segments.size()) {
+                segment = null;
+                return false;
+            }
+            map(segments.get(nextSegment++));
+        }
+    }
+
+    /**
+     * @return name of the player who wrote the current record
+     */
+    public String getPlayer() {
+        return player;
+    }
+
+    /**
+     * @return time the journal of the current record was opened, in nanoseconds since the epoch
+     */
+    public long getOpenedEpochNanos() {
+        return openedEpochNanos;
+    }
+
+    /**
+     * @return run of the current record, the index of the first segment of its journal. Unique among the runs of a
+     * player in one directory, unlike the opening time, which only has the resolution of the wall clock.
+     */
+    public int getRun() {
+        return run;
+    }
+
+    public Direction getDirection() {
+        return direction;
+    }
+
+    public long getSequence() {
+        return segment.getLong(record + 8);
+    }
+
+    /**
+     * @return time the message was sent or received, in nanoseconds since the epoch
+     */
+    public long getTimestamp() {
+        return segment.getLong(record + 16);
+    }
+
+    /**
+     * @return length of the message in bytes
+     */
+    public int getLength() {
+        return length;
+    }
+
+    public String getMessage() {
+        byte[] bytes = new byte[length];
+        segment.get(record + Journal.RECORD_HEADER_LENGTH, bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+
+    @Override
+    public void close() {
+        segment = null;
+        nextSegment = segments.size();
+    }
+
+    private void map(Path file) throws IOException {
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            segment = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+        }
+        if (segment.capacity() < Journal.HEADER_LENGTH || segment.getInt(0) != Journal.MAGIC) {
+            throw new IOException(file + " is not a journal segment");
+        }
+        if (segment.getInt(4) != Journal.VERSION) {
+            throw new IOException(file + " has version " + segment.getInt(4) + ", expected " + Journal.VERSION);
+        }
+        byte[] name = new byte[segment.getInt(12)];
+        segment.get(Journal.NAME_OFFSET, name);
+        player = new String(name, StandardCharsets.UTF_8);
+        openedEpochNanos = segment.getLong(16);
+        run = segment.getInt(Journal.RUN_OFFSET);
+        position = Journal.HEADER_LENGTH;
+    }
+
+    /**
+     * Run this to print the records of a journal, or a summary per player.
+     *
+     * @param args if args are not supplied, defaults will be used.
+     *             args[0] -> directory (String, directory of the segment files)
+     *             args[1] -> player (String, name of the player, empty for all)
+     *             args[2] -> records (boolean, whether to print every record rather than the summary only)
+     */
+    public static void main(String[] args) throws IOException {
+        Path directory = Paths.get(args.length > 0 ? args[0] : Configuration.read(Configuration.KEY_JOURNAL_DIRECTORY));
+        String player = args.length > 1 ? args[1] : "";
+        boolean records = args.length > 2 && Boolean.parseBoolean(args[2]);
+
+        Map<String, Summary> summaries = new LinkedHashMap<>();
+        try (JournalReader reader = open(directory, player)) {
+            while (reader.next()) {
+                if (records) {
+                    System.out.println(reader.getTimestamp() + " " + reader.getPlayer() + " " + reader.getDirection()
+                            + " " + reader.getSequence() + " " + reader.getMessage());
+                }
+                summaries.computeIfAbsent(reader.getPlayer(), Summary::new).add(reader);
+            }
+        }
+        if (summaries.isEmpty()) {
+            System.out.println("no journal records found in " + directory.toAbsolutePath());
+        }
+        summaries.values().forEach(System.out::println);
+    }
+
+    /**
+     * counts of the records of one player
+     */
+    private static final class Summary {
+        private final String player;
+        private long sent;
+        private long received;
+        private long bytes;
+        private long first = Long.MAX_VALUE;
+        private long last = Long.MIN_VALUE;
+
+        private Summary(String player) {
+            this.player = player;
+        }
+
+        private void add(JournalReader reader) {
+            if (reader.getDirection() == Direction.SENT) {
+                sent++;
+            } else {
+                received++;
+            }
+            bytes += reader.getLength();
+            first = Math.min(first, reader.getTimestamp());
+            last = Math.max(last, reader.getTimestamp());
+        }
+
+        @Override
+        public String toString() {
+            return player + " sent " + sent + " messages and received " + received + " messages, " + bytes
+                    + " bytes in " + (last - first) / 1_000_000 + " ms";
+        }
+    }
+}
@@ -0,0 +1,95 @@
+package common.logging;
+
+import java.io.PrintStream;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Log backend that takes records from the players through a LogRing and leaves formatting and console or file I/O to
+ * a background drain thread. A player logging a message only pays for a CAS and four reference stores. When the ring
+ * is full the record is dropped and counted, the drain thread reports the number of dropped records.
+ */
+final class AsyncLog {
+
+    /**
+     * records drained (and written with a single print) at most per batch
+     */
+    private static final int BATCH_SIZE = 1024;
+    private static final long MIN_IDLE_NANOS = TimeUnit.MICROSECONDS.toNanos(50);
+    private static final long MAX_IDLE_NANOS = TimeUnit.MILLISECONDS.toNanos(1);
+
+    private final LogRing ring;
+    private final PrintStream out;
+    private final LongAdder dropped = new LongAdder();
+    private final StringBuilder batch = new StringBuilder();
+    private final LogRing.RecordHandler formatter = (prefix, name, text, detail) -> {
+        if (prefix != null) {
+            batch.append(prefix);
+        }
+        batch.append(name).append(": ").append(text);
+        if (detail != null) {
+            batch.append(detail);
+        }
+        batch.append(System.lineSeparator());
+    };
+    /**
+     * number of records drained and flushed to the output
+     */
+    private volatile long written;
+    private long reportedDrops;
+
+    /**
+     * @param capacity number of records the ring holds
+     * @param out      where the drain thread writes to
+     */
+    AsyncLog(int capacity, PrintStream out) {
+        this.ring = new LogRing(capacity);
+        this.out = out;
+        Thread drainer = new Thread(this::drainLoop, "AsyncLog");
+        drainer.setDaemon(true);
+        drainer.start();
+    }
+
+    void log(String prefix, String name, String text, String detail) {
+        if (!ring.offer(prefix, name, text, detail)) {
+            dropped.increment();
+        }
+    }
+
+    /**
+     * Waits until the records logged before the call have been written, at most one second.
+     */
+    void flush() {
+        long target = ring.claimed();
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(1);
+        while (written < target && System.nanoTime() - deadline < 0) {
+            LockSupport.parkNanos(MIN_IDLE_NANOS);
+        }
+    }
+
+    private void drainLoop() {
+        long idle = MIN_IDLE_NANOS;
+        while (true) {
+            int count = ring.drain(formatter, BATCH_SIZE);
+            long drops = dropped.sum();
+            if (drops != reportedDrops) {
+                batch.append("AsyncLog: ").append(drops - reportedDrops).append(" records dropped, ring full (")
+                        .append(drops).append(" in total)").append(System.lineSeparator());
+                reportedDrops = drops;
+            }
+            if (batch.length() > 0) {
+                out.print(batch);
+                out.flush();
+                batch.setLength(0);
+            }
+            written = ring.drained();
+            if (count == 0) {
+                LockSupport.parkNanos(idle);
+                idle = Math.min(2 * idle, MAX_IDLE_NANOS);
+            } else {
+                idle = MIN_IDLE_NANOS;
+            }
+        }
+    }
+}
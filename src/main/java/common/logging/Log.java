@@ -0,0 +1,65 @@
+package common.logging;
+
+import common.Configuration;
+
+import java.io.BufferedOutputStream;
+import java.io.FileNotFoundException;
+import java.io.FileOutputStream;
+import java.io.PrintStream;
+
+/**
+ * Verbose logging of the players. A record is printed as 'prefix' + 'name: ' + text + detail.
+ * <p>
+ * With 'log.async=true' records go through a ring buffer of 'log.async.capacity' records to a background thread,
+ * which writes them to 'log.file', or to the console if no file is set. Otherwise they are printed to the console
+ * right away, by the logging thread.
+ */
+public final class Log {
+
+    private static final AsyncLog async = createAsyncLog();
+
+    private Log() {
+    }
+
+    /**
+     * @param prefix printed before the name, may be null
+     * @param name   name of the player
+     * @param text   text of the record
+     * @param detail printed right after the text, may be null. Passing the message here rather than concatenating it
+     *               to the text leaves building the line to the drain thread.
+     */
+    public static void log(String prefix, String name, String text, String detail) {
+        if (async != null) {
+            async.log(prefix, name, text, detail);
+        } else {
+            System.out.println((prefix == null ? "" : prefix) + name + ": " + text + (detail == null ? "" : detail));
+        }
+    }
+
+    /**
+     * Waits until the records logged so far have been written, so that they appear before what is printed next.
+     */
+    public static void flush() {
+        if (async != null) {
+            async.flush();
+        }
+    }
+
+    private static AsyncLog createAsyncLog() {
+        if (!Configuration.readBoolean(Configuration.KEY_LOG_ASYNC)) {
+            return null;
+        }
+        PrintStream out = System.out;
+        String file = Configuration.read(Configuration.KEY_LOG_FILE);
+        if (file != null && !file.trim().isEmpty()) {
+            try {
+                out = new PrintStream(new BufferedOutputStream(new FileOutputStream(file.trim(), true), 1 << 16));
+            } catch (FileNotFoundException e) {
+                System.err.println("Unable to open log file " + file + ", logging to the console: " + e.getMessage());
+            }
+        }
+        AsyncLog log = new AsyncLog(Configuration.readInt(Configuration.KEY_LOG_ASYNC_CAPACITY), out);
+        Runtime.getRuntime().addShutdownHook(new Thread(log::flush, "AsyncLogFlush"));
+        return log;
+    }
+}
@@ -0,0 +1,124 @@
+package common.logging;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Bounded lock-free ring of log records for many producers (the players) and a single consumer (the drain thread).
+ * <p>
+ * A record is four references (prefix, player name, text and detail) stored in preallocated parallel arrays, so
+ * logging allocates nothing and formats nothing on the producer side. A producer claims a slot with a CAS on the
+ * tail, fills it and publishes it by writing the slot's sequence; a full ring is reported to the caller instead of
+ * waiting.
+ */
+final class LogRing {
+
+    /**
+     * receives the records drained from the ring
+     */
+    interface RecordHandler {
+        void handle(String prefix, String name, String text, String detail);
+    }
+
+    private final String[] prefixes;
+    private final String[] names;
+    private final String[] texts;
+    private final String[] details;
+    /**
+     * per slot, sequence + 1 of the record it holds once published
+     */
+    private final AtomicLongArray published;
+    private final int mask;
+    /**
+     * sequence of the next slot to claim
+     */
+    private final AtomicLong tail = new AtomicLong();
+    /**
+     * sequence of the next slot to drain. Only written by the consumer.
+     */
+    private final AtomicLong head = new AtomicLong();
+
+    /**
+     * @param capacity minimum number of records, rounded up to the next power of two
+     */
+    LogRing(int capacity) {
+        if (capacity < 1) {
+            throw new IllegalArgumentException("Invalid capacity " + capacity + ". Must be at least 1");
+        }
+        int size = Integer.highestOneBit(capacity);
+        if (size < capacity) {
+            size <<= 1;
+        }
+        prefixes = new String[size];
+        names = new String[size];
+        texts = new String[size];
+        details = new String[size];
+        published = new AtomicLongArray(size);
+        mask = size - 1;
+    }
+
+    /**
+     * Appends a record, never waits.
+     *
+     * @return false if the ring is full and the record was not appended
+     */
+    boolean offer(String prefix, String name, String text, String detail) {
+        long t;
+        do {
+            t = tail.get();
+            if (t - head.get() > mask) {
+                return false;
+            }
+        } while (!tail.compareAndSet(t, t + 1));
+        int i = (int) t & mask;
+        prefixes[i] = prefix;
+        names[i] = name;
+        texts[i] = text;
+        details[i] = detail;
+        // release store, publishes the record to the consumer
+        published.lazySet(i, t + 1);
+        return true;
+    }
+
+    /**
+     * Hands the published records, in order, to the handler and frees their slots. Single consumer only.
+     *
+     * @param handler receives the records
+     * @param max     maximum number of records to drain
+     * @return number of records drained
+     */
+    int drain(RecordHandler handler, int max) {
+        long h = head.get();
+        int count = 0;
+        while (count < max) {
+            int i = (int) h & mask;
+            if (published.get(i) != h + 1) {
+                break;
+            }
+            handler.handle(prefixes[i], names[i], texts[i], details[i]);
+            prefixes[i] = null;
+            names[i] = null;
+            texts[i] = null;
+            details[i] = null;
+            h++;
+            count++;
+        }
+        // release store, the producers may reuse the slots
+        head.lazySet(h);
+        return count;
+    }
+
+    /**
+     * @return number of records claimed so far, drained or not
+     */
+    long claimed() {
+        return tail.get();
+    }
+
+    /**
+     * @return number of records drained so far
+     */
+    long drained() {
+        return head.get();
+    }
+}
@@ -0,0 +1,105 @@
+package common.metrics;
+
+import common.Configuration;
+
+import javax.management.JMException;
+import javax.management.MBeanServer;
+import javax.management.ObjectName;
+import java.lang.management.ManagementFactory;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Keeps track of the PlayerMetrics of the running games, so that they can be watched while the games are running:
+ * through JMX (jconsole, VisualVM, ...), and as a line per player printed every 'metrics.report.interval.millis'.
+ * <p>
+ * Metrics are only collected if 'metrics.enabled' is true, otherwise the players get PlayerMetrics#DISABLED.
+ */
+public final class MetricsRegistry {
+
+    private static final String JMX_DOMAIN = "player.metrics";
+
+    private static final Map<String, PlayerMetrics> metrics = new ConcurrentHashMap<>();
+    private static final AtomicInteger ids = new AtomicInteger();
+    private static ScheduledExecutorService reporter;
+
+    private MetricsRegistry() {
+    }
+
+    /**
+     * Creates and registers the metrics of a player, if metrics are enabled.
+     *
+     * @param name name of the player (or group of players), made unique if already in use
+     * @return registered metrics, or PlayerMetrics#DISABLED if metrics are not enabled.
+     */
+    public static PlayerMetrics create(String name) {
+        if (!Configuration.readBoolean(Configuration.KEY_METRICS_ENABLED)) {
+            return PlayerMetrics.DISABLED;
+        }
+        PlayerMetrics playerMetrics = new PlayerMetrics(name);
+        String key = name;
+        while (metrics.putIfAbsent(key, playerMetrics) != null) {
+            key = name + "#" + ids.incrementAndGet();
+        }
+        try {
+            MBeanServer server = ManagementFactory.getPlatformMBeanServer();
+            server.registerMBean(playerMetrics, objectName(key));
+        } catch (JMException e) {
+            System.err.println("Unable to register metrics of " + key + " with JMX: " + e.getMessage());
+        }
+        startReporter();
+        return playerMetrics;
+    }
+
+    /**
+     * Prints the final metrics of a player and stops tracking them. Does nothing for PlayerMetrics#DISABLED.
+     *
+     * @param playerMetrics metrics returned by create
+     */
+    public static void remove(PlayerMetrics playerMetrics) {
+        if (!playerMetrics.isEnabled()) {
+            return;
+        }
+        System.out.println(playerMetrics);
+        metrics.forEach((key, value) -> {
+            if (value == playerMetrics && metrics.remove(key, value)) {
+                try {
+                    ManagementFactory.getPlatformMBeanServer().unregisterMBean(objectName(key));
+                } catch (JMException e) {
+                    // was not registered
+                }
+            }
+        });
+    }
+
+    /**
+     * @return metrics of all the players currently tracked
+     */
+    public static Collection<PlayerMetrics> all() {
+        return new ArrayList<>(metrics.values());
+    }
+
+    private static ObjectName objectName(String key) throws JMException {
+        return new ObjectName(JMX_DOMAIN + ":type=Player,name=" + ObjectName.quote(key));
+    }
+
+    private static synchronized void startReporter() {
+        long interval = Configuration.readLong(Configuration.KEY_METRICS_REPORT_INTERVAL_MILLIS);
+        if (reporter != null || interval <= 0) {
+            return;
+        }
+        reporter = Executors.newSingleThreadScheduledExecutor(task -> {
+            Thread thread = new Thread(task, "MetricsReporter");
+            thread.setDaemon(true);
+            return thread;
+        });
+        reporter.scheduleAtFixedRate(() -> metrics.values().forEach(System.out::println), interval, interval,
+                TimeUnit.MILLISECONDS);
+    }
+}
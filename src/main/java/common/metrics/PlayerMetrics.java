@@ -0,0 +1,306 @@
+package common.metrics;
+
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Function;
+import java.util.function.ToLongFunction;
+
+/**
+ * Live metrics of one player, or of a group of players (eg. all the initiators of a Tournament). Everything can be read
+ * at any time from any thread while the game is running.
+ * <p>
+ * Counters are LongAdders and histograms are lock-free, so recording never makes a player wait for a reader. The
+ * players of a group each record into a part of their own (see {@link #part(String)}), so they never contend on the
+ * same counters either; the getters of the group add up its parts. A disabled instance records nothing, and the
+ * players do not even read the clock for it.
+ * <p>
+ * Bytes are counted as the UTF-8 length of the messages.
+ *
+ * @see MetricsRegistry
+ */
+public class PlayerMetrics implements PlayerMetricsMXBean {
+
+    /**
+     * shared instance for players without metrics
+     */
+    public static final PlayerMetrics DISABLED = new PlayerMetrics("disabled", false);
+
+    private final String name;
+    private final boolean enabled;
+    private final long startNanos = System.nanoTime();
+    private final LongAdder sentMessages = new LongAdder();
+    private final LongAdder receivedMessages = new LongAdder();
+    private final LongAdder bytesSent = new LongAdder();
+    private final LongAdder bytesReceived = new LongAdder();
+    /**
+     * from sending a message to receiving the reply, measured by the sender
+     */
+    private final LatencyHistogram roundTrip = new LatencyHistogram();
+    /**
+     * from putting a message into a mailbox to taking it out, only measured between threads of the same JVM
+     */
+    private final LatencyHistogram hop = new LatencyHistogram();
+    /**
+     * time the player spends waiting for the next message
+     */
+    private final LatencyHistogram queueWait = new LatencyHistogram();
+    /**
+     * metrics of the players of this group, each recorded by its own player
+     */
+    private final List<PlayerMetrics> parts = new CopyOnWriteArrayList<>();
+
+    /**
+     * Class constructor. Use MetricsRegistry#create to get metrics that can be watched while the game runs.
+     *
+     * @param name name of the player (or group of players)
+     */
+    public PlayerMetrics(String name) {
+        this(name, true);
+    }
+
+    private PlayerMetrics(String name, boolean enabled) {
+        this.name = name;
+        this.enabled = enabled;
+    }
+
+    /**
+     * Creates the metrics of one player of this group. The getters of this instance include everything recorded
+     * into the part.
+     *
+     * @param name name of the player
+     * @return metrics for the player to record into, PlayerMetrics#DISABLED if this is disabled
+     */
+    public PlayerMetrics part(String name) {
+        if (!enabled) {
+            return DISABLED;
+        }
+        PlayerMetrics part = new PlayerMetrics(name);
+        parts.add(part);
+        return part;
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    /**
+     * @return System#nanoTime, or 0 without reading the clock if disabled
+     */
+    public long now() {
+        return enabled ? System.nanoTime() : 0;
+    }
+
+    /**
+     * Records a message that has been sent.
+     *
+     * @param message    message
+     * @param sendStart  now() when the player started sending the message
+     * @param roundTrips round trips of the sending player
+     */
+    public void sent(String message, long sendStart, RoundTrips roundTrips) {
+        sent(enabled ? utf8Length(message) : 0, sendStart, roundTrips);
+    }
+
+    /**
+     * Records a message that has been sent.
+     *
+     * @param length     length of the message in bytes
+     * @param sendStart  now() when the player started sending the message
+     * @param roundTrips round trips of the sending player
+     */
+    public void sent(int length, long sendStart, RoundTrips roundTrips) {
+        if (enabled) {
+            roundTrips.sent(sendStart);
+            sentMessages.increment();
+            bytesSent.add(length);
+        }
+    }
+
+    /**
+     * Records a message that has been received.
+     *
+     * @param message    message
+     * @param waitStart  now() when the player started waiting for the message
+     * @param roundTrips round trips of the receiving player
+     */
+    public void received(String message, long waitStart, RoundTrips roundTrips) {
+        received(message == null || !enabled ? 0 : utf8Length(message), waitStart, roundTrips);
+    }
+
+    /**
+     * Records a message that has been received.
+     *
+     * @param length     length of the message in bytes
+     * @param waitStart  now() when the player started waiting for the message
+     * @param roundTrips round trips of the receiving player
+     */
+    public void received(int length, long waitStart, RoundTrips roundTrips) {
+        if (enabled) {
+            long now = System.nanoTime();
+            queueWait.record(now - waitStart);
+            long rtt = roundTrips.received(now);
+            if (rtt >= 0) {
+                roundTrip.record(rtt);
+            }
+            receivedMessages.increment();
+            bytesReceived.add(length);
+        }
+    }
+
+    /**
+     * @param nanos time a message spent between two players
+     */
+    public void recordHop(long nanos) {
+        if (enabled) {
+            hop.record(nanos);
+        }
+    }
+
+    /**
+     * @return round trips recorded by this player, or by all the players of the group, as a copy
+     */
+    public LatencyHistogram getRoundTrip() {
+        return merge(metrics -> metrics.roundTrip);
+    }
+
+    /**
+     * @return hops recorded by this player, or by all the players of the group, as a copy
+     */
+    public LatencyHistogram getHop() {
+        return merge(metrics -> metrics.hop);
+    }
+
+    /**
+     * @return queue waits recorded by this player, or by all the players of the group, as a copy
+     */
+    public LatencyHistogram getQueueWait() {
+        return merge(metrics -> metrics.queueWait);
+    }
+
+    @Override
+    public long getSentMessages() {
+        return sum(metrics -> metrics.sentMessages.sum());
+    }
+
+    @Override
+    public long getReceivedMessages() {
+        return sum(metrics -> metrics.receivedMessages.sum());
+    }
+
+    @Override
+    public long getBytesSent() {
+        return sum(metrics -> metrics.bytesSent.sum());
+    }
+
+    @Override
+    public long getBytesReceived() {
+        return sum(metrics -> metrics.bytesReceived.sum());
+    }
+
+    private long sum(ToLongFunction<PlayerMetrics> counter) {
+        long sum = counter.applyAsLong(this);
+        for (PlayerMetrics part : parts) {
+            sum += part.sum(counter);
+        }
+        return sum;
+    }
+
+    private LatencyHistogram merge(Function<PlayerMetrics, LatencyHistogram> histogram) {
+        LatencyHistogram merged = new LatencyHistogram();
+        merged.add(histogram.apply(this));
+        for (PlayerMetrics part : parts) {
+            merged.add(part.merge(histogram));
+        }
+        return merged;
+    }
+
+    /**
+     * @return number of bytes of the UTF-8 encoding of the message, without encoding it
+     */
+    private static int utf8Length(String message) {
+        int length = message.length();
+        for (int i = 0; i < message.length(); i++) {
+            char c = message.charAt(i);
+            if (c >= 0x800) {
+                // 3 bytes, or 4 for a surrogate pair, which counts 2 chars
+                length += Character.isSurrogate(c) ? 1 : 2;
+            } else if (c >= 0x80) {
+                length++;
+            }
+        }
+        return length;
+    }
+
+    @Override
+    public double getThroughput() {
+        double seconds = (System.nanoTime() - startNanos) / 1e9;
+        return seconds > 0 ? getReceivedMessages() / seconds : 0;
+    }
+
+    @Override
+    public double getRoundTripP50Micros() {
+        return micros(getRoundTrip().getValueAtPercentile(50));
+    }
+
+    @Override
+    public double getRoundTripP99Micros() {
+        return micros(getRoundTrip().getValueAtPercentile(99));
+    }
+
+    @Override
+    public double getRoundTripP999Micros() {
+        return micros(getRoundTrip().getValueAtPercentile(99.9));
+    }
+
+    @Override
+    public double getRoundTripMaxMicros() {
+        return micros(getRoundTrip().getMax());
+    }
+
+    @Override
+    public double getHopP50Micros() {
+        return micros(getHop().getValueAtPercentile(50));
+    }
+
+    @Override
+    public double getHopP99Micros() {
+        return micros(getHop().getValueAtPercentile(99));
+    }
+
+    @Override
+    public double getQueueWaitP50Micros() {
+        return micros(getQueueWait().getValueAtPercentile(50));
+    }
+
+    @Override
+    public double getQueueWaitP99Micros() {
+        return micros(getQueueWait().getValueAtPercentile(99));
+    }
+
+    private static double micros(long nanos) {
+        return nanos / 1000.0;
+    }
+
+    /**
+     * @return one line snapshot of the metrics, latencies in microseconds
+     */
+    @Override
+    public String toString() {
+        // merged once, the parts of a group can be many
+        LatencyHistogram roundTrip = getRoundTrip();
+        LatencyHistogram hop = getHop();
+        LatencyHistogram queueWait = getQueueWait();
+        return String.format("%s sent %d (%d bytes) received %d (%d bytes), %.0f msg/s, round trip p50 %.1f p99 %.1f"
+                        + " p99.9 %.1f max %.1f, hop p50 %.1f p99 %.1f, queue wait p50 %.1f p99 %.1f",
+                name, getSentMessages(), getBytesSent(), getReceivedMessages(), getBytesReceived(), getThroughput(),
+                micros(roundTrip.getValueAtPercentile(50)), micros(roundTrip.getValueAtPercentile(99)),
+                micros(roundTrip.getValueAtPercentile(99.9)), micros(roundTrip.getMax()),
+                micros(hop.getValueAtPercentile(50)), micros(hop.getValueAtPercentile(99)),
+                micros(queueWait.getValueAtPercentile(50)), micros(queueWait.getValueAtPercentile(99)));
+    }
+}
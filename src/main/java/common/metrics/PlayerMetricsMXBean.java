@@ -0,0 +1,37 @@
+package common.metrics;
+
+/**
+ * Management interface of PlayerMetrics, registered with the platform MBean server under
+ * 'player.metrics:type=Player,name=...'. Latencies are in microseconds.
+ */
+public interface PlayerMetricsMXBean {
+
+    long getSentMessages();
+
+    long getReceivedMessages();
+
+    long getBytesSent();
+
+    long getBytesReceived();
+
+    /**
+     * @return messages received per second since the metrics were created
+     */
+    double getThroughput();
+
+    double getRoundTripP50Micros();
+
+    double getRoundTripP99Micros();
+
+    double getRoundTripP999Micros();
+
+    double getRoundTripMaxMicros();
+
+    double getHopP50Micros();
+
+    double getHopP99Micros();
+
+    double getQueueWaitP50Micros();
+
+    double getQueueWaitP99Micros();
+}
@@ -0,0 +1,46 @@
+package common.metrics;
+
+/**
+ * Pairs the messages a player sends with the replies it receives, to measure round trips. Replies arrive in the
+ * order the messages were sent (the mailboxes and sockets are FIFO), so the send times are kept in a FIFO of their
+ * own, which also works when several messages are in flight.
+ * <p>
+ * Not thread-safe, owned by the player's thread.
+ */
+public class RoundTrips {
+
+    private long[] sendTimes = new long[16];
+    private int head;
+    private int size;
+
+    /**
+     * @param now System#nanoTime when a message was sent
+     */
+    public void sent(long now) {
+        if (size == sendTimes.length) {
+            long[] grown = new long[2 * size];
+            for (int i = 0; i < size; i++) {
+                grown[i] = sendTimes[(head + i) % size];
+            }
+            sendTimes = grown;
+            head = 0;
+        }
+        sendTimes[(head + size) % sendTimes.length] = now;
+        size++;
+    }
+
+    /**
+     * @param now System#nanoTime when a message was received
+     * @return round trip of the oldest message in flight, or -1 if no message was in flight (eg. the initial message
+     * received by the responder).
+     */
+    public long received(long now) {
+        if (size == 0) {
+            return -1;
+        }
+        long sendTime = sendTimes[head];
+        head = (head + 1) % sendTimes.length;
+        size--;
+        return now - sendTime;
+    }
+}
@@ -0,0 +1,227 @@
+package process;
+
+import common.Configuration;
+import common.MessageMode;
+import common.metrics.PlayerMetrics;
+import process.player.WebSocketPlayer;
+import process.player.WebSocketServer;
+import process.wire.WireOptions;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Locale;
+
+/**
+ * Measures games between a WebSocketServer and a WebSocketPlayer over loopback from a single command, without
+ * starting the server and the client by hand.
+ * <p>
+ * Both players run in this JVM. For every combination of stop condition and message size, a number of warm-up games
+ * is played first and thrown away, then the measured games. Each game gets a server on a port picked by the system
+ * (so that runs do not collide on the fixed port or TIME_WAIT sockets) and a client that connects once the server
+ * is bound. The report gives the time per game, the round trips per second and the round trip percentiles measured
+ * by the initiator, as CSV or JSON.
+ */
+public class ProcessCommunicationBenchmark {
+
+    static final String[] COLUMNS = {"stopCondition", "messageSize", "games", "gameMeanMillis", "gameMinMillis",
+            "roundTripsPerSecond", "roundTripP50Micros", "roundTripP99Micros", "roundTripP999Micros",
+            "roundTripMaxMicros"};
+
+    /**
+     * Runs the benchmark as configured in the property file and prints or writes the report.
+     *
+     * @param args if args are not supplied, defaults will be used.
+     *             args[0] -> format (String, csv / json)
+     *             args[1] -> file (String, file to write the report to, empty for the console)
+     */
+    public static void main(String[] args) throws IOException {
+        String format = args.length > 0 ? args[0] : Configuration.read(Configuration.KEY_BENCHMARK_REPORT_FORMAT);
+        String file = args.length > 1 ? args[1] : Configuration.read(Configuration.KEY_BENCHMARK_REPORT_FILE);
+
+        List<Result> results = run(readInts(Configuration.KEY_BENCHMARK_STOP_CONDITIONS),
+                readInts(Configuration.KEY_BENCHMARK_MESSAGE_SIZES),
+                Configuration.readInt(Configuration.KEY_BENCHMARK_WARMUP_GAMES),
+                Configuration.readInt(Configuration.KEY_BENCHMARK_GAMES),
+                MessageMode.of(Configuration.read(Configuration.KEY_MESSAGE_MODE)), WireOptions.fromConfiguration());
+
+        String report = "json".equalsIgnoreCase(format.trim()) ? toJson(results) : toCsv(results);
+        if (file == null || file.isBlank()) {
+            System.out.print(report);
+        } else {
+            Files.write(Paths.get(file), report.getBytes(StandardCharsets.UTF_8));
+            System.out.println("report written to " + file);
+        }
+    }
+
+    /**
+     * Plays the warm-up and measured games of every combination of stop condition and message size.
+     *
+     * @param stopConditions stop conditions to measure
+     * @param messageSizes   lengths of the initial message to measure
+     * @param warmupGames    games played before measuring, per combination
+     * @param games          games measured, per combination
+     * @param messageMode    how the messages are built
+     * @param wireOptions    options of both players
+     * @return one result per combination, in the order of the arguments
+     */
+    public static List<Result> run(int[] stopConditions, int[] messageSizes, int warmupGames, int games,
+                                   MessageMode messageMode, WireOptions wireOptions) {
+        if (games < 1 || warmupGames < 0) {
+            throw new IllegalArgumentException("Invalid number of games. Must be at least 1 (and 0 for warm-up)");
+        }
+        List<Result> results = new ArrayList<>();
+        for (int stopCondition : stopConditions) {
+            for (int messageSize : messageSizes) {
+                String initialMessage = "x".repeat(messageSize);
+                PlayerMetrics warmup = new PlayerMetrics("warmup");
+                for (int i = 0; i < warmupGames; i++) {
+                    playGame(stopCondition, initialMessage, messageMode, wireOptions, warmup);
+                }
+                Result result = new Result(stopCondition, messageSize, games);
+                for (int i = 0; i < games; i++) {
+                    long nanos = playGame(stopCondition, initialMessage, messageMode, wireOptions, result.metrics);
+                    result.totalNanos += nanos;
+                    result.minNanos = Math.min(result.minNanos, nanos);
+                }
+                results.add(result);
+            }
+        }
+        return results;
+    }
+
+    /**
+     * Plays one game on an ephemeral port.
+     *
+     * @return time from the client starting to connect to the end of the game, in nanoseconds
+     */
+    private static long playGame(int stopCondition, String initialMessage, MessageMode messageMode,
+                                 WireOptions wireOptions, PlayerMetrics metrics) {
+        WebSocketServer initiator = new WebSocketServer("BenchmarkInitiator", stopCondition, false, 0,
+                initialMessage, messageMode, new WireOptions(wireOptions), metrics);
+        Thread server = new Thread(initiator::play, "BenchmarkInitiator");
+        server.start();
+        try {
+            int port = initiator.awaitLocalPort();
+            if (port < 0) {
+                throw new IllegalStateException("Benchmark server could not be started");
+            }
+            WebSocketPlayer player = new WebSocketPlayer("BenchmarkPlayer", stopCondition, false, port, messageMode,
+                    new WireOptions(wireOptions));
+            long start = System.nanoTime();
+            player.play();
+            server.join();
+            long nanos = System.nanoTime() - start;
+            if (initiator.getReceivedMessagesCount() != stopCondition) {
+                throw new IllegalStateException("Benchmark game ended after " + initiator.getReceivedMessagesCount()
+                        + " of " + stopCondition + " messages");
+            }
+            return nanos;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Benchmark interrupted", e);
+        }
+    }
+
+    /**
+     * @return the results as CSV, with a header line
+     */
+    public static String toCsv(List<Result> results) {
+        StringBuilder csv = new StringBuilder(String.join(",", COLUMNS)).append('\n');
+        results.forEach(result -> csv.append(result.toCsv()).append('\n'));
+        return csv.toString();
+    }
+
+    /**
+     * @return the results as a JSON array of objects, one per result
+     */
+    public static String toJson(List<Result> results) {
+        StringBuilder json = new StringBuilder("[\n");
+        for (int i = 0; i < results.size(); i++) {
+            Object[] values = results.get(i).values();
+            json.append("  {");
+            for (int j = 0; j < COLUMNS.length; j++) {
+                json.append(j == 0 ? "" : ", ").append('"').append(COLUMNS[j]).append("\": ").append(format(values[j]));
+            }
+            json.append(i < results.size() - 1 ? "},\n" : "}\n");
+        }
+        return json.append("]\n").toString();
+    }
+
+    private static int[] readInts(String key) {
+        return Arrays.stream(Configuration.read(key).split(",")).map(String::trim).mapToInt(Integer::parseInt)
+                .toArray();
+    }
+
+    private static String format(Object value) {
+        return value instanceof Double ? String.format(Locale.ROOT, "%.3f", (Double) value) : String.valueOf(value);
+    }
+
+    /**
+     * Measurements of the games of one combination of stop condition and message size.
+     */
+    public static class Result {
+
+        private final int stopCondition;
+        private final int messageSize;
+        private final int games;
+        /**
+         * round trips measured by the initiator over all measured games
+         */
+        private final PlayerMetrics metrics = new PlayerMetrics("benchmark");
+        private long totalNanos;
+        private long minNanos = Long.MAX_VALUE;
+
+        Result(int stopCondition, int messageSize, int games) {
+            this.stopCondition = stopCondition;
+            this.messageSize = messageSize;
+            this.games = games;
+        }
+
+        public int getStopCondition() {
+            return stopCondition;
+        }
+
+        public int getMessageSize() {
+            return messageSize;
+        }
+
+        public int getGames() {
+            return games;
+        }
+
+        public double getGameMeanMillis() {
+            return totalNanos / 1e6 / games;
+        }
+
+        public double getGameMinMillis() {
+            return minNanos / 1e6;
+        }
+
+        public double getRoundTripsPerSecond() {
+            return (double) stopCondition * games / (totalNanos / 1e9);
+        }
+
+        public PlayerMetrics getMetrics() {
+            return metrics;
+        }
+
+        private Object[] values() {
+            return new Object[]{stopCondition, messageSize, games, getGameMeanMillis(), getGameMinMillis(),
+                    getRoundTripsPerSecond(), metrics.getRoundTripP50Micros(), metrics.getRoundTripP99Micros(),
+                    metrics.getRoundTripP999Micros(), metrics.getRoundTripMaxMicros()};
+        }
+
+        private String toCsv() {
+            StringBuilder csv = new StringBuilder();
+            for (Object value : values()) {
+                csv.append(csv.length() == 0 ? "" : ",").append(format(value));
+            }
+            return csv.toString();
+        }
+    }
+}
@@ -1,45 +1,100 @@
 package process;
 
 import common.ArgsReader;
+import common.Configuration;
+import common.MessageMode;
 import common.Stats;
+import common.ThreadMode;
+import common.journal.Journal;
+import common.metrics.MetricsRegistry;
+import common.metrics.PlayerMetrics;
+import process.player.SessionClient;
 import process.player.WebSocketPlayer;
+import process.wire.Framing;
+import process.wire.WireOptions;
+
+import java.util.Map;
 
 /**
  * This class contains the main method to be run the WebSocketPlayer instance
  * <p>
- * Important Note -1. Server must run before Client o avoid 'Connection refused' exception
+ * Important Note -1. Server and Client can be started in any order. Until the Server listens, the Client retries with
+ * a growing delay (see ConnectStrategy) and gives up after 'connect.deadline.millis'
  * Important Note -2. the port number supplied to the server and client must be the same for communication to work
- * Important Note -3. the stopCondition supplied to the server and client must be the same for both to stop gracefully.
+ * Important Note -3. the stopCondition supplied to the server and client must be the same. Both sides compare them during
+ * the handshake and, if they differ, end at once without playing
+ * Important Note -4. the Server waits for the Client no longer than 'wire.idle.timeout.millis', a Client started later
+ * finds no Server
  */
 public class ProcessCommunicationClient {
 
     /**
-     * Run this only after ProcessCommunicationServer#main to execute communication between two player instances each running in a separate process
+     * Run this and ProcessCommunicationServer#main, in any order, to execute communication between two player instances each running in a separate process
      *
      * @param args if args are not supplied, defaults will be used.
      *             args[0] -> stopCondition (int, number of messages that each player should send as well as receive)
      *             args[1] -> verboseLogging (boolean, whether the players should log their actions to the console)
      *             args[2] -> port (int, port number to use)
+     *             args[3] -> messageMode (String, concatenated / compact, must be the same as the server's)
+     *             args[4] -> threadMode (String, platform / virtual, the thread that the player runs on)
+     *             args[5] -> framing (String, text / binary, binary is only used if the server supports it too)
      */
     public static void main(String[] args) {
 
-        int stopCondition = ArgsReader.readStopCondition(args, 0);
+        MessageMode messageMode = ArgsReader.readMessageMode(args, 3);
+        int stopCondition = ArgsReader.readStopCondition(args, 0, messageMode);
         boolean verboseLogging = ArgsReader.readVerboseLogging(args, 1);
         int port = ArgsReader.readPort(args, 2);
+        ThreadMode threadMode = ArgsReader.readThreadMode(args, 4);
+        WireOptions wireOptions = WireOptions.fromConfiguration();
+        wireOptions.setFraming(Framing.of(ArgsReader.read(args, 5, Configuration.KEY_WIRE_FRAMING)));
 
-        play(stopCondition, verboseLogging, port);
+        if (Configuration.readInt(Configuration.KEY_SESSION_GAMES) > 1) {
+            // the games and their stop conditions are announced by the server
+            playSession(verboseLogging, port, messageMode, threadMode, wireOptions);
+        } else {
+            play(stopCondition, verboseLogging, port, messageMode, threadMode, wireOptions);
+        }
     }
 
     public static Stats play(final int stopCondition, boolean verboseLogging, int port) {
+        return play(stopCondition, verboseLogging, port, MessageMode.CONCATENATED, ThreadMode.PLATFORM, new WireOptions());
+    }
+
+    public static Stats play(final int stopCondition, boolean verboseLogging, int port, MessageMode messageMode,
+                             ThreadMode threadMode, WireOptions wireOptions) {
 
-        System.out.println("running WebSocketPlayer with stopCondition: " + stopCondition + ", verboseLogging: " + verboseLogging + ", port: " + port);
-        WebSocketPlayer player = new WebSocketPlayer("WebSocketPlayer", stopCondition, verboseLogging, port);
-        player.play();
+        System.out.println("running WebSocketPlayer with stopCondition: " + stopCondition + ", verboseLogging: " + verboseLogging + ", port: " + port + ", messageMode: " + messageMode + ", threadMode: " + threadMode + ", " + wireOptions);
+        PlayerMetrics metrics = MetricsRegistry.create("WebSocketPlayer");
+        Journal journal = Journal.create("WebSocketPlayer");
+        WebSocketPlayer player = new WebSocketPlayer("WebSocketPlayer", stopCondition, verboseLogging, port, messageMode, wireOptions, metrics, journal);
+        threadMode.runAndWait(player::play, "WebSocketPlayer");
         player.printStats();
+        MetricsRegistry.remove(metrics);
+        journal.close();
 
         Stats stats = new Stats();
         stats.setPlayerSentMessagesCount(player.getSentMessagesCount());
         stats.setPlayerReceivedMessagesCount(player.getReceivedMessagesCount());
         return stats;
     }
+
+    /**
+     * Plays the games announced by the server, all over a single connection, see SessionClient.
+     *
+     * @return statistics of each game, by game id
+     */
+    public static Map<Integer, Stats> playSession(boolean verboseLogging, int port, MessageMode messageMode,
+                                                  ThreadMode threadMode, WireOptions wireOptions) {
+
+        System.out.println("running SessionPlayer with verboseLogging: " + verboseLogging + ", port: " + port + ", messageMode: " + messageMode + ", threadMode: " + threadMode + ", " + wireOptions);
+        PlayerMetrics metrics = MetricsRegistry.create("SessionPlayer");
+        Journal journal = Journal.create("SessionPlayer");
+        SessionClient player = new SessionClient("SessionPlayer", verboseLogging, port, messageMode, wireOptions, metrics, journal);
+        threadMode.runAndWait(player::play, "SessionPlayer");
+        player.printStats();
+        MetricsRegistry.remove(metrics);
+        journal.close();
+        return player.getStats();
+    }
 }
@@ -1,41 +1,125 @@
 package process;
 
 import common.ArgsReader;
+import common.Configuration;
+import common.MessageMode;
 import common.Stats;
+import common.ThreadMode;
+import common.journal.Journal;
+import common.metrics.MetricsRegistry;
+import common.metrics.PlayerMetrics;
+import process.player.NioWebSocketServer;
+import process.player.SessionServer;
 import process.player.WebSocketServer;
+import process.wire.Framing;
+import process.wire.WireOptions;
+
+import java.util.Arrays;
+import java.util.Map;
 
 /**
  * This class contains the main method to be run the WebSocketServer instance (Initiator)
  * <p>
- * Important Note -1. Server must run before Client o avoid 'Connection refused' exception
+ * Important Note -1. Server and Client can be started in any order. Until the Server listens, the Client retries with
+ * a growing delay (see ConnectStrategy) and gives up after 'connect.deadline.millis'
  * Important Note -2. the port number supplied to the server and client must be the same for communication to work
- * Important Note -3. the stopCondition supplied to the server and client must be the same for both to stop gracefully.
+ * Important Note -3. the stopCondition supplied to the server and client must be the same. Both sides compare them during
+ * the handshake and, if they differ, end at once without playing
+ * Important Note -4. the Server waits for the Client no longer than 'wire.idle.timeout.millis', a Client started later
+ * finds no Server
  */
 public class ProcessCommunicationServer {
 
     /**
-     * Run this followed by ProcessCommunicationClient#main to execute communication between two player instances each running in a separate process
+     * Run this and ProcessCommunicationClient#main, in any order, to execute communication between two player instances each running in a separate process
      *
      * @param args if args are not supplied, defaults will be used.
      *             args[0] -> stopCondition (int, number of messages that each player should send as well as receive)
      *             args[1] -> verboseLogging (boolean, whether the players should log their actions.)
-     *             args[2] -> initialMessage (String, the very first message that the Server will send)
-     *             args[3] -> port (int, port number to use)
+     *             args[2] -> port (int, port number to use)
+     *             args[3] -> initialMessage (String, the very first message that the Server will send)
+     *             args[4] -> messageMode (String, concatenated / compact, must be the same as the client's)
+     *             args[5] -> threadMode (String, platform / virtual, the thread that the player runs on)
+     *             args[6] -> framing (String, text / binary, binary is only used if the client asks for it too)
+     *             args[7] -> eventLoops (int, number of selector threads, only used with server.mode=nio)
      */
     public static void main(String[] args) {
 
-        int stopCondition = ArgsReader.readStopCondition(args, 0);
+        MessageMode messageMode = ArgsReader.readMessageMode(args, 4);
+        int stopCondition = ArgsReader.readStopCondition(args, 0, messageMode);
         boolean verboseLogging = ArgsReader.readVerboseLogging(args, 1);
         int port = ArgsReader.readPort(args, 2);
         String initialMessage = ArgsReader.readInitialMessage(args, 3);
+        ThreadMode threadMode = ArgsReader.readThreadMode(args, 5);
+        WireOptions wireOptions = WireOptions.fromConfiguration();
+        wireOptions.setFraming(Framing.of(ArgsReader.read(args, 6, Configuration.KEY_WIRE_FRAMING)));
 
-        play(stopCondition, verboseLogging, port, initialMessage);
+        if ("nio".equalsIgnoreCase(Configuration.read(Configuration.KEY_SERVER_MODE))) {
+            int eventLoops = ArgsReader.readEventLoops(args, 7);
+            int connections = Configuration.readInt(Configuration.KEY_NIO_CONNECTIONS);
+            playNio(stopCondition, verboseLogging, port, initialMessage, messageMode, wireOptions, eventLoops, connections);
+        } else if (Configuration.readInt(Configuration.KEY_SESSION_GAMES) > 1) {
+            int[] stopConditions = new int[Configuration.readInt(Configuration.KEY_SESSION_GAMES)];
+            Arrays.fill(stopConditions, stopCondition);
+            playSession(stopConditions, verboseLogging, port, initialMessage, messageMode, threadMode, wireOptions);
+        } else {
+            play(stopCondition, verboseLogging, port, initialMessage, messageMode, threadMode, wireOptions);
+        }
     }
 
     public static Stats play(int stopCondition, boolean verboseLogging, int port, String initialMessage) {
+        return play(stopCondition, verboseLogging, port, initialMessage, MessageMode.CONCATENATED, ThreadMode.PLATFORM,
+                new WireOptions());
+    }
+
+    public static Stats play(int stopCondition, boolean verboseLogging, int port, String initialMessage,
+                             MessageMode messageMode, ThreadMode threadMode, WireOptions wireOptions) {
+
+        System.out.println("running WebSocketInitiator with stopCondition: " + stopCondition + ", verboseLogging: " + verboseLogging + ", port: " + port + ", initialMessage: " + initialMessage + ", messageMode: " + messageMode + ", threadMode: " + threadMode + ", " + wireOptions);
+        PlayerMetrics metrics = MetricsRegistry.create("WebSocketInitiator");
+        Journal journal = Journal.create("WebSocketInitiator");
+        WebSocketServer initiator = new WebSocketServer("WebSocketInitiator", stopCondition, verboseLogging, port, initialMessage, messageMode, wireOptions, metrics, journal);
+        threadMode.runAndWait(initiator::play, "WebSocketInitiator");
+        initiator.printStats();
+        MetricsRegistry.remove(metrics);
+        journal.close();
+
+        Stats stats = new Stats();
+        stats.setInitiatorSentMessagesCount(initiator.getSentMessagesCount());
+        stats.setInitiatorReceivedMessagesCount(initiator.getReceivedMessagesCount());
+        return stats;
+    }
+
+    /**
+     * Plays one game per stop condition, all over a single connection with the client, see SessionServer.
+     *
+     * @return statistics of each game, by game id
+     */
+    public static Map<Integer, Stats> playSession(int[] stopConditions, boolean verboseLogging, int port,
+                                                  String initialMessage, MessageMode messageMode,
+                                                  ThreadMode threadMode, WireOptions wireOptions) {
+
+        System.out.println("running SessionInitiator with games: " + stopConditions.length + ", verboseLogging: " + verboseLogging + ", port: " + port + ", initialMessage: " + initialMessage + ", messageMode: " + messageMode + ", threadMode: " + threadMode + ", " + wireOptions);
+        PlayerMetrics metrics = MetricsRegistry.create("SessionInitiator");
+        Journal journal = Journal.create("SessionInitiator");
+        SessionServer initiator = new SessionServer("SessionInitiator", stopConditions, verboseLogging, port, initialMessage, messageMode, wireOptions, metrics, journal);
+        threadMode.runAndWait(initiator::play, "SessionInitiator");
+        initiator.printStats();
+        MetricsRegistry.remove(metrics);
+        journal.close();
+        return initiator.getStats();
+    }
+
+    /**
+     * Hosts many clients on one port at the same time, each playing its own game, see NioWebSocketServer.
+     *
+     * @return statistics summed over all games
+     */
+    public static Stats playNio(int stopCondition, boolean verboseLogging, int port, String initialMessage,
+                                MessageMode messageMode, WireOptions wireOptions, int eventLoops, int connections) {
 
-        System.out.println("running WebSocketInitiator with stopCondition: " + stopCondition + ", verboseLogging: " + verboseLogging + ", port: " + port + ", initialMessage: " + initialMessage);
-        WebSocketServer initiator = new WebSocketServer("WebSocketInitiator", stopCondition, verboseLogging, port, initialMessage);
+        System.out.println("running NioWebSocketInitiator with stopCondition: " + stopCondition + ", verboseLogging: " + verboseLogging + ", port: " + port + ", initialMessage: " + initialMessage + ", messageMode: " + messageMode + ", " + wireOptions + ", eventLoops: " + eventLoops + ", connections: " + connections);
+        NioWebSocketServer initiator = new NioWebSocketServer("NioWebSocketInitiator", stopCondition, verboseLogging, port, initialMessage, messageMode, wireOptions, eventLoops, connections);
         initiator.play();
         initiator.printStats();
 
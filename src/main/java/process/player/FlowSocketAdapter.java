@@ -0,0 +1,196 @@
+package process.player;
+
+import common.ThreadMode;
+import process.wire.MessageChannel;
+import process.wire.WireConnection;
+import process.wire.WireOptions;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.net.Socket;
+import java.util.concurrent.Executor;
+import java.util.concurrent.Flow;
+import java.util.concurrent.SubmissionPublisher;
+
+/**
+ * Connects a Flow player (see thread.flow.FlowPlayer) to a socket player in another process: the messages received on
+ * the MessageChannel are published to the subscribed player, and the messages the player publishes are sent on the
+ * channel. Wire it like a second FlowPlayer:
+ * <pre>
+ *     adapter.subscribe(player);
+ *     player.subscribe(adapter);
+ *     adapter.start();
+ *     player.start();
+ * </pre>
+ * The channel reads are blocking, so they run on a reader thread of the given ThreadMode (a virtual thread does not
+ * hold a platform thread while waiting). The reader publishes through a SubmissionPublisher with a buffer of
+ * 'demandBatch' messages, and stops reading the socket while that buffer is full, so a slow player pushes back to the
+ * other process through TCP flow control. Each message is flushed as it is sent, as the reader thread cannot flush for
+ * the sending one.
+ */
+public class FlowSocketAdapter implements Flow.Processor<String, String>, Closeable {
+
+    private final String name;
+    private final MessageChannel channel;
+    /**
+     * socket the channel was opened on, null if the socket is owned by the caller
+     */
+    private final Socket socket;
+    private final int demandBatch;
+    private final ThreadMode threadMode;
+    /**
+     * publishes the messages received on the channel
+     */
+    private final SubmissionPublisher<String> publisher;
+    /**
+     * subscription to the messages to send
+     */
+    private Flow.Subscription subscription;
+    /**
+     * messages sent since demand was last signalled
+     */
+    private int consumed;
+    private volatile boolean closed;
+
+    /**
+     * @param name        name of the reader thread
+     * @param channel     channel to an established connection, closed with this adapter
+     * @param executor    executor the received messages are delivered on
+     * @param demandBatch number of messages requested, and buffered, at a time
+     * @param threadMode  kind of thread the channel is read on
+     */
+    public FlowSocketAdapter(String name, MessageChannel channel, Executor executor, int demandBatch,
+                             ThreadMode threadMode) {
+        this(name, channel, null, executor, demandBatch, threadMode);
+    }
+
+    private FlowSocketAdapter(String name, MessageChannel channel, Socket socket, Executor executor, int demandBatch,
+                              ThreadMode threadMode) {
+        if (demandBatch < 1) {
+            throw new IllegalArgumentException("Invalid demand batch. Must be at least 1");
+        }
+        this.name = name;
+        this.channel = channel;
+        this.socket = socket;
+        this.demandBatch = demandBatch;
+        this.threadMode = threadMode;
+        this.publisher = new SubmissionPublisher<>(executor, demandBatch);
+    }
+
+    /**
+     * Connects to a WebSocketServer (or SessionServer, NioWebSocketServer) like WebSocketPlayer does, and negotiates
+     * the wire options.
+     *
+     * @param name        name of the reader thread
+     * @param port        port the server listens on, on localhost
+     * @param wireOptions options to ask for
+     * @param executor    executor the received messages are delivered on
+     * @param demandBatch number of messages requested, and buffered, at a time
+     * @param threadMode  kind of thread the channel is read on
+     * @return adapter over the connection, closing the socket when closed
+     * @throws IOException          exception.
+     * @throws InterruptedException if interrupted while waiting to retry the connection
+     */
+    public static FlowSocketAdapter connect(String name, int port, WireOptions wireOptions, Executor executor,
+                                            int demandBatch, ThreadMode threadMode)
+            throws IOException, InterruptedException {
+        WireConnection connection = WireConnection.connect(port, wireOptions, 0);
+        return new FlowSocketAdapter(name, connection.getChannel(), connection.getSocket(), executor, demandBatch,
+                threadMode);
+    }
+
+    /**
+     * Starts reading the channel. Must be called once the player has subscribed, as a SubmissionPublisher drops what
+     * it publishes before anyone subscribed.
+     */
+    public void start() {
+        threadMode.newThread(this::read, name).start();
+    }
+
+    private void read() {
+        try {
+            String message;
+            while ((message = channel.receive()) != null) {
+                // blocks while the buffer of the subscriber is full
+                publisher.submit(message);
+            }
+            publisher.close();
+        } catch (IOException e) {
+            if (closed) {
+                // closed by this side once the player was done
+                publisher.close();
+            } else {
+                publisher.closeExceptionally(e);
+            }
+        }
+    }
+
+    @Override
+    public void subscribe(Flow.Subscriber<? super String> subscriber) {
+        publisher.subscribe(subscriber);
+    }
+
+    @Override
+    public void onSubscribe(Flow.Subscription subscription) {
+        if (this.subscription != null) {
+            // one player per connection
+            subscription.cancel();
+            return;
+        }
+        this.subscription = subscription;
+        subscription.request(demandBatch);
+    }
+
+    @Override
+    public void onNext(String message) {
+        try {
+            channel.send(message);
+            channel.flush();
+        } catch (IOException e) {
+            subscription.cancel();
+            publisher.closeExceptionally(e);
+            closeQuietly();
+            return;
+        }
+        if (++consumed >= Math.max(1, demandBatch / 2)) {
+            subscription.request(consumed);
+            consumed = 0;
+        }
+    }
+
+    @Override
+    public void onError(Throwable throwable) {
+        publisher.closeExceptionally(throwable);
+        closeQuietly();
+    }
+
+    @Override
+    public void onComplete() {
+        closeQuietly();
+    }
+
+    /**
+     * Closes the channel (and the socket, if connected by this adapter), which also stops the reader thread.
+     *
+     * @throws IOException exception.
+     */
+    @Override
+    public void close() throws IOException {
+        closed = true;
+        try {
+            channel.close();
+        } finally {
+            if (socket != null) {
+                socket.close();
+            }
+        }
+    }
+
+    private void closeQuietly() {
+        try {
+            close();
+        } catch (IOException e) {
+            e.printStackTrace();
+        }
+    }
+}
@@ -0,0 +1,554 @@
+package process.player;
+
+import common.MessageMode;
+import common.logging.Log;
+import process.wire.BinaryChannel;
+import process.wire.Framing;
+import process.wire.Handshake;
+import process.wire.Transport;
+import process.wire.WireOptions;
+
+import java.io.IOException;
+import java.net.InetSocketAddress;
+import java.nio.ByteBuffer;
+import java.nio.channels.ClosedSelectorException;
+import java.nio.channels.SelectionKey;
+import java.nio.channels.Selector;
+import java.nio.channels.ServerSocketChannel;
+import java.nio.channels.SocketChannel;
+import java.nio.charset.StandardCharsets;
+import java.util.Iterator;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Initiator (Server) that hosts many WebSocketPlayer clients on one port at the same time.
+ * <p>
+ * Instead of one blocking thread per client, a small number of event loops drive all connections with non-blocking
+ * I/O. Each event loop owns a Selector, the first one also accepts new connections and hands them out round-robin.
+ * Every connection is an independent game with its own ping-pong state and counters, speaking the same handshake,
+ * framing (text or binary), window and message mode as WebSocketServer, so unmodified clients can connect.
+ *
+ * @see WebSocketServer
+ */
+public class NioWebSocketServer {
+
+    private static final int INITIAL_BUFFER_SIZE = 4096;
+
+    /**
+     * stop condition is the number of messages that each game should send as well as receive before stopping
+     */
+    private final int stopCondition;
+    /**
+     * port number used by the ServerSocketChannel
+     */
+    private final int port;
+    /**
+     * name that will be printed to console, followed by the number of the connection
+     */
+    private final String name;
+    /**
+     * if true, each game will log to the console each message received or sent
+     */
+    private final boolean verboseLogging;
+    /**
+     * the very first message of each game
+     */
+    private final String initialMessage;
+    /**
+     * how the messages sent by this server are built
+     */
+    private final MessageMode messageMode;
+    /**
+     * options the server supports when a client connects
+     */
+    private final WireOptions wireOptions;
+    /**
+     * number of event loop threads
+     */
+    private final int eventLoops;
+    /**
+     * number of games to play before play() returns, 0 to serve until the thread is interrupted
+     */
+    private final int connections;
+
+    private final AtomicInteger receivedMessagesCount = new AtomicInteger();
+    private final AtomicInteger sentMessagesCount = new AtomicInteger();
+    private final AtomicInteger completedGamesCount = new AtomicInteger();
+    private final AtomicInteger connectionIds = new AtomicInteger();
+    private CountDownLatch gamesDone;
+
+    /**
+     * Class constructor
+     *
+     * @param name           name of this server that appears in logs.
+     * @param stopCondition  number of messages to send and receive in each game.
+     * @param verboseLogging flag whether the games should log their actions to the console.
+     * @param port           port to listen on.
+     * @param initialMessage initial message that starts each game.
+     * @param messageMode    how the messages sent by this server are built.
+     * @param wireOptions    options the server supports when a client connects.
+     * @param eventLoops     number of event loop threads.
+     * @param connections    number of games to play before play() returns, 0 to serve until interrupted.
+     */
+    public NioWebSocketServer(String name, int stopCondition, boolean verboseLogging, int port, String initialMessage,
+                              MessageMode messageMode, WireOptions wireOptions, int eventLoops, int connections) {
+        if (eventLoops < 1) {
+            throw new IllegalArgumentException("Invalid number of event loops. Must be at least 1");
+        }
+        this.name = name;
+        this.stopCondition = stopCondition;
+        this.verboseLogging = verboseLogging;
+        this.port = port;
+        this.initialMessage = initialMessage;
+        this.messageMode = messageMode;
+        // the event loops only drive sockets and whole messages, clients asking for shared memory, deltas or
+        // heartbeats are answered with the socket transport and whole messages, without heartbeats
+        this.wireOptions = new WireOptions(wireOptions);
+        this.wireOptions.setTransport(Transport.SOCKET);
+        this.wireOptions.setDelta(false);
+        this.wireOptions.setHeartbeatIntervalMillis(0);
+        this.eventLoops = eventLoops;
+        this.connections = connections;
+    }
+
+    /**
+     * Accepts and plays games until the configured number of games has completed.
+     */
+    public void play() {
+        gamesDone = new CountDownLatch(connections == 0 ? 1 : connections);
+        EventLoop[] loops = new EventLoop[eventLoops];
+        Thread[] threads = new Thread[eventLoops];
+        try (ServerSocketChannel serverChannel = ServerSocketChannel.open()) {
+            wireOptions.configure(serverChannel.socket());
+            serverChannel.bind(new InetSocketAddress(port));
+            serverChannel.configureBlocking(false);
+            for (int i = 0; i < eventLoops; i++) {
+                loops[i] = new EventLoop(loops);
+                threads[i] = new Thread(loops[i], name + "-loop-" + i);
+            }
+            serverChannel.register(loops[0].selector, SelectionKey.OP_ACCEPT);
+            log("listening on port " + port + " with " + eventLoops + " event loops", null);
+            for (Thread thread : threads) {
+                thread.start();
+            }
+            gamesDone.await();
+        } catch (IOException e) {
+            e.printStackTrace();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } finally {
+            for (EventLoop loop : loops) {
+                if (loop != null) {
+                    loop.stop();
+                }
+            }
+            for (Thread thread : threads) {
+                try {
+                    if (thread != null) {
+                        thread.join();
+                    }
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+            }
+        }
+        log("stopped", null);
+    }
+
+    /**
+     * counts a finished (completed or failed) game towards the number of games to play
+     */
+    private void gameEnded() {
+        if (connections > 0) {
+            gamesDone.countDown();
+        }
+    }
+
+    public int getReceivedMessagesCount() {
+        return receivedMessagesCount.get();
+    }
+
+    public int getSentMessagesCount() {
+        return sentMessagesCount.get();
+    }
+
+    public int getCompletedGamesCount() {
+        return completedGamesCount.get();
+    }
+
+    /**
+     * Prints statistics (counts) to the console
+     */
+    public void printStats() {
+        Log.flush();
+        System.out.println(name + " played " + completedGamesCount + " games, sent " + sentMessagesCount
+                + " messages and received " + receivedMessagesCount + " messages");
+    }
+
+    /**
+     * Prints the supplied string with prefix and name to the console if verboseLogging flag is true.
+     */
+    public void log(String string, String prefix) {
+        log(string, null, prefix);
+    }
+
+    /**
+     * Prints the supplied string followed by detail, with prefix and name, to the console if verboseLogging flag is
+     * true. The line is put together by the log, not by the player.
+     */
+    public void log(String string, String detail, String prefix) {
+        if (verboseLogging) {
+            Log.log(prefix, name, string, detail);
+        }
+    }
+
+    /**
+     * One thread with one Selector, driving the connections assigned to it.
+     */
+    private class EventLoop implements Runnable {
+
+        private final Selector selector;
+        private final EventLoop[] loops;
+        private final Queue<SocketChannel> assigned = new ConcurrentLinkedQueue<>();
+        private int nextLoop;
+        private volatile boolean running = true;
+
+        EventLoop(EventLoop[] loops) throws IOException {
+            this.selector = Selector.open();
+            this.loops = loops;
+        }
+
+        void assign(SocketChannel channel) {
+            assigned.add(channel);
+            selector.wakeup();
+        }
+
+        void stop() {
+            running = false;
+            selector.wakeup();
+        }
+
+        @Override
+        public void run() {
+            try {
+                while (running) {
+                    selector.select();
+                    registerAssigned();
+                    Iterator<SelectionKey> keys = selector.selectedKeys().iterator();
+                    while (keys.hasNext()) {
+                        SelectionKey key = keys.next();
+                        keys.remove();
+                        if (!key.isValid()) {
+                            continue;
+                        }
+                        if (key.isAcceptable()) {
+                            accept((ServerSocketChannel) key.channel());
+                        } else {
+                            Connection connection = (Connection) key.attachment();
+                            try {
+                                if (key.isReadable()) {
+                                    connection.onReadable();
+                                }
+                                if (key.isValid() && key.isWritable()) {
+                                    connection.onWritable();
+                                }
+                            } catch (IOException e) {
+                                connection.fail(e);
+                            }
+                        }
+                    }
+                }
+            } catch (IOException | ClosedSelectorException e) {
+                e.printStackTrace();
+            } finally {
+                for (SelectionKey key : selector.keys()) {
+                    if (key.attachment() instanceof Connection) {
+                        ((Connection) key.attachment()).close();
+                    }
+                }
+                try {
+                    selector.close();
+                } catch (IOException e) {
+                    e.printStackTrace();
+                }
+            }
+        }
+
+        private void accept(ServerSocketChannel serverChannel) throws IOException {
+            SocketChannel channel;
+            while ((channel = serverChannel.accept()) != null) {
+                loops[nextLoop].assign(channel);
+                nextLoop = (nextLoop + 1) % loops.length;
+            }
+        }
+
+        private void registerAssigned() {
+            SocketChannel channel;
+            while ((channel = assigned.poll()) != null) {
+                Connection connection = new Connection(channel, name + "#" + connectionIds.incrementAndGet());
+                try {
+                    channel.configureBlocking(false);
+                    wireOptions.configure(channel.socket());
+                    connection.key = channel.register(selector, SelectionKey.OP_READ, connection);
+                } catch (IOException e) {
+                    // only this game is lost, the loop goes on with the others
+                    connection.fail(e);
+                    continue;
+                }
+                connection.log("connection established", null);
+            }
+        }
+    }
+
+    /**
+     * State of one game. Only ever touched by the event loop that owns the connection.
+     */
+    private class Connection {
+
+        private final SocketChannel channel;
+        private final String connectionName;
+        private SelectionKey key;
+        private ByteBuffer in = ByteBuffer.allocate(INITIAL_BUFFER_SIZE);
+        private ByteBuffer out = ByteBuffer.allocate(INITIAL_BUFFER_SIZE);
+        private Framing framing;
+        /**
+         * true if text lines start with their sequence number, see TextChannel
+         */
+        private boolean numbered;
+        private int receivedMessagesCount;
+        private int sentMessagesCount;
+        private int receiveSequence;
+        private boolean finished;
+        private boolean closed;
+
+        Connection(SocketChannel channel, String connectionName) {
+            this.channel = channel;
+            this.connectionName = connectionName;
+        }
+
+        void onReadable() throws IOException {
+            if (channel.read(in) < 0) {
+                fail(new IOException("connection closed by the client"));
+                return;
+            }
+            in.flip();
+            while (!finished && processNext()) {
+                // keep processing complete messages
+            }
+            in.compact();
+            if (!in.hasRemaining()) {
+                ByteBuffer bigger = ByteBuffer.allocate(in.capacity() * 2);
+                in.flip();
+                bigger.put(in);
+                in = bigger;
+            }
+        }
+
+        void onWritable() throws IOException {
+            flush();
+        }
+
+        /**
+         * @return true if a complete handshake or message was processed
+         */
+        private boolean processNext() throws IOException {
+            if (framing == null) {
+                String line = readLine(Handshake.MAX_LINE_LENGTH);
+                if (line == null) {
+                    return false;
+                }
+                WireOptions agreed = Handshake.agree(line, wireOptions);
+                framing = agreed.getFraming();
+                numbered = framing == Framing.TEXT && agreed.getWindow() > 1;
+                log("negotiated " + agreed, null);
+                queue(Handshake.response(agreed, stopCondition) + "\n");
+                Handshake.verify(line, stopCondition);
+                int window = Math.min(agreed.getWindow(), stopCondition);
+                for (int i = 0; i < window; i++) {
+                    send(messageMode.initial(initialMessage, connectionName, receivedMessagesCount));
+                }
+                return true;
+            }
+            String message = framing == Framing.TEXT ? readNumberedLine() : readFrame();
+            if (message == null) {
+                return false;
+            }
+            receivedMessagesCount++;
+            NioWebSocketServer.this.receivedMessagesCount.incrementAndGet();
+            log("read message: ", message, "\t");
+            if (sentMessagesCount < stopCondition) {
+                send(messageMode.reply(message, connectionName, receivedMessagesCount));
+            } // else Do nothing. Initiator does not have to send a reply to the last message they receive.
+            if (receivedMessagesCount >= stopCondition) {
+                finished = true;
+                if (out.position() == 0) {
+                    complete();
+                }
+            }
+            return true;
+        }
+
+        /**
+         * @return the next newline terminated line (without '\r\n' or '\n'), or null if it is not complete yet
+         */
+        private String readLine(int maxLength) throws IOException {
+            for (int i = in.position(); i < in.limit(); i++) {
+                if (in.get(i) == '\n') {
+                    int end = i > in.position() && in.get(i - 1) == '\r' ? i - 1 : i;
+                    String line = new String(in.array(), in.arrayOffset() + in.position(), end - in.position(),
+                            StandardCharsets.UTF_8);
+                    in.position(i + 1);
+                    return line;
+                }
+            }
+            if (in.remaining() > maxLength) {
+                throw new IOException("Line too long");
+            }
+            return null;
+        }
+
+        /**
+         * @return the next text message without its sequence number, or null if it is not complete yet
+         */
+        private String readNumberedLine() throws IOException {
+            String line = readLine(Integer.MAX_VALUE);
+            if (line == null || !numbered) {
+                return line;
+            }
+            int separator = line.indexOf(' ');
+            int sequence = -1;
+            try {
+                sequence = Integer.parseInt(line, 0, separator < 0 ? line.length() : separator, 10);
+            } catch (NumberFormatException e) {
+                // reported below
+            }
+            if (separator < 0 || sequence != receiveSequence) {
+                throw new IOException("Expected message " + receiveSequence + " but received '" + line + "'");
+            }
+            receiveSequence++;
+            return line.substring(separator + 1);
+        }
+
+        /**
+         * @return the payload of the next binary frame, or null if it is not complete yet
+         */
+        private String readFrame() throws IOException {
+            if (in.remaining() < BinaryChannel.HEADER_LENGTH) {
+                return null;
+            }
+            int length = in.getInt(in.position());
+            int sequence = in.getInt(in.position() + 4);
+            if (length < 0) {
+                throw new IOException("Invalid frame length " + length);
+            }
+            if (in.remaining() < BinaryChannel.HEADER_LENGTH + length) {
+                return null;
+            }
+            if (sequence != receiveSequence) {
+                throw new IOException("Expected message " + receiveSequence + " but received " + sequence);
+            }
+            receiveSequence++;
+            String message = new String(in.array(), in.arrayOffset() + in.position() + BinaryChannel.HEADER_LENGTH,
+                    length, StandardCharsets.UTF_8);
+            in.position(in.position() + BinaryChannel.HEADER_LENGTH + length);
+            return message;
+        }
+
+        private void send(String message) throws IOException {
+            byte[] payload = message.getBytes(StandardCharsets.UTF_8);
+            if (framing == Framing.TEXT) {
+                byte[] sequence = numbered ? (sentMessagesCount + " ").getBytes(StandardCharsets.US_ASCII)
+                        : new byte[0];
+                ensureOutCapacity(sequence.length + payload.length + 1);
+                out.put(sequence).put(payload).put((byte) '\n');
+            } else {
+                ensureOutCapacity(BinaryChannel.HEADER_LENGTH + payload.length);
+                out.putInt(payload.length).putInt(sentMessagesCount).put(payload);
+            }
+            sentMessagesCount++;
+            NioWebSocketServer.this.sentMessagesCount.incrementAndGet();
+            log("sent message: ", message, null);
+            flush();
+        }
+
+        private void queue(String line) throws IOException {
+            byte[] bytes = line.getBytes(StandardCharsets.US_ASCII);
+            ensureOutCapacity(bytes.length);
+            out.put(bytes);
+            flush();
+        }
+
+        private void ensureOutCapacity(int capacity) {
+            if (out.remaining() < capacity) {
+                ByteBuffer bigger = ByteBuffer.allocate(Math.max(out.capacity() * 2, out.position() + capacity));
+                out.flip();
+                bigger.put(out);
+                out = bigger;
+            }
+        }
+
+        /**
+         * writes as much of the pending output as the socket takes, and waits for OP_WRITE for the rest
+         */
+        private void flush() throws IOException {
+            out.flip();
+            channel.write(out);
+            out.compact();
+            if (out.position() > 0) {
+                key.interestOps(SelectionKey.OP_READ | SelectionKey.OP_WRITE);
+            } else {
+                key.interestOps(SelectionKey.OP_READ);
+                if (finished) {
+                    complete();
+                }
+            }
+        }
+
+        private void complete() {
+            if (closed) {
+                return;
+            }
+            log("sent " + sentMessagesCount + " messages and received " + receivedMessagesCount + " messages", null);
+            close();
+            completedGamesCount.incrementAndGet();
+            gameEnded();
+        }
+
+        void fail(IOException e) {
+            if (closed) {
+                return;
+            }
+            log("failed: " + e.getMessage(), null);
+            close();
+            gameEnded();
+        }
+
+        void close() {
+            if (closed) {
+                return;
+            }
+            closed = true;
+            if (key != null) {
+                key.cancel();
+            }
+            try {
+                channel.close();
+            } catch (IOException e) {
+                e.printStackTrace();
+            }
+        }
+
+        void log(String string, String prefix) {
+            log(string, null, prefix);
+        }
+
+        void log(String string, String detail, String prefix) {
+            if (verboseLogging) {
+                Log.log(prefix, connectionName, string, detail);
+            }
+        }
+    }
+}
@@ -0,0 +1,127 @@
+package process.player;
+
+import common.MessageMode;
+import common.Stats;
+import common.journal.Journal;
+import common.logging.Log;
+import common.metrics.PlayerMetrics;
+import process.wire.MessageChannel;
+import process.wire.WireConnection;
+import process.wire.WireOptions;
+
+import java.io.IOException;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Player side of a session: connects once to a SessionServer and plays every game it announces, each with a
+ * WebSocketPlayer of its own, until the server ends the session.
+ *
+ * @see SessionServer
+ */
+public class SessionClient {
+
+    private final String name;
+    private final boolean verboseLogging;
+    private final int port;
+    private final MessageMode messageMode;
+    private final WireOptions wireOptions;
+    private final PlayerMetrics metrics;
+    private final Journal journal;
+    /**
+     * statistics of the games played so far, by game id
+     */
+    private final Map<Integer, Stats> stats = new LinkedHashMap<>();
+
+    /**
+     * Class constructor
+     *
+     * @param name           name of this player that appears in logs.
+     * @param verboseLogging flag whether the players should log their actions to the console.
+     * @param port           port that websocket should use.
+     * @param messageMode    how the messages sent by this player are built.
+     * @param wireOptions    options to ask for when the connection is established.
+     * @param metrics        live metrics to record into, shared by all games.
+     */
+    public SessionClient(String name, boolean verboseLogging, int port, MessageMode messageMode,
+                         WireOptions wireOptions, PlayerMetrics metrics) {
+        this(name, verboseLogging, port, messageMode, wireOptions, metrics, Journal.DISABLED);
+    }
+
+    /**
+     * Class constructor
+     *
+     * @param name           name of this player that appears in logs.
+     * @param verboseLogging flag whether the players should log their actions to the console.
+     * @param port           port that websocket should use.
+     * @param messageMode    how the messages sent by this player are built.
+     * @param wireOptions    options to ask for when the connection is established.
+     * @param metrics        live metrics to record into, shared by all games.
+     * @param journal        journal to record every message into, shared by all games and closed by the caller.
+     */
+    public SessionClient(String name, boolean verboseLogging, int port, MessageMode messageMode,
+                         WireOptions wireOptions, PlayerMetrics metrics, Journal journal) {
+        this.name = name;
+        this.verboseLogging = verboseLogging;
+        this.port = port;
+        this.messageMode = messageMode;
+        this.wireOptions = wireOptions;
+        this.metrics = metrics;
+        this.journal = journal;
+    }
+
+    /**
+     * Connects to the server and plays the games it announces.
+     */
+    public void play() {
+        try (WireConnection connection = WireConnection.connect(port, wireOptions, 0)) {
+            System.out.println("Connected to server.");
+            WireOptions agreedOptions = connection.getAgreedOptions();
+            log("negotiated " + agreedOptions);
+            MessageChannel channel = connection.getChannel();
+            String control;
+            while ((control = channel.receive()) != null && !SessionServer.END.equals(control)) {
+                String[] tokens = control.split(" ");
+                if (tokens.length != 3 || !SessionServer.GAME.equals(tokens[0])) {
+                    throw new IOException("Expected the start of a game but received: " + control);
+                }
+                int gameId = Integer.parseInt(tokens[1]);
+                WebSocketPlayer player = new WebSocketPlayer(name, Integer.parseInt(tokens[2]), verboseLogging,
+                        port, messageMode, wireOptions, metrics, journal);
+                player.play(channel, agreedOptions);
+
+                Stats game = new Stats();
+                game.setPlayerSentMessagesCount(player.getSentMessagesCount());
+                game.setPlayerReceivedMessagesCount(player.getReceivedMessagesCount());
+                stats.put(gameId, game);
+            }
+        } catch (IOException | InterruptedException e) {
+            e.printStackTrace();
+        }
+        log("session stopped");
+    }
+
+    /**
+     * @return statistics of each game played, by game id
+     */
+    public Map<Integer, Stats> getStats() {
+        return Collections.unmodifiableMap(stats);
+    }
+
+    /**
+     * Prints statistics (counts) of each game to the console
+     */
+    public void printStats() {
+        Log.flush();
+        stats.forEach((gameId, game) -> System.out.println(name + " game " + gameId + " sent "
+                + game.getPlayerSentMessagesCount() + " messages and received "
+                + game.getPlayerReceivedMessagesCount() + " messages"));
+    }
+
+    private void log(String string) {
+        if (verboseLogging) {
+            Log.log(null, name, string, null);
+        }
+    }
+}
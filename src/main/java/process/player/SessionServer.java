@@ -0,0 +1,140 @@
+package process.player;
+
+import common.MessageMode;
+import common.Stats;
+import common.journal.Journal;
+import common.logging.Log;
+import common.metrics.PlayerMetrics;
+import process.wire.MessageChannel;
+import process.wire.WireConnection;
+import process.wire.WireOptions;
+
+import java.io.IOException;
+import java.net.ServerSocket;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Initiator side of a session: plays many games, one after the other, over a single connection with a SessionClient.
+ * <p>
+ * The connection is established and the wire options negotiated once. Each game is then announced on the channel with
+ * a line 'GAME id stopCondition' and played by a WebSocketServer of its own, so that every game has its own counters.
+ * A game ends when both players have sent and received stopCondition messages, so nothing of it is left in the
+ * channel when the next game is announced. The session ends with a line 'END'.
+ */
+public class SessionServer {
+
+    static final String GAME = "GAME";
+    static final String END = "END";
+
+    private final String name;
+    private final int[] stopConditions;
+    private final boolean verboseLogging;
+    private final int port;
+    private final String initialMessage;
+    private final MessageMode messageMode;
+    private final WireOptions wireOptions;
+    private final PlayerMetrics metrics;
+    private final Journal journal;
+    /**
+     * statistics of the games played so far, by game id
+     */
+    private final Map<Integer, Stats> stats = new LinkedHashMap<>();
+
+    /**
+     * Class constructor
+     *
+     * @param name           name of this player that appears in logs.
+     * @param stopConditions stop condition of each game, the games are numbered from 1 in this order.
+     * @param verboseLogging flag whether the players should log their actions to the console.
+     * @param port           port that websocket should use.
+     * @param initialMessage initial message that initiator sends to start each game.
+     * @param messageMode    how the messages sent by this player are built.
+     * @param wireOptions    options the server supports when the client connects.
+     * @param metrics        live metrics to record into, shared by all games.
+     */
+    public SessionServer(String name, int[] stopConditions, boolean verboseLogging, int port, String initialMessage,
+                         MessageMode messageMode, WireOptions wireOptions, PlayerMetrics metrics) {
+        this(name, stopConditions, verboseLogging, port, initialMessage, messageMode, wireOptions, metrics,
+                Journal.DISABLED);
+    }
+
+    /**
+     * Class constructor
+     *
+     * @param name           name of this player that appears in logs.
+     * @param stopConditions stop condition of each game, the games are numbered from 1 in this order.
+     * @param verboseLogging flag whether the players should log their actions to the console.
+     * @param port           port that websocket should use.
+     * @param initialMessage initial message that initiator sends to start each game.
+     * @param messageMode    how the messages sent by this player are built.
+     * @param wireOptions    options the server supports when the client connects.
+     * @param metrics        live metrics to record into, shared by all games.
+     * @param journal        journal to record every message into, shared by all games and closed by the caller.
+     */
+    public SessionServer(String name, int[] stopConditions, boolean verboseLogging, int port, String initialMessage,
+                         MessageMode messageMode, WireOptions wireOptions, PlayerMetrics metrics, Journal journal) {
+        this.name = name;
+        this.stopConditions = stopConditions.clone();
+        this.verboseLogging = verboseLogging;
+        this.port = port;
+        this.initialMessage = initialMessage;
+        this.messageMode = messageMode;
+        this.wireOptions = wireOptions;
+        this.metrics = metrics;
+        this.journal = journal;
+    }
+
+    /**
+     * Accepts one client and plays all games with it.
+     */
+    public void play() {
+        try (ServerSocket serverSocket = WireConnection.listen(port, wireOptions);
+             WireConnection connection = WireConnection.accept(serverSocket, wireOptions, 0)) {
+            WireOptions agreedOptions = connection.getAgreedOptions();
+            log("negotiated " + agreedOptions);
+            MessageChannel channel = connection.getChannel();
+            for (int i = 0; i < stopConditions.length; i++) {
+                int gameId = i + 1;
+                channel.send(GAME + " " + gameId + " " + stopConditions[i]);
+                WebSocketServer initiator = new WebSocketServer(name, stopConditions[i], verboseLogging, port,
+                        initialMessage, messageMode, wireOptions, metrics, journal);
+                initiator.play(channel, agreedOptions);
+
+                Stats game = new Stats();
+                game.setInitiatorSentMessagesCount(initiator.getSentMessagesCount());
+                game.setInitiatorReceivedMessagesCount(initiator.getReceivedMessagesCount());
+                stats.put(gameId, game);
+            }
+            channel.send(END);
+            channel.flush();
+        } catch (IOException e) {
+            e.printStackTrace();
+        }
+        log("session stopped");
+    }
+
+    /**
+     * @return statistics of each game played, by game id
+     */
+    public Map<Integer, Stats> getStats() {
+        return Collections.unmodifiableMap(stats);
+    }
+
+    /**
+     * Prints statistics (counts) of each game to the console
+     */
+    public void printStats() {
+        Log.flush();
+        stats.forEach((gameId, game) -> System.out.println(name + " game " + gameId + " sent "
+                + game.getInitiatorSentMessagesCount() + " messages and received "
+                + game.getInitiatorReceivedMessagesCount() + " messages"));
+    }
+
+    private void log(String string) {
+        if (verboseLogging) {
+            Log.log(null, name, string, null);
+        }
+    }
+}
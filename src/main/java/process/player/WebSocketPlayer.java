@@ -1,15 +1,20 @@
 package process.player;
 
-import java.io.BufferedReader;
+import common.MessageMode;
+import common.journal.Journal;
+import common.logging.Log;
+import common.metrics.PlayerMetrics;
+import common.metrics.RoundTrips;
+import process.wire.FrameChannel;
+import process.wire.MessageChannel;
+import process.wire.WireConnection;
+import process.wire.WireOptions;
+
+import java.io.EOFException;
 import java.io.IOException;
-import java.io.InputStreamReader;
-import java.io.PrintStream;
-import java.net.ConnectException;
 import java.net.Socket;
-import java.util.concurrent.CountDownLatch;
-import java.util.concurrent.Executors;
-import java.util.concurrent.ScheduledExecutorService;
-import java.util.concurrent.TimeUnit;
+import java.net.SocketTimeoutException;
+import java.nio.charset.StandardCharsets;
 
 /**
  * Each instance of this class represents a player that can communicate with another instance of this class
@@ -42,20 +47,44 @@ public class WebSocketPlayer {
      * if true, player will log to the console each message received or sent, as well as stopping
      */
     protected final boolean verboseLogging;
+    /**
+     * how the messages sent by this player are built
+     */
+    protected final MessageMode messageMode;
     /**
      * socket instance
      */
     protected Socket socket;
 
     /**
-     * PrintStream instance to send data
+     * options this player asks for when the connection is established
+     */
+    protected final WireOptions wireOptions;
+
+    /**
+     * options agreed with the other player during the handshake
+     */
+    protected WireOptions agreedOptions;
+
+    /**
+     * channel to send and read messages, framed as agreed during the handshake
+     */
+    protected MessageChannel channel;
+
+    /**
+     * live metrics of this player, PlayerMetrics#DISABLED if not collected
+     */
+    protected final PlayerMetrics metrics;
+
+    /**
+     * send times of the messages in flight, null if metrics are not collected
      */
-    PrintStream ps;
+    protected final RoundTrips roundTrips;
 
     /**
-     * BufferedReader instance to read data
+     * record of the messages of this player, Journal#DISABLED if not recorded
      */
-    BufferedReader br;
+    protected final Journal journal;
 
     /**
      * Class constructor
@@ -66,10 +95,76 @@ public class WebSocketPlayer {
      * @param port port that websocket should use.
      */
     public WebSocketPlayer(String name, int stopCondition, boolean verboseLogging, int port) {
+        this(name, stopCondition, verboseLogging, port, MessageMode.CONCATENATED);
+    }
+
+    /**
+     * Class constructor
+     *
+     * @param name name of this player that appears in logs.
+     * @param stopCondition number of messages to send and receive before play stops.
+     * @param verboseLogging flag whether the players should log their actions to the console.
+     * @param port port that websocket should use.
+     * @param messageMode how the messages sent by this player are built.
+     */
+    public WebSocketPlayer(String name, int stopCondition, boolean verboseLogging, int port, MessageMode messageMode) {
+        this(name, stopCondition, verboseLogging, port, messageMode, new WireOptions());
+    }
+
+    /**
+     * Class constructor
+     *
+     * @param name name of this player that appears in logs.
+     * @param stopCondition number of messages to send and receive before play stops.
+     * @param verboseLogging flag whether the players should log their actions to the console.
+     * @param port port that websocket should use.
+     * @param messageMode how the messages sent by this player are built.
+     * @param wireOptions options to ask for when the connection is established.
+     */
+    public WebSocketPlayer(String name, int stopCondition, boolean verboseLogging, int port, MessageMode messageMode,
+                           WireOptions wireOptions) {
+        this(name, stopCondition, verboseLogging, port, messageMode, wireOptions, PlayerMetrics.DISABLED);
+    }
+
+    /**
+     * Class constructor
+     *
+     * @param name name of this player that appears in logs.
+     * @param stopCondition number of messages to send and receive before play stops.
+     * @param verboseLogging flag whether the players should log their actions to the console.
+     * @param port port that websocket should use.
+     * @param messageMode how the messages sent by this player are built.
+     * @param wireOptions options to ask for when the connection is established.
+     * @param metrics live metrics to record into.
+     */
+    public WebSocketPlayer(String name, int stopCondition, boolean verboseLogging, int port, MessageMode messageMode,
+                           WireOptions wireOptions, PlayerMetrics metrics) {
+        this(name, stopCondition, verboseLogging, port, messageMode, wireOptions, metrics, Journal.DISABLED);
+    }
+
+    /**
+     * Class constructor
+     *
+     * @param name name of this player that appears in logs.
+     * @param stopCondition number of messages to send and receive before play stops.
+     * @param verboseLogging flag whether the players should log their actions to the console.
+     * @param port port that websocket should use.
+     * @param messageMode how the messages sent by this player are built.
+     * @param wireOptions options to ask for when the connection is established.
+     * @param metrics live metrics to record into.
+     * @param journal journal to record every message sent and received into, closed by the caller.
+     */
+    public WebSocketPlayer(String name, int stopCondition, boolean verboseLogging, int port, MessageMode messageMode,
+                           WireOptions wireOptions, PlayerMetrics metrics, Journal journal) {
         this.name = name;
         this.stopCondition = stopCondition;
         this.verboseLogging = verboseLogging;
         this.port = port;
+        this.messageMode = messageMode;
+        this.wireOptions = wireOptions;
+        this.metrics = metrics;
+        this.roundTrips = metrics.isEnabled() ? new RoundTrips() : null;
+        this.journal = journal;
     }
 
 
@@ -79,19 +174,10 @@ public class WebSocketPlayer {
     public void play() {
         try {
             initSocketIO();
-            initMessaging();
-            while (receivedMessagesCount < stopCondition) {
-                String message = br.readLine();
-                receivedMessagesCount++;
-                log("read message: " + message, "\t");
-                if (sentMessagesCount < stopCondition) {
-                    message = message + " " + receivedMessagesCount;
-                    ps.println(message);
-                    sentMessagesCount++;
-                    log("sent message: " + message, null);
-                } // else Do nothing. Initiator does not have to send a reply to the last message they receive.
-
-            }
+            playGame();
+        } catch (EOFException | SocketTimeoutException e) {
+            // the other player is gone, the counts tell how far the game got
+            System.out.println(name + " stopped early: " + e.getMessage());
         } catch (IOException | InterruptedException e) {
             e.printStackTrace();
         } finally {
@@ -107,72 +193,131 @@ public class WebSocketPlayer {
     }
 
     /**
-     * initiates messaging. Meant for server instance.
+     * Plays one game over a connection that has been established before, eg. by a SessionServer or SessionClient.
+     * The connection is left open for the next game.
+     *
+     * @param channel       channel to send and read messages
+     * @param agreedOptions options agreed with the other player when the connection was established
+     * @throws IOException exception.
      */
-    protected void initMessaging() {
-        // do nothing since this is not server
+    public void play(MessageChannel channel, WireOptions agreedOptions) throws IOException {
+        this.channel = channel;
+        this.agreedOptions = agreedOptions;
+        playGame();
+        log("stopped", null);
     }
 
     /**
-     * instantiate the Socket, PrintStream and BufferedReader
+     * Exchanges messages over the open channel until stop condition is met.
      *
      * @throws IOException exception.
      */
-    protected void initSocketIO() throws IOException, InterruptedException {
+    private void playGame() throws IOException {
+        initMessaging();
+        if (channel instanceof FrameChannel && !verboseLogging) {
+            playInPlace((FrameChannel) channel);
+        }
+        while (receivedMessagesCount < stopCondition) {
+            long waitStart = metrics.now();
+            String message = channel.receive();
+            if (message == null) {
+                throw new EOFException("Connection closed after " + receivedMessagesCount + " of " + stopCondition
+                        + " messages");
+            }
+            metrics.received(message, waitStart, roundTrips);
+            journal.received(message);
+            receivedMessagesCount++;
+            log("read message: ", message, "\t");
+            if (sentMessagesCount < stopCondition) {
+                message = messageMode.reply(message, name, receivedMessagesCount);
+                send(message);
+                log("sent message: ", message, null);
+            } // else Do nothing. Initiator does not have to send a reply to the last message they receive.
 
-        final int retryDelay = 200; // Delay between retries in milliseconds
-        final int maxWaitTime = 2000; // Maximum total wait time in milliseconds
-        initSocketWithDelayedRetry(maxWaitTime, retryDelay);
+        }
+    }
 
-        if (socket == null || !socket.isConnected()) {
-            throw new IOException("Unable to connect to the server after " + maxWaitTime + " ms");
+    /**
+     * Same as the message loop of play(), but each reply is built in the channel's send buffer straight from the
+     * received bytes. No String is created, so the loop does not allocate.
+     *
+     * @param direct channel of this player
+     * @throws IOException exception.
+     */
+    private void playInPlace(FrameChannel direct) throws IOException {
+        byte[] origin = name.getBytes(StandardCharsets.UTF_8);
+        while (receivedMessagesCount < stopCondition) {
+            long waitStart = metrics.now();
+            int length = direct.receiveFrame();
+            if (length < 0) {
+                throw new EOFException("Connection closed after " + receivedMessagesCount + " messages");
+            }
+            metrics.received(length, waitStart, roundTrips);
+            direct.recordReceived(journal);
+            receivedMessagesCount++;
+            if (sentMessagesCount < stopCondition) {
+                long sendStart = metrics.now();
+                length = direct.sendReply(messageMode, origin, receivedMessagesCount, journal);
+                metrics.sent(length, sendStart, roundTrips);
+                sentMessagesCount++;
+            }
         }
-        ps = new PrintStream(socket.getOutputStream());
-        br = new BufferedReader(new InputStreamReader(socket.getInputStream()));
     }
 
-    private void initSocketWithDelayedRetry(int maxWaitTime, int retryDelay) throws InterruptedException {
-        ScheduledExecutorService scheduler = Executors.newScheduledThreadPool(1);
-        CountDownLatch latch = new CountDownLatch(1);
-        long startTime = System.currentTimeMillis();
+    /**
+     * sends the message and counts it
+     *
+     * @param message message
+     * @throws IOException exception.
+     */
+    protected void send(String message) throws IOException {
+        long sendStart = metrics.now();
+        channel.send(message);
+        metrics.sent(message, sendStart, roundTrips);
+        journal.sent(message);
+        sentMessagesCount++;
+    }
 
-        scheduler.scheduleAtFixedRate(() -> {
-            if (System.currentTimeMillis() - startTime >= maxWaitTime) {
-                System.err.println("Failed to connect to server after " + maxWaitTime + " ms");
-                latch.countDown(); // Ensure the latch is decremented to unblock main thread
-                scheduler.shutdown(); // Stop retrying
-                return;
-            }
+    /**
+     * initiates messaging. Meant for server instance.
+     *
+     * @throws IOException exception.
+     */
+    protected void initMessaging() throws IOException {
+        // do nothing since this is not server
+    }
 
-            try {
-                socket = new Socket("localhost", port);
-                System.out.println("Connected to server.");
-                latch.countDown(); // Signal the main thread to continue
-                scheduler.shutdown(); // Stop retrying
-            } catch (ConnectException conEx) {
-                System.out.println("Failed to connect to server. Retrying after " + retryDelay + " ms");
-            } catch (IOException e) {
-                System.err.println("Unexpected I/O error: " + e.getMessage());
-                latch.countDown(); // Ensure the latch is decremented to unblock main thread
-                scheduler.shutdown(); // Stop retrying on unexpected errors
-            }
-        }, 0, retryDelay, TimeUnit.MILLISECONDS);
+    /**
+     * instantiate the Socket, negotiate the wire options with the server and open the MessageChannel
+     *
+     * @throws IOException exception.
+     */
+    protected void initSocketIO() throws IOException, InterruptedException {
+        use(WireConnection.connect(port, wireOptions, stopCondition));
+        System.out.println("Connected to server.");
+    }
 
-        latch.await(); // Wait until a connection is established or max wait time is reached
+    /**
+     * Takes over the socket and the channel of an established connection, closed by closeSocketIO.
+     *
+     * @param connection connection to the other player
+     */
+    protected void use(WireConnection connection) {
+        socket = connection.getSocket();
+        agreedOptions = connection.getAgreedOptions();
+        channel = connection.getChannel();
+        log("negotiated " + agreedOptions, null);
     }
 
     /**
-     * close the Socket, PrintStream and BufferedReader
+     * close the MessageChannel and the Socket
      *
      * @throws IOException exception.
      */
     protected void closeSocketIO() throws IOException {
 
-        if (ps != null) {
-            ps.close();
-        }
-        if (br != null) {
-            br.close();
+        if (channel != null) {
+            channel.close();
         }
         if (socket != null) {
             socket.close();
@@ -191,6 +336,7 @@ public class WebSocketPlayer {
      * Prints statistics (counts) to the console
      */
     public void printStats() {
+        Log.flush();
         System.out.println(name + " sent " + sentMessagesCount + " messages and received " + receivedMessagesCount + " messages");
     }
 
@@ -198,8 +344,16 @@ public class WebSocketPlayer {
      * Prints the supplied string with prefix and name to the console if verboseLogging flag is true.
      */
     public void log(String string, String prefix) {
+        log(string, null, prefix);
+    }
+
+    /**
+     * Prints the supplied string followed by detail, with prefix and name, to the console if verboseLogging flag is
+     * true. The line is put together by the log, not by the player.
+     */
+    public void log(String string, String detail, String prefix) {
         if (verboseLogging) {
-            System.out.println((prefix == null ? "" : prefix) + name + ": " + string);
+            Log.log(prefix, name, string, detail);
         }
     }
 }
@@ -1,11 +1,14 @@
 package process.player;
 
+import common.MessageMode;
+import common.journal.Journal;
+import common.metrics.PlayerMetrics;
+import process.wire.WireConnection;
+import process.wire.WireOptions;
 
-import java.io.BufferedReader;
 import java.io.IOException;
-import java.io.InputStreamReader;
-import java.io.PrintStream;
 import java.net.ServerSocket;
+import java.util.concurrent.CountDownLatch;
 
 /**
  * Each instance of this class represents an Initiator (Server) player.
@@ -16,6 +19,12 @@ import java.net.ServerSocket;
  */
 public class WebSocketServer extends WebSocketPlayer {
 
+    /**
+     * upper bound of the bytes a message takes on the wire on top of its payload (frame header, or sequence number
+     * and newline of a text line)
+     */
+    private static final int FRAME_OVERHEAD = 16;
+
     /**
      * the very first message
      */
@@ -26,6 +35,11 @@ public class WebSocketServer extends WebSocketPlayer {
      */
     private ServerSocket serverSocket;
 
+    /**
+     * released once the server socket is bound (or failed to bind)
+     */
+    private final CountDownLatch listening = new CountDownLatch(1);
+
     /**
      * Class constructor
      *
@@ -36,47 +50,125 @@ public class WebSocketServer extends WebSocketPlayer {
      * @param initialMessage initial message that initiator sends to start play.
      */
     public WebSocketServer(String name, int stopCondition, boolean verboseLogging, int port, String initialMessage) {
-        super(name, stopCondition, verboseLogging, port);
+        this(name, stopCondition, verboseLogging, port, initialMessage, MessageMode.CONCATENATED);
+    }
+
+    /**
+     * Class constructor
+     *
+     * @param name name of this player that appears in logs.
+     * @param stopCondition play stop condition
+     * @param verboseLogging flag whether the players should log their actions to the console.
+     * @param port port that websocket should use.
+     * @param initialMessage initial message that initiator sends to start play.
+     * @param messageMode how the messages sent by this player are built.
+     */
+    public WebSocketServer(String name, int stopCondition, boolean verboseLogging, int port, String initialMessage,
+                           MessageMode messageMode) {
+        this(name, stopCondition, verboseLogging, port, initialMessage, messageMode, new WireOptions());
+    }
+
+    /**
+     * Class constructor
+     *
+     * @param name name of this player that appears in logs.
+     * @param stopCondition play stop condition
+     * @param verboseLogging flag whether the players should log their actions to the console.
+     * @param port port that websocket should use.
+     * @param initialMessage initial message that initiator sends to start play.
+     * @param messageMode how the messages sent by this player are built.
+     * @param wireOptions options the server supports when a client connects.
+     */
+    public WebSocketServer(String name, int stopCondition, boolean verboseLogging, int port, String initialMessage,
+                           MessageMode messageMode, WireOptions wireOptions) {
+        this(name, stopCondition, verboseLogging, port, initialMessage, messageMode, wireOptions,
+                PlayerMetrics.DISABLED);
+    }
+
+    /**
+     * Class constructor
+     *
+     * @param name name of this player that appears in logs.
+     * @param stopCondition play stop condition
+     * @param verboseLogging flag whether the players should log their actions to the console.
+     * @param port port that websocket should use.
+     * @param initialMessage initial message that initiator sends to start play.
+     * @param messageMode how the messages sent by this player are built.
+     * @param wireOptions options the server supports when a client connects.
+     * @param metrics live metrics to record into.
+     */
+    public WebSocketServer(String name, int stopCondition, boolean verboseLogging, int port, String initialMessage,
+                           MessageMode messageMode, WireOptions wireOptions, PlayerMetrics metrics) {
+        this(name, stopCondition, verboseLogging, port, initialMessage, messageMode, wireOptions, metrics,
+                Journal.DISABLED);
+    }
+
+    /**
+     * Class constructor
+     *
+     * @param name name of this player that appears in logs.
+     * @param stopCondition play stop condition
+     * @param verboseLogging flag whether the players should log their actions to the console.
+     * @param port port that websocket should use.
+     * @param initialMessage initial message that initiator sends to start play.
+     * @param messageMode how the messages sent by this player are built.
+     * @param wireOptions options the server supports when a client connects.
+     * @param metrics live metrics to record into.
+     * @param journal journal to record every message sent and received into, closed by the caller.
+     */
+    public WebSocketServer(String name, int stopCondition, boolean verboseLogging, int port, String initialMessage,
+                           MessageMode messageMode, WireOptions wireOptions, PlayerMetrics metrics, Journal journal) {
+        super(name, stopCondition, verboseLogging, port, messageMode, wireOptions, metrics, journal);
         this.initialMessage = initialMessage;
     }
 
     /**
-     * initiate messaging.
+     * initiate messaging. Sends one initial message per slot of the window, so that up to 'window' messages are in
+     * flight. Each received reply is then answered with one new message until stopCondition is reached.
      */
     @Override
-    protected void initMessaging() {
-        String message = initialMessage + " " + receivedMessagesCount;
-        ps.println(message);
-        sentMessagesCount++;
-        log("sent message: " + message, null);
+    protected void initMessaging() throws IOException {
+        int window = Math.min(agreedOptions.getWindow(), stopCondition);
+        if (window > 1) {
+            // no more than fit into the window bytes, see WireOptions#getWindowBytes
+            long maxFrameLength = messageMode.maxLength(initialMessage, name, stopCondition) + FRAME_OVERHEAD;
+            int fitting = (int) Math.max(1, Math.min(window, agreedOptions.getWindowBytes() / maxFrameLength));
+            if (fitting < window) {
+                log("window cut down to " + fitting + " messages of up to " + maxFrameLength + " bytes", null);
+                window = fitting;
+            }
+        }
+        for (int i = 0; i < window; i++) {
+            String message = messageMode.initial(initialMessage, name, receivedMessagesCount);
+            send(message);
+            log("sent message: ", message, null);
+        }
     }
 
     /**
-     * instantiate the ServerSocket, Socket, PrintStream and BufferedReader
+     * instantiate the ServerSocket and Socket, negotiate the wire options with the client and open the MessageChannel
      *
      * @throws IOException exception.
      */
     @Override
     protected void initSocketIO() throws IOException {
-        serverSocket = new ServerSocket(port);
-        socket = serverSocket.accept();
+        serverSocket = WireConnection.listen(port, wireOptions);
+        listening.countDown();
+        WireConnection connection = WireConnection.accept(serverSocket, wireOptions, stopCondition);
         log("connection established", null);
-        ps = new PrintStream(socket.getOutputStream());
-        br = new BufferedReader(new InputStreamReader(socket.getInputStream()));
+        use(connection);
     }
 
     /**
-     * close the ServerSocket, Socket, PrintStream and BufferedReader
+     * close the MessageChannel, Socket and ServerSocket
      *
      * @throws IOException exception.
      */
     @Override
     protected void closeSocketIO() throws IOException {
-        if (ps != null) {
-            ps.close();
-        }
-        if (br != null) {
-            br.close();
+        listening.countDown();
+        if (channel != null) {
+            channel.close();
         }
         if (socket != null) {
             socket.close();
@@ -86,4 +178,15 @@ public class WebSocketServer extends WebSocketPlayer {
         }
     }
 
+    /**
+     * Waits until the server socket is bound, so that a client can connect without retrying. With port 0 the system
+     * picks a free port, which is returned here.
+     *
+     * @return the port the server listens on, or -1 if it could not be bound
+     * @throws InterruptedException if interrupted while waiting.
+     */
+    public int awaitLocalPort() throws InterruptedException {
+        listening.await();
+        return serverSocket != null && serverSocket.isBound() ? serverSocket.getLocalPort() : -1;
+    }
 }
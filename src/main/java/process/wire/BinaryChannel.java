@@ -0,0 +1,109 @@
+package process.wire;
+
+import common.Utf8;
+
+import java.io.BufferedInputStream;
+import java.io.DataInputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * Length-prefixed binary frames. Each frame is
+ * <pre>
+ *     int    payload length in bytes
+ *     int    sequence number (0 for the first message sent on the connection)
+ *     byte[] UTF-8 payload
+ * </pre>
+ * A frame is encoded into a reusable buffer and written with a single write, there is no charset encoder, no newline
+ * scanning and no per-message buffer allocation on either side (only the received String itself is allocated).
+ */
+public class BinaryChannel implements MessageChannel {
+
+    /**
+     * length of the frame header (payload length + sequence number)
+     */
+    public static final int HEADER_LENGTH = 8;
+
+    private final DataInputStream in;
+    private final OutputStream out;
+    /**
+     * reusable buffer for outgoing frames, grows when needed
+     */
+    private byte[] sendBuffer = new byte[256];
+    /**
+     * reusable buffer for incoming payloads, grows when needed
+     */
+    private byte[] receiveBuffer = new byte[256];
+    private int sendSequence;
+    private int receiveSequence;
+
+    public BinaryChannel(InputStream in, OutputStream out) {
+        this.in = new DataInputStream(new BufferedInputStream(in));
+        this.out = out;
+    }
+
+    @Override
+    public void send(String message) throws IOException {
+        // UTF-8 needs at most 3 bytes per char
+        ensureSendCapacity(HEADER_LENGTH + 3 * message.length());
+        int length = Utf8.encode(message, sendBuffer, HEADER_LENGTH);
+        writeInt(sendBuffer, 0, length);
+        writeInt(sendBuffer, 4, sendSequence++);
+        out.write(sendBuffer, 0, HEADER_LENGTH + length);
+    }
+
+    @Override
+    public String receive() throws IOException {
+        int length;
+        try {
+            length = in.readInt();
+        } catch (EOFException e) {
+            return null;
+        }
+        int sequence = in.readInt();
+        if (length < 0) {
+            throw new IOException("Invalid frame length " + length);
+        }
+        if (sequence != receiveSequence) {
+            throw new IOException("Expected message " + receiveSequence + " but received " + sequence);
+        }
+        receiveSequence++;
+        if (receiveBuffer.length < length) {
+            receiveBuffer = new byte[Math.max(length, 2 * receiveBuffer.length)];
+        }
+        in.readFully(receiveBuffer, 0, length);
+        return new String(receiveBuffer, 0, length, StandardCharsets.UTF_8);
+    }
+
+    @Override
+    public boolean ready() throws IOException {
+        return in.available() > 0;
+    }
+
+    @Override
+    public void flush() throws IOException {
+        out.flush();
+    }
+
+    @Override
+    public void close() throws IOException {
+        out.close();
+        in.close();
+    }
+
+    private void ensureSendCapacity(int capacity) {
+        if (sendBuffer.length < capacity) {
+            sendBuffer = new byte[Math.max(capacity, 2 * sendBuffer.length)];
+        }
+    }
+
+    static void writeInt(byte[] buffer, int offset, int value) {
+        buffer[offset] = (byte) (value >>> 24);
+        buffer[offset + 1] = (byte) (value >>> 16);
+        buffer[offset + 2] = (byte) (value >>> 8);
+        buffer[offset + 3] = (byte) value;
+    }
+}
@@ -0,0 +1,40 @@
+package process.wire;
+
+import java.nio.ByteBuffer;
+import java.util.concurrent.ConcurrentLinkedQueue;
+
+/**
+ * Pool of direct ByteBuffers of one size. Direct buffers are expensive to allocate and are only freed by the garbage
+ * collector, so the channels take them from the pool when they are opened and give them back when they are closed.
+ */
+public final class BufferPool {
+
+    /**
+     * size of the pooled buffers, large enough for the messages of a concatenated game of the maximum length
+     */
+    public static final int BUFFER_SIZE = 64 * 1024;
+
+    private static final ConcurrentLinkedQueue<ByteBuffer> buffers = new ConcurrentLinkedQueue<>();
+
+    private BufferPool() {
+    }
+
+    /**
+     * @return a cleared direct buffer of BUFFER_SIZE bytes
+     */
+    public static ByteBuffer acquire() {
+        ByteBuffer buffer = buffers.poll();
+        return buffer == null ? ByteBuffer.allocateDirect(BUFFER_SIZE) : buffer.clear();
+    }
+
+    /**
+     * Gives a buffer back to the pool. Buffers of another size (eg. grown for a large message) are left to the GC.
+     *
+     * @param buffer buffer that is no longer used
+     */
+    public static void release(ByteBuffer buffer) {
+        if (buffer.isDirect() && buffer.capacity() == BUFFER_SIZE) {
+            buffers.offer(buffer);
+        }
+    }
+}
@@ -0,0 +1,145 @@
+package process.wire;
+
+import common.Configuration;
+
+import java.io.IOException;
+import java.net.ConnectException;
+import java.net.InetSocketAddress;
+import java.nio.channels.SocketChannel;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * How a client connects to a server that may not be listening yet, eg. when both processes are started together.
+ * <p>
+ * A refused connection is retried in the calling thread after a delay that starts small and doubles up to a maximum,
+ * so the client gets in within a few milliseconds of the server starting to listen, without hammering the port while
+ * the server takes long. Each delay is shortened by a random part (the jitter), so that clients started together do
+ * not retry in lock step. Once the deadline has passed, the last ConnectException is thrown.
+ * <p>
+ * The connection is accepted by the system as soon as the server is bound, the Handshake that follows is the check
+ * that the server is ready to play.
+ */
+public class ConnectStrategy {
+
+    /**
+     * delay before the first retry in milliseconds
+     */
+    private final long initialDelayMillis;
+    /**
+     * upper limit of the delay between two attempts in milliseconds
+     */
+    private final long maxDelayMillis;
+    /**
+     * time after which the client gives up, in milliseconds since the first attempt
+     */
+    private final long deadlineMillis;
+    /**
+     * part of each delay (0 to 1) that is randomly left out
+     */
+    private final double jitter;
+
+    /**
+     * Class constructor
+     *
+     * @param initialDelayMillis delay before the first retry in milliseconds.
+     * @param maxDelayMillis     upper limit of the delay between two attempts in milliseconds.
+     * @param deadlineMillis     time after which the client gives up, in milliseconds.
+     */
+    public ConnectStrategy(long initialDelayMillis, long maxDelayMillis, long deadlineMillis) {
+        this(initialDelayMillis, maxDelayMillis, deadlineMillis, 0.5);
+    }
+
+    /**
+     * Class constructor
+     *
+     * @param initialDelayMillis delay before the first retry in milliseconds.
+     * @param maxDelayMillis     upper limit of the delay between two attempts in milliseconds.
+     * @param deadlineMillis     time after which the client gives up, in milliseconds.
+     * @param jitter             part of each delay (0 to 1) that is randomly left out.
+     */
+    public ConnectStrategy(long initialDelayMillis, long maxDelayMillis, long deadlineMillis, double jitter) {
+        if (initialDelayMillis < 1 || maxDelayMillis < initialDelayMillis) {
+            throw new IllegalArgumentException("Invalid connect delays. Must be 1 <= initial <= max");
+        }
+        if (deadlineMillis < 0) {
+            throw new IllegalArgumentException("Invalid connect deadline. Must not be negative");
+        }
+        if (jitter < 0 || jitter > 1) {
+            throw new IllegalArgumentException("Invalid connect jitter. Allowed range is 0 to 1");
+        }
+        this.initialDelayMillis = initialDelayMillis;
+        this.maxDelayMillis = maxDelayMillis;
+        this.deadlineMillis = deadlineMillis;
+        this.jitter = jitter;
+    }
+
+    /**
+     * @return strategy as configured in the property file
+     */
+    public static ConnectStrategy fromConfiguration() {
+        return new ConnectStrategy(Configuration.readLong(Configuration.KEY_CONNECT_INITIAL_DELAY_MILLIS),
+                Configuration.readLong(Configuration.KEY_CONNECT_MAX_DELAY_MILLIS),
+                Configuration.readLong(Configuration.KEY_CONNECT_DEADLINE_MILLIS));
+    }
+
+    /**
+     * Connects to the address, retrying until it is accepted or the deadline has passed.
+     *
+     * @param address address of the server
+     * @return connected channel in blocking mode
+     * @throws ConnectException     if the server did not accept the connection before the deadline.
+     * @throws IOException          on any other error.
+     * @throws InterruptedException if interrupted while waiting for the next attempt.
+     */
+    public SocketChannel connect(InetSocketAddress address) throws IOException, InterruptedException {
+        long start = System.nanoTime();
+        long deadline = start + TimeUnit.MILLISECONDS.toNanos(deadlineMillis);
+        for (int attempt = 1; ; attempt++) {
+            try {
+                return SocketChannel.open(address);
+            } catch (ConnectException e) {
+                long sleepNanos = TimeUnit.MILLISECONDS.toNanos(delayMillis(attempt));
+                sleepNanos -= (long) (sleepNanos * jitter * ThreadLocalRandom.current().nextDouble());
+                long remaining = deadline - System.nanoTime();
+                if (remaining <= 0) {
+                    ConnectException timeout = new ConnectException("Unable to connect to " + address + " after "
+                            + attempt + " attempts in " + TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start)
+                            + " ms");
+                    timeout.initCause(e);
+                    throw timeout;
+                }
+                // the last attempt is made right at the deadline
+                TimeUnit.NANOSECONDS.sleep(Math.min(sleepNanos, remaining));
+            }
+        }
+    }
+
+    /**
+     * @param attempt number of the failed attempt, starting at 1
+     * @return delay after the failed attempt in milliseconds, before the jitter is taken off
+     */
+    public long delayMillis(int attempt) {
+        long delayMillis = initialDelayMillis;
+        for (int i = 1; i < attempt && delayMillis < maxDelayMillis; i++) {
+            delayMillis *= 2;
+        }
+        return Math.min(delayMillis, maxDelayMillis);
+    }
+
+    public long getInitialDelayMillis() {
+        return initialDelayMillis;
+    }
+
+    public long getMaxDelayMillis() {
+        return maxDelayMillis;
+    }
+
+    public long getDeadlineMillis() {
+        return deadlineMillis;
+    }
+
+    public double getJitter() {
+        return jitter;
+    }
+}
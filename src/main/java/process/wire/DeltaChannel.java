@@ -0,0 +1,111 @@
+package process.wire;
+
+import java.io.IOException;
+
+/**
+ * Decorates a MessageChannel so that only the part of each message that differs from the previous one goes over the
+ * wire. Each message is sent as
+ * <pre>
+ *     sequence:prefix:suffix
+ * </pre>
+ * where prefix is the number of leading chars it shares with the previous message sent on this channel, and suffix is
+ * the rest of the message. The other side rebuilds the message from the previous message it received, which is the
+ * same one since the delegate delivers the messages in order, whatever the window. The sequence number (1 for the
+ * first message) makes sure no message has been lost or reordered in between.
+ * <p>
+ * With MessageMode#CONCATENATED every message a player sends starts with the previous one it sent, so the suffix is
+ * the few counters appended since, and a game of n messages costs O(n) bytes instead of O(n^2). The rebuilt message is
+ * the complete text, so logs, metrics and journals see no difference.
+ */
+public class DeltaChannel implements MessageChannel {
+
+    private static final char SEPARATOR = ':';
+
+    private final MessageChannel delegate;
+    private String lastSent = "";
+    private String lastReceived = "";
+    private long sendSequence;
+    private long receiveSequence;
+
+    /**
+     * @param delegate channel the deltas are sent over
+     */
+    public DeltaChannel(MessageChannel delegate) {
+        this.delegate = delegate;
+    }
+
+    @Override
+    public void send(String message) throws IOException {
+        int prefix = commonPrefix(lastSent, message);
+        delegate.send(new StringBuilder(message.length() - prefix + 24).append(++sendSequence).append(SEPARATOR)
+                .append(prefix).append(SEPARATOR).append(message, prefix, message.length()).toString());
+        lastSent = message;
+    }
+
+    @Override
+    public String receive() throws IOException {
+        String delta = delegate.receive();
+        if (delta == null) {
+            return null;
+        }
+        int first = delta.indexOf(SEPARATOR);
+        int second = first < 0 ? -1 : delta.indexOf(SEPARATOR, first + 1);
+        if (second < 0) {
+            throw new IOException("Invalid delta message " + (receiveSequence + 1));
+        }
+        long sequence;
+        int prefix;
+        try {
+            sequence = Long.parseLong(delta, 0, first, 10);
+            prefix = Integer.parseInt(delta, first + 1, second, 10);
+        } catch (NumberFormatException e) {
+            throw new IOException("Invalid delta message " + (receiveSequence + 1), e);
+        }
+        if (sequence != ++receiveSequence) {
+            throw new IOException("Delta message " + sequence + " received, expected " + receiveSequence);
+        }
+        if (prefix < 0 || prefix > lastReceived.length()) {
+            throw new IOException("Delta message " + sequence + " refers to " + prefix + " chars of a previous message"
+                    + " of " + lastReceived.length());
+        }
+        lastReceived = new StringBuilder(prefix + delta.length() - second - 1).append(lastReceived, 0, prefix)
+                .append(delta, second + 1, delta.length()).toString();
+        return lastReceived;
+    }
+
+    @Override
+    public boolean ready() throws IOException {
+        return delegate.ready();
+    }
+
+    @Override
+    public void flush() throws IOException {
+        delegate.flush();
+    }
+
+    @Override
+    public void close() throws IOException {
+        delegate.close();
+    }
+
+    /**
+     * @return number of leading chars message shares with previous, never splitting a surrogate pair
+     */
+    static int commonPrefix(String previous, String message) {
+        int prefix;
+        if (message.startsWith(previous)) {
+            prefix = previous.length();
+        } else {
+            int limit = Math.min(previous.length(), message.length());
+            prefix = 0;
+            while (prefix < limit && previous.charAt(prefix) == message.charAt(prefix)) {
+                prefix++;
+            }
+        }
+        // the suffix is encoded on its own, half a pair would not survive
+        if (prefix > 0 && prefix < message.length() && Character.isHighSurrogate(message.charAt(prefix - 1))) {
+            prefix--;
+        }
+        return prefix;
+    }
+}
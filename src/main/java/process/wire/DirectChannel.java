@@ -0,0 +1,211 @@
+package process.wire;
+
+import common.MessageMode;
+import common.Utf8;
+import common.journal.Journal;
+
+import java.io.EOFException;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.SocketChannel;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * BinaryChannel frames (int length, int sequence number, UTF-8 payload) read and written straight from a blocking
+ * SocketChannel into pooled direct ByteBuffers, without the stream and reader layers.
+ * <p>
+ * On top of the String based MessageChannel methods, receiveFrame and sendReply let a player answer a message
+ * without ever turning it into a String: the reply is built by MessageMode#reply(ByteBuffer, int, int, ByteBuffer,
+ * byte[], int) right into the send buffer, from the payload still sitting in the receive buffer. Once the buffers
+ * have grown to the size of the largest message, that loop allocates nothing.
+ * <p>
+ * Every frame is written as soon as it is complete, so the flush policy does not apply.
+ */
+public class DirectChannel implements FrameChannel {
+
+    private final SocketChannel socketChannel;
+    /**
+     * received bytes not processed yet are between position and limit (read mode)
+     */
+    private ByteBuffer in;
+    private ByteBuffer out;
+    private int sendSequence;
+    private int receiveSequence;
+    /**
+     * position in the receive buffer of the payload of the frame received last, valid until the next receive
+     */
+    private int payloadOffset;
+    private int payloadLength;
+    /**
+     * length of the payload of the frame sent last, which stays in the send buffer until the next send
+     */
+    private int sentPayloadLength;
+    /**
+     * reusable buffer to encode the Strings sent
+     */
+    private byte[] scratch = new byte[256];
+
+    /**
+     * @param socketChannel connected channel in blocking mode
+     */
+    public DirectChannel(SocketChannel socketChannel) {
+        this.socketChannel = socketChannel;
+        this.in = BufferPool.acquire().flip();
+        this.out = BufferPool.acquire();
+    }
+
+    @Override
+    public void send(String message) throws IOException {
+        // UTF-8 needs at most 3 bytes per char
+        if (scratch.length < 3 * message.length()) {
+            scratch = new byte[Math.max(3 * message.length(), 2 * scratch.length)];
+        }
+        int length = Utf8.encode(message, scratch, 0);
+        startFrame(length);
+        out.put(scratch, 0, length);
+        endFrame();
+    }
+
+    @Override
+    public String receive() throws IOException {
+        int length = receiveFrame();
+        if (length < 0) {
+            return null;
+        }
+        byte[] bytes = new byte[length];
+        in.get(payloadOffset, bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+
+    @Override
+    public int receiveFrame() throws IOException {
+        if (!fill(BinaryChannel.HEADER_LENGTH)) {
+            return -1;
+        }
+        int length = in.getInt();
+        int sequence = in.getInt();
+        if (length < 0) {
+            throw new IOException("Invalid frame length " + length);
+        }
+        if (sequence != receiveSequence) {
+            throw new IOException("Expected message " + receiveSequence + " but received " + sequence);
+        }
+        receiveSequence++;
+        if (!fill(length)) {
+            throw new EOFException("Connection closed in the middle of a frame");
+        }
+        payloadOffset = in.position();
+        payloadLength = length;
+        in.position(payloadOffset + length);
+        return length;
+    }
+
+    /**
+     * Sends the reply to the frame received last, built in place by the message mode.
+     *
+     * @param messageMode how the reply is built
+     * @param origin      name of the sending player, UTF-8 encoded
+     * @param counter     counter to append
+     * @return length of the reply payload in bytes
+     * @throws IOException exception.
+     */
+    public int sendReply(MessageMode messageMode, byte[] origin, int counter) throws IOException {
+        // payload, separators, two ints and the origin
+        startFrame(payloadLength + origin.length + 32);
+        messageMode.reply(in, payloadOffset, payloadLength, out, origin, counter);
+        return endFrame();
+    }
+
+    @Override
+    public int sendReply(MessageMode messageMode, byte[] origin, int counter, Journal journal) throws IOException {
+        int length = sendReply(messageMode, origin, counter);
+        recordSent(journal);
+        return length;
+    }
+
+    @Override
+    public void recordReceived(Journal journal) {
+        journal.received(in, payloadOffset, payloadLength);
+    }
+
+    /**
+     * Records the frame sent last as sent, straight from the send buffer.
+     *
+     * @param journal journal of the sending player
+     */
+    public void recordSent(Journal journal) {
+        journal.sent(out, BinaryChannel.HEADER_LENGTH, sentPayloadLength);
+    }
+
+    @Override
+    public boolean ready() {
+        return in.hasRemaining();
+    }
+
+    @Override
+    public void flush() {
+        // frames are written as soon as they are complete
+    }
+
+    @Override
+    public void close() throws IOException {
+        socketChannel.close();
+        BufferPool.release(in);
+        BufferPool.release(out);
+    }
+
+    /**
+     * clears the send buffer, makes room for the header and the given number of payload bytes
+     */
+    private void startFrame(int maxPayloadLength) {
+        int capacity = BinaryChannel.HEADER_LENGTH + maxPayloadLength;
+        if (out.capacity() < capacity) {
+            BufferPool.release(out);
+            out = ByteBuffer.allocateDirect(Math.max(capacity, 2 * out.capacity()));
+        }
+        out.clear().position(BinaryChannel.HEADER_LENGTH);
+    }
+
+    /**
+     * writes the header in front of the payload put into the send buffer, then the whole frame
+     *
+     * @return length of the payload
+     */
+    private int endFrame() throws IOException {
+        int length = out.position() - BinaryChannel.HEADER_LENGTH;
+        out.putInt(0, length);
+        out.putInt(4, sendSequence++);
+        sentPayloadLength = length;
+        out.flip();
+        while (out.hasRemaining()) {
+            socketChannel.write(out);
+        }
+        return length;
+    }
+
+    /**
+     * makes sure that at least the given number of unprocessed bytes are in the receive buffer
+     *
+     * @return false if the connection was closed before
+     */
+    private boolean fill(int needed) throws IOException {
+        if (in.remaining() >= needed) {
+            return true;
+        }
+        if (in.capacity() < needed) {
+            ByteBuffer grown = ByteBuffer.allocateDirect(Math.max(needed, 2 * in.capacity()));
+            grown.put(in).flip();
+            BufferPool.release(in);
+            in = grown;
+        }
+        in.compact();
+        while (in.position() < needed) {
+            if (socketChannel.read(in) < 0) {
+                in.flip();
+                return false;
+            }
+        }
+        in.flip();
+        return true;
+    }
+}
@@ -0,0 +1,34 @@
+package process.wire;
+
+/**
+ * When the messages buffered by a MessageChannel are written to the socket. Whatever the policy, the buffer is always
+ * flushed before the channel blocks waiting for a message, so that the other player is never left waiting for a
+ * message still sitting in our buffer.
+ *
+ * @see FlushingChannel
+ */
+public enum FlushPolicy {
+
+    /**
+     * flush after every message, lowest latency
+     */
+    MESSAGE,
+    /**
+     * flush after every 'wire.flush.batch' messages
+     */
+    BATCH,
+    /**
+     * flush when 'wire.flush.interval.micros' have passed since the last flush
+     */
+    INTERVAL;
+
+    /**
+     * Parses the name of a policy (case insensitive), eg. 'batch'.
+     *
+     * @param name name of the policy
+     * @return the policy
+     */
+    public static FlushPolicy of(String name) {
+        return valueOf(name.trim().toUpperCase());
+    }
+}
@@ -0,0 +1,83 @@
+package process.wire;
+
+import java.io.IOException;
+
+/**
+ * Decorates a MessageChannel writing into a buffer, and flushes that buffer according to a FlushPolicy.
+ * <p>
+ * A pending buffer is also flushed whenever receive would block: as long as replies are already waiting to be read,
+ * messages keep piling up in the buffer, and they go out in one write as soon as there is nothing left to read.
+ */
+public class FlushingChannel implements MessageChannel {
+
+    private final MessageChannel delegate;
+    private final FlushPolicy policy;
+    private final int batchSize;
+    private final long intervalNanos;
+    /**
+     * number of messages sent since the last flush
+     */
+    private int pending;
+    private long lastFlush = System.nanoTime();
+
+    /**
+     * @param delegate      channel to decorate, writing into a buffer
+     * @param policy        when to flush
+     * @param batchSize     number of messages per flush, used by FlushPolicy#BATCH
+     * @param intervalNanos time between two flushes, used by FlushPolicy#INTERVAL
+     */
+    public FlushingChannel(MessageChannel delegate, FlushPolicy policy, int batchSize, long intervalNanos) {
+        this.delegate = delegate;
+        this.policy = policy;
+        this.batchSize = batchSize;
+        this.intervalNanos = intervalNanos;
+    }
+
+    @Override
+    public void send(String message) throws IOException {
+        delegate.send(message);
+        pending++;
+        switch (policy) {
+            case MESSAGE:
+                flush();
+                break;
+            case BATCH:
+                if (pending >= batchSize) {
+                    flush();
+                }
+                break;
+            case INTERVAL:
+                if (System.nanoTime() - lastFlush >= intervalNanos) {
+                    flush();
+                }
+                break;
+        }
+    }
+
+    @Override
+    public String receive() throws IOException {
+        if (pending > 0 && !delegate.ready()) {
+            flush();
+        }
+        return delegate.receive();
+    }
+
+    @Override
+    public boolean ready() throws IOException {
+        return delegate.ready();
+    }
+
+    @Override
+    public void flush() throws IOException {
+        delegate.flush();
+        pending = 0;
+        if (policy == FlushPolicy.INTERVAL) {
+            lastFlush = System.nanoTime();
+        }
+    }
+
+    @Override
+    public void close() throws IOException {
+        delegate.close();
+    }
+}
@@ -0,0 +1,41 @@
+package process.wire;
+
+import common.MessageMode;
+import common.journal.Journal;
+
+import java.io.IOException;
+
+/**
+ * A MessageChannel that lets a player answer a message without ever turning it into a String: the message stays in
+ * the receive buffer until the next receive, and the reply is built from it right into the send buffer. See
+ * DirectChannel.
+ */
+public interface FrameChannel extends MessageChannel {
+
+    /**
+     * Receives the next frame and leaves its payload in the receive buffer, until the next receive.
+     *
+     * @return length of the payload in bytes, or -1 if the other player has closed the connection.
+     * @throws IOException exception.
+     */
+    int receiveFrame() throws IOException;
+
+    /**
+     * Records the frame received last as received, straight from the receive buffer.
+     *
+     * @param journal journal of the receiving player
+     */
+    void recordReceived(Journal journal);
+
+    /**
+     * Sends the reply to the frame received last, built in place by the message mode, and records it as sent.
+     *
+     * @param messageMode how the reply is built
+     * @param origin      name of the sending player, UTF-8 encoded
+     * @param counter     counter to append
+     * @param journal     journal of the sending player
+     * @return length of the reply payload in bytes
+     * @throws IOException exception.
+     */
+    int sendReply(MessageMode messageMode, byte[] origin, int counter, Journal journal) throws IOException;
+}
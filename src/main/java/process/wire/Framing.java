@@ -0,0 +1,82 @@
+package process.wire;
+
+import java.io.BufferedOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.Socket;
+
+/**
+ * How messages are framed on the socket. Negotiated by the Handshake when the connection is established.
+ */
+public enum Framing {
+
+    /**
+     * newline delimited text, see TextChannel. Lines are numbered if the window holds more than one message.
+     */
+    TEXT {
+        @Override
+        MessageChannel create(Socket socket, OutputStream out, WireOptions options) throws IOException {
+            return new TextChannel(socket.getInputStream(), out, options.getWindow() > 1);
+        }
+    },
+    /**
+     * length-prefixed binary frames with sequence numbers, see BinaryChannel
+     */
+    BINARY {
+        @Override
+        MessageChannel create(Socket socket, OutputStream out, WireOptions options) throws IOException {
+            return new BinaryChannel(socket.getInputStream(), out);
+        }
+
+        @Override
+        public MessageChannel open(Socket socket, WireOptions options) throws IOException {
+            if (options.isDirectBuffers() && socket.getChannel() != null) {
+                return new DirectChannel(socket.getChannel());
+            }
+            return super.open(socket, options);
+        }
+    };
+
+    /**
+     * size of the buffer the messages are written into before they are flushed to the socket
+     */
+    private static final int OUTPUT_BUFFER_SIZE = 8192;
+
+    /**
+     * Creates the channel for a connected socket, flushing after every message.
+     *
+     * @param socket connected socket
+     * @return channel using this framing
+     * @throws IOException exception.
+     */
+    public MessageChannel open(Socket socket) throws IOException {
+        return open(socket, new WireOptions());
+    }
+
+    /**
+     * Creates the channel for a connected socket. Messages are written into a buffer and flushed to the socket
+     * according to the flush policy of the options, except for binary frames over direct buffers (see
+     * DirectChannel), which are written right away.
+     *
+     * @param socket  connected socket
+     * @param options options giving the flush policy and the window
+     * @return channel using this framing
+     * @throws IOException exception.
+     */
+    public MessageChannel open(Socket socket, WireOptions options) throws IOException {
+        OutputStream out = new BufferedOutputStream(socket.getOutputStream(), OUTPUT_BUFFER_SIZE);
+        return options.withFlushPolicy(create(socket, out, options));
+    }
+
+    abstract MessageChannel create(Socket socket, OutputStream out, WireOptions options) throws IOException;
+
+    /**
+     * Parses the name of a framing (case insensitive), eg. 'binary'.
+     *
+     * @param name name of the framing
+     * @return the framing
+     */
+    public static Framing of(String name) {
+        return valueOf(name.trim().toUpperCase());
+    }
+}
@@ -0,0 +1,307 @@
+package process.wire;
+
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.Socket;
+import java.net.SocketTimeoutException;
+import java.net.URI;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Paths;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Exchanged once, right after the connection is established, before any message is sent.
+ * <p>
+ * The client sends a single line 'HELLO key=value ...' with the options it wants, the server answers with a line in
+ * the same format carrying the options both sides will use. The lines are read byte by byte, so that nothing
+ * following the handshake is consumed before the agreed MessageChannel takes over the socket.
+ * <p>
+ * Both lines also carry the protocol version and, for a single game, the stop condition of the side sending it. The
+ * server answers before checking them, so that on a mismatch both sides fail with the values of the other one,
+ * instead of playing a game that can never end. A side waits for the line of the other one no longer than its idle
+ * timeout, if it has one.
+ */
+public final class Handshake {
+
+    private static final String HELLO = "HELLO";
+    private static final String KEY_FRAMING = "framing";
+    private static final String KEY_WINDOW = "window";
+    private static final String KEY_TRANSPORT = "transport";
+    private static final String KEY_FILE = "file";
+    private static final String KEY_CAPACITY = "capacity";
+    private static final String KEY_DELTA = "delta";
+    private static final String KEY_HEARTBEAT = "heartbeat";
+    private static final String KEY_VERSION = "version";
+    private static final String KEY_STOP_CONDITION = "stopCondition";
+    /**
+     * version of the messages exchanged after the handshake. A side that does not send one speaks version 1.
+     */
+    public static final int PROTOCOL_VERSION = 1;
+    public static final int MAX_LINE_LENGTH = 1024;
+
+    private Handshake() {
+    }
+
+    /**
+     * Client side of the handshake, without checking the stop condition.
+     *
+     * @param socket  connected socket
+     * @param options options wanted by the client
+     * @return options agreed by the server, local options (flush policy, socket options) are kept
+     * @throws IOException if the server does not answer with a valid handshake.
+     */
+    public static WireOptions connect(Socket socket, WireOptions options) throws IOException {
+        return connect(socket, options, 0);
+    }
+
+    /**
+     * Client side of the handshake.
+     *
+     * @param socket        connected socket
+     * @param options       options wanted by the client
+     * @param stopCondition stop condition of the game, 0 if not checked (eg. games of a session)
+     * @return options agreed by the server, local options (flush policy, socket options) are kept
+     * @throws IOException if the server does not answer with a valid handshake, or does not play the same game.
+     */
+    public static WireOptions connect(Socket socket, WireOptions options, int stopCondition) throws IOException {
+        Map<String, String> request = new LinkedHashMap<>();
+        request.put(KEY_VERSION, String.valueOf(PROTOCOL_VERSION));
+        request.put(KEY_FRAMING, options.getFraming().name());
+        request.put(KEY_TRANSPORT, options.getTransport().name());
+        request.put(KEY_DELTA, String.valueOf(options.isDelta()));
+        request.put(KEY_HEARTBEAT, String.valueOf(options.getHeartbeatIntervalMillis() > 0));
+        if (stopCondition > 0) {
+            request.put(KEY_STOP_CONDITION, String.valueOf(stopCondition));
+        }
+        writeLine(socket.getOutputStream(), format(request));
+
+        Map<String, String> response = parse(readLine(socket, options));
+        verify(response, stopCondition, "server");
+        WireOptions agreed = new WireOptions(options);
+        agreed.setFraming(Framing.of(require(response, KEY_FRAMING)));
+        agreed.setWindow(Integer.parseInt(response.getOrDefault(KEY_WINDOW, "1")));
+        agreed.setTransport(Transport.of(response.getOrDefault(KEY_TRANSPORT, Transport.SOCKET.name())));
+        agreed.setDelta(Boolean.parseBoolean(response.get(KEY_DELTA)));
+        if (!Boolean.parseBoolean(response.get(KEY_HEARTBEAT))) {
+            agreed.setHeartbeatIntervalMillis(0);
+        }
+        if (agreed.getTransport() == Transport.SHARED_MEMORY) {
+            agreed.setSharedMemoryFile(Paths.get(URI.create(require(response, KEY_FILE))));
+            agreed.setSharedMemoryCapacity(Integer.parseInt(require(response, KEY_CAPACITY)));
+        }
+        return agreed;
+    }
+
+    /**
+     * Server side of the handshake, without checking the stop condition.
+     *
+     * @param socket  accepted socket
+     * @param options options supported by the server
+     * @return options agreed with the client, local options (flush policy, socket options) are kept
+     * @throws IOException if the client does not start with a valid handshake.
+     */
+    public static WireOptions accept(Socket socket, WireOptions options) throws IOException {
+        return accept(socket, options, 0);
+    }
+
+    /**
+     * Server side of the handshake.
+     *
+     * @param socket        accepted socket
+     * @param options       options supported by the server
+     * @param stopCondition stop condition of the game, 0 if not checked (eg. games of a session)
+     * @return options agreed with the client, local options (flush policy, socket options) are kept
+     * @throws IOException if the client does not start with a valid handshake, or does not play the same game.
+     */
+    public static WireOptions accept(Socket socket, WireOptions options, int stopCondition) throws IOException {
+        String requestLine = readLine(socket, options);
+        WireOptions agreed = agree(requestLine, options);
+        writeLine(socket.getOutputStream(), response(agreed, stopCondition));
+        verify(requestLine, stopCondition);
+        // a whole window must be written without blocking: the messages in flight go into the send buffer (whose
+        // size as reported includes the bookkeeping of the system, hence half of it) or into the ring
+        int capacity = agreed.getTransport() == Transport.SHARED_MEMORY ? agreed.getSharedMemoryCapacity()
+                : Math.min(socket.getSendBufferSize(), socket.getReceiveBufferSize());
+        agreed.setWindowBytes(Math.max(1, Math.min(agreed.getWindowBytes(), capacity / 2)));
+        return agreed;
+    }
+
+    /**
+     * Decides the options to use from the client's handshake line. Used by servers that read the line themselves.
+     *
+     * @param requestLine handshake line received from the client, without line terminator
+     * @param options     options supported by the server
+     * @return options agreed with the client
+     * @throws IOException if the line is not a valid handshake.
+     */
+    public static WireOptions agree(String requestLine, WireOptions options) throws IOException {
+        Map<String, String> request = parse(requestLine);
+
+        WireOptions agreed = new WireOptions(options);
+        // binary framing only if both sides want it, text is understood by everyone
+        Framing requested;
+        try {
+            requested = Framing.of(require(request, KEY_FRAMING));
+        } catch (IllegalArgumentException e) {
+            requested = Framing.TEXT;
+        }
+        agreed.setFraming(requested == options.getFraming() ? requested : Framing.TEXT);
+        // the window is the server's own, it only limits the initiator, the client replies to every message it receives
+        // shared memory only if both sides ask for it, the server then creates the file and decides its size
+        Transport transport;
+        try {
+            transport = Transport.of(request.getOrDefault(KEY_TRANSPORT, Transport.SOCKET.name()));
+        } catch (IllegalArgumentException e) {
+            transport = Transport.SOCKET;
+        }
+        agreed.setTransport(transport == options.getTransport() ? transport : Transport.SOCKET);
+        if (agreed.getTransport() == Transport.SHARED_MEMORY) {
+            agreed.setSharedMemoryFile(SharedMemoryChannel.createFile(options.getSharedMemoryDirectory()));
+        }
+        // deltas only if both sides ask for them, a side that does not know them would see garbled messages
+        agreed.setDelta(options.isDelta() && Boolean.parseBoolean(request.get(KEY_DELTA)));
+        // heartbeats likewise, a side that does not drop them would count them as messages
+        if (!Boolean.parseBoolean(request.get(KEY_HEARTBEAT))) {
+            agreed.setHeartbeatIntervalMillis(0);
+        }
+        return agreed;
+    }
+
+    /**
+     * Checks that the client speaks the same protocol version and plays the same game. Used by servers that read the
+     * line themselves, after they have answered it.
+     *
+     * @param requestLine   handshake line received from the client, without line terminator
+     * @param stopCondition stop condition of the server's game, 0 if not checked
+     * @throws IOException if the client does not play the same game.
+     */
+    public static void verify(String requestLine, int stopCondition) throws IOException {
+        verify(parse(requestLine), stopCondition, "client");
+    }
+
+    /**
+     * @param agreed options agreed with the client
+     * @return the handshake line the server answers with, without line terminator
+     */
+    public static String response(WireOptions agreed) {
+        return response(agreed, 0);
+    }
+
+    /**
+     * @param agreed        options agreed with the client
+     * @param stopCondition stop condition of the server's game, 0 if not checked
+     * @return the handshake line the server answers with, without line terminator
+     */
+    public static String response(WireOptions agreed, int stopCondition) {
+        Map<String, String> response = new LinkedHashMap<>();
+        response.put(KEY_VERSION, String.valueOf(PROTOCOL_VERSION));
+        if (stopCondition > 0) {
+            response.put(KEY_STOP_CONDITION, String.valueOf(stopCondition));
+        }
+        response.put(KEY_FRAMING, agreed.getFraming().name());
+        response.put(KEY_WINDOW, String.valueOf(agreed.getWindow()));
+        response.put(KEY_TRANSPORT, agreed.getTransport().name());
+        response.put(KEY_DELTA, String.valueOf(agreed.isDelta()));
+        response.put(KEY_HEARTBEAT, String.valueOf(agreed.getHeartbeatIntervalMillis() > 0));
+        if (agreed.getTransport() == Transport.SHARED_MEMORY) {
+            // as URI, so that the path contains no spaces
+            response.put(KEY_FILE, agreed.getSharedMemoryFile().toUri().toString());
+            response.put(KEY_CAPACITY, String.valueOf(agreed.getSharedMemoryCapacity()));
+        }
+        return format(response);
+    }
+
+    /**
+     * @param values        handshake of the other side
+     * @param stopCondition own stop condition, 0 if not checked
+     * @param other         'client' or 'server'
+     */
+    private static void verify(Map<String, String> values, int stopCondition, String other) throws IOException {
+        int version;
+        int otherStopCondition;
+        try {
+            version = Integer.parseInt(values.getOrDefault(KEY_VERSION, "1"));
+            otherStopCondition = Integer.parseInt(values.getOrDefault(KEY_STOP_CONDITION, "0"));
+        } catch (NumberFormatException e) {
+            throw new IOException("Invalid handshake from the " + other + ": " + e.getMessage());
+        }
+        if (version != PROTOCOL_VERSION) {
+            throw new IOException("Protocol version mismatch: the " + other + " speaks version " + version
+                    + ", this side version " + PROTOCOL_VERSION);
+        }
+        if (stopCondition > 0 && otherStopCondition > 0 && stopCondition != otherStopCondition) {
+            throw new IOException("Stop condition mismatch: the " + other + " plays " + otherStopCondition
+                    + " messages, this side " + stopCondition);
+        }
+    }
+
+    private static String format(Map<String, String> values) {
+        StringBuilder line = new StringBuilder(HELLO);
+        values.forEach((key, value) -> line.append(' ').append(key).append('=').append(value));
+        return line.toString();
+    }
+
+    private static Map<String, String> parse(String line) throws IOException {
+        String[] tokens = line.split(" ");
+        if (!HELLO.equals(tokens[0])) {
+            throw new IOException("Invalid handshake: " + line);
+        }
+        Map<String, String> values = new LinkedHashMap<>();
+        for (int i = 1; i < tokens.length; i++) {
+            int separator = tokens[i].indexOf('=');
+            if (separator > 0) {
+                values.put(tokens[i].substring(0, separator), tokens[i].substring(separator + 1));
+            }
+        }
+        return values;
+    }
+
+    private static String require(Map<String, String> values, String key) throws IOException {
+        String value = values.get(key);
+        if (value == null) {
+            throw new IOException("Handshake is missing '" + key + "'");
+        }
+        return value;
+    }
+
+    private static void writeLine(OutputStream out, String line) throws IOException {
+        out.write((line + "\n").getBytes(StandardCharsets.US_ASCII));
+        out.flush();
+    }
+
+    /**
+     * reads the handshake line of the other side, waiting for each byte no longer than the idle timeout, if any
+     */
+    private static String readLine(Socket socket, WireOptions options) throws IOException {
+        long idleTimeoutMillis = options.getIdleTimeoutMillis();
+        int soTimeout = socket.getSoTimeout();
+        socket.setSoTimeout((int) Math.min(idleTimeoutMillis, Integer.MAX_VALUE));
+        try {
+            return readLine(socket.getInputStream());
+        } catch (SocketTimeoutException e) {
+            throw new SocketTimeoutException("No handshake received for " + idleTimeoutMillis + " ms");
+        } finally {
+            if (!socket.isClosed()) {
+                socket.setSoTimeout(soTimeout);
+            }
+        }
+    }
+
+    private static String readLine(InputStream in) throws IOException {
+        StringBuilder line = new StringBuilder();
+        int b;
+        while ((b = in.read()) != '\n') {
+            if (b < 0) {
+                throw new EOFException("Connection closed during handshake");
+            }
+            if (line.length() == MAX_LINE_LENGTH) {
+                throw new IOException("Handshake line too long");
+            }
+            line.append((char) b);
+        }
+        return line.toString();
+    }
+}
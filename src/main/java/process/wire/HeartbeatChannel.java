@@ -0,0 +1,196 @@
+package process.wire;
+
+import java.io.IOException;
+import java.net.Socket;
+import java.net.SocketTimeoutException;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Decorates the MessageChannel of a socket with heartbeats and an idle timeout, so that a game against a player that
+ * died or hung ends instead of blocking forever.
+ * <p>
+ * A heartbeat is an empty message, which no player ever sends, sent when nothing else has been sent for a heartbeat
+ * interval, and dropped by the receiving HeartbeatChannel. Heartbeats are only sent if the other side has agreed to
+ * them in the Handshake. If a receive has been waiting for the idle timeout without anything at all (message or
+ * heartbeat) arriving, the socket is closed, which makes the receive fail with a SocketTimeoutException. The timeout
+ * is enforced this way rather than with SO_TIMEOUT, which a SocketChannel (see DirectChannel) ignores.
+ * <p>
+ * Heartbeats and timeouts of all connections are checked by one shared scheduler thread. Sends and flushes go through
+ * a lock shared with the heartbeats, so that a heartbeat is never written in the middle of a message. The scheduler
+ * does not wait for the lock: if the player is sending, there is no need for a heartbeat. Over a FrameChannel the
+ * decorator is a HeartbeatFrameChannel, which keeps the in-place replies.
+ */
+public class HeartbeatChannel implements MessageChannel {
+
+    /**
+     * the message sent as heartbeat
+     */
+    static final String HEARTBEAT = "";
+
+    private static final ScheduledExecutorService SCHEDULER = Executors.newSingleThreadScheduledExecutor(task -> {
+        Thread thread = new Thread(task, "heartbeats");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    private final MessageChannel delegate;
+    private final Socket socket;
+    private final long heartbeatIntervalNanos;
+    private final long idleTimeoutNanos;
+    final ReentrantLock sendLock = new ReentrantLock();
+    private final ScheduledFuture<?> task;
+    /**
+     * set on every send, cleared by the scheduler
+     */
+    volatile boolean sent;
+    /**
+     * set on every receive, cleared by the scheduler
+     */
+    volatile boolean received;
+    /**
+     * true while a receive is waiting, the idle time only counts then
+     */
+    volatile boolean waiting;
+    /**
+     * System#nanoTime when the current receive started waiting, the idle time never counts from before
+     */
+    volatile long waitStart;
+    volatile boolean timedOut;
+    /**
+     * times of the last send and receive seen by the scheduler, only used by the scheduler thread
+     */
+    private long lastSent;
+    private long lastReceived;
+
+    /**
+     * @param delegate                channel of the socket
+     * @param socket                  socket, closed on idle timeout
+     * @param heartbeatIntervalMillis time without sending after which a heartbeat is sent, 0 for no heartbeats
+     * @param idleTimeoutMillis       time a receive may wait for anything to arrive, 0 for no timeout
+     */
+    public HeartbeatChannel(MessageChannel delegate, Socket socket, long heartbeatIntervalMillis,
+                            long idleTimeoutMillis) {
+        if (heartbeatIntervalMillis <= 0 && idleTimeoutMillis <= 0) {
+            throw new IllegalArgumentException("Needs a heartbeat interval or an idle timeout");
+        }
+        this.delegate = delegate;
+        this.socket = socket;
+        this.heartbeatIntervalNanos = TimeUnit.MILLISECONDS.toNanos(heartbeatIntervalMillis);
+        this.idleTimeoutNanos = TimeUnit.MILLISECONDS.toNanos(idleTimeoutMillis);
+        this.lastSent = this.lastReceived = System.nanoTime();
+        // checked twice per interval, so a heartbeat or a timeout is late by half an interval at most
+        long period = Math.min(heartbeatIntervalMillis > 0 ? heartbeatIntervalMillis : Long.MAX_VALUE,
+                idleTimeoutMillis > 0 ? idleTimeoutMillis : Long.MAX_VALUE);
+        period = Math.max(1, period / 2);
+        this.task = SCHEDULER.scheduleAtFixedRate(this::check, period, period, TimeUnit.MILLISECONDS);
+    }
+
+    @Override
+    public void send(String message) throws IOException {
+        sendLock.lock();
+        try {
+            delegate.send(message);
+            sent = true;
+        } finally {
+            sendLock.unlock();
+        }
+    }
+
+    @Override
+    public String receive() throws IOException {
+        String message;
+        startWaiting();
+        try {
+            do {
+                message = delegate.receive();
+                received = true;
+            } while (message != null && message.isEmpty());
+        } catch (IOException e) {
+            if (timedOut) {
+                throw timeout();
+            }
+            throw e;
+        } finally {
+            waiting = false;
+        }
+        if (message == null && timedOut) {
+            throw timeout();
+        }
+        return message;
+    }
+
+    @Override
+    public boolean ready() throws IOException {
+        return delegate.ready();
+    }
+
+    @Override
+    public void flush() throws IOException {
+        sendLock.lock();
+        try {
+            delegate.flush();
+        } finally {
+            sendLock.unlock();
+        }
+    }
+
+    @Override
+    public void close() throws IOException {
+        task.cancel(false);
+        sendLock.lock();
+        try {
+            delegate.close();
+        } finally {
+            sendLock.unlock();
+        }
+    }
+
+    /**
+     * Runs on the scheduler thread.
+     */
+    private void check() {
+        long now = System.nanoTime();
+        if (received || !waiting) {
+            received = false;
+            lastReceived = now;
+        } else if (idleTimeoutNanos > 0 && now - Math.max(lastReceived, waitStart) >= idleTimeoutNanos) {
+            timedOut = true;
+            task.cancel(false);
+            try {
+                socket.close();
+            } catch (IOException e) {
+                // the receive fails either way
+            }
+            return;
+        }
+        if (sent) {
+            sent = false;
+            lastSent = now;
+        } else if (heartbeatIntervalNanos > 0 && now - lastSent >= heartbeatIntervalNanos && sendLock.tryLock()) {
+            try {
+                delegate.send(HEARTBEAT);
+                delegate.flush();
+                lastSent = now;
+            } catch (IOException e) {
+                // the connection is gone, the player finds out on its next send or receive
+                task.cancel(false);
+            } finally {
+                sendLock.unlock();
+            }
+        }
+    }
+
+    void startWaiting() {
+        waitStart = System.nanoTime();
+        waiting = true;
+    }
+
+    SocketTimeoutException timeout() {
+        return new SocketTimeoutException("No message or heartbeat received for "
+                + TimeUnit.NANOSECONDS.toMillis(idleTimeoutNanos) + " ms");
+    }
+}
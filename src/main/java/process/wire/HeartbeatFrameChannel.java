@@ -0,0 +1,68 @@
+package process.wire;
+
+import common.MessageMode;
+import common.journal.Journal;
+
+import java.io.IOException;
+import java.net.Socket;
+
+/**
+ * HeartbeatChannel over a FrameChannel, so that a player can still answer in place while heartbeats are sent and the
+ * idle timeout is watched. Heartbeats arrive as empty frames and are skipped by receiveFrame like by receive.
+ */
+class HeartbeatFrameChannel extends HeartbeatChannel implements FrameChannel {
+
+    private final FrameChannel frames;
+
+    /**
+     * @param delegate                frame channel of the socket
+     * @param socket                  socket, closed on idle timeout
+     * @param heartbeatIntervalMillis time without sending after which a heartbeat is sent, 0 for no heartbeats
+     * @param idleTimeoutMillis       time a receive may wait for anything to arrive, 0 for no timeout
+     */
+    HeartbeatFrameChannel(FrameChannel delegate, Socket socket, long heartbeatIntervalMillis, long idleTimeoutMillis) {
+        super(delegate, socket, heartbeatIntervalMillis, idleTimeoutMillis);
+        this.frames = delegate;
+    }
+
+    @Override
+    public int receiveFrame() throws IOException {
+        int length;
+        startWaiting();
+        try {
+            do {
+                length = frames.receiveFrame();
+                received = true;
+            } while (length == 0);
+        } catch (IOException e) {
+            if (timedOut) {
+                throw timeout();
+            }
+            throw e;
+        } finally {
+            waiting = false;
+        }
+        if (length < 0 && timedOut) {
+            throw timeout();
+        }
+        return length;
+    }
+
+    @Override
+    public void recordReceived(Journal journal) {
+        frames.recordReceived(journal);
+    }
+
+    @Override
+    public int sendReply(MessageMode messageMode, byte[] origin, int counter, Journal journal) throws IOException {
+        // recorded under the lock too, a heartbeat sent in between would overwrite the reply in the send buffer
+        sendLock.lock();
+        try {
+            int length = frames.sendReply(messageMode, origin, counter, journal);
+            sent = true;
+            return length;
+        } finally {
+            sendLock.unlock();
+        }
+    }
+}
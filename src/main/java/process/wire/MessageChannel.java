@@ -0,0 +1,42 @@
+package process.wire;
+
+import java.io.Closeable;
+import java.io.IOException;
+
+/**
+ * Two-way message stream between two WebSocketPlayers. Implementations decide how the messages are framed on the
+ * wire. Sent messages may be buffered until flush is called.
+ *
+ * @see Framing
+ */
+public interface MessageChannel extends Closeable {
+
+    /**
+     * Sends one message to the other player.
+     *
+     * @param message message, not null
+     * @throws IOException exception.
+     */
+    void send(String message) throws IOException;
+
+    /**
+     * Waits for the next message from the other player.
+     *
+     * @return message, or null if the other player has closed the connection.
+     * @throws IOException exception.
+     */
+    String receive() throws IOException;
+
+    /**
+     * @return true if a message, or the start of one, can be read without waiting for the other player.
+     * @throws IOException exception.
+     */
+    boolean ready() throws IOException;
+
+    /**
+     * Writes the messages sent so far to the socket.
+     *
+     * @throws IOException exception.
+     */
+    void flush() throws IOException;
+}
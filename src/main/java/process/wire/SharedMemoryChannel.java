@@ -0,0 +1,300 @@
+package process.wire;
+
+import common.Utf8;
+import common.WaitStrategy;
+
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.VarHandle;
+import java.net.Socket;
+import java.net.SocketException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.channels.SocketChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Messages between two processes on the same host, through a memory-mapped file holding two single-producer/
+ * single-consumer byte rings, one per direction. No system call is made per message: a message is copied into the
+ * mapped memory and published with a release store, the other process polls with the configured WaitStrategy.
+ * <p>
+ * Layout of the file, each ring being
+ * <pre>
+ *     long   tail, bytes written so far, only written by the producer
+ *     long   closed, set to 1 by the producer when it closes the channel
+ *     long   head, bytes read so far, only written by the consumer (on a cache line of its own)
+ *     byte[] data, records of int payload length + UTF-8 payload, padded to a multiple of 4 bytes
+ * </pre>
+ * A newly created (zero filled) file is a valid empty state, so the two sides can map it in any order. The server
+ * creates the file during the Handshake and deletes it when it closes the channel.
+ * <p>
+ * The sockets stay open next to the channel, but no message goes through them. While a side waits for the other one,
+ * it checks from time to time that its socket is still open and has not been closed by the other side, so that a
+ * crashed process or an idle timeout (see HeartbeatChannel, which closes the socket) ends the wait.
+ */
+public class SharedMemoryChannel implements MessageChannel {
+
+    private static final VarHandle LONGS = MethodHandles.byteBufferViewVarHandle(long[].class, ByteOrder.nativeOrder());
+    private static final int TAIL = 0;
+    private static final int CLOSED = 8;
+    private static final int HEAD = 64;
+    private static final int DATA = 128;
+    private static final int LENGTH_BYTES = 4;
+    private static final long CHECK_INTERVAL_NANOS = TimeUnit.MILLISECONDS.toNanos(10);
+
+    private final Path file;
+    private final boolean server;
+    private final int capacity;
+    private final WaitStrategy waitStrategy;
+    private final MappedByteBuffer buffer;
+    /**
+     * offsets of the ring this side writes to and of the ring it reads from
+     */
+    private final int sendRing;
+    private final int receiveRing;
+    /**
+     * socket the handshake was done on, checked while waiting, null if not watched
+     */
+    private final Socket socket;
+    /**
+     * channel of the socket in non-blocking mode, null if the socket has none
+     */
+    private final SocketChannel socketChannel;
+    /**
+     * time of the last check of the socket. Sending (eg. a heartbeat) and receiving threads may both wait and check,
+     * a lost update only moves the next check.
+     */
+    private long lastCheck;
+    private long sendTail;
+    private long sendHeadCache;
+    private long receiveHead;
+    private long receiveTailCache;
+    /**
+     * one buffer per direction, a message may be sent on one thread while another one is received on another thread
+     */
+    private byte[] sendScratch = new byte[256];
+    private byte[] receiveScratch = new byte[256];
+
+    /**
+     * Creates an empty file for a new channel.
+     *
+     * @param directory directory to create the file in, null or empty for /dev/shm if available, else the temp dir.
+     * @return the file
+     * @throws IOException exception.
+     */
+    public static Path createFile(String directory) throws IOException {
+        Path dir;
+        if (directory != null && !directory.trim().isEmpty()) {
+            dir = Paths.get(directory.trim());
+        } else if (Files.isDirectory(Paths.get("/dev/shm"))) {
+            dir = Paths.get("/dev/shm");
+        } else {
+            dir = Paths.get(System.getProperty("java.io.tmpdir"));
+        }
+        return Files.createTempFile(dir, "player-", ".shm");
+    }
+
+    /**
+     * Class constructor
+     *
+     * @param file         file created by the server, see createFile
+     * @param capacity     size of each ring in bytes, rounded up to a multiple of 64. Must be the same on both sides.
+     * @param waitStrategy what a side does while its receive ring is empty or its send ring is full
+     * @param server       true for the server side, which owns (and deletes) the file
+     * @throws IOException exception.
+     */
+    public SharedMemoryChannel(Path file, int capacity, WaitStrategy waitStrategy, boolean server) throws IOException {
+        this(file, capacity, waitStrategy, server, null);
+    }
+
+    /**
+     * Class constructor
+     *
+     * @param file         file created by the server, see createFile
+     * @param capacity     size of each ring in bytes, rounded up to a multiple of 64. Must be the same on both sides.
+     * @param waitStrategy what a side does while its receive ring is empty or its send ring is full
+     * @param server       true for the server side, which owns (and deletes) the file
+     * @param socket       socket the handshake was done on, watched while waiting. Its channel, if it has one, is put
+     *                     into non-blocking mode, so the socket must not be read or written any more.
+     * @throws IOException exception.
+     */
+    public SharedMemoryChannel(Path file, int capacity, WaitStrategy waitStrategy, boolean server, Socket socket)
+            throws IOException {
+        if (capacity < 64) {
+            throw new IllegalArgumentException("Invalid capacity " + capacity + ". Must be at least 64");
+        }
+        if (!Files.exists(file)) {
+            throw new IOException("Shared memory file " + file + " not found, is the server on another host?");
+        }
+        this.file = file;
+        this.server = server;
+        this.capacity = (capacity + 63) & ~63;
+        this.waitStrategy = waitStrategy;
+        int ringSize = DATA + this.capacity;
+        try (FileChannel fileChannel = FileChannel.open(file, StandardOpenOption.READ, StandardOpenOption.WRITE)) {
+            // mapping beyond the end of the (empty) file extends it with zeros
+            this.buffer = fileChannel.map(FileChannel.MapMode.READ_WRITE, 0, 2L * ringSize);
+        }
+        this.sendRing = server ? 0 : ringSize;
+        this.receiveRing = server ? ringSize : 0;
+        this.socket = socket;
+        this.socketChannel = socket != null ? socket.getChannel() : null;
+        if (socketChannel != null) {
+            socketChannel.configureBlocking(false);
+        }
+    }
+
+    @Override
+    public void send(String message) throws IOException {
+        // UTF-8 needs at most 3 bytes per char
+        if (sendScratch.length < 3 * message.length()) {
+            sendScratch = new byte[Math.max(3 * message.length(), 2 * sendScratch.length)];
+        }
+        int length = Utf8.encode(message, sendScratch, 0);
+        int recordLength = align(LENGTH_BYTES + length);
+        if (recordLength > capacity) {
+            throw new IOException("Message of " + length + " bytes does not fit into the shared memory ring");
+        }
+        try {
+            while (sendTail + recordLength - sendHeadCache > capacity) {
+                sendHeadCache = (long) LONGS.getAcquire(buffer, sendRing + HEAD);
+                if (sendTail + recordLength - sendHeadCache > capacity) {
+                    if (!idle()) {
+                        throw new EOFException("Connection closed by the other side while the ring was full");
+                    }
+                }
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new InterruptedIOException("Interrupted while waiting for space in the shared memory ring");
+        }
+        int offset = (int) (sendTail % capacity);
+        buffer.putInt(sendRing + DATA + offset, length);
+        copyIn(offset + LENGTH_BYTES, length);
+        sendTail += recordLength;
+        // release store, publishes the record to the other process
+        LONGS.setRelease(buffer, sendRing + TAIL, sendTail);
+    }
+
+    @Override
+    public String receive() throws IOException {
+        try {
+            boolean connected = true;
+            while (receiveHead == receiveTailCache) {
+                receiveTailCache = (long) LONGS.getAcquire(buffer, receiveRing + TAIL);
+                if (receiveHead == receiveTailCache) {
+                    if ((long) LONGS.getAcquire(buffer, receiveRing + CLOSED) != 0) {
+                        // read the tail again, records written before closing must not be lost
+                        receiveTailCache = (long) LONGS.getAcquire(buffer, receiveRing + TAIL);
+                        if (receiveHead == receiveTailCache) {
+                            return null;
+                        }
+                    } else if (!connected) {
+                        // the ring has been read once more since, nothing was written before the socket closed
+                        throw new EOFException("Connection closed by the other side without closing the ring");
+                    } else {
+                        connected = idle();
+                    }
+                }
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new InterruptedIOException("Interrupted while waiting for a message in the shared memory ring");
+        }
+        int offset = (int) (receiveHead % capacity);
+        int length = buffer.getInt(receiveRing + DATA + offset);
+        if (length < 0 || LENGTH_BYTES + length > capacity) {
+            throw new IOException("Invalid record length " + length);
+        }
+        if (receiveScratch.length < length) {
+            receiveScratch = new byte[Math.max(length, 2 * receiveScratch.length)];
+        }
+        copyOut(offset + LENGTH_BYTES, length);
+        receiveHead += align(LENGTH_BYTES + length);
+        // release store, frees the space for the other process
+        LONGS.setRelease(buffer, receiveRing + HEAD, receiveHead);
+        return new String(receiveScratch, 0, length, StandardCharsets.UTF_8);
+    }
+
+    @Override
+    public boolean ready() {
+        return receiveHead != (long) LONGS.getAcquire(buffer, receiveRing + TAIL);
+    }
+
+    @Override
+    public void flush() {
+        // every message is visible to the other process as soon as send returns
+    }
+
+    @Override
+    public void close() throws IOException {
+        LONGS.setRelease(buffer, sendRing + CLOSED, 1L);
+        if (server) {
+            // the other process keeps its mapping, the memory is released when both have unmapped it
+            Files.deleteIfExists(file);
+        }
+    }
+
+    /**
+     * Waits with the wait strategy, and checks the socket if it has not been checked for a while.
+     *
+     * @return false if the other side has closed the socket
+     * @throws IOException if this side has closed the socket, eg. on idle timeout.
+     */
+    private boolean idle() throws IOException, InterruptedException {
+        waitStrategy.idle();
+        if (socket == null) {
+            return true;
+        }
+        long now = System.nanoTime();
+        if (now - lastCheck < CHECK_INTERVAL_NANOS) {
+            return true;
+        }
+        lastCheck = now;
+        if (socket.isClosed()) {
+            throw new SocketException("Socket closed");
+        }
+        if (socketChannel == null) {
+            return true;
+        }
+        // nothing is sent on the socket after the handshake, the end of the stream is all there is to read
+        return socketChannel.read(ByteBuffer.allocate(16)) >= 0;
+    }
+
+    /**
+     * copies length bytes of the send scratch buffer into the send ring, wrapping around at the end of the ring
+     */
+    private void copyIn(int offset, int length) {
+        int start = offset % capacity;
+        int first = Math.min(length, capacity - start);
+        buffer.put(sendRing + DATA + start, sendScratch, 0, first);
+        if (first < length) {
+            buffer.put(sendRing + DATA, sendScratch, first, length - first);
+        }
+    }
+
+    /**
+     * copies length bytes of the receive ring into the receive scratch buffer, wrapping around at the end of the ring
+     */
+    private void copyOut(int offset, int length) {
+        int start = offset % capacity;
+        int first = Math.min(length, capacity - start);
+        buffer.get(receiveRing + DATA + start, receiveScratch, 0, first);
+        if (first < length) {
+            buffer.get(receiveRing + DATA, receiveScratch, first, length - first);
+        }
+    }
+
+    private static int align(int length) {
+        return (length + 3) & ~3;
+    }
+}
@@ -0,0 +1,97 @@
+package process.wire;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.OutputStream;
+import java.io.PrintStream;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * Newline delimited text messages, written with PrintStream#println and read with BufferedReader#readLine, in UTF-8
+ * whatever the default charset of the platform, like the lines of NioWebSocketServer.
+ * <p>
+ * With a window of more than one message, each line starts with its sequence number (0 for the first message sent
+ * on the connection) and a space, like the frames of BinaryChannel carry one, so that a lost or repeated message
+ * among those in flight is noticed.
+ */
+public class TextChannel implements MessageChannel {
+
+    /**
+     * PrintStream instance to send data
+     */
+    private final PrintStream ps;
+
+    /**
+     * BufferedReader instance to read data
+     */
+    private final BufferedReader br;
+
+    /**
+     * true if each line starts with its sequence number
+     */
+    private final boolean numbered;
+    private int sendSequence;
+    private int receiveSequence;
+
+    public TextChannel(InputStream in, OutputStream out) {
+        this(in, out, false);
+    }
+
+    /**
+     * @param in       stream to read the lines from
+     * @param out      stream to write the lines to
+     * @param numbered true to start each line with its sequence number
+     */
+    public TextChannel(InputStream in, OutputStream out, boolean numbered) {
+        this.ps = new PrintStream(out, false, StandardCharsets.UTF_8);
+        this.br = new BufferedReader(new InputStreamReader(in, StandardCharsets.UTF_8));
+        this.numbered = numbered;
+    }
+
+    @Override
+    public void send(String message) {
+        if (numbered) {
+            ps.print(sendSequence++);
+            ps.print(' ');
+        }
+        ps.println(message);
+    }
+
+    @Override
+    public String receive() throws IOException {
+        String line = br.readLine();
+        if (line == null || !numbered) {
+            return line;
+        }
+        int separator = line.indexOf(' ');
+        int sequence = -1;
+        try {
+            sequence = Integer.parseInt(line, 0, separator < 0 ? line.length() : separator, 10);
+        } catch (NumberFormatException e) {
+            // reported below
+        }
+        if (separator < 0 || sequence != receiveSequence) {
+            throw new IOException("Expected message " + receiveSequence + " but received '" + line + "'");
+        }
+        receiveSequence++;
+        return line.substring(separator + 1);
+    }
+
+    @Override
+    public boolean ready() throws IOException {
+        return br.ready();
+    }
+
+    @Override
+    public void flush() {
+        ps.flush();
+    }
+
+    @Override
+    public void close() throws IOException {
+        ps.close();
+        br.close();
+    }
+}
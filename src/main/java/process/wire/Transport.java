@@ -0,0 +1,59 @@
+package process.wire;
+
+import java.io.IOException;
+import java.net.Socket;
+
+/**
+ * What carries the messages once the Handshake is done. Negotiated like the framing: the shared memory transport is
+ * only used if both sides ask for it.
+ */
+public enum Transport {
+
+    /**
+     * the socket the handshake was done on, framed as agreed, with heartbeats and idle timeout if configured
+     */
+    SOCKET {
+        @Override
+        MessageChannel create(Socket socket, WireOptions options, boolean server) throws IOException {
+            return options.withHeartbeats(options.getFraming().open(socket, options), socket);
+        }
+    },
+    /**
+     * a memory-mapped file shared by two processes on the same host, see SharedMemoryChannel. The file is created by
+     * the server and its path is sent to the client in the handshake. The socket is kept open and watched while
+     * waiting, heartbeats and idle timeout work as for the socket transport.
+     */
+    SHARED_MEMORY {
+        @Override
+        MessageChannel create(Socket socket, WireOptions options, boolean server) throws IOException {
+            return options.withHeartbeats(new SharedMemoryChannel(options.getSharedMemoryFile(),
+                    options.getSharedMemoryCapacity(), options.getSharedMemoryWaitStrategy(), server, socket), socket);
+        }
+    };
+
+    /**
+     * Creates the channel once the handshake is done, sending deltas (see DeltaChannel) if they have been agreed.
+     *
+     * @param socket  socket the handshake was done on
+     * @param options agreed options
+     * @param server  true on the server side
+     * @return channel using this transport
+     * @throws IOException exception.
+     */
+    public MessageChannel open(Socket socket, WireOptions options, boolean server) throws IOException {
+        MessageChannel channel = create(socket, options, server);
+        return options.isDelta() ? new DeltaChannel(channel) : channel;
+    }
+
+    abstract MessageChannel create(Socket socket, WireOptions options, boolean server) throws IOException;
+
+    /**
+     * Parses the name of a transport (case insensitive), eg. 'shared_memory'.
+     *
+     * @param name name of the transport
+     * @return the transport
+     */
+    public static Transport of(String name) {
+        return valueOf(name.trim().toUpperCase());
+    }
+}
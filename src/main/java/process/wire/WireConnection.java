@@ -0,0 +1,131 @@
+package process.wire;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.net.InetSocketAddress;
+import java.net.ServerSocket;
+import java.net.Socket;
+import java.net.SocketTimeoutException;
+import java.nio.channels.ServerSocketChannel;
+
+/**
+ * A connection between two players over which the Handshake has been made: the socket, the options agreed on it and
+ * the MessageChannel that the messages are exchanged on.
+ * <p>
+ * Every player establishes its connections here. The sockets are opened through channels, so that DirectChannel can
+ * use them, and configured as given by the WireOptions before the handshake. Closing the connection closes the
+ * channel and the socket.
+ */
+public final class WireConnection implements Closeable {
+
+    private final Socket socket;
+    private final WireOptions agreedOptions;
+    private final MessageChannel channel;
+
+    private WireConnection(Socket socket, WireOptions agreedOptions, MessageChannel channel) {
+        this.socket = socket;
+        this.agreedOptions = agreedOptions;
+        this.channel = channel;
+    }
+
+    /**
+     * Opens a server socket on localhost for the players to connect to. accept waits for a player no longer than the
+     * idle timeout of the options, if they have one.
+     *
+     * @param port    port to listen on, 0 for a port picked by the system
+     * @param options options supported by the server, the socket options are applied to the server socket
+     * @return the bound server socket
+     * @throws IOException if the server socket cannot be opened or bound.
+     */
+    public static ServerSocket listen(int port, WireOptions options) throws IOException {
+        ServerSocket serverSocket = ServerSocketChannel.open().socket();
+        try {
+            options.configure(serverSocket);
+            serverSocket.setSoTimeout((int) Math.min(options.getIdleTimeoutMillis(), Integer.MAX_VALUE));
+            serverSocket.bind(new InetSocketAddress(port));
+            return serverSocket;
+        } catch (IOException | RuntimeException e) {
+            serverSocket.close();
+            throw e;
+        }
+    }
+
+    /**
+     * Server side: accepts the next player and makes the handshake with it.
+     *
+     * @param serverSocket  server socket opened by listen
+     * @param options       options supported by the server
+     * @param stopCondition stop condition of the game, 0 if not checked (eg. games of a session)
+     * @return the established connection
+     * @throws IOException if no player can be accepted, or the handshake fails.
+     */
+    public static WireConnection accept(ServerSocket serverSocket, WireOptions options, int stopCondition)
+            throws IOException {
+        Socket socket;
+        try {
+            socket = serverSocket.accept();
+        } catch (SocketTimeoutException e) {
+            throw new SocketTimeoutException("No player connected for " + serverSocket.getSoTimeout() + " ms");
+        }
+        return establish(socket, options, stopCondition, true);
+    }
+
+    /**
+     * Client side: connects to the server on localhost, retrying as given by the ConnectStrategy of the options, and
+     * makes the handshake with it.
+     *
+     * @param port          port the server listens on
+     * @param options       options wanted by the client
+     * @param stopCondition stop condition of the game, 0 if not checked (eg. games of a session)
+     * @return the established connection
+     * @throws IOException          if the server cannot be reached, or the handshake fails.
+     * @throws InterruptedException if interrupted while waiting to retry the connection.
+     */
+    public static WireConnection connect(int port, WireOptions options, int stopCondition)
+            throws IOException, InterruptedException {
+        Socket socket = options.getConnectStrategy().connect(new InetSocketAddress("localhost", port)).socket();
+        return establish(socket, options, stopCondition, false);
+    }
+
+    private static WireConnection establish(Socket socket, WireOptions options, int stopCondition, boolean server)
+            throws IOException {
+        try {
+            options.configure(socket);
+            WireOptions agreed = server ? Handshake.accept(socket, options, stopCondition)
+                    : Handshake.connect(socket, options, stopCondition);
+            return new WireConnection(socket, agreed, agreed.getTransport().open(socket, agreed, server));
+        } catch (IOException | RuntimeException e) {
+            socket.close();
+            throw e;
+        }
+    }
+
+    public Socket getSocket() {
+        return socket;
+    }
+
+    /**
+     * @return options agreed in the handshake, local options (flush policy, socket options) are kept
+     */
+    public WireOptions getAgreedOptions() {
+        return agreedOptions;
+    }
+
+    public MessageChannel getChannel() {
+        return channel;
+    }
+
+    /**
+     * Closes the channel and the socket.
+     *
+     * @throws IOException exception.
+     */
+    @Override
+    public void close() throws IOException {
+        try {
+            channel.close();
+        } finally {
+            socket.close();
+        }
+    }
+}
@@ -0,0 +1,407 @@
+package process.wire;
+
+import common.Configuration;
+import common.WaitStrategy;
+
+import java.net.ServerSocket;
+import java.net.Socket;
+import java.net.SocketException;
+import java.nio.file.Path;
+
+/**
+ * Options of the connection between two WebSocketPlayers. The framing, the window, delta encoding and heartbeats of both
+ * sides are reconciled by the Handshake when the connection is established, the flush policy, the idle timeout and the
+ * socket options only apply locally.
+ */
+public class WireOptions {
+
+    /**
+     * Upper limit of the window. How many messages fit into the buffers also depends on their size, see
+     * {@link #getWindowBytes()}.
+     */
+    public static final int MAX_WINDOW = 1024;
+
+    /**
+     * how messages are framed on the socket
+     */
+    private Framing framing = Framing.TEXT;
+    /**
+     * maximum number of messages the initiator keeps in flight. 1 is strict stop-and-wait ping-pong.
+     */
+    private int window = 1;
+    /**
+     * maximum number of bytes the initiator keeps in flight, cut down by the Handshake to what the buffers hold
+     */
+    private int windowBytes = 65536;
+    /**
+     * when buffered messages are written to the socket
+     */
+    private FlushPolicy flushPolicy = FlushPolicy.MESSAGE;
+    /**
+     * number of messages per flush with FlushPolicy#BATCH
+     */
+    private int flushBatchSize = 16;
+    /**
+     * time between two flushes with FlushPolicy#INTERVAL
+     */
+    private long flushIntervalMicros = 100;
+    /**
+     * TCP_NODELAY, disables Nagle's algorithm. Batching is done by the flush policy, so it is on by default.
+     */
+    private boolean tcpNoDelay = true;
+    /**
+     * SO_SNDBUF in bytes, 0 keeps the system default
+     */
+    private int sendBufferSize;
+    /**
+     * SO_RCVBUF in bytes, 0 keeps the system default
+     */
+    private int receiveBufferSize;
+    /**
+     * what carries the messages after the handshake
+     */
+    private Transport transport = Transport.SOCKET;
+    /**
+     * size of each shared memory ring in bytes, decided by the server
+     */
+    private int sharedMemoryCapacity = 1 << 20;
+    /**
+     * how a player waits for the shared memory rings
+     */
+    private WaitStrategy sharedMemoryWaitStrategy = WaitStrategy.YIELD;
+    /**
+     * directory the server creates the shared memory file in, empty for the default (see SharedMemoryChannel)
+     */
+    private String sharedMemoryDirectory = "";
+    /**
+     * shared memory file agreed in the handshake
+     */
+    private Path sharedMemoryFile;
+    /**
+     * read and write binary frames through the socket's channel and pooled direct buffers, see DirectChannel
+     */
+    private boolean directBuffers;
+    /**
+     * send only what each message adds to the previous one, see DeltaChannel
+     */
+    private boolean delta;
+    /**
+     * time without sending after which a heartbeat is sent, 0 for none. Only if both sides ask for heartbeats.
+     */
+    private long heartbeatIntervalMillis;
+    /**
+     * time a receive may wait without anything arriving before the game ends, 0 for no timeout
+     */
+    private long idleTimeoutMillis;
+    /**
+     * how the client connects to the server
+     */
+    private ConnectStrategy connectStrategy = new ConnectStrategy(1, 50, 30_000);
+
+    public WireOptions() {
+    }
+
+    /**
+     * Copy constructor
+     *
+     * @param other options to copy
+     */
+    public WireOptions(WireOptions other) {
+        this.framing = other.framing;
+        this.window = other.window;
+        this.windowBytes = other.windowBytes;
+        this.flushPolicy = other.flushPolicy;
+        this.flushBatchSize = other.flushBatchSize;
+        this.flushIntervalMicros = other.flushIntervalMicros;
+        this.tcpNoDelay = other.tcpNoDelay;
+        this.sendBufferSize = other.sendBufferSize;
+        this.receiveBufferSize = other.receiveBufferSize;
+        this.transport = other.transport;
+        this.sharedMemoryCapacity = other.sharedMemoryCapacity;
+        this.sharedMemoryWaitStrategy = other.sharedMemoryWaitStrategy;
+        this.sharedMemoryDirectory = other.sharedMemoryDirectory;
+        this.sharedMemoryFile = other.sharedMemoryFile;
+        this.directBuffers = other.directBuffers;
+        this.delta = other.delta;
+        this.heartbeatIntervalMillis = other.heartbeatIntervalMillis;
+        this.idleTimeoutMillis = other.idleTimeoutMillis;
+        this.connectStrategy = other.connectStrategy;
+    }
+
+    /**
+     * @return options as configured in the property file
+     */
+    public static WireOptions fromConfiguration() {
+        WireOptions options = new WireOptions();
+        options.setFraming(Framing.of(Configuration.read(Configuration.KEY_WIRE_FRAMING)));
+        options.setWindow(Configuration.readInt(Configuration.KEY_WIRE_WINDOW));
+        options.setWindowBytes(Configuration.readInt(Configuration.KEY_WIRE_WINDOW_BYTES));
+        options.setFlushPolicy(FlushPolicy.of(Configuration.read(Configuration.KEY_WIRE_FLUSH_POLICY)));
+        options.setFlushBatchSize(Configuration.readInt(Configuration.KEY_WIRE_FLUSH_BATCH));
+        options.setFlushIntervalMicros(Configuration.readLong(Configuration.KEY_WIRE_FLUSH_INTERVAL_MICROS));
+        options.setTcpNoDelay(Configuration.readBoolean(Configuration.KEY_SOCKET_TCP_NODELAY));
+        options.setSendBufferSize(Configuration.readInt(Configuration.KEY_SOCKET_SEND_BUFFER));
+        options.setReceiveBufferSize(Configuration.readInt(Configuration.KEY_SOCKET_RECEIVE_BUFFER));
+        options.setTransport(Transport.of(Configuration.read(Configuration.KEY_WIRE_TRANSPORT)));
+        options.setSharedMemoryCapacity(Configuration.readInt(Configuration.KEY_WIRE_SHM_CAPACITY));
+        options.setSharedMemoryWaitStrategy(WaitStrategy.of(Configuration.read(Configuration.KEY_WIRE_SHM_WAIT_STRATEGY)));
+        options.setSharedMemoryDirectory(Configuration.read(Configuration.KEY_WIRE_SHM_DIRECTORY));
+        options.setDirectBuffers(Configuration.readBoolean(Configuration.KEY_WIRE_DIRECT_BUFFERS));
+        options.setDelta(Configuration.readBoolean(Configuration.KEY_WIRE_DELTA));
+        options.setHeartbeatIntervalMillis(Configuration.readLong(Configuration.KEY_WIRE_HEARTBEAT_INTERVAL_MILLIS));
+        options.setIdleTimeoutMillis(Configuration.readLong(Configuration.KEY_WIRE_IDLE_TIMEOUT_MILLIS));
+        options.setConnectStrategy(ConnectStrategy.fromConfiguration());
+        return options;
+    }
+
+    /**
+     * Applies the socket options to a connected socket.
+     *
+     * @param socket socket to configure
+     * @throws SocketException exception.
+     */
+    public void configure(Socket socket) throws SocketException {
+        socket.setTcpNoDelay(tcpNoDelay);
+        if (sendBufferSize > 0) {
+            socket.setSendBufferSize(sendBufferSize);
+        }
+        if (receiveBufferSize > 0) {
+            socket.setReceiveBufferSize(receiveBufferSize);
+        }
+    }
+
+    /**
+     * Applies the receive buffer size to a server socket. Must be called before the server socket is bound, so that
+     * accepted sockets can use a receive buffer larger than 64K.
+     *
+     * @param serverSocket unbound server socket
+     * @throws SocketException exception.
+     */
+    public void configure(ServerSocket serverSocket) throws SocketException {
+        if (receiveBufferSize > 0) {
+            serverSocket.setReceiveBufferSize(receiveBufferSize);
+        }
+    }
+
+    /**
+     * Decorates a channel writing into a buffer with the flush policy.
+     *
+     * @param channel buffered channel
+     * @return channel flushing according to the flush policy
+     */
+    public MessageChannel withFlushPolicy(MessageChannel channel) {
+        return new FlushingChannel(channel, flushPolicy, flushBatchSize, flushIntervalMicros * 1000);
+    }
+
+    /**
+     * Decorates the channel of a socket with heartbeats and the idle timeout, if any.
+     *
+     * @param channel channel of the socket
+     * @param socket  socket, closed on idle timeout
+     * @return channel sending heartbeats and timing out as configured, a FrameChannel still if the channel is one
+     */
+    public MessageChannel withHeartbeats(MessageChannel channel, Socket socket) {
+        if (heartbeatIntervalMillis == 0 && idleTimeoutMillis == 0) {
+            return channel;
+        }
+        if (channel instanceof FrameChannel) {
+            return new HeartbeatFrameChannel((FrameChannel) channel, socket, heartbeatIntervalMillis,
+                    idleTimeoutMillis);
+        }
+        return new HeartbeatChannel(channel, socket, heartbeatIntervalMillis, idleTimeoutMillis);
+    }
+
+    public Framing getFraming() {
+        return framing;
+    }
+
+    public void setFraming(Framing framing) {
+        this.framing = framing;
+    }
+
+    public int getWindow() {
+        return window;
+    }
+
+    public void setWindow(int window) {
+        if (window < 1 || window > MAX_WINDOW) {
+            throw new IllegalArgumentException("Invalid window. Allowed range is 1 to " + MAX_WINDOW);
+        }
+        this.window = window;
+    }
+
+    /**
+     * The initiator writes a whole window before it reads any reply, while the other side writes a reply to each
+     * message. If the messages in flight did not fit into the buffers, both sides could end up blocked in write. The
+     * window is therefore also limited to as many of the longest messages of a game as fit into this many bytes, but
+     * never to less than one message.
+     *
+     * @return maximum number of bytes the initiator keeps in flight
+     */
+    public int getWindowBytes() {
+        return windowBytes;
+    }
+
+    public void setWindowBytes(int windowBytes) {
+        if (windowBytes < 1) {
+            throw new IllegalArgumentException("Invalid window bytes. Must be at least 1");
+        }
+        this.windowBytes = windowBytes;
+    }
+
+    public FlushPolicy getFlushPolicy() {
+        return flushPolicy;
+    }
+
+    public void setFlushPolicy(FlushPolicy flushPolicy) {
+        this.flushPolicy = flushPolicy;
+    }
+
+    public int getFlushBatchSize() {
+        return flushBatchSize;
+    }
+
+    public void setFlushBatchSize(int flushBatchSize) {
+        if (flushBatchSize < 1) {
+            throw new IllegalArgumentException("Invalid flush batch size. Must be at least 1");
+        }
+        this.flushBatchSize = flushBatchSize;
+    }
+
+    public long getFlushIntervalMicros() {
+        return flushIntervalMicros;
+    }
+
+    public void setFlushIntervalMicros(long flushIntervalMicros) {
+        if (flushIntervalMicros < 0) {
+            throw new IllegalArgumentException("Invalid flush interval. Must not be negative");
+        }
+        this.flushIntervalMicros = flushIntervalMicros;
+    }
+
+    public boolean isTcpNoDelay() {
+        return tcpNoDelay;
+    }
+
+    public void setTcpNoDelay(boolean tcpNoDelay) {
+        this.tcpNoDelay = tcpNoDelay;
+    }
+
+    public int getSendBufferSize() {
+        return sendBufferSize;
+    }
+
+    public void setSendBufferSize(int sendBufferSize) {
+        if (sendBufferSize < 0) {
+            throw new IllegalArgumentException("Invalid send buffer size. Must not be negative");
+        }
+        this.sendBufferSize = sendBufferSize;
+    }
+
+    public int getReceiveBufferSize() {
+        return receiveBufferSize;
+    }
+
+    public void setReceiveBufferSize(int receiveBufferSize) {
+        if (receiveBufferSize < 0) {
+            throw new IllegalArgumentException("Invalid receive buffer size. Must not be negative");
+        }
+        this.receiveBufferSize = receiveBufferSize;
+    }
+
+    public Transport getTransport() {
+        return transport;
+    }
+
+    public void setTransport(Transport transport) {
+        this.transport = transport;
+    }
+
+    public int getSharedMemoryCapacity() {
+        return sharedMemoryCapacity;
+    }
+
+    public void setSharedMemoryCapacity(int sharedMemoryCapacity) {
+        if (sharedMemoryCapacity < 64) {
+            throw new IllegalArgumentException("Invalid shared memory capacity. Must be at least 64");
+        }
+        this.sharedMemoryCapacity = sharedMemoryCapacity;
+    }
+
+    public WaitStrategy getSharedMemoryWaitStrategy() {
+        return sharedMemoryWaitStrategy;
+    }
+
+    public void setSharedMemoryWaitStrategy(WaitStrategy sharedMemoryWaitStrategy) {
+        this.sharedMemoryWaitStrategy = sharedMemoryWaitStrategy;
+    }
+
+    public String getSharedMemoryDirectory() {
+        return sharedMemoryDirectory;
+    }
+
+    public void setSharedMemoryDirectory(String sharedMemoryDirectory) {
+        this.sharedMemoryDirectory = sharedMemoryDirectory;
+    }
+
+    public Path getSharedMemoryFile() {
+        return sharedMemoryFile;
+    }
+
+    public void setSharedMemoryFile(Path sharedMemoryFile) {
+        this.sharedMemoryFile = sharedMemoryFile;
+    }
+
+    public boolean isDirectBuffers() {
+        return directBuffers;
+    }
+
+    public void setDirectBuffers(boolean directBuffers) {
+        this.directBuffers = directBuffers;
+    }
+
+    public boolean isDelta() {
+        return delta;
+    }
+
+    public void setDelta(boolean delta) {
+        this.delta = delta;
+    }
+
+    public long getHeartbeatIntervalMillis() {
+        return heartbeatIntervalMillis;
+    }
+
+    public void setHeartbeatIntervalMillis(long heartbeatIntervalMillis) {
+        if (heartbeatIntervalMillis < 0) {
+            throw new IllegalArgumentException("Invalid heartbeat interval. Must not be negative");
+        }
+        this.heartbeatIntervalMillis = heartbeatIntervalMillis;
+    }
+
+    public long getIdleTimeoutMillis() {
+        return idleTimeoutMillis;
+    }
+
+    public void setIdleTimeoutMillis(long idleTimeoutMillis) {
+        if (idleTimeoutMillis < 0) {
+            throw new IllegalArgumentException("Invalid idle timeout. Must not be negative");
+        }
+        this.idleTimeoutMillis = idleTimeoutMillis;
+    }
+
+    public ConnectStrategy getConnectStrategy() {
+        return connectStrategy;
+    }
+
+    public void setConnectStrategy(ConnectStrategy connectStrategy) {
+        this.connectStrategy = connectStrategy;
+    }
+
+    @Override
+    public String toString() {
+        return "transport: " + transport + ", framing: " + framing + ", window: " + window + ", windowBytes: "
+                + windowBytes + ", flushPolicy: " + flushPolicy + ", tcpNoDelay: " + tcpNoDelay + ", directBuffers: " + directBuffers + ", delta: " + delta
+                + ", heartbeatIntervalMillis: " + heartbeatIntervalMillis + ", idleTimeoutMillis: " + idleTimeoutMillis;
+    }
+}
@@ -0,0 +1,61 @@
+package replay;
+
+import process.wire.MessageChannel;
+import thread.mailbox.Mailbox;
+
+import java.io.IOException;
+import java.io.InterruptedIOException;
+
+/**
+ * A MessageChannel over the two mailboxes between a replaying side and a thread Player, so that the replay drives a
+ * Player the same way as a WebSocketPlayer.
+ */
+final class MailboxChannel implements MessageChannel {
+
+    private final Mailbox<String> outbox;
+    private final Mailbox<String> inbox;
+
+    /**
+     * @param outbox mailbox to the player
+     * @param inbox  mailbox from the player
+     */
+    MailboxChannel(Mailbox<String> outbox, Mailbox<String> inbox) {
+        this.outbox = outbox;
+        this.inbox = inbox;
+    }
+
+    @Override
+    public void send(String message) throws IOException {
+        try {
+            outbox.put(message);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new InterruptedIOException("Interrupted while sending to the player");
+        }
+    }
+
+    @Override
+    public String receive() throws IOException {
+        try {
+            return inbox.take();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new InterruptedIOException("Interrupted while waiting for the player");
+        }
+    }
+
+    @Override
+    public boolean ready() {
+        return false;
+    }
+
+    @Override
+    public void flush() {
+        // a message is handed over by put
+    }
+
+    @Override
+    public void close() {
+        // nothing to release
+    }
+}
@@ -0,0 +1,56 @@
+package replay;
+
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * How fast a Recording is played back.
+ */
+public enum Pacing {
+
+    /**
+     * each message is sent at the same offset from the first one as in the recording, or right after the reply to
+     * the previous one if that came later
+     */
+    RECORDED {
+        @Override
+        void await(long deadline) {
+            long remaining;
+            while ((remaining = deadline - System.nanoTime()) > 0) {
+                if (remaining > SPIN_NANOS) {
+                    LockSupport.parkNanos(remaining - SPIN_NANOS);
+                } else {
+                    Thread.onSpinWait();
+                }
+            }
+        }
+    },
+    /**
+     * each message is sent right after the reply to the previous one
+     */
+    FAST {
+        @Override
+        void await(long deadline) {
+            // no waiting
+        }
+    };
+
+    /**
+     * the last part of a wait is spent spinning, as parking may oversleep by about this much
+     */
+    private static final long SPIN_NANOS = 50_000;
+
+    /**
+     * Waits until the given System#nanoTime, if this pacing waits at all.
+     */
+    abstract void await(long deadline);
+
+    /**
+     * Parses the name of a pacing (case insensitive), eg. 'fast'.
+     *
+     * @param name name of the pacing
+     * @return the pacing
+     */
+    public static Pacing of(String name) {
+        return valueOf(name.trim().toUpperCase());
+    }
+}
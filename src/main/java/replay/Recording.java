@@ -0,0 +1,120 @@
+package replay;
+
+import common.journal.Direction;
+import common.journal.JournalReader;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * The messages an initiating player sent in one recorded run, with the times they were sent and the replies it
+ * received, as read from its Journal.
+ * <p>
+ * The n-th reply is the answer to the n-th message, so the original round trip of a message is the time from sending
+ * it to receiving the reply with the same sequence.
+ */
+public class Recording {
+
+    private final String player;
+    private final String[] messages;
+    private final long[] sendTimes;
+    private final String[] replies;
+    private final long[] replyTimes;
+
+    /**
+     * @param player     name of the recorded player
+     * @param messages   messages sent, in order
+     * @param sendTimes  time each message was sent, in nanoseconds
+     * @param replies    replies received, in order, may be fewer than the messages
+     * @param replyTimes time each reply was received, in nanoseconds
+     */
+    public Recording(String player, List<String> messages, List<Long> sendTimes, List<String> replies,
+                     List<Long> replyTimes) {
+        if (messages.isEmpty() || sendTimes.size() != messages.size() || replyTimes.size() != replies.size()) {
+            throw new IllegalArgumentException("Invalid recording of " + player + ". Needs a time for each of at "
+                    + "least one message");
+        }
+        this.player = player;
+        this.messages = messages.toArray(new String[0]);
+        this.sendTimes = sendTimes.stream().mapToLong(Long::longValue).toArray();
+        this.replies = replies.toArray(new String[0]);
+        this.replyTimes = replyTimes.stream().mapToLong(Long::longValue).toArray();
+    }
+
+    /**
+     * Loads the last run of a player from its journal.
+     *
+     * @param directory directory of the journal segments
+     * @param player    name of the initiating player, eg. 'InitiatorThread' or 'WebSocketInitiator'
+     * @return the recording
+     * @throws IOException if the journal cannot be read, or has no message sent by the player
+     */
+    public static Recording load(Path directory, String player) throws IOException {
+        List<String> messages = new ArrayList<>();
+        List<Long> sendTimes = new ArrayList<>();
+        List<String> replies = new ArrayList<>();
+        List<Long> replyTimes = new ArrayList<>();
+        int run = -1;
+        try (JournalReader reader = JournalReader.open(directory, player)) {
+            while (reader.next()) {
+                if (reader.getRun() != run) {
+                    // a later run of the player, only the last one is replayed
+                    run = reader.getRun();
+                    messages.clear();
+                    sendTimes.clear();
+                    replies.clear();
+                    replyTimes.clear();
+                }
+                if (reader.getDirection() == Direction.SENT) {
+                    messages.add(reader.getMessage());
+                    sendTimes.add(reader.getTimestamp());
+                } else {
+                    replies.add(reader.getMessage());
+                    replyTimes.add(reader.getTimestamp());
+                }
+            }
+        }
+        if (messages.isEmpty()) {
+            throw new IOException("No message sent by " + player + " in the journal in " + directory.toAbsolutePath());
+        }
+        return new Recording(player, messages, sendTimes, replies, replyTimes);
+    }
+
+    public String getPlayer() {
+        return player;
+    }
+
+    /**
+     * @return number of messages sent
+     */
+    public int size() {
+        return messages.length;
+    }
+
+    public String getMessage(int index) {
+        return messages[index];
+    }
+
+    /**
+     * @return time from sending the first message to sending the given one, in nanoseconds
+     */
+    public long getSendOffset(int index) {
+        return sendTimes[index] - sendTimes[0];
+    }
+
+    /**
+     * @return the recorded reply to the given message, or null if none was recorded
+     */
+    public String getReply(int index) {
+        return index < replies.length ? replies[index] : null;
+    }
+
+    /**
+     * @return the original round trip of the given message in nanoseconds, or -1 if no reply was recorded
+     */
+    public long getRoundTrip(int index) {
+        return index < replyTimes.length ? replyTimes[index] - sendTimes[index] : -1;
+    }
+}
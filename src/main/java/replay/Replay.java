@@ -0,0 +1,155 @@
+package replay;
+
+import common.ArgsReader;
+import common.Configuration;
+import common.MessageMode;
+import common.WaitStrategy;
+import process.player.WebSocketPlayer;
+import process.wire.MessageChannel;
+import process.wire.WireConnection;
+import process.wire.WireOptions;
+import thread.mailbox.Mailbox;
+import thread.mailbox.MailboxType;
+import thread.player.Player;
+
+import java.io.IOException;
+import java.net.ServerSocket;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+
+/**
+ * Plays the messages recorded in the journal of an initiating player back to a new responding player, a thread Player
+ * or a WebSocketPlayer, and compares the round trips with the recorded ones.
+ * <p>
+ * The replaying side takes the place of the initiator: it sends exactly the recorded messages (not replies built from
+ * what it receives), one at a time, each once the reply to the previous one has arrived, and at the recorded offset
+ * from the first message with Pacing#RECORDED. The responder is a regular player built from the current configuration
+ * (mailbox type, wire options, ...), so the same traffic can be replayed against different settings. Replies carry the
+ * name of the responder, so they only match the recorded ones if the responder has the name of the recorded one.
+ */
+public class Replay {
+
+    /**
+     * Run this to replay the last run recorded in a journal.
+     *
+     * @param args if args are not supplied, defaults will be used.
+     *             args[0] -> player (String, name of the recorded initiator, eg. InitiatorThread or WebSocketInitiator)
+     *             args[1] -> target (String, thread / socket, which kind of player replies to the replay)
+     *             args[2] -> pacing (String, recorded / fast)
+     *             args[3] -> directory (String, directory of the journal segments)
+     */
+    public static void main(String[] args) throws IOException {
+        String player = args.length > 0 ? args[0] : Configuration.read(Configuration.KEY_REPLAY_PLAYER);
+        String target = args.length > 1 ? args[1] : Configuration.read(Configuration.KEY_REPLAY_TARGET);
+        Pacing pacing = Pacing.of(args.length > 2 ? args[2] : Configuration.read(Configuration.KEY_REPLAY_PACING));
+        Path directory = Paths.get(args.length > 3 ? args[3] : Configuration.read(Configuration.KEY_JOURNAL_DIRECTORY));
+
+        Recording recording = Recording.load(directory, player);
+        String[] noArgs = new String[0];
+        MessageMode messageMode = ArgsReader.readMessageMode(noArgs, 0);
+        ReplayReport report;
+        if ("socket".equalsIgnoreCase(target.trim())) {
+            report = throughSocket(recording, "WebSocketPlayer", pacing, messageMode, WireOptions.fromConfiguration());
+        } else if ("thread".equalsIgnoreCase(target.trim())) {
+            report = throughPlayer(recording, "ResponderThread", pacing, messageMode,
+                    MailboxType.of(Configuration.read(Configuration.KEY_MAILBOX_TYPE)),
+                    ArgsReader.readMailboxCapacity(noArgs, 0), ArgsReader.readWaitStrategy(noArgs, 0));
+        } else {
+            throw new IllegalArgumentException("Invalid replay target '" + target + "'. Must be thread or socket");
+        }
+        System.out.print(report);
+    }
+
+    /**
+     * Replays the recording to a thread Player.
+     *
+     * @param recording       messages to replay
+     * @param responder       name of the player
+     * @param pacing          how fast the messages are sent
+     * @param messageMode     how the player builds its replies
+     * @param mailboxType     implementation of the two mailboxes
+     * @param mailboxCapacity capacity of each mailbox, where applicable
+     * @param waitStrategy    how the player waits on a lock-free mailbox, where applicable
+     * @return the round trips of the replay next to the recorded ones
+     * @throws IOException exception.
+     */
+    public static ReplayReport throughPlayer(Recording recording, String responder, Pacing pacing,
+                                             MessageMode messageMode, MailboxType mailboxType, int mailboxCapacity,
+                                             WaitStrategy waitStrategy) throws IOException {
+        Mailbox<String> toPlayer = mailboxType.create(mailboxCapacity, waitStrategy);
+        Mailbox<String> fromPlayer = mailboxType.create(mailboxCapacity, waitStrategy);
+        Player player = new Player(responder, toPlayer, fromPlayer, recording.size(), false, messageMode);
+        Thread thread = new Thread(player, responder);
+        thread.start();
+        try {
+            return replay(new MailboxChannel(toPlayer, fromPlayer), recording, pacing,
+                    "replay of " + recording.getPlayer() + " to a thread player, mailboxType: " + mailboxType
+                            + ", pacing: " + pacing);
+        } catch (IOException | RuntimeException e) {
+            // the player would wait for the rest of the messages forever
+            thread.interrupt();
+            throw e;
+        } finally {
+            join(thread);
+        }
+    }
+
+    /**
+     * Replays the recording to a WebSocketPlayer in this JVM, connected over loopback on a port picked by the system.
+     *
+     * @param recording   messages to replay
+     * @param responder   name of the player
+     * @param pacing      how fast the messages are sent
+     * @param messageMode how the player builds its replies
+     * @param wireOptions options of both sides
+     * @return the round trips of the replay next to the recorded ones
+     * @throws IOException exception.
+     */
+    public static ReplayReport throughSocket(Recording recording, String responder, Pacing pacing,
+                                             MessageMode messageMode, WireOptions wireOptions) throws IOException {
+        try (ServerSocket serverSocket = WireConnection.listen(0, wireOptions)) {
+            WebSocketPlayer player = new WebSocketPlayer(responder, recording.size(), false,
+                    serverSocket.getLocalPort(), messageMode, new WireOptions(wireOptions));
+            Thread thread = new Thread(player::play, responder);
+            thread.start();
+            try (WireConnection connection = WireConnection.accept(serverSocket, wireOptions, 0)) {
+                return replay(connection.getChannel(), recording, pacing, "replay of " + recording.getPlayer()
+                        + " to a socket player, " + connection.getAgreedOptions() + ", pacing: " + pacing);
+            } finally {
+                join(thread);
+            }
+        }
+    }
+
+    /**
+     * Sends each recorded message and waits for its reply.
+     */
+    static ReplayReport replay(MessageChannel channel, Recording recording, Pacing pacing, String description)
+            throws IOException {
+        ReplayReport report = new ReplayReport(description, recording.size());
+        long start = System.nanoTime();
+        for (int i = 0; i < recording.size(); i++) {
+            pacing.await(start + recording.getSendOffset(i));
+            long sent = System.nanoTime();
+            channel.send(recording.getMessage(i));
+            channel.flush();
+            String reply = channel.receive();
+            long roundTrip = System.nanoTime() - sent;
+            if (reply == null) {
+                throw new IOException("Player stopped replying after " + i + " of " + recording.size() + " messages");
+            }
+            String recorded = recording.getReply(i);
+            report.record(recording.getRoundTrip(i), roundTrip, recorded == null || recorded.equals(reply));
+        }
+        report.setElapsedNanos(System.nanoTime() - start);
+        return report;
+    }
+
+    private static void join(Thread thread) {
+        try {
+            thread.join();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
@@ -0,0 +1,123 @@
+package replay;
+
+import common.metrics.LatencyHistogram;
+
+/**
+ * Round trips of a replay next to the original round trips of the same messages.
+ */
+public class ReplayReport {
+
+    private static final double[] PERCENTILES = {50, 90, 99, 99.9, 100};
+
+    private final String description;
+    private final LatencyHistogram original = new LatencyHistogram();
+    private final LatencyHistogram replayed = new LatencyHistogram();
+    private final long[] originalRoundTrips;
+    private final long[] replayedRoundTrips;
+    private int count;
+    private int mismatchedReplies;
+    private long elapsedNanos;
+
+    /**
+     * @param description what has been replayed, and how
+     * @param messages    number of messages replayed
+     */
+    ReplayReport(String description, int messages) {
+        this.description = description;
+        this.originalRoundTrips = new long[messages];
+        this.replayedRoundTrips = new long[messages];
+    }
+
+    /**
+     * @param originalNanos original round trip, -1 if not recorded
+     * @param replayNanos   round trip of the replay
+     * @param sameReply     whether the reply was the one recorded
+     */
+    void record(long originalNanos, long replayNanos, boolean sameReply) {
+        originalRoundTrips[count] = originalNanos;
+        replayedRoundTrips[count++] = replayNanos;
+        if (originalNanos >= 0) {
+            original.record(originalNanos);
+        }
+        replayed.record(replayNanos);
+        if (!sameReply) {
+            mismatchedReplies++;
+        }
+    }
+
+    void setElapsedNanos(long elapsedNanos) {
+        this.elapsedNanos = elapsedNanos;
+    }
+
+    /**
+     * @return number of messages replayed
+     */
+    public int getCount() {
+        return count;
+    }
+
+    /**
+     * @return number of replies that differed from the recorded ones, eg. because the message mode or the
+     * name of the responder is not the same
+     */
+    public int getMismatchedReplies() {
+        return mismatchedReplies;
+    }
+
+    public LatencyHistogram getOriginal() {
+        return original;
+    }
+
+    public LatencyHistogram getReplayed() {
+        return replayed;
+    }
+
+    /**
+     * @return original round trip of the given message in nanoseconds, -1 if not recorded
+     */
+    public long getOriginalRoundTrip(int index) {
+        return originalRoundTrips[index];
+    }
+
+    /**
+     * @return round trip of the given message in the replay, in nanoseconds
+     */
+    public long getReplayedRoundTrip(int index) {
+        return replayedRoundTrips[index];
+    }
+
+    /**
+     * @return index of the message with the longest original round trip (the spike to reproduce), -1 if none
+     */
+    public int getSlowestOriginal() {
+        int slowest = -1;
+        for (int i = 0; i < count; i++) {
+            if (originalRoundTrips[i] >= 0 && (slowest < 0 || originalRoundTrips[i] > originalRoundTrips[slowest])) {
+                slowest = i;
+            }
+        }
+        return slowest;
+    }
+
+    @Override
+    public String toString() {
+        StringBuilder report = new StringBuilder(description).append(": replayed ").append(count)
+                .append(" messages in ").append(elapsedNanos / 1_000_000).append(" ms, ").append(mismatchedReplies)
+                .append(" replies differ from the recording\n");
+        report.append(String.format("%-12s %12s %12s %12s%n", "round trip", "original us", "replay us", "diff us"));
+        for (double percentile : PERCENTILES) {
+            double originalMicros = original.getValueAtPercentile(percentile) / 1000.0;
+            double replayMicros = replayed.getValueAtPercentile(percentile) / 1000.0;
+            String label = percentile == 100 ? "max"
+                    : "p" + (percentile == (int) percentile ? String.valueOf((int) percentile) : String.valueOf(percentile));
+            report.append(String.format("%-12s %12.1f %12.1f %+12.1f%n", label, originalMicros, replayMicros,
+                    replayMicros - originalMicros));
+        }
+        int slowest = getSlowestOriginal();
+        if (slowest >= 0) {
+            report.append(String.format("slowest original round trip: message %d, original %.1f us, replay %.1f us%n",
+                    slowest + 1, originalRoundTrips[slowest] / 1000.0, replayedRoundTrips[slowest] / 1000.0));
+        }
+        return report.toString();
+    }
+}
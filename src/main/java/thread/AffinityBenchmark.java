@@ -0,0 +1,304 @@
+package thread;
+
+import common.ArgsReader;
+import common.Configuration;
+import common.MessageMode;
+import common.WaitStrategy;
+import common.affinity.Affinity;
+import common.affinity.CpuSet;
+import common.affinity.CpuTopology;
+import common.affinity.Placement;
+import common.metrics.PlayerMetrics;
+import thread.mailbox.Mailbox;
+import thread.mailbox.MailboxType;
+import thread.mailbox.TimedMailbox;
+import thread.player.Initiator;
+import thread.player.Player;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Locale;
+import java.util.concurrent.BrokenBarrierException;
+import java.util.concurrent.CyclicBarrier;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Compares the latency of ThreadCommunication games with the two players pinned to CPUs placed differently relative
+ * to each other: unpinned, on the same CPU, on two hyper-threads of one core, on two cores of one socket and on two
+ * sockets. Placements that this machine does not have (eg. a second socket), or that the process may not use, are
+ * skipped, as are placements whose players cannot be pinned.
+ * <p>
+ * For each placement, 'benchmark.warmup.games' games are played first and thrown away, then 'benchmark.games' games
+ * are measured. Every game gets two new platform threads that pin themselves and then meet at a barrier, so that the
+ * time to pin is not measured. The report is printed as CSV: the round trips per second, the round trip percentiles
+ * measured by the initiator and the hop percentiles of both mailboxes, in microseconds.
+ */
+public class AffinityBenchmark {
+
+    static final String[] COLUMNS = {"placement", "initiatorCpu", "responderCpu", "games", "roundTripsPerSecond",
+            "roundTripP50Micros", "roundTripP99Micros", "roundTripP999Micros", "hopP50Micros", "hopP99Micros"};
+
+    /**
+     * Run this to measure every placement (or the given ones) and print the report.
+     *
+     * @param args if args are not supplied, defaults will be used.
+     *             args[0] -> stopCondition (int, number of messages that each player should send as well as receive)
+     *             args[1] -> mailboxType (String, synchronous / array_blocking / spsc_ring)
+     *             args[2] -> waitStrategy (String, busy_spin / yield / park, used by spsc_ring mailboxes)
+     *             args[3] -> placements (String, comma separated, eg. 'unpinned,same_socket', empty for all)
+     *             args[4] -> messageMode (String, concatenated / compact)
+     *             args[5] -> initialMessage (String, the very first message that Initiator will send)
+     */
+    public static void main(String[] args) {
+        MessageMode messageMode = ArgsReader.readMessageMode(args, 4);
+        int stopCondition = ArgsReader.readStopCondition(args, 0, messageMode);
+        MailboxType mailboxType = MailboxType.of(ArgsReader.read(args, 1, Configuration.KEY_MAILBOX_TYPE));
+        WaitStrategy waitStrategy = ArgsReader.readWaitStrategy(args, 2);
+        List<Placement> placements = new ArrayList<>();
+        if (args.length > 3 && !args[3].isBlank()) {
+            Arrays.stream(args[3].split(",")).map(Placement::of).forEach(placements::add);
+        } else {
+            placements.addAll(Arrays.asList(Placement.values()));
+        }
+
+        CpuTopology topology = CpuTopology.read();
+        System.out.println("running AffinityBenchmark with stopCondition: " + stopCondition + ", mailboxType: "
+                + mailboxType + ", waitStrategy: " + waitStrategy + ", messageMode: " + messageMode + ", CPUs: "
+                + topology);
+        if (!Affinity.isSupported()) {
+            System.out.println("threads cannot be pinned on this system, only the unpinned placement is measured");
+        }
+
+        List<Result> results = run(topology, placements, stopCondition, ArgsReader.readInitialMessage(args, 5),
+                mailboxType,
+                Configuration.readInt(Configuration.KEY_MAILBOX_CAPACITY), waitStrategy, messageMode,
+                Configuration.readInt(Configuration.KEY_BENCHMARK_WARMUP_GAMES),
+                Configuration.readInt(Configuration.KEY_BENCHMARK_GAMES));
+        System.out.print(toCsv(results));
+    }
+
+    /**
+     * Plays the warm-up and measured games of each placement that this machine has.
+     *
+     * @param topology        CPUs of this machine
+     * @param placements      placements to measure
+     * @param stopCondition   number of messages that each player should send as well as receive
+     * @param initialMessage  the very first message that Initiator will send
+     * @param mailboxType     implementation of the two mailboxes between the players
+     * @param mailboxCapacity capacity of each mailbox, where applicable
+     * @param waitStrategy    how a player waits on a lock-free mailbox, where applicable
+     * @param messageMode     how the players build the messages they send
+     * @param warmupGames     games played before measuring, per placement
+     * @param games           games measured, per placement
+     * @return one result per placement measured, in the given order
+     */
+    public static List<Result> run(CpuTopology topology, List<Placement> placements, int stopCondition,
+                                   String initialMessage, MailboxType mailboxType, int mailboxCapacity,
+                                   WaitStrategy waitStrategy, MessageMode messageMode, int warmupGames, int games) {
+        if (games < 1 || warmupGames < 0) {
+            throw new IllegalArgumentException("Invalid number of games. Must be at least 1 (and 0 for warm-up)");
+        }
+        List<Result> results = new ArrayList<>();
+        for (Placement placement : placements) {
+            CpuSet initiatorCpus = CpuSet.EMPTY;
+            CpuSet responderCpus = CpuSet.EMPTY;
+            if (placement != Placement.UNPINNED) {
+                int[] pair = Affinity.isSupported() ? topology.pair(placement) : null;
+                if (pair == null) {
+                    System.out.println(placement + " skipped, no such pair of CPUs");
+                    continue;
+                }
+                initiatorCpus = CpuSet.of(pair[0]);
+                responderCpus = CpuSet.of(pair[1]);
+            }
+            Game game = new Game(stopCondition, initialMessage, mailboxType, mailboxCapacity, waitStrategy,
+                    messageMode, initiatorCpus, responderCpus);
+            Result result = new Result(placement, initiatorCpus, responderCpus, stopCondition, games);
+            if (!measure(game, result, warmupGames, games)) {
+                System.out.println(placement + " skipped, unable to pin the players to CPUs " + initiatorCpus
+                        + " and " + responderCpus);
+                continue;
+            }
+            results.add(result);
+        }
+        return results;
+    }
+
+    /**
+     * Plays the warm-up and measured games of one placement.
+     *
+     * @return false if the players could not be pinned, the result is incomplete then
+     */
+    private static boolean measure(Game game, Result result, int warmupGames, int games) {
+        PlayerMetrics warmup = new PlayerMetrics("warmup");
+        for (int i = 0; i < warmupGames; i++) {
+            if (game.play(warmup) < 0) {
+                return false;
+            }
+        }
+        for (int i = 0; i < games; i++) {
+            long nanos = game.play(result.metrics);
+            if (nanos < 0) {
+                return false;
+            }
+            result.totalNanos += nanos;
+        }
+        return true;
+    }
+
+    /**
+     * @return the results as CSV, with a header line
+     */
+    public static String toCsv(List<Result> results) {
+        StringBuilder csv = new StringBuilder(String.join(",", COLUMNS)).append('\n');
+        for (Result result : results) {
+            Object[] values = result.values();
+            for (int i = 0; i < values.length; i++) {
+                csv.append(i == 0 ? "" : ",").append(values[i] instanceof Double
+                        ? String.format(Locale.ROOT, "%.3f", (Double) values[i]) : String.valueOf(values[i]));
+            }
+            csv.append('\n');
+        }
+        return csv.toString();
+    }
+
+    /**
+     * The settings of the games of one placement.
+     */
+    private static final class Game {
+
+        private final int stopCondition;
+        private final String initialMessage;
+        private final MailboxType mailboxType;
+        private final int mailboxCapacity;
+        private final WaitStrategy waitStrategy;
+        private final MessageMode messageMode;
+        private final CpuSet initiatorCpus;
+        private final CpuSet responderCpus;
+
+        private Game(int stopCondition, String initialMessage, MailboxType mailboxType, int mailboxCapacity,
+                     WaitStrategy waitStrategy, MessageMode messageMode, CpuSet initiatorCpus, CpuSet responderCpus) {
+            this.stopCondition = stopCondition;
+            this.initialMessage = initialMessage;
+            this.mailboxType = mailboxType;
+            this.mailboxCapacity = mailboxCapacity;
+            this.waitStrategy = waitStrategy;
+            this.messageMode = messageMode;
+            this.initiatorCpus = initiatorCpus;
+            this.responderCpus = responderCpus;
+        }
+
+        /**
+         * Plays one game, recording the round trips of the initiator and the hops of both mailboxes into metrics.
+         *
+         * @return time from both players being pinned and ready to the end of the game, in nanoseconds, -1 if a
+         * player could not be pinned (the game has not been played then)
+         */
+        private long play(PlayerMetrics metrics) {
+            Mailbox<String> mailBox1 = new TimedMailbox<>(mailboxType.create(mailboxCapacity, waitStrategy),
+                    mailboxCapacity, metrics);
+            Mailbox<String> mailBox2 = new TimedMailbox<>(mailboxType.create(mailboxCapacity, waitStrategy),
+                    mailboxCapacity, metrics);
+            Player initiator = new Initiator("InitiatorThread", mailBox1, mailBox2, stopCondition, false,
+                    initialMessage, messageMode, metrics);
+            Player player = new Player("ResponderThread", mailBox2, mailBox1, stopCondition, false, messageMode);
+
+            CyclicBarrier ready = new CyclicBarrier(3);
+            AtomicBoolean unpinned = new AtomicBoolean();
+            Thread t1 = new Thread(pinnedAfterBarrier(initiator, initiatorCpus, ready, unpinned), "InitiatorThread");
+            Thread t2 = new Thread(pinnedAfterBarrier(player, responderCpus, ready, unpinned), "ResponderThread");
+            t1.start();
+            t2.start();
+            try {
+                ready.await();
+                long start = System.nanoTime();
+                t1.join();
+                t2.join();
+                long nanos = System.nanoTime() - start;
+                if (unpinned.get()) {
+                    return -1;
+                }
+                if (initiator.getReceivedMessagesCount() != stopCondition) {
+                    throw new IllegalStateException("Benchmark game ended after "
+                            + initiator.getReceivedMessagesCount() + " of " + stopCondition + " messages");
+                }
+                return nanos;
+            } catch (InterruptedException | BrokenBarrierException e) {
+                t1.interrupt();
+                t2.interrupt();
+                Thread.currentThread().interrupt();
+                throw new IllegalStateException("Benchmark interrupted", e);
+            }
+        }
+
+        /**
+         * Pins the thread, meets the other player at the barrier and runs the task, unless either player could not be
+         * pinned. Both pin before the barrier, so after it both see whether unpinned has been set.
+         */
+        private static Runnable pinnedAfterBarrier(Runnable task, CpuSet cpus, CyclicBarrier ready,
+                                                   AtomicBoolean unpinned) {
+            return () -> {
+                if (!cpus.isEmpty() && !Affinity.pin(cpus)) {
+                    unpinned.set(true);
+                }
+                try {
+                    ready.await();
+                } catch (InterruptedException | BrokenBarrierException e) {
+                    return;
+                }
+                if (!unpinned.get()) {
+                    task.run();
+                }
+            };
+        }
+    }
+
+    /**
+     * Measurements of the games of one placement.
+     */
+    public static class Result {
+
+        private final Placement placement;
+        private final CpuSet initiatorCpus;
+        private final CpuSet responderCpus;
+        private final int stopCondition;
+        private final int games;
+        /**
+         * round trips measured by the initiator and hops of both mailboxes, over all measured games
+         */
+        private final PlayerMetrics metrics = new PlayerMetrics("benchmark");
+        private long totalNanos;
+
+        Result(Placement placement, CpuSet initiatorCpus, CpuSet responderCpus, int stopCondition, int games) {
+            this.placement = placement;
+            this.initiatorCpus = initiatorCpus;
+            this.responderCpus = responderCpus;
+            this.stopCondition = stopCondition;
+            this.games = games;
+        }
+
+        public Placement getPlacement() {
+            return placement;
+        }
+
+        public int getGames() {
+            return games;
+        }
+
+        public double getRoundTripsPerSecond() {
+            return (double) stopCondition * games / (totalNanos / 1e9);
+        }
+
+        public PlayerMetrics getMetrics() {
+            return metrics;
+        }
+
+        private Object[] values() {
+            return new Object[]{placement, initiatorCpus.isEmpty() ? "any" : initiatorCpus,
+                    responderCpus.isEmpty() ? "any" : responderCpus, games, getRoundTripsPerSecond(),
+                    metrics.getRoundTripP50Micros(), metrics.getRoundTripP99Micros(),
+                    metrics.getRoundTripP999Micros(), metrics.getHopP50Micros(), metrics.getHopP99Micros()};
+        }
+    }
+}
@@ -0,0 +1,122 @@
+package thread;
+
+import common.ArgsReader;
+import common.MessageMode;
+import common.Stats;
+import thread.flow.FlowInitiator;
+import thread.flow.FlowPlayer;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.ForkJoinPool;
+
+/**
+ * Runs many independent FlowInitiator/FlowPlayer pairs (games) concurrently on one shared pool and aggregates their
+ * statistics.
+ * <p>
+ * Unlike the players of a Tournament, no player blocks a thread: a message is a task on the pool, so any number of
+ * games completes on a pool of any size, down to a single thread.
+ */
+public class FlowCommunication {
+
+    /**
+     * Run this to execute many games concurrently on a shared pool, each between two Flow player instances.
+     *
+     * @param args if args are not supplied, defaults will be used.
+     *             args[0] -> pairs (int, number of concurrent games)
+     *             args[1] -> stopCondition (int, number of messages that each player should send as well as receive)
+     *             args[2] -> verboseLogging (boolean, whether the players should log their actions to the console)
+     *             args[3] -> initialMessage (String, the very first message that each Initiator will send)
+     *             args[4] -> poolSize (int, number of threads of the shared pool, 0 for the common pool)
+     *             args[5] -> demandBatch (int, number of messages each player requests at a time)
+     */
+    public static void main(String[] args) {
+
+        int pairs = ArgsReader.readPairs(args, 0);
+        String[] noArgs = new String[0];
+        MessageMode messageMode = ArgsReader.readMessageMode(noArgs, 0);
+        int stopCondition = ArgsReader.readStopCondition(args, 1, messageMode);
+        boolean verboseLogging = ArgsReader.readVerboseLogging(args, 2);
+        String initialMessage = ArgsReader.readInitialMessage(args, 3);
+        int poolSize = ArgsReader.readFlowPoolSize(args, 4);
+        int demandBatch = ArgsReader.readDemandBatch(args, 5);
+
+        play(pairs, stopCondition, initialMessage, verboseLogging, messageMode, poolSize, demandBatch);
+    }
+
+    /**
+     * Plays the given number of games concurrently on one pool.
+     *
+     * @param pairs          number of concurrent games
+     * @param stopCondition  number of messages that each player should send as well as receive
+     * @param initialMessage the very first message that each Initiator will send
+     * @param verboseLogging whether the players should log their actions to the console
+     * @param messageMode    how the players build their messages
+     * @param poolSize       number of threads of the shared pool, 0 for ForkJoinPool#commonPool
+     * @param demandBatch    number of messages each player requests at a time
+     * @return statistics summed over all games
+     * @throws IllegalArgumentException if the messages of all games together do not fit into the counts of Stats.
+     */
+    public static Stats play(int pairs, int stopCondition, String initialMessage, boolean verboseLogging,
+                             MessageMode messageMode, int poolSize, int demandBatch) {
+
+        // the counts of all games are added up, see Stats#add
+        Stats.checkTotal(pairs, stopCondition);
+
+        System.out.println("running FlowCommunication with pairs: " + pairs + ", stopCondition: " + stopCondition
+                + ", poolSize: " + (poolSize == 0 ? "common" : String.valueOf(poolSize)) + ", demandBatch: "
+                + demandBatch + ", messageMode: " + messageMode);
+
+        ExecutorService executor = poolSize == 0 ? ForkJoinPool.commonPool() : new ForkJoinPool(poolSize);
+        List<FlowPlayer> initiators = new ArrayList<>(pairs);
+        List<FlowPlayer> players = new ArrayList<>(pairs);
+        List<CompletableFuture<Void>> games = new ArrayList<>(2 * pairs);
+        long start = System.nanoTime();
+        try {
+            for (int i = 0; i < pairs; i++) {
+                FlowPlayer initiator = new FlowInitiator("Initiator-" + i, stopCondition, verboseLogging,
+                        initialMessage, messageMode, executor, demandBatch);
+                FlowPlayer player = new FlowPlayer("Responder-" + i, stopCondition, verboseLogging, messageMode,
+                        executor, demandBatch);
+                initiator.subscribe(player);
+                player.subscribe(initiator);
+                initiators.add(initiator);
+                players.add(player);
+                games.add(initiator.getCompletion());
+                games.add(player.getCompletion());
+                initiator.start();
+            }
+            // CompletableFuture.get() also guarantees that all actions of the players happen-before reading their
+            // counts below
+            CompletableFuture.allOf(games.toArray(new CompletableFuture<?>[0])).get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            e.printStackTrace();
+        } catch (ExecutionException e) {
+            e.printStackTrace();
+        } finally {
+            if (poolSize != 0) {
+                executor.shutdownNow();
+            }
+        }
+        long elapsed = System.nanoTime() - start;
+
+        Stats stats = new Stats();
+        for (int i = 0; i < pairs; i++) {
+            Stats game = new Stats();
+            game.setInitiatorSentMessagesCount(initiators.get(i).getSentMessagesCount());
+            game.setInitiatorReceivedMessagesCount(initiators.get(i).getReceivedMessagesCount());
+            game.setPlayerSentMessagesCount(players.get(i).getSentMessagesCount());
+            game.setPlayerReceivedMessagesCount(players.get(i).getReceivedMessagesCount());
+            stats.add(game);
+        }
+
+        long hops = (long) stats.getInitiatorSentMessagesCount() + stats.getPlayerSentMessagesCount();
+        System.out.println("FlowCommunication of " + pairs + " pairs sent " + hops + " messages in "
+                + elapsed / 1_000_000 + " ms (" + (hops == 0 ? 0 : elapsed / hops) + " ns per hop)");
+        return stats;
+    }
+}
@@ -1,13 +1,23 @@
 package thread;
 
 import common.ArgsReader;
+import common.Configuration;
+import common.MessageMode;
 import common.Stats;
+import common.ThreadMode;
+import common.WaitStrategy;
+import common.affinity.Affinity;
+import common.affinity.CpuSet;
+import common.journal.Journal;
+import common.metrics.MetricsRegistry;
+import common.metrics.PlayerMetrics;
+import thread.mailbox.JournalMailbox;
+import thread.mailbox.Mailbox;
+import thread.mailbox.MailboxType;
+import thread.mailbox.TimedMailbox;
 import thread.player.Initiator;
 import thread.player.Player;
 
-import java.util.concurrent.BlockingQueue;
-import java.util.concurrent.SynchronousQueue;
-
 public class ThreadCommunication {
 
     /**
@@ -17,37 +27,125 @@ public class ThreadCommunication {
      *             args[0] -> stopCondition (int, number of messages that each player should send as well as receive)
      *             args[1] -> verboseLogging (boolean, whether the players should log their actions to the console)
      *             args[2] -> initialMessage (String, the very first message that Initiator will send)
+     *             args[3] -> mailboxType (String, synchronous / array_blocking / spsc_ring)
+     *             args[4] -> mailboxCapacity (int, capacity of array_blocking and spsc_ring mailboxes)
+     *             args[5] -> waitStrategy (String, busy_spin / yield / park, used by spsc_ring mailboxes)
+     *             args[6] -> messageMode (String, concatenated / compact)
+     *             args[7] -> threadMode (String, platform / virtual)
+     *             args[8] -> initiatorCpus (String, CPUs to pin the initiator to, eg. '2' or '0-3', empty for none)
+     *             args[9] -> responderCpus (String, CPUs to pin the responder to, eg. '3', empty for none)
      */
     public static void main(String[] args) {
 
-        int stopCondition = ArgsReader.readStopCondition(args, 0);
+        MessageMode messageMode = ArgsReader.readMessageMode(args, 6);
+        int stopCondition = ArgsReader.readStopCondition(args, 0, messageMode);
         boolean verboseLogging = ArgsReader.readVerboseLogging(args, 1);
         String initialMessage = ArgsReader.readInitialMessage(args, 2);
-
-        play(stopCondition, initialMessage, verboseLogging);
+        MailboxType mailboxType = MailboxType.of(ArgsReader.read(args, 3, Configuration.KEY_MAILBOX_TYPE));
+        int mailboxCapacity = ArgsReader.readMailboxCapacity(args, 4);
+        WaitStrategy waitStrategy = ArgsReader.readWaitStrategy(args, 5);
+        ThreadMode threadMode = ArgsReader.readThreadMode(args, 7);
+        CpuSet initiatorCpus = ArgsReader.readCpuSet(args, 8, Configuration.KEY_AFFINITY_INITIATOR_CPUS);
+        CpuSet responderCpus = ArgsReader.readCpuSet(args, 9, Configuration.KEY_AFFINITY_RESPONDER_CPUS);
+
+        play(stopCondition, initialMessage, verboseLogging, mailboxType, mailboxCapacity, waitStrategy, messageMode,
+                threadMode, initiatorCpus, responderCpus);
     }
 
     /**
+     * Plays one game using the mailbox type, capacity, wait strategy, message mode and thread mode from the property
+     * file.
+     *
      * @param stopCondition  number of messages that each player should send as well as receive
      * @param initialMessage the very first message that Initiator will send
      * @param verboseLogging whether the players should log their actions to the console
      * @return statistics (number of messages received and sent) as a fixed size int array.
      */
     public static Stats play(final int stopCondition, String initialMessage, boolean verboseLogging) {
+        String[] noArgs = new String[0];
+        return play(stopCondition, initialMessage, verboseLogging,
+                MailboxType.of(Configuration.read(Configuration.KEY_MAILBOX_TYPE)),
+                ArgsReader.readMailboxCapacity(noArgs, 0), ArgsReader.readWaitStrategy(noArgs, 0),
+                ArgsReader.readMessageMode(noArgs, 0), ArgsReader.readThreadMode(noArgs, 0));
+    }
+
+    /**
+     * Plays one game with the players pinned to the CPUs given in the property file, if any.
+     *
+     * @param stopCondition   number of messages that each player should send as well as receive
+     * @param initialMessage  the very first message that Initiator will send
+     * @param verboseLogging  whether the players should log their actions to the console
+     * @param mailboxType     implementation of the two mailboxes between the players
+     * @param mailboxCapacity capacity of each mailbox, where applicable
+     * @param waitStrategy    how a player waits on a lock-free mailbox, where applicable
+     * @param messageMode     how the players build the messages they send
+     * @param threadMode      which kind of threads the players run on
+     * @return statistics (number of messages received and sent) as a fixed size int array.
+     */
+    public static Stats play(final int stopCondition, String initialMessage, boolean verboseLogging,
+                             MailboxType mailboxType, int mailboxCapacity, WaitStrategy waitStrategy,
+                             MessageMode messageMode, ThreadMode threadMode) {
+        String[] noArgs = new String[0];
+        return play(stopCondition, initialMessage, verboseLogging, mailboxType, mailboxCapacity, waitStrategy,
+                messageMode, threadMode, ArgsReader.readCpuSet(noArgs, 0, Configuration.KEY_AFFINITY_INITIATOR_CPUS),
+                ArgsReader.readCpuSet(noArgs, 0, Configuration.KEY_AFFINITY_RESPONDER_CPUS));
+    }
+
+    /**
+     * @param stopCondition   number of messages that each player should send as well as receive
+     * @param initialMessage  the very first message that Initiator will send
+     * @param verboseLogging  whether the players should log their actions to the console
+     * @param mailboxType     implementation of the two mailboxes between the players
+     * @param mailboxCapacity capacity of each mailbox, where applicable
+     * @param waitStrategy    how a player waits on a lock-free mailbox, where applicable
+     * @param messageMode     how the players build the messages they send
+     * @param threadMode      which kind of threads the players run on
+     * @param initiatorCpus   CPUs that the initiator thread is pinned to, empty to leave it to the scheduler
+     * @param responderCpus   CPUs that the responder thread is pinned to, empty to leave it to the scheduler
+     * @return statistics (number of messages received and sent) as a fixed size int array.
+     */
+    public static Stats play(final int stopCondition, String initialMessage, boolean verboseLogging,
+                             MailboxType mailboxType, int mailboxCapacity, WaitStrategy waitStrategy,
+                             MessageMode messageMode, ThreadMode threadMode, CpuSet initiatorCpus,
+                             CpuSet responderCpus) {
 
         System.out.println("running ThreadCommunication with stopCondition: " + stopCondition + ", initialMessage: "
-                + initialMessage + ", verboseLogging: " + verboseLogging);
+                + initialMessage + ", verboseLogging: " + verboseLogging + ", mailboxType: " + mailboxType
+                + ", messageMode: " + messageMode + ", threadMode: " + threadMode + ", initiatorCpus: "
+                + initiatorCpus + ", responderCpus: " + responderCpus);
+        if (threadMode != ThreadMode.PLATFORM && !(initiatorCpus.isEmpty() && responderCpus.isEmpty())) {
+            // pinning a virtual thread would pin its carrier, which runs other virtual threads as well
+            System.out.println("only platform threads can be pinned, the players run unpinned");
+            initiatorCpus = CpuSet.EMPTY;
+            responderCpus = CpuSet.EMPTY;
+        }
+        if (waitStrategy == WaitStrategy.BUSY_SPIN && mailboxType == MailboxType.SPSC_RING
+                && initiatorCpus.intersects(responderCpus)) {
+            System.out.println("warning: both players busy spin on a shared CPU, each spins until its time slice ends");
+        }
 
-        // Using SynchronousQueue implementation of BlockingQueue
-        BlockingQueue<String> mailBox1 = new SynchronousQueue<>();
-        BlockingQueue<String> mailBox2 = new SynchronousQueue<>();
+        PlayerMetrics initiatorMetrics = MetricsRegistry.create("InitiatorThread");
+        PlayerMetrics playerMetrics = MetricsRegistry.create("ResponderThread");
+        Mailbox<String> mailBox1 = mailboxType.create(mailboxCapacity, waitStrategy);
+        Mailbox<String> mailBox2 = mailboxType.create(mailboxCapacity, waitStrategy);
+        if (initiatorMetrics.isEnabled()) {
+            mailBox1 = new TimedMailbox<>(mailBox1, mailboxCapacity, initiatorMetrics);
+            mailBox2 = new TimedMailbox<>(mailBox2, mailboxCapacity, playerMetrics);
+        }
+        Journal initiatorJournal = Journal.create("InitiatorThread");
+        Journal playerJournal = Journal.create("ResponderThread");
+        if (initiatorJournal.isEnabled() || playerJournal.isEnabled()) {
+            // mailBox1 carries the messages of the responder to the initiator
+            mailBox1 = new JournalMailbox(mailBox1, playerJournal, initiatorJournal);
+            mailBox2 = new JournalMailbox(mailBox2, initiatorJournal, playerJournal);
+        }
 
-        Player initiator = new Initiator("InitiatorThread", mailBox1, mailBox2, stopCondition, verboseLogging, initialMessage);
+        Player initiator = new Initiator("InitiatorThread", mailBox1, mailBox2, stopCondition, verboseLogging, initialMessage, messageMode, initiatorMetrics);
 
-        Player player = new Player("ResponderThread", mailBox2, mailBox1, stopCondition, verboseLogging);
+        Player player = new Player("ResponderThread", mailBox2, mailBox1, stopCondition, verboseLogging, messageMode, playerMetrics);
 
-        Thread t1 = new Thread(initiator);
-        Thread t2 = new Thread(player);
+        Thread t1 = threadMode.newThread(Affinity.pinned(initiator, initiatorCpus), "InitiatorThread");
+        Thread t2 = threadMode.newThread(Affinity.pinned(player, responderCpus), "ResponderThread");
         t1.start();
         t2.start();
 
@@ -63,6 +161,10 @@ public class ThreadCommunication {
 
         initiator.printStats();
         player.printStats();
+        MetricsRegistry.remove(initiatorMetrics);
+        MetricsRegistry.remove(playerMetrics);
+        initiatorJournal.close();
+        playerJournal.close();
 
         Stats stats = new Stats();
         stats.setInitiatorSentMessagesCount(initiator.getSentMessagesCount());
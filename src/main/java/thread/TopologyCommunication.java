@@ -0,0 +1,91 @@
+package thread;
+
+import common.ArgsReader;
+import common.Configuration;
+import common.MessageMode;
+import common.ThreadMode;
+import common.WaitStrategy;
+import common.logging.Log;
+import thread.mailbox.MailboxType;
+import thread.topology.NodeStats;
+import thread.topology.Topology;
+import thread.topology.TopologyGame;
+
+import java.util.List;
+
+/**
+ * Runs a game between N players (nodes) connected as a ring, a star, all-to-all or a random mesh, see TopologyGame.
+ */
+public class TopologyCommunication {
+
+    /**
+     * Run this to execute a game between the nodes of a topology, each running in a separate thread.
+     *
+     * @param args if args are not supplied, defaults will be used.
+     *             args[0] -> topology (String, ring / star / all_to_all / random_mesh)
+     *             args[1] -> nodes (int, number of nodes)
+     *             args[2] -> messages (long, number of messages sent in total before the game stops)
+     *             args[3] -> verboseLogging (boolean, whether the nodes should log their actions to the console)
+     *             args[4] -> initialMessage (String, the very first message of the starting nodes)
+     *             args[5] -> mailboxType (String, array_blocking / spsc_ring)
+     *             args[6] -> threadMode (String, platform / virtual)
+     */
+    public static void main(String[] args) {
+
+        Topology topology = Topology.of(ArgsReader.read(args, 0, Configuration.KEY_TOPOLOGY_TYPE));
+        int nodes = ArgsReader.readNodes(args, 1);
+        long messages = ArgsReader.readMessages(args, 2, ArgsReader.readMessageMode(new String[0], 0));
+        boolean verboseLogging = ArgsReader.readVerboseLogging(args, 3);
+        String initialMessage = ArgsReader.readInitialMessage(args, 4);
+        MailboxType mailboxType = MailboxType.of(ArgsReader.read(args, 5, Configuration.KEY_MAILBOX_TYPE));
+        ThreadMode threadMode = ArgsReader.readThreadMode(args, 6);
+        if (mailboxType == MailboxType.SYNCHRONOUS) {
+            System.out.println("synchronous mailboxes cannot buffer, using array_blocking instead");
+            mailboxType = MailboxType.ARRAY_BLOCKING;
+        }
+
+        play(topology, nodes, messages, initialMessage, verboseLogging, mailboxType, threadMode);
+    }
+
+    /**
+     * Plays one game. Mailbox capacity, wait strategy, message mode, degree and seed of the random mesh are read from
+     * the property file.
+     *
+     * @param topology       how the nodes are connected
+     * @param nodes          number of nodes
+     * @param messages       number of messages sent in total before the game stops
+     * @param initialMessage the very first message of the starting nodes
+     * @param verboseLogging whether the nodes should log their actions to the console
+     * @param mailboxType    implementation of the mailboxes of the edges
+     * @param threadMode     which kind of threads the nodes run on
+     * @return statistics of each node
+     */
+    public static List<NodeStats> play(Topology topology, int nodes, long messages, String initialMessage,
+                                       boolean verboseLogging, MailboxType mailboxType, ThreadMode threadMode) {
+
+        String[] noArgs = new String[0];
+        int mailboxCapacity = ArgsReader.readMailboxCapacity(noArgs, 0);
+        WaitStrategy waitStrategy = ArgsReader.readWaitStrategy(noArgs, 0);
+        MessageMode messageMode = ArgsReader.readMessageMode(noArgs, 0);
+        TopologyGame game = new TopologyGame(topology, nodes, Configuration.readInt(Configuration.KEY_TOPOLOGY_DEGREE),
+                Configuration.readLong(Configuration.KEY_TOPOLOGY_SEED), messages, initialMessage, verboseLogging,
+                mailboxType, mailboxCapacity, waitStrategy, messageMode);
+
+        System.out.println("running TopologyCommunication with " + game + ", mailboxType: " + mailboxType
+                + ", mailboxCapacity: " + mailboxCapacity + ", threadMode: " + threadMode);
+
+        long start = System.nanoTime();
+        List<NodeStats> stats = game.play(threadMode);
+        long elapsed = System.nanoTime() - start;
+
+        Log.flush();
+        long hops = 0;
+        for (NodeStats node : stats) {
+            System.out.println(node);
+            hops += node.getReceivedMessagesCount();
+        }
+        System.out.println(topology + " of " + nodes + " nodes sent " + hops + " messages in " + elapsed / 1_000_000
+                + " ms (" + (hops == 0 ? 0 : elapsed / hops) + " ns per hop)");
+        return stats;
+    }
+}
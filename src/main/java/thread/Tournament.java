@@ -0,0 +1,146 @@
+package thread;
+
+import common.ArgsReader;
+import common.Configuration;
+import common.MessageMode;
+import common.Stats;
+import common.ThreadMode;
+import common.WaitStrategy;
+import common.metrics.MetricsRegistry;
+import common.metrics.PlayerMetrics;
+import thread.mailbox.Mailbox;
+import thread.mailbox.MailboxType;
+import thread.mailbox.TimedMailbox;
+import thread.player.Initiator;
+import thread.player.Player;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+
+/**
+ * Runs many independent Initiator/Player pairs (games) concurrently and aggregates their statistics.
+ * <p>
+ * Each player blocks its thread for the whole game. With ThreadMode#PLATFORM the players run on a fixed pool of
+ * platform threads. The two players of a pair are submitted next to each other, so a pool smaller than the number of
+ * players simply runs the games in waves (any pool of at least 2 threads completes). With ThreadMode#VIRTUAL every
+ * player gets a virtual thread of its own. Busy-spinning mailboxes should not be combined with virtual threads, as a
+ * spinning virtual thread never releases its carrier.
+ */
+public class Tournament {
+
+    /**
+     * Run this to execute many games concurrently, each between two player instances.
+     *
+     * @param args if args are not supplied, defaults will be used.
+     *             args[0] -> pairs (int, number of concurrent games)
+     *             args[1] -> stopCondition (int, number of messages that each player should send as well as receive)
+     *             args[2] -> verboseLogging (boolean, whether the players should log their actions to the console)
+     *             args[3] -> initialMessage (String, the very first message that each Initiator will send)
+     *             args[4] -> threadMode (String, platform / virtual)
+     *             args[5] -> poolSize (int, number of platform threads, 0 for one thread per player)
+     */
+    public static void main(String[] args) {
+
+        int pairs = ArgsReader.readPairs(args, 0);
+        String[] noArgs = new String[0];
+        int stopCondition = ArgsReader.readStopCondition(args, 1, ArgsReader.readMessageMode(noArgs, 0));
+        boolean verboseLogging = ArgsReader.readVerboseLogging(args, 2);
+        String initialMessage = ArgsReader.readInitialMessage(args, 3);
+        ThreadMode threadMode = ArgsReader.readThreadMode(args, 4);
+        int poolSize = ArgsReader.readPoolSize(args, 5);
+
+        play(pairs, stopCondition, initialMessage, verboseLogging, threadMode, poolSize);
+    }
+
+    /**
+     * Plays the given number of games concurrently. Mailbox type, capacity, wait strategy and message mode are read
+     * from the property file.
+     *
+     * @param pairs          number of concurrent games
+     * @param stopCondition  number of messages that each player should send as well as receive
+     * @param initialMessage the very first message that each Initiator will send
+     * @param verboseLogging whether the players should log their actions to the console
+     * @param threadMode     which kind of threads the players run on
+     * @param poolSize       number of platform threads, 0 for one thread per player. Ignored by ThreadMode#VIRTUAL.
+     * @return statistics summed over all games
+     * @throws IllegalArgumentException if the messages of all games together do not fit into the counts of Stats.
+     */
+    public static Stats play(int pairs, int stopCondition, String initialMessage, boolean verboseLogging,
+                             ThreadMode threadMode, int poolSize) {
+
+        // the counts of all games are added up, see Stats#add
+        Stats.checkTotal(pairs, stopCondition);
+
+        String[] noArgs = new String[0];
+        MailboxType mailboxType = MailboxType.of(Configuration.read(Configuration.KEY_MAILBOX_TYPE));
+        int mailboxCapacity = ArgsReader.readMailboxCapacity(noArgs, 0);
+        WaitStrategy waitStrategy = ArgsReader.readWaitStrategy(noArgs, 0);
+        MessageMode messageMode = ArgsReader.readMessageMode(noArgs, 0);
+        int threads = poolSize == 0 ? 2 * pairs : poolSize;
+
+        System.out.println("running Tournament with pairs: " + pairs + ", stopCondition: " + stopCondition
+                + ", threadMode: " + threadMode + ", poolSize: " + threads + ", mailboxType: " + mailboxType
+                + ", messageMode: " + messageMode);
+
+        // one set of metrics per role, with a part per player, so that the pairs never record into the same counters
+        PlayerMetrics initiatorMetrics = MetricsRegistry.create("Tournament-Initiators");
+        PlayerMetrics playerMetrics = MetricsRegistry.create("Tournament-Responders");
+        List<Player> initiators = new ArrayList<>(pairs);
+        List<Player> players = new ArrayList<>(pairs);
+        for (int i = 0; i < pairs; i++) {
+            PlayerMetrics initiatorPart = initiatorMetrics.part("Initiator-" + i);
+            PlayerMetrics playerPart = playerMetrics.part("Responder-" + i);
+            Mailbox<String> mailBox1 = mailboxType.create(mailboxCapacity, waitStrategy);
+            Mailbox<String> mailBox2 = mailboxType.create(mailboxCapacity, waitStrategy);
+            if (initiatorMetrics.isEnabled()) {
+                mailBox1 = new TimedMailbox<>(mailBox1, mailboxCapacity, initiatorPart);
+                mailBox2 = new TimedMailbox<>(mailBox2, mailboxCapacity, playerPart);
+            }
+            initiators.add(new Initiator("Initiator-" + i, mailBox1, mailBox2, stopCondition, verboseLogging, initialMessage, messageMode, initiatorPart));
+            players.add(new Player("Responder-" + i, mailBox2, mailBox1, stopCondition, verboseLogging, messageMode, playerPart));
+        }
+
+        long start = System.nanoTime();
+        ExecutorService executor = threadMode.newExecutor(threads);
+        List<Future<?>> futures = new ArrayList<>(2 * pairs);
+        try {
+            for (int i = 0; i < pairs; i++) {
+                // the two players of a pair are submitted together, see class comment
+                futures.add(executor.submit(initiators.get(i)));
+                futures.add(executor.submit(players.get(i)));
+            }
+            // Future.get() also guarantees that all actions of the player happen-before reading its counts below
+            for (Future<?> future : futures) {
+                future.get();
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            e.printStackTrace();
+        } catch (ExecutionException e) {
+            e.printStackTrace();
+        } finally {
+            executor.shutdownNow();
+        }
+        long elapsed = System.nanoTime() - start;
+        MetricsRegistry.remove(initiatorMetrics);
+        MetricsRegistry.remove(playerMetrics);
+
+        Stats stats = new Stats();
+        for (int i = 0; i < pairs; i++) {
+            Stats game = new Stats();
+            game.setInitiatorSentMessagesCount(initiators.get(i).getSentMessagesCount());
+            game.setInitiatorReceivedMessagesCount(initiators.get(i).getReceivedMessagesCount());
+            game.setPlayerSentMessagesCount(players.get(i).getSentMessagesCount());
+            game.setPlayerReceivedMessagesCount(players.get(i).getReceivedMessagesCount());
+            stats.add(game);
+        }
+
+        long hops = (long) stats.getInitiatorSentMessagesCount() + stats.getPlayerSentMessagesCount();
+        System.out.println("Tournament of " + pairs + " pairs sent " + hops + " messages in " + elapsed / 1_000_000
+                + " ms (" + (hops == 0 ? 0 : elapsed / hops) + " ns per hop)");
+        return stats;
+    }
+}
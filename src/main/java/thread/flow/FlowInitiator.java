@@ -0,0 +1,30 @@
+package thread.flow;
+
+import common.MessageMode;
+
+import java.util.concurrent.Executor;
+
+/**
+ * Each instance of this class represents an Initiator player.
+ * Extends the behaviour of FlowPlayer class with the ability to initiate messaging with the given initial message.
+ *
+ * @see FlowPlayer
+ */
+public class FlowInitiator extends FlowPlayer {
+
+    /**
+     * the very first message
+     */
+    private final String initialMessage;
+
+    public FlowInitiator(String name, int stopCondition, boolean verboseLogging, String initialMessage,
+                         MessageMode messageMode, Executor executor, int demandBatch) {
+        super(name, stopCondition, verboseLogging, messageMode, executor, demandBatch);
+        this.initialMessage = initialMessage;
+    }
+
+    @Override
+    public void start() {
+        sendInitialMessage(initialMessage);
+    }
+}
@@ -0,0 +1,221 @@
+package thread.flow;
+
+import common.MessageMode;
+import common.logging.Log;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+import java.util.concurrent.Flow;
+import java.util.concurrent.SubmissionPublisher;
+
+/**
+ * A player that receives the messages of the other player as a Flow.Subscriber and publishes its replies as a
+ * Flow.Publisher, so that a game needs no thread of its own: each message is handled by a task on the executor of the
+ * publisher it comes from, and many games can share one small pool.
+ * <p>
+ * Demand is signalled in batches: the player requests 'demandBatch' messages when subscribed, and requests the
+ * consumed ones again each time half of that has been consumed, instead of one request(1) per message. The replies are
+ * published through a SubmissionPublisher on the given executor with a buffer of 'demandBatch' messages, whose submit
+ * blocks once a slow subscriber has that many messages outstanding.
+ * <p>
+ * The signals of one subscription are never concurrent and each happens-before the next, so the counters have a single
+ * writer at a time and are volatile, so that the getters can be called from any thread at any time.
+ */
+public class FlowPlayer implements Flow.Processor<String, String> {
+
+    /**
+     * name that will be printed to console
+     */
+    private final String name;
+    /**
+     * stop condition is the number of messages that each player should send as well as receive before stopping
+     */
+    private final int stopCondition;
+    /**
+     * if true, player will log to the console each message received or sent, as well as stopping
+     */
+    private final boolean verboseLogging;
+    /**
+     * how the messages sent by this player are built
+     */
+    private final MessageMode messageMode;
+    /**
+     * number of messages requested at a time
+     */
+    private final int demandBatch;
+    /**
+     * publishes the messages of this player to the other player
+     */
+    private final SubmissionPublisher<String> publisher;
+    /**
+     * completed when the stop condition is met, exceptionally if the game could not finish
+     */
+    private final CompletableFuture<Void> completion = new CompletableFuture<>();
+    /**
+     * subscription to the messages of the other player
+     */
+    private Flow.Subscription subscription;
+    /**
+     * messages consumed since demand was last signalled
+     */
+    private int consumed;
+    private volatile int receivedMessagesCount;
+    private volatile int sentMessagesCount;
+
+    /**
+     * Class constructor
+     *
+     * @param name           name of this player that appears in logs.
+     * @param stopCondition  number of messages to send and receive before play stops.
+     * @param verboseLogging flag whether the players should log their actions to the console.
+     * @param messageMode    how the messages sent by this player are built.
+     * @param executor       executor the messages of this player are delivered on, may be shared by many players.
+     * @param demandBatch    number of messages requested at a time.
+     */
+    public FlowPlayer(String name, int stopCondition, boolean verboseLogging, MessageMode messageMode,
+                      Executor executor, int demandBatch) {
+        if (demandBatch < 1) {
+            throw new IllegalArgumentException("Invalid demand batch. Must be at least 1");
+        }
+        this.name = name;
+        this.stopCondition = stopCondition;
+        this.verboseLogging = verboseLogging;
+        this.messageMode = messageMode;
+        this.demandBatch = demandBatch;
+        this.publisher = new SubmissionPublisher<>(executor, demandBatch);
+    }
+
+    @Override
+    public void subscribe(Flow.Subscriber<? super String> subscriber) {
+        publisher.subscribe(subscriber);
+    }
+
+    @Override
+    public void onSubscribe(Flow.Subscription subscription) {
+        if (this.subscription != null) {
+            // a player answers one other player only
+            subscription.cancel();
+            return;
+        }
+        this.subscription = subscription;
+        subscription.request(demandBatch);
+    }
+
+    @Override
+    public void onNext(String message) {
+        if (completion.isDone()) {
+            return;
+        }
+        try {
+            receivedMessagesCount++;
+            log("read message: ", message, "\t");
+            if (++consumed >= Math.max(1, demandBatch / 2)) {
+                subscription.request(consumed);
+                consumed = 0;
+            }
+            if (sentMessagesCount < stopCondition) {
+                post(messageMode.reply(message, name, receivedMessagesCount));
+            } // else Do nothing. Initiator does not have to send a reply to the last message they receive.
+            if (receivedMessagesCount >= stopCondition) {
+                subscription.cancel();
+                publisher.close();
+                completion.complete(null);
+                log("stopped", null);
+            }
+        } catch (RuntimeException e) {
+            fail(e);
+        }
+    }
+
+    @Override
+    public void onError(Throwable throwable) {
+        fail(throwable);
+    }
+
+    @Override
+    public void onComplete() {
+        if (!completion.isDone()) {
+            fail(new IllegalStateException(name + " received " + receivedMessagesCount + " of " + stopCondition
+                    + " messages before the other player completed"));
+        }
+    }
+
+    /**
+     * Starts playing. Must be called once both players have subscribed to each other, as a SubmissionPublisher drops
+     * what it publishes before anyone subscribed. A responder has nothing to do until the first message arrives.
+     */
+    public void start() {
+        // the first message starts the game
+    }
+
+    /**
+     * Publishes the first message of a game built from the specified payload.
+     *
+     * @param payload the initial message.
+     */
+    protected void sendInitialMessage(String payload) {
+        if (payload != null && !payload.isEmpty()) {
+            post(messageMode.initial(payload, name, receivedMessagesCount));
+        } else {
+            log("has no message to send, skip sending", null);
+        }
+    }
+
+    private void post(String message) {
+        log("sending message: ", message, null);
+        // counted before the message can be delivered, the reply may be handled on another thread right away. Every
+        // later increment happens in onNext, after that delivery, so a volatile is enough.
+        sentMessagesCount++;
+        publisher.submit(message);
+    }
+
+    private void fail(Throwable throwable) {
+        if (completion.completeExceptionally(throwable)) {
+            if (subscription != null) {
+                subscription.cancel();
+            }
+            publisher.closeExceptionally(throwable);
+            log("failed: " + throwable, null);
+        }
+    }
+
+    /**
+     * @return completed when the stop condition is met, exceptionally if the other player failed or completed early
+     */
+    public CompletableFuture<Void> getCompletion() {
+        return completion;
+    }
+
+    public int getReceivedMessagesCount() {
+        return receivedMessagesCount;
+    }
+
+    public int getSentMessagesCount() {
+        return sentMessagesCount;
+    }
+
+    /**
+     * Prints statistics (counts) to the console
+     */
+    public void printStats() {
+        Log.flush();
+        System.out.println(name + " sent " + sentMessagesCount + " messages and received " + receivedMessagesCount + " messages");
+    }
+
+    /**
+     * Prints the supplied string with prefix and name to the console if verboseLogging flag is true.
+     */
+    public void log(String string, String prefix) {
+        log(string, null, prefix);
+    }
+
+    /**
+     * Prints the supplied string followed by detail, with prefix and name, to the console if verboseLogging flag is
+     * true. The line is put together by the log, not by the player.
+     */
+    public void log(String string, String detail, String prefix) {
+        if (verboseLogging) {
+            Log.log(prefix, name, string, detail);
+        }
+    }
+}
@@ -0,0 +1,37 @@
+package thread.mailbox;
+
+import java.util.concurrent.BlockingQueue;
+
+/**
+ * Mailbox backed by a BlockingQueue. Waiting threads are parked and unparked by the queue.
+ *
+ * @param <E> type of the messages
+ */
+public class BlockingQueueMailbox<E> implements Mailbox<E> {
+
+    private final BlockingQueue<E> queue;
+
+    public BlockingQueueMailbox(BlockingQueue<E> queue) {
+        this.queue = queue;
+    }
+
+    @Override
+    public void put(E message) throws InterruptedException {
+        queue.put(message);
+    }
+
+    @Override
+    public E take() throws InterruptedException {
+        return queue.take();
+    }
+
+    @Override
+    public boolean offer(E message) {
+        return queue.offer(message);
+    }
+
+    @Override
+    public E poll() {
+        return queue.poll();
+    }
+}
@@ -0,0 +1,62 @@
+package thread.mailbox;
+
+import common.journal.Journal;
+
+/**
+ * Decorates a mailbox to record each message in the journals of both players: as sent by the sender when it puts the
+ * message, and as received by the receiver once it has taken it.
+ * <p>
+ * Each journal is only written by the thread of its own player, so like the mailboxes, this must not be shared by
+ * more than one sending or more than one receiving thread.
+ */
+public class JournalMailbox implements Mailbox<String> {
+
+    private final Mailbox<String> delegate;
+    private final Journal senderJournal;
+    private final Journal receiverJournal;
+
+    /**
+     * Class constructor
+     *
+     * @param delegate        mailbox carrying the messages
+     * @param senderJournal   journal of the player putting the messages
+     * @param receiverJournal journal of the player taking the messages
+     */
+    public JournalMailbox(Mailbox<String> delegate, Journal senderJournal, Journal receiverJournal) {
+        this.delegate = delegate;
+        this.senderJournal = senderJournal;
+        this.receiverJournal = receiverJournal;
+    }
+
+    @Override
+    public void put(String message) throws InterruptedException {
+        // recorded first, a synchronous handoff only returns once the receiver has taken (and recorded) the message
+        senderJournal.sent(message);
+        delegate.put(message);
+    }
+
+    @Override
+    public String take() throws InterruptedException {
+        String message = delegate.take();
+        receiverJournal.received(message);
+        return message;
+    }
+
+    @Override
+    public boolean offer(String message) {
+        if (!delegate.offer(message)) {
+            return false;
+        }
+        senderJournal.sent(message);
+        return true;
+    }
+
+    @Override
+    public String poll() {
+        String message = delegate.poll();
+        if (message != null) {
+            receiverJournal.received(message);
+        }
+        return message;
+    }
+}
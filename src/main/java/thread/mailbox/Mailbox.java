@@ -0,0 +1,42 @@
+package thread.mailbox;
+
+/**
+ * A mailbox carries messages from exactly one sending player to exactly one receiving player.
+ * Implementations decide how (and how long) the sender and receiver wait for each other.
+ *
+ * @param <E> type of the messages
+ * @see MailboxType
+ */
+public interface Mailbox<E> {
+
+    /**
+     * Inserts the message, waiting if necessary for space (or for a receiver) to become available.
+     *
+     * @param message message, not null
+     * @throws InterruptedException if interrupted while waiting
+     */
+    void put(E message) throws InterruptedException;
+
+    /**
+     * Retrieves and removes the next message, waiting if necessary until a message is available.
+     *
+     * @return message
+     * @throws InterruptedException if interrupted while waiting
+     */
+    E take() throws InterruptedException;
+
+    /**
+     * Inserts the message if there is space for it right now, without waiting.
+     *
+     * @param message message, not null
+     * @return true if the message was inserted
+     */
+    boolean offer(E message);
+
+    /**
+     * Retrieves and removes the next message if there is one, without waiting.
+     *
+     * @return message, or null if the mailbox is empty
+     */
+    E poll();
+}
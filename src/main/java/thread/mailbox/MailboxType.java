@@ -0,0 +1,61 @@
+package thread.mailbox;
+
+import common.WaitStrategy;
+
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.SynchronousQueue;
+
+/**
+ * The available mailbox implementations.
+ */
+public enum MailboxType {
+
+    /**
+     * direct handoff through a SynchronousQueue. Sender waits until the receiver takes the message.
+     * Capacity and wait strategy are ignored.
+     */
+    SYNCHRONOUS {
+        @Override
+        public <E> Mailbox<E> create(int capacity, WaitStrategy waitStrategy) {
+            return new BlockingQueueMailbox<>(new SynchronousQueue<>());
+        }
+    },
+    /**
+     * bounded ArrayBlockingQueue of the given capacity. Wait strategy is ignored.
+     */
+    ARRAY_BLOCKING {
+        @Override
+        public <E> Mailbox<E> create(int capacity, WaitStrategy waitStrategy) {
+            return new BlockingQueueMailbox<>(new ArrayBlockingQueue<>(capacity));
+        }
+    },
+    /**
+     * lock-free single-producer/single-consumer ring buffer, waiting with the given wait strategy.
+     */
+    SPSC_RING {
+        @Override
+        public <E> Mailbox<E> create(int capacity, WaitStrategy waitStrategy) {
+            return new SpscRingMailbox<>(capacity, waitStrategy);
+        }
+    };
+
+    /**
+     * Creates a new mailbox of this type.
+     *
+     * @param capacity number of messages the mailbox can hold, where applicable.
+     * @param waitStrategy how waiting threads wait, where applicable.
+     * @param <E> type of the messages
+     * @return new mailbox
+     */
+    public abstract <E> Mailbox<E> create(int capacity, WaitStrategy waitStrategy);
+
+    /**
+     * Parses the name of a mailbox type (case insensitive), eg. 'spsc_ring'.
+     *
+     * @param name name of the type
+     * @return the type
+     */
+    public static MailboxType of(String name) {
+        return valueOf(name.trim().toUpperCase());
+    }
+}
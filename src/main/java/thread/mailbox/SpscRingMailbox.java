@@ -0,0 +1,125 @@
+package thread.mailbox;
+
+import common.WaitStrategy;
+
+import java.util.Objects;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Lock-free bounded ring buffer for a single producer (sending player) and a single consumer (receiving player).
+ * Neither side ever blocks on a lock, a side that has to wait uses the configured WaitStrategy instead.
+ * <p>
+ * Must not be shared by more than one sending or more than one receiving thread.
+ *
+ * @param <E> type of the messages
+ */
+public class SpscRingMailbox<E> implements Mailbox<E> {
+
+    private final Object[] buffer;
+    private final int mask;
+    private final WaitStrategy waitStrategy;
+    /**
+     * sequence of the next slot to read. Only written by the consumer.
+     */
+    private final AtomicLong head = new AtomicLong();
+    /**
+     * sequence of the next slot to write. Only written by the producer.
+     */
+    private final AtomicLong tail = new AtomicLong();
+    /**
+     * last value of head seen by the producer, saves reading the consumer's counter on every put.
+     */
+    private long headCache;
+    /**
+     * last value of tail seen by the consumer, saves reading the producer's counter on every take.
+     */
+    private long tailCache;
+
+    /**
+     * Class constructor
+     *
+     * @param capacity minimum number of messages the ring can hold, rounded up to the next power of two.
+     * @param waitStrategy what the producer (ring full) or consumer (ring empty) does while waiting.
+     */
+    public SpscRingMailbox(int capacity, WaitStrategy waitStrategy) {
+        if (capacity < 1) {
+            throw new IllegalArgumentException("Invalid capacity " + capacity + ". Must be at least 1");
+        }
+        int size = Integer.highestOneBit(capacity);
+        if (size < capacity) {
+            size <<= 1;
+        }
+        this.buffer = new Object[size];
+        this.mask = size - 1;
+        this.waitStrategy = waitStrategy;
+    }
+
+    @Override
+    public void put(E message) throws InterruptedException {
+        Objects.requireNonNull(message);
+        long t = tail.get();
+        while (t - headCache == buffer.length) {
+            headCache = head.get();
+            if (t - headCache == buffer.length) {
+                waitStrategy.idle();
+            }
+        }
+        buffer[(int) t & mask] = message;
+        // release store, publishes the slot to the consumer
+        tail.lazySet(t + 1);
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public E take() throws InterruptedException {
+        long h = head.get();
+        while (h == tailCache) {
+            tailCache = tail.get();
+            if (h == tailCache) {
+                waitStrategy.idle();
+            }
+        }
+        int index = (int) h & mask;
+        E message = (E) buffer[index];
+        buffer[index] = null;
+        // release store, hands the slot back to the producer
+        head.lazySet(h + 1);
+        return message;
+    }
+
+    @Override
+    public boolean offer(E message) {
+        Objects.requireNonNull(message);
+        long t = tail.get();
+        if (t - headCache == buffer.length) {
+            headCache = head.get();
+            if (t - headCache == buffer.length) {
+                return false;
+            }
+        }
+        buffer[(int) t & mask] = message;
+        tail.lazySet(t + 1);
+        return true;
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public E poll() {
+        long h = head.get();
+        if (h == tailCache) {
+            tailCache = tail.get();
+            if (h == tailCache) {
+                return null;
+            }
+        }
+        int index = (int) h & mask;
+        E message = (E) buffer[index];
+        buffer[index] = null;
+        head.lazySet(h + 1);
+        return message;
+    }
+
+    public int capacity() {
+        return buffer.length;
+    }
+}
@@ -0,0 +1,81 @@
+package thread.mailbox;
+
+import common.metrics.PlayerMetrics;
+
+/**
+ * Decorates a mailbox to measure how long each message takes from put to take, recorded as the hop latency of the
+ * receiving player.
+ * <p>
+ * The put times travel in a ring of their own, next to the messages. The sender writes the time before putting the
+ * message, so once the receiver has taken the message the time is visible too (the mailbox hand-over is the
+ * happens-before edge, the ring needs no synchronization of its own). At most one message more than the
+ * mailbox holds can be between put and take (the one whose sender is waiting in put), so the ring never fills up.
+ * Like the mailboxes, it must not be shared by more than one sending or more than one receiving thread.
+ *
+ * @param <E> type of the messages
+ */
+public class TimedMailbox<E> implements Mailbox<E> {
+
+    private final Mailbox<E> delegate;
+    private final PlayerMetrics receiverMetrics;
+    private final long[] putTimes;
+    private final int mask;
+    /**
+     * number of put times written. Only used by the sender.
+     */
+    private long written;
+    /**
+     * number of put times read. Only used by the receiver.
+     */
+    private long read;
+
+    /**
+     * Class constructor
+     *
+     * @param delegate        mailbox carrying the messages
+     * @param capacity        number of messages the mailbox can hold
+     * @param receiverMetrics metrics of the player taking the messages
+     */
+    public TimedMailbox(Mailbox<E> delegate, int capacity, PlayerMetrics receiverMetrics) {
+        this.delegate = delegate;
+        this.receiverMetrics = receiverMetrics;
+        // room for twice the capacity rounded up to a power of two, like SpscRingMailbox rounds it, plus one
+        int size = Integer.highestOneBit(Math.max(1, capacity)) << 2;
+        this.putTimes = new long[size];
+        this.mask = size - 1;
+    }
+
+    @Override
+    public void put(E message) throws InterruptedException {
+        putTimes[(int) written++ & mask] = System.nanoTime();
+        delegate.put(message);
+    }
+
+    @Override
+    public E take() throws InterruptedException {
+        E message = delegate.take();
+        long putTime = putTimes[(int) read++ & mask];
+        receiverMetrics.recordHop(System.nanoTime() - putTime);
+        return message;
+    }
+
+    @Override
+    public boolean offer(E message) {
+        putTimes[(int) written & mask] = System.nanoTime();
+        if (!delegate.offer(message)) {
+            return false;
+        }
+        written++;
+        return true;
+    }
+
+    @Override
+    public E poll() {
+        E message = delegate.poll();
+        if (message != null) {
+            long putTime = putTimes[(int) read++ & mask];
+            receiverMetrics.recordHop(System.nanoTime() - putTime);
+        }
+        return message;
+    }
+}
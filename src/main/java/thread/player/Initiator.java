@@ -1,6 +1,8 @@
 package thread.player;
 
-import java.util.concurrent.BlockingQueue;
+import common.MessageMode;
+import common.metrics.PlayerMetrics;
+import thread.mailbox.Mailbox;
 
 /**
  * Each instance of this class represents an Initiator player.
@@ -15,9 +17,19 @@ public class Initiator extends Player {
      */
     private final String initialMessage;
 
-    public Initiator(String name, BlockingQueue<String> inbox, BlockingQueue<String> outbox,
+    public Initiator(String name, Mailbox<String> inbox, Mailbox<String> outbox,
                      int stopCondition, boolean verboseLogging, String initialMessage) {
-        super(name, inbox, outbox, stopCondition, verboseLogging);
+        this(name, inbox, outbox, stopCondition, verboseLogging, initialMessage, MessageMode.CONCATENATED);
+    }
+
+    public Initiator(String name, Mailbox<String> inbox, Mailbox<String> outbox,
+                     int stopCondition, boolean verboseLogging, String initialMessage, MessageMode messageMode) {
+        this(name, inbox, outbox, stopCondition, verboseLogging, initialMessage, messageMode, PlayerMetrics.DISABLED);
+    }
+
+    public Initiator(String name, Mailbox<String> inbox, Mailbox<String> outbox, int stopCondition,
+                     boolean verboseLogging, String initialMessage, MessageMode messageMode, PlayerMetrics metrics) {
+        super(name, inbox, outbox, stopCondition, verboseLogging, messageMode, metrics);
         this.initialMessage = initialMessage;
     }
 
@@ -26,7 +38,7 @@ public class Initiator extends Player {
 
         try {
             // initiate messaging before going into the while loop
-            sendMessage(initialMessage);
+            sendInitialMessage(initialMessage);
             super.run();
         } catch (InterruptedException e) {
             e.printStackTrace();
@@ -1,13 +1,37 @@
 package thread.player;
 
-import java.util.concurrent.BlockingQueue;
+import common.MessageMode;
+import common.logging.Log;
+import common.metrics.PlayerMetrics;
+import common.metrics.RoundTrips;
+import thread.mailbox.Mailbox;
+
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.VarHandle;
 
 /**
  * Each instance of this class represents a player that can communicate with another instance of this class while running as a separate thread.
  * Implements Runnable interface to enable concurrent execution.
+ * <p>
+ * No lock is held while sending or receiving. The counters have a single writer (the player's own thread, which is
+ * the only thread that may call readMessage() and sendMessage()) and are published with release stores, so that
+ * the getters can be called from any thread at any time.
  */
 public class Player implements Runnable {
 
+    private static final VarHandle RECEIVED_MESSAGES_COUNT;
+    private static final VarHandle SENT_MESSAGES_COUNT;
+
+    static {
+        try {
+            MethodHandles.Lookup lookup = MethodHandles.lookup();
+            RECEIVED_MESSAGES_COUNT = lookup.findVarHandle(Player.class, "receivedMessagesCount", int.class);
+            SENT_MESSAGES_COUNT = lookup.findVarHandle(Player.class, "sentMessagesCount", int.class);
+        } catch (ReflectiveOperationException e) {
+            throw new ExceptionInInitializerError(e);
+        }
+    }
+
     /**
      * name that will be printed to console
      */
@@ -17,17 +41,29 @@ public class Player implements Runnable {
      */
     private final int stopCondition;
     /**
-     * messages to this player will be put in this queue and can be read by this player
+     * messages to this player will be put in this mailbox and can be read by this player
      */
-    private final BlockingQueue<String> inbox;
+    private final Mailbox<String> inbox;
     /**
-     * messages from this player will be put in this queue to be read by the other player
+     * messages from this player will be put in this mailbox to be read by the other player
      */
-    private final BlockingQueue<String> outbox;
+    private final Mailbox<String> outbox;
     /**
      * if true, player will log to the console each message received or sent, as well as stopping
      */
     private final boolean verboseLogging;
+    /**
+     * how the messages sent by this player are built
+     */
+    private final MessageMode messageMode;
+    /**
+     * live metrics of this player, PlayerMetrics#DISABLED if not collected
+     */
+    private final PlayerMetrics metrics;
+    /**
+     * send times of the messages in flight, null if metrics are not collected
+     */
+    private final RoundTrips roundTrips;
     /**
      * holds the number of messaged received at any point. update everytime a message is received
      */
@@ -41,18 +77,52 @@ public class Player implements Runnable {
      * Class constructor
      *
      * @param name name of this player that appears in logs.
-     * @param inbox the queue holding incoming messages. This is also the outbox of the other player.
-     * @param outbox the queue holding outgoing messages. This is also the inbox of the other player.
+     * @param inbox the mailbox holding incoming messages. This is also the outbox of the other player.
+     * @param outbox the mailbox holding outgoing messages. This is also the inbox of the other player.
      * @param stopCondition number of messages to send and receive before play stops.
      * @param verboseLogging flag whether the players should log their actions to the console.
      */
-    public Player(String name, BlockingQueue<String> inbox, BlockingQueue<String> outbox,
+    public Player(String name, Mailbox<String> inbox, Mailbox<String> outbox,
                   int stopCondition, boolean verboseLogging) {
+        this(name, inbox, outbox, stopCondition, verboseLogging, MessageMode.CONCATENATED);
+    }
+
+    /**
+     * Class constructor
+     *
+     * @param name name of this player that appears in logs.
+     * @param inbox the mailbox holding incoming messages. This is also the outbox of the other player.
+     * @param outbox the mailbox holding outgoing messages. This is also the inbox of the other player.
+     * @param stopCondition number of messages to send and receive before play stops.
+     * @param verboseLogging flag whether the players should log their actions to the console.
+     * @param messageMode how the messages sent by this player are built.
+     */
+    public Player(String name, Mailbox<String> inbox, Mailbox<String> outbox,
+                  int stopCondition, boolean verboseLogging, MessageMode messageMode) {
+        this(name, inbox, outbox, stopCondition, verboseLogging, messageMode, PlayerMetrics.DISABLED);
+    }
+
+    /**
+     * Class constructor
+     *
+     * @param name name of this player that appears in logs.
+     * @param inbox the mailbox holding incoming messages. This is also the outbox of the other player.
+     * @param outbox the mailbox holding outgoing messages. This is also the inbox of the other player.
+     * @param stopCondition number of messages to send and receive before play stops.
+     * @param verboseLogging flag whether the players should log their actions to the console.
+     * @param messageMode how the messages sent by this player are built.
+     * @param metrics live metrics to record into, may be shared with other players.
+     */
+    public Player(String name, Mailbox<String> inbox, Mailbox<String> outbox,
+                  int stopCondition, boolean verboseLogging, MessageMode messageMode, PlayerMetrics metrics) {
         this.name = name;
         this.inbox = inbox;
         this.outbox = outbox;
         this.stopCondition = stopCondition;
         this.verboseLogging = verboseLogging;
+        this.messageMode = messageMode;
+        this.metrics = metrics;
+        this.roundTrips = metrics.isEnabled() ? new RoundTrips() : null;
     }
 
     /**
@@ -84,60 +154,92 @@ public class Player implements Runnable {
      * @return message
      * @throws InterruptedException exception
      */
-    public synchronized String readMessage() throws InterruptedException {
+    public String readMessage() throws InterruptedException {
 
+        long waitStart = metrics.now();
         String message = inbox.take();
-        receivedMessagesCount++;
-        log("read message: " + message, "\t");
+        metrics.received(message, waitStart, roundTrips);
+        RECEIVED_MESSAGES_COUNT.setRelease(this, receivedMessagesCount + 1);
+        log("read message: ", message, "\t");
         return message;
     }
 
     /**
-     * Inserts the specified message into the outbox, waiting if necessary for space to become available,
-     * and increments sentMessagesCount. Does not insert if message is null or empty.
+     * Builds the reply to the specified message, inserts it into the outbox, waiting if necessary for space to
+     * become available, and increments sentMessagesCount. Does not insert if message is null or empty.
      *
-     * @param message message to send.
+     * @param message message to reply to.
      * @throws InterruptedException exception.
      */
-    public synchronized void sendMessage(String message) throws InterruptedException {
+    public void sendMessage(String message) throws InterruptedException {
 
         if (message != null && !message.isEmpty()) {
-            message = message + " " + receivedMessagesCount;
-            log("sending message: " + message, null);
-            outbox.put(message);
-            sentMessagesCount++;
+            post(messageMode.reply(message, name, receivedMessagesCount));
         } else {
             log("has no message to send, skip sending", null);
         }
     }
 
+    /**
+     * Builds the first message of a game from the specified payload and sends it like sendMessage(String) does.
+     * Does not insert if payload is null or empty.
+     *
+     * @param payload the initial message.
+     * @throws InterruptedException exception.
+     */
+    protected void sendInitialMessage(String payload) throws InterruptedException {
+
+        if (payload != null && !payload.isEmpty()) {
+            post(messageMode.initial(payload, name, receivedMessagesCount));
+        } else {
+            log("has no message to send, skip sending", null);
+        }
+    }
+
+    private void post(String message) throws InterruptedException {
+        log("sending message: ", message, null);
+        long sendStart = metrics.now();
+        outbox.put(message);
+        metrics.sent(message, sendStart, roundTrips);
+        SENT_MESSAGES_COUNT.setRelease(this, sentMessagesCount + 1);
+    }
+
     /**
      * @return receivedMessagesCount
      */
     public int getReceivedMessagesCount() {
-        return receivedMessagesCount;
+        return (int) RECEIVED_MESSAGES_COUNT.getAcquire(this);
     }
 
     /**
      * @return sentMessagesCount
      */
     public int getSentMessagesCount() {
-        return sentMessagesCount;
+        return (int) SENT_MESSAGES_COUNT.getAcquire(this);
     }
 
     /**
      * Prints statistics (counts) to the console
      */
     public void printStats() {
-        System.out.println(name + " sent " + sentMessagesCount + " messages and received " + receivedMessagesCount + " messages");
+        Log.flush();
+        System.out.println(name + " sent " + getSentMessagesCount() + " messages and received " + getReceivedMessagesCount() + " messages");
     }
 
     /**
      * Prints the supplied string with prefix and name to the console if verboseLogging flag is true.
      */
     public void log(String string, String prefix) {
+        log(string, null, prefix);
+    }
+
+    /**
+     * Prints the supplied string followed by detail, with prefix and name, to the console if verboseLogging flag is
+     * true. The line is put together by the log, not by the player.
+     */
+    public void log(String string, String detail, String prefix) {
         if (verboseLogging) {
-            System.out.println((prefix == null ? "" : prefix) + name + ": " + string);
+            Log.log(prefix, name, string, detail);
         }
     }
 
@@ -0,0 +1,213 @@
+package thread.topology;
+
+import common.MessageMode;
+import common.WaitStrategy;
+import common.logging.Log;
+import common.metrics.PlayerMetrics;
+import thread.mailbox.Mailbox;
+
+import java.util.ArrayDeque;
+import java.util.Random;
+
+/**
+ * A player of a TopologyGame with any number of incoming and outgoing edges.
+ * <p>
+ * A node never blocks on a single mailbox: it polls its incoming edges in turn and offers its messages to the
+ * outgoing edges, keeping the messages that do not fit yet until there is room. Blocking in put could deadlock as
+ * soon as the graph has a cycle of full mailboxes. When neither is possible, the node waits with its WaitStrategy.
+ * The counters have a single writer (the node's own thread) and must only be read once the node has finished.
+ */
+public class Node implements Runnable {
+
+    private final String name;
+    private final Mailbox<String>[] inboxes;
+    /**
+     * outboxes[i] is the mailbox of the edge to targets[i]
+     */
+    private final Mailbox<String>[] outboxes;
+    private final boolean broadcast;
+    private final boolean starts;
+    private final String initialMessage;
+    private final Termination termination;
+    private final MessageMode messageMode;
+    private final WaitStrategy waitStrategy;
+    private final boolean verboseLogging;
+    /**
+     * hop latency of the incoming edges, recorded by their TimedMailbox
+     */
+    private final PlayerMetrics metrics;
+    private final Random random;
+    /**
+     * messages (and the index of their outbox) that did not fit into their outbox yet
+     */
+    private final ArrayDeque<Outgoing> pending = new ArrayDeque<>();
+    /**
+     * delivered[i] is the number of messages received on incoming edge i that no round of a broadcast topology has
+     * used yet. A message that arrives on an edge ahead of the others is kept for the next round.
+     */
+    private final int[] delivered;
+    /**
+     * number of incoming edges that have not delivered a message for the current round yet
+     */
+    private int missing;
+    /**
+     * incoming edge to poll first, so that no edge is starved
+     */
+    private int nextInbox;
+    /**
+     * incoming edge of the message returned by the last poll
+     */
+    private int polledInbox;
+    private int receivedMessagesCount;
+    private int sentMessagesCount;
+
+    Node(String name, Mailbox<String>[] inboxes, Mailbox<String>[] outboxes, boolean broadcast, boolean starts,
+         String initialMessage, Termination termination, MessageMode messageMode, WaitStrategy waitStrategy,
+         boolean verboseLogging, PlayerMetrics metrics, Random random) {
+        this.name = name;
+        this.inboxes = inboxes;
+        this.outboxes = outboxes;
+        this.broadcast = broadcast;
+        this.starts = starts;
+        this.initialMessage = initialMessage;
+        this.termination = termination;
+        this.messageMode = messageMode;
+        this.waitStrategy = waitStrategy;
+        this.verboseLogging = verboseLogging;
+        this.metrics = metrics;
+        this.random = random;
+        this.delivered = new int[inboxes.length];
+        this.missing = inboxes.length;
+    }
+
+    /**
+     * Sends the initial messages if this node starts, then receives and sends until nothing is in flight anymore.
+     */
+    @Override
+    public void run() {
+        try {
+            if (starts) {
+                send(messageMode.initial(initialMessage, name, 0));
+            }
+            termination.release();
+            while (true) {
+                boolean progressed = flush();
+                String message = poll();
+                if (message != null) {
+                    receive(message, polledInbox);
+                    progressed = true;
+                }
+                if (!progressed) {
+                    if (termination.isDone()) {
+                        break;
+                    }
+                    waitStrategy.idle();
+                }
+            }
+        } catch (InterruptedException e) {
+            e.printStackTrace();
+        }
+        log("stopped", null);
+    }
+
+    private void receive(String message, int inbox) {
+        receivedMessagesCount++;
+        log("read message: ", message, "\t");
+        if (!broadcast) {
+            send(messageMode.reply(message, name, receivedMessagesCount), random.nextInt(outboxes.length));
+        } else if (delivered[inbox]++ == 0 && --missing == 0) {
+            // every edge has delivered, the messages that arrived ahead stay for the next round
+            for (int i = 0; i < delivered.length; i++) {
+                if (--delivered[i] == 0) {
+                    missing++;
+                }
+            }
+            send(messageMode.reply(message, name, receivedMessagesCount));
+        }
+        termination.release();
+    }
+
+    /**
+     * sends the message on all outgoing edges if broadcast, else on one picked at random
+     */
+    private void send(String message) {
+        if (broadcast) {
+            for (int i = 0; i < outboxes.length; i++) {
+                send(message, i);
+            }
+        } else {
+            send(message, random.nextInt(outboxes.length));
+        }
+    }
+
+    private void send(String message, int outbox) {
+        if (termination.acquire()) {
+            pending.add(new Outgoing(message, outbox));
+        }
+    }
+
+    /**
+     * @return true if any pending message has been sent
+     */
+    private boolean flush() {
+        boolean sent = false;
+        for (int i = pending.size(); i > 0; i--) {
+            Outgoing next = pending.poll();
+            if (outboxes[next.outbox].offer(next.message)) {
+                sentMessagesCount++;
+                log("sent message: ", next.message, null);
+                sent = true;
+            } else {
+                pending.add(next);
+            }
+        }
+        return sent;
+    }
+
+    /**
+     * @return the next message of any incoming edge, or null if all are empty. Its edge is left in polledInbox.
+     */
+    private String poll() {
+        for (int i = 0; i < inboxes.length; i++) {
+            int inbox = (nextInbox + i) % inboxes.length;
+            String message = inboxes[inbox].poll();
+            if (message != null) {
+                polledInbox = inbox;
+                nextInbox = (inbox + 1) % inboxes.length;
+                return message;
+            }
+        }
+        return null;
+    }
+
+    /**
+     * @return statistics of this node, only valid once it has finished
+     */
+    NodeStats getStats() {
+        return new NodeStats(name, inboxes.length, outboxes.length, sentMessagesCount, receivedMessagesCount,
+                metrics);
+    }
+
+    private void log(String string, String detail, String prefix) {
+        if (verboseLogging) {
+            Log.log(prefix, name, string, detail);
+        }
+    }
+
+    private void log(String string, String prefix) {
+        log(string, null, prefix);
+    }
+
+    /**
+     * a message waiting for room in its outbox
+     */
+    private static final class Outgoing {
+        private final String message;
+        private final int outbox;
+
+        private Outgoing(String message, int outbox) {
+            this.message = message;
+            this.outbox = outbox;
+        }
+    }
+}
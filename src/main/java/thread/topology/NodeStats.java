@@ -0,0 +1,64 @@
+package thread.topology;
+
+import common.metrics.PlayerMetrics;
+
+/**
+ * Statistics of one node at the end of a TopologyGame.
+ */
+public class NodeStats {
+
+    private final String name;
+    private final int inDegree;
+    private final int outDegree;
+    private final int sentMessagesCount;
+    private final int receivedMessagesCount;
+    /**
+     * hop latency of the node's incoming edges
+     */
+    private final PlayerMetrics metrics;
+
+    NodeStats(String name, int inDegree, int outDegree, int sentMessagesCount, int receivedMessagesCount,
+              PlayerMetrics metrics) {
+        this.name = name;
+        this.inDegree = inDegree;
+        this.outDegree = outDegree;
+        this.sentMessagesCount = sentMessagesCount;
+        this.receivedMessagesCount = receivedMessagesCount;
+        this.metrics = metrics;
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    public int getInDegree() {
+        return inDegree;
+    }
+
+    public int getOutDegree() {
+        return outDegree;
+    }
+
+    public int getSentMessagesCount() {
+        return sentMessagesCount;
+    }
+
+    public int getReceivedMessagesCount() {
+        return receivedMessagesCount;
+    }
+
+    public double getHopP50Micros() {
+        return metrics.getHopP50Micros();
+    }
+
+    public double getHopP99Micros() {
+        return metrics.getHopP99Micros();
+    }
+
+    @Override
+    public String toString() {
+        return String.format("%s (in %d, out %d) sent %d messages and received %d messages, hop p50 %.1f p99 %.1f",
+                name, inDegree, outDegree, sentMessagesCount, receivedMessagesCount, getHopP50Micros(),
+                getHopP99Micros());
+    }
+}
@@ -0,0 +1,54 @@
+package thread.topology;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Global termination condition of a TopologyGame, shared by all its nodes.
+ * <p>
+ * The game may send a fixed number of messages in total (the budget). Every message that has been sent but not yet
+ * fully processed by its receiver is counted as in flight; a node only sends while processing a message it received
+ * (or once at start, which is counted as in flight too), so once nothing is in flight nothing can be sent any more
+ * and every node can stop.
+ */
+final class Termination {
+
+    private final AtomicLong budget;
+    private final AtomicLong inFlight;
+
+    /**
+     * @param messages number of messages the game may send
+     * @param nodes    number of nodes, each counted in flight until it has sent its initial messages
+     */
+    Termination(long messages, int nodes) {
+        this.budget = new AtomicLong(messages);
+        this.inFlight = new AtomicLong(nodes);
+    }
+
+    /**
+     * Takes one message from the budget and counts it in flight.
+     *
+     * @return false if the budget is used up, the message must not be sent then
+     */
+    boolean acquire() {
+        if (budget.getAndDecrement() <= 0) {
+            return false;
+        }
+        inFlight.incrementAndGet();
+        return true;
+    }
+
+    /**
+     * Called once a received message (or the start of a node) has been processed, after the messages it caused have
+     * been acquired.
+     */
+    void release() {
+        inFlight.decrementAndGet();
+    }
+
+    /**
+     * @return true once nothing is in flight any more
+     */
+    boolean isDone() {
+        return inFlight.get() == 0;
+    }
+}
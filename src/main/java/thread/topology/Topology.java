@@ -0,0 +1,148 @@
+package thread.topology;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Random;
+
+/**
+ * The shapes in which the nodes of a TopologyGame are connected. Every edge is a mailbox of its own, from exactly one
+ * sending to exactly one receiving node.
+ * <p>
+ * In the broadcast topologies (ring, star, all-to-all) a node waits for one message on each of its incoming edges,
+ * then sends its reply on all of its outgoing edges, so a hub pays for the fan-out of every round and waits for the
+ * slowest of its fan-in. In the random mesh every message is forwarded on one outgoing edge picked at random, so the
+ * messages walk through the mesh independently of each other.
+ */
+public enum Topology {
+
+    /**
+     * node i sends to node i + 1, the last one to the first. Node 0 starts a single message around the ring.
+     */
+    RING(true) {
+        @Override
+        int[][] targets(int nodes, int degree, Random random) {
+            int[][] targets = new int[nodes][];
+            for (int i = 0; i < nodes; i++) {
+                targets[i] = new int[]{(i + 1) % nodes};
+            }
+            return targets;
+        }
+
+        @Override
+        boolean starts(int node) {
+            return node == 0;
+        }
+    },
+    /**
+     * node 0 (the hub) broadcasts to all other nodes, each of them replies to the hub only. The hub starts.
+     */
+    STAR(true) {
+        @Override
+        int[][] targets(int nodes, int degree, Random random) {
+            int[][] targets = new int[nodes][];
+            targets[0] = new int[nodes - 1];
+            for (int i = 1; i < nodes; i++) {
+                targets[0][i - 1] = i;
+                targets[i] = new int[]{0};
+            }
+            return targets;
+        }
+
+        @Override
+        boolean starts(int node) {
+            return node == 0;
+        }
+    },
+    /**
+     * every node sends to every other node. All nodes start.
+     */
+    ALL_TO_ALL(true) {
+        @Override
+        int[][] targets(int nodes, int degree, Random random) {
+            int[][] targets = new int[nodes][nodes - 1];
+            for (int i = 0; i < nodes; i++) {
+                for (int j = 0, k = 0; j < nodes; j++) {
+                    if (j != i) {
+                        targets[i][k++] = j;
+                    }
+                }
+            }
+            return targets;
+        }
+
+        @Override
+        boolean starts(int node) {
+            return true;
+        }
+    },
+    /**
+     * every node sends to 'degree' other nodes picked at random, each message to one of them. All nodes start, so
+     * there are as many messages walking the mesh as there are nodes.
+     */
+    RANDOM_MESH(false) {
+        @Override
+        int[][] targets(int nodes, int degree, Random random) {
+            if (degree < 1 || degree > nodes - 1) {
+                throw new IllegalArgumentException("Invalid degree. Allowed range is 1 to " + (nodes - 1));
+            }
+            int[][] targets = new int[nodes][degree];
+            for (int i = 0; i < nodes; i++) {
+                List<Integer> others = new ArrayList<>(nodes - 1);
+                for (int j = 0; j < nodes; j++) {
+                    if (j != i) {
+                        others.add(j);
+                    }
+                }
+                Collections.shuffle(others, random);
+                for (int k = 0; k < degree; k++) {
+                    targets[i][k] = others.get(k);
+                }
+            }
+            return targets;
+        }
+
+        @Override
+        boolean starts(int node) {
+            return true;
+        }
+    };
+
+    private final boolean broadcast;
+
+    Topology(boolean broadcast) {
+        this.broadcast = broadcast;
+    }
+
+    /**
+     * @param nodes  number of nodes, at least 2
+     * @param degree number of outgoing edges per node, only used by RANDOM_MESH
+     * @param random source of randomness, only used by RANDOM_MESH
+     * @return for each node, the nodes it sends to
+     */
+    abstract int[][] targets(int nodes, int degree, Random random);
+
+    /**
+     * @param node index of the node
+     * @return true if the node sends an initial message
+     */
+    abstract boolean starts(int node);
+
+    /**
+     * @return true if a node replies on all outgoing edges once it has received a message on each incoming edge, false
+     * if it forwards every message on one outgoing edge
+     */
+    public boolean isBroadcast() {
+        return broadcast;
+    }
+
+    /**
+     * Parses the name of a topology (case insensitive), eg. 'all_to_all'.
+     *
+     * @param name name of the topology
+     * @return the topology
+     */
+    public static Topology of(String name) {
+        return valueOf(name.trim().toUpperCase());
+    }
+}
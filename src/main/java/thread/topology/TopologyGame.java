@@ -0,0 +1,147 @@
+package thread.topology;
+
+import common.MessageMode;
+import common.ThreadMode;
+import common.WaitStrategy;
+import common.metrics.PlayerMetrics;
+import thread.mailbox.Mailbox;
+import thread.mailbox.MailboxType;
+import thread.mailbox.TimedMailbox;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+/**
+ * A game between any number of nodes connected in a Topology, each node running on a thread of its own.
+ * <p>
+ * Every edge gets a mailbox of its own (so every mailbox still has a single sender and a single receiver), timed so
+ * that the hop latency of each node's incoming edges is measured. The game ends once the given number of messages
+ * has been sent in total and all of them have been received, see Termination.
+ */
+public class TopologyGame {
+
+    private final Topology topology;
+    private final int nodes;
+    private final long messages;
+    private final String initialMessage;
+    private final boolean verboseLogging;
+    private final MessageMode messageMode;
+    private final WaitStrategy waitStrategy;
+    /**
+     * targets[i] are the nodes that node i sends to
+     */
+    private final int[][] targets;
+    private final Termination termination;
+    private final List<Node> players = new ArrayList<>();
+
+    /**
+     * Class constructor. Builds the nodes and the mailboxes of the edges.
+     *
+     * @param topology        how the nodes are connected.
+     * @param nodes           number of nodes, at least 2.
+     * @param degree          number of outgoing edges per node of a random mesh.
+     * @param seed            seed of the random mesh and of the random choices of its nodes.
+     * @param messages        number of messages sent in total before the game stops.
+     * @param initialMessage  the message that the starting nodes send first.
+     * @param verboseLogging  flag whether the nodes should log their actions to the console.
+     * @param mailboxType     implementation of the mailboxes, must be able to buffer (not synchronous).
+     * @param mailboxCapacity capacity of each mailbox.
+     * @param waitStrategy    how a node waits when it can neither receive nor send.
+     * @param messageMode     how the messages sent by the nodes are built.
+     */
+    public TopologyGame(Topology topology, int nodes, int degree, long seed, long messages, String initialMessage,
+                        boolean verboseLogging, MailboxType mailboxType, int mailboxCapacity,
+                        WaitStrategy waitStrategy, MessageMode messageMode) {
+        if (nodes < 2) {
+            throw new IllegalArgumentException("Invalid number of nodes. Must be at least 2");
+        }
+        if (mailboxType == MailboxType.SYNCHRONOUS) {
+            // a node polls and offers without waiting, a synchronous handoff only succeeds while the other side waits
+            throw new IllegalArgumentException("Topologies need a mailbox type that can buffer, not " + mailboxType);
+        }
+        this.topology = topology;
+        this.nodes = nodes;
+        this.messages = messages;
+        this.initialMessage = initialMessage;
+        this.verboseLogging = verboseLogging;
+        this.messageMode = messageMode;
+        this.waitStrategy = waitStrategy;
+
+        Random random = new Random(seed);
+        this.targets = topology.targets(nodes, degree, random);
+        List<List<Mailbox<String>>> inboxes = new ArrayList<>(nodes);
+        List<List<Mailbox<String>>> outboxes = new ArrayList<>(nodes);
+        List<PlayerMetrics> metrics = new ArrayList<>(nodes);
+        for (int i = 0; i < nodes; i++) {
+            inboxes.add(new ArrayList<>());
+            outboxes.add(new ArrayList<>());
+            metrics.add(new PlayerMetrics("Node-" + i));
+        }
+        for (int from = 0; from < nodes; from++) {
+            for (int to : targets[from]) {
+                Mailbox<String> edge = new TimedMailbox<>(mailboxType.create(mailboxCapacity, waitStrategy),
+                        mailboxCapacity, metrics.get(to));
+                outboxes.get(from).add(edge);
+                inboxes.get(to).add(edge);
+            }
+        }
+        this.termination = new Termination(messages, nodes);
+        for (int i = 0; i < nodes; i++) {
+            players.add(new Node("Node-" + i, toArray(inboxes.get(i)), toArray(outboxes.get(i)),
+                    topology.isBroadcast(), topology.starts(i), initialMessage, termination, messageMode,
+                    waitStrategy, verboseLogging, metrics.get(i), new Random(random.nextLong())));
+        }
+    }
+
+    /**
+     * Runs every node on a thread of its own and waits until all of them have stopped.
+     *
+     * @param threadMode which kind of threads the nodes run on
+     * @return statistics of each node, in the order of the nodes
+     */
+    public List<NodeStats> play(ThreadMode threadMode) {
+        List<Thread> threads = new ArrayList<>(nodes);
+        for (int i = 0; i < nodes; i++) {
+            Thread thread = threadMode.newThread(players.get(i), "Node-" + i);
+            thread.start();
+            threads.add(thread);
+        }
+        // join() makes everything the nodes did visible to this thread, including their counters
+        try {
+            for (Thread thread : threads) {
+                thread.join();
+            }
+        } catch (InterruptedException e) {
+            e.printStackTrace();
+        }
+        List<NodeStats> stats = new ArrayList<>(nodes);
+        for (Node node : players) {
+            stats.add(node.getStats());
+        }
+        return stats;
+    }
+
+    /**
+     * @return for each node, the nodes it sends to
+     */
+    public int[][] getTargets() {
+        int[][] copy = new int[targets.length][];
+        for (int i = 0; i < targets.length; i++) {
+            copy[i] = targets[i].clone();
+        }
+        return copy;
+    }
+
+    @Override
+    public String toString() {
+        return "topology: " + topology + ", nodes: " + nodes + ", messages: " + messages + ", initialMessage: "
+                + initialMessage + ", verboseLogging: " + verboseLogging + ", messageMode: " + messageMode
+                + ", waitStrategy: " + waitStrategy;
+    }
+
+    @SuppressWarnings("unchecked")
+    private static Mailbox<String>[] toArray(List<Mailbox<String>> mailboxes) {
+        return (Mailbox<String>[]) mailboxes.toArray(new Mailbox<?>[0]);
+    }
+}
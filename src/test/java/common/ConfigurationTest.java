@@ -0,0 +1,57 @@
+package common;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.nio.file.attribute.FileTime;
+
+public class ConfigurationTest {
+
+    private static final String KEY_TEST = "test.reload.value";
+
+    @Test
+    public void testTypedValues() {
+        Assertions.assertEquals(Integer.parseInt(Configuration.read(Configuration.KEY_STOP_CONDITION)),
+                Configuration.readInt(Configuration.KEY_STOP_CONDITION));
+        Assertions.assertEquals(Long.parseLong(Configuration.read(Configuration.KEY_WIRE_FLUSH_INTERVAL_MICROS)),
+                Configuration.readLong(Configuration.KEY_WIRE_FLUSH_INTERVAL_MICROS));
+        Assertions.assertEquals(Boolean.parseBoolean(Configuration.read(Configuration.KEY_SOCKET_TCP_NODELAY)),
+                Configuration.readBoolean(Configuration.KEY_SOCKET_TCP_NODELAY));
+        Assertions.assertThrows(NumberFormatException.class, () -> Configuration.readInt(Configuration.KEY_MESSAGE_MODE));
+        Assertions.assertNull(Configuration.read("no.such.key"));
+    }
+
+    @Test
+    public void testModifiedFileIsReloaded(@TempDir Path directory) throws Exception {
+        // a copy, the file on the class path is read by the tests running in the other forks
+        Path file = directory.resolve("config.properties");
+        try (InputStream original = Configuration.class.getClassLoader().getResourceAsStream("config.properties")) {
+            Assertions.assertNotNull(original);
+            Files.copy(original, file);
+        }
+        Configuration.setSource(file.toUri().toURL());
+        try {
+            Assertions.assertNull(Configuration.read(KEY_TEST));
+            Files.write(file, ("\n" + KEY_TEST + "=42\n").getBytes(StandardCharsets.ISO_8859_1),
+                    StandardOpenOption.APPEND);
+            // make sure the modification time changes, whatever the resolution of the file system
+            Files.setLastModifiedTime(file, FileTime.fromMillis(Files.getLastModifiedTime(file).toMillis() + 2000));
+
+            long deadline = System.currentTimeMillis()
+                    + 3 * Configuration.readLong(Configuration.KEY_CONFIG_RELOAD_INTERVAL_MILLIS);
+            while (Configuration.read(KEY_TEST) == null && System.currentTimeMillis() < deadline) {
+                Thread.sleep(50);
+            }
+            Assertions.assertEquals(42, Configuration.readInt(KEY_TEST));
+        } finally {
+            Configuration.setSource(null);
+        }
+        Assertions.assertNull(Configuration.read(KEY_TEST));
+    }
+}
@@ -0,0 +1,116 @@
+package common;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+import thread.mailbox.Mailbox;
+import thread.mailbox.MailboxType;
+import thread.player.Initiator;
+import thread.player.Player;
+
+import java.util.ArrayList;
+import java.util.List;
+
+public class MessageTest {
+
+    private static final int MESSAGES = 50;
+
+    @Test
+    public void testEncodeDecode() {
+        Message message = new Message("Hello | world", "Initiator", 7, 3);
+
+        Message decoded = Message.decode(message.encode());
+
+        Assertions.assertEquals("Hello | world", decoded.getPayload());
+        Assertions.assertEquals("Initiator", decoded.getOrigin());
+        Assertions.assertEquals(7, decoded.getSequence());
+        Assertions.assertEquals(3, decoded.getCounter());
+        Assertions.assertThrows(IllegalArgumentException.class, () -> Message.decode("Hello 0 1"));
+    }
+
+    @Test
+    public void testTranscriptOfCompactGameEqualsConcatenatedGame() throws Exception {
+        List<String> concatenated = play(MessageMode.CONCATENATED);
+        List<String> compact = play(MessageMode.COMPACT);
+
+        List<Message> messages = new ArrayList<>();
+        for (String encoded : compact) {
+            messages.add(Message.decode(encoded));
+        }
+        Assertions.assertEquals(2 * MESSAGES, messages.size());
+        Assertions.assertEquals(concatenated, Message.transcript(messages));
+    }
+
+    @Test
+    public void testTranscriptRejectsGaps() {
+        Message first = new Message("Hi", "Initiator", 0, 0);
+        List<Message> messages = List.of(first, first.reply("Responder", 1).reply("Initiator", 1));
+
+        Assertions.assertThrows(IllegalArgumentException.class, () -> Message.transcript(messages));
+    }
+
+    /**
+     * @return every message of a game, in the order they were sent
+     */
+    private List<String> play(MessageMode messageMode) throws InterruptedException {
+        List<String> sent = new ArrayList<>();
+        // one message in flight at a time, so the shared list is written by one player at a time
+        Mailbox<String> toInitiator = new RecordingMailbox(MailboxType.SYNCHRONOUS.create(1, null), sent);
+        Mailbox<String> toPlayer = new RecordingMailbox(MailboxType.SYNCHRONOUS.create(1, null), sent);
+        Thread initiator = new Thread(new Initiator("Initiator", toInitiator, toPlayer, MESSAGES, false, "Hi",
+                messageMode));
+        Thread player = new Thread(new Player("Responder", toPlayer, toInitiator, MESSAGES, false, messageMode));
+        initiator.start();
+        player.start();
+        initiator.join();
+        player.join();
+        synchronized (sent) {
+            return sent;
+        }
+    }
+
+    private static class RecordingMailbox implements Mailbox<String> {
+
+        private final Mailbox<String> delegate;
+        private final List<String> sent;
+
+        RecordingMailbox(Mailbox<String> delegate, List<String> sent) {
+            this.delegate = delegate;
+            this.sent = sent;
+        }
+
+        @Override
+        public void put(String message) throws InterruptedException {
+            // recorded first, by the time a synchronous handoff returns the reply may already have been recorded
+            record(message);
+            delegate.put(message);
+        }
+
+        @Override
+        public String take() throws InterruptedException {
+            return delegate.take();
+        }
+
+        @Override
+        public boolean offer(String message) {
+            // the reply cannot be recorded before this message is
+            synchronized (sent) {
+                if (!delegate.offer(message)) {
+                    return false;
+                }
+                sent.add(message);
+                return true;
+            }
+        }
+
+        @Override
+        public String poll() {
+            return delegate.poll();
+        }
+
+        private void record(String message) {
+            synchronized (sent) {
+                sent.add(message);
+            }
+        }
+    }
+}
@@ -0,0 +1,105 @@
+package common.affinity;
+
+import common.MessageMode;
+import common.WaitStrategy;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Assumptions;
+import org.junit.jupiter.api.Test;
+import thread.AffinityBenchmark;
+import thread.mailbox.MailboxType;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicReference;
+
+public class AffinityTest {
+
+    @Test
+    public void testCpuSetListFormat() {
+        CpuSet cpus = CpuSet.of(" 0-3, 6,8-9 ");
+        Assertions.assertArrayEquals(new int[]{0, 1, 2, 3, 6, 8, 9}, cpus.toArray());
+        Assertions.assertEquals("0-3,6,8,9", cpus.toString());
+        Assertions.assertEquals(cpus, CpuSet.of(cpus.toString()));
+        Assertions.assertTrue(cpus.intersects(CpuSet.of(9)));
+        Assertions.assertFalse(cpus.intersects(CpuSet.of(4, 5)));
+        Assertions.assertTrue(CpuSet.of("").isEmpty());
+        Assertions.assertTrue(CpuSet.of((String) null).isEmpty());
+        Assertions.assertThrows(IllegalArgumentException.class, () -> CpuSet.of("3-1"));
+        Assertions.assertThrows(IllegalArgumentException.class, () -> CpuSet.of("a"));
+    }
+
+    @Test
+    public void testPairsOfTwoSocketsWithHyperThreads() {
+        // 2 sockets x 2 cores x 2 hyper-threads, siblings numbered like Linux does: cpu0 and cpu4 share a core
+        CpuTopology topology = new CpuTopology(new int[]{0, 1, 2, 3, 4, 5, 6, 7},
+                new int[]{0, 1, 0, 1, 0, 1, 0, 1}, new int[]{0, 0, 1, 1, 0, 0, 1, 1});
+        Assertions.assertArrayEquals(new int[]{0, 0}, topology.pair(Placement.SAME_CPU));
+        Assertions.assertArrayEquals(new int[]{0, 4}, topology.pair(Placement.SAME_CORE));
+        Assertions.assertArrayEquals(new int[]{0, 1}, topology.pair(Placement.SAME_SOCKET));
+        Assertions.assertArrayEquals(new int[]{0, 2}, topology.pair(Placement.CROSS_SOCKET));
+        Assertions.assertNull(topology.pair(Placement.UNPINNED));
+
+        CpuTopology single = new CpuTopology(new int[]{0}, new int[]{0}, new int[]{0});
+        Assertions.assertArrayEquals(new int[]{0, 0}, single.pair(Placement.SAME_CPU));
+        Assertions.assertNull(single.pair(Placement.SAME_SOCKET));
+        Assertions.assertNull(single.pair(Placement.CROSS_SOCKET));
+    }
+
+    @Test
+    public void testPairsOfAllowedCpus() {
+        CpuTopology topology = new CpuTopology(new int[]{0, 1, 2, 3, 4, 5, 6, 7},
+                new int[]{0, 1, 0, 1, 0, 1, 0, 1}, new int[]{0, 0, 1, 1, 0, 0, 1, 1});
+        // only the cores of the second socket, without hyper-threads
+        CpuTopology allowed = topology.restrictTo(CpuSet.of(2, 3));
+
+        Assertions.assertEquals(2, allowed.getCpuCount());
+        Assertions.assertArrayEquals(new int[]{2, 3}, allowed.pair(Placement.SAME_SOCKET));
+        Assertions.assertNull(allowed.pair(Placement.SAME_CORE));
+        Assertions.assertNull(allowed.pair(Placement.CROSS_SOCKET));
+        Assertions.assertSame(topology, topology.restrictTo(CpuSet.EMPTY));
+    }
+
+    @Test
+    public void testPinOnlyChangesTheCallingThread() throws InterruptedException {
+        Assumptions.assumeTrue(Affinity.isSupported(), "threads can only be pinned on Linux");
+        CpuSet allowed = Affinity.current();
+        Assumptions.assumeFalse(allowed.isEmpty());
+        CpuSet first = CpuSet.of(allowed.toArray()[0]);
+
+        AtomicReference<CpuSet> pinned = new AtomicReference<>();
+        Thread thread = new Thread(Affinity.pinned(() -> pinned.set(Affinity.current()), first), "pinned");
+        thread.start();
+        thread.join();
+
+        Assertions.assertEquals(first, pinned.get());
+        Assertions.assertEquals(allowed, Affinity.current());
+    }
+
+    @Test
+    public void testBenchmarkSkipsMissingPlacements() {
+        CpuTopology single = new CpuTopology(new int[]{0}, new int[]{0}, new int[]{0});
+        List<AffinityBenchmark.Result> results = AffinityBenchmark.run(single,
+                Arrays.asList(Placement.UNPINNED, Placement.CROSS_SOCKET), 100, "Hello", MailboxType.ARRAY_BLOCKING,
+                1, WaitStrategy.PARK, MessageMode.COMPACT, 1, 2);
+
+        Assertions.assertEquals(1, results.size());
+        Assertions.assertEquals(Placement.UNPINNED, results.get(0).getPlacement());
+        Assertions.assertEquals(200, results.get(0).getMetrics().getRoundTrip().getCount());
+        Assertions.assertTrue(results.get(0).getRoundTripsPerSecond() > 0);
+        String csv = AffinityBenchmark.toCsv(results);
+        Assertions.assertTrue(csv.startsWith("placement,initiatorCpu,responderCpu,games,"));
+        Assertions.assertTrue(csv.contains("\nUNPINNED,any,any,2,"));
+    }
+
+    @Test
+    public void testBenchmarkSkipsPlacementsThatCannotBePinned() {
+        // no machine has this CPU
+        CpuTopology missing = new CpuTopology(new int[]{4000}, new int[]{0}, new int[]{0});
+        List<AffinityBenchmark.Result> results = AffinityBenchmark.run(missing,
+                Arrays.asList(Placement.SAME_CPU, Placement.UNPINNED), 100, "Hello", MailboxType.ARRAY_BLOCKING, 1,
+                WaitStrategy.PARK, MessageMode.COMPACT, 1, 2);
+
+        Assertions.assertEquals(1, results.size());
+        Assertions.assertEquals(Placement.UNPINNED, results.get(0).getPlacement());
+    }
+}
@@ -0,0 +1,198 @@
+package common.journal;
+
+import common.MessageMode;
+import common.metrics.PlayerMetrics;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import process.player.WebSocketPlayer;
+import process.player.WebSocketServer;
+import process.wire.Framing;
+import process.wire.WireOptions;
+import thread.mailbox.JournalMailbox;
+import thread.mailbox.Mailbox;
+import thread.mailbox.MailboxType;
+import thread.player.Initiator;
+import thread.player.Player;
+
+import java.lang.management.ManagementFactory;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.stream.Stream;
+
+public class JournalTest {
+
+    @TempDir
+    Path directory;
+
+    @Test
+    public void testRecordsSurviveSegmentRollover() throws Exception {
+        try (Journal journal = new Journal(directory, "Player 1", 4096)) {
+            for (int i = 1; i <= 500; i++) {
+                journal.sent("message " + i);
+                journal.received("réponse " + i);
+            }
+        }
+        Assertions.assertTrue(segments("Player_1-") > 1);
+
+        try (JournalReader reader = JournalReader.open(directory, "Player 1")) {
+            long timestamp = 0;
+            for (int i = 1; i <= 500; i++) {
+                Assertions.assertTrue(reader.next());
+                Assertions.assertEquals(Direction.SENT, reader.getDirection());
+                Assertions.assertEquals(i, reader.getSequence());
+                Assertions.assertEquals("message " + i, reader.getMessage());
+                Assertions.assertEquals("Player 1", reader.getPlayer());
+                Assertions.assertTrue(reader.getTimestamp() >= timestamp);
+                timestamp = reader.getTimestamp();
+
+                Assertions.assertTrue(reader.next());
+                Assertions.assertEquals(Direction.RECEIVED, reader.getDirection());
+                Assertions.assertEquals(i, reader.getSequence());
+                Assertions.assertEquals("réponse " + i, reader.getMessage());
+            }
+            Assertions.assertFalse(reader.next());
+        }
+    }
+
+    @Test
+    public void testNewJournalKeepsEarlierRuns() throws Exception {
+        try (Journal journal = new Journal(directory, "Initiator", 4096)) {
+            journal.sent("first run");
+        }
+        try (Journal journal = new Journal(directory, "Initiator", 4096);
+             Journal other = new Journal(directory, "Initiator2", 4096)) {
+            journal.sent("second run");
+            byte[] bytes = "xxsecond run, from a buffer".getBytes(StandardCharsets.UTF_8);
+            journal.sent(ByteBuffer.wrap(bytes), 2, bytes.length - 2);
+            other.received("other player");
+        }
+        Assertions.assertEquals(2, segments("Initiator-"));
+
+        try (JournalReader reader = JournalReader.open(directory, "Initiator")) {
+            Assertions.assertTrue(reader.next());
+            Assertions.assertEquals("first run", reader.getMessage());
+            Assertions.assertEquals(1, reader.getRun());
+            long firstOpened = reader.getOpenedEpochNanos();
+            Assertions.assertTrue(reader.next());
+            Assertions.assertEquals("second run", reader.getMessage());
+            Assertions.assertEquals(1, reader.getSequence());
+            // opened within the same millisecond or later, but a run of its own
+            Assertions.assertTrue(reader.getOpenedEpochNanos() >= firstOpened);
+            Assertions.assertEquals(2, reader.getRun());
+            Assertions.assertTrue(reader.next());
+            Assertions.assertEquals("second run, from a buffer", reader.getMessage());
+            Assertions.assertEquals(2, reader.getSequence());
+            Assertions.assertFalse(reader.next());
+        }
+        try (JournalReader reader = JournalReader.open(directory, null)) {
+            int records = 0;
+            while (reader.next()) {
+                records++;
+            }
+            Assertions.assertEquals(4, records);
+        }
+    }
+
+    @Test
+    public void testAppendDoesNotAllocate() throws Exception {
+        com.sun.management.ThreadMXBean threads = (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+        String message = "Hello 1 1 2 2 3 3 4 4 5 5 6 6 7 7";
+        try (Journal journal = new Journal(directory, "Player", 8 << 20)) {
+            // grows the encoding buffer
+            journal.sent(message);
+            long before = threads.getCurrentThreadAllocatedBytes();
+            for (int i = 0; i < 100_000; i++) {
+                journal.sent(message);
+                journal.received(message);
+            }
+            long allocated = threads.getCurrentThreadAllocatedBytes() - before;
+
+            // a single byte array per record would be more than 10 MB
+            Assertions.assertTrue(allocated < 10_000, "allocated " + allocated + " bytes");
+        }
+    }
+
+    @Test
+    public void testMailboxesRecordBothPlayers() throws Exception {
+        Journal initiatorJournal = new Journal(directory, "Initiator", 1 << 20);
+        Journal playerJournal = new Journal(directory, "Responder", 1 << 20);
+        Mailbox<String> toInitiator = new JournalMailbox(MailboxType.SYNCHRONOUS.create(1, null), playerJournal,
+                initiatorJournal);
+        Mailbox<String> toPlayer = new JournalMailbox(MailboxType.SYNCHRONOUS.create(1, null), initiatorJournal,
+                playerJournal);
+        Player initiator = new Initiator("Initiator", toInitiator, toPlayer, 50, false, "Hi", MessageMode.COMPACT);
+        Player player = new Player("Responder", toPlayer, toInitiator, 50, false, MessageMode.COMPACT);
+        Thread t1 = new Thread(initiator);
+        Thread t2 = new Thread(player);
+        t1.start();
+        t2.start();
+        t1.join();
+        t2.join();
+        initiatorJournal.close();
+        playerJournal.close();
+
+        for (String name : new String[]{"Initiator", "Responder"}) {
+            int sent = 0;
+            int received = 0;
+            try (JournalReader reader = JournalReader.open(directory, name)) {
+                while (reader.next()) {
+                    if (reader.getDirection() == Direction.SENT) {
+                        Assertions.assertEquals(++sent, reader.getSequence());
+                    } else {
+                        Assertions.assertEquals(++received, reader.getSequence());
+                    }
+                }
+            }
+            Assertions.assertEquals(50, sent, name);
+            Assertions.assertEquals(50, received, name);
+        }
+    }
+
+    @Test
+    public void testSocketPlayersRecordInPlaceReplies() throws Exception {
+        WireOptions options = new WireOptions();
+        options.setFraming(Framing.BINARY);
+        options.setDirectBuffers(true);
+        Journal initiatorJournal = new Journal(directory, "Initiator", 1 << 20);
+        Journal playerJournal = new Journal(directory, "Responder", 1 << 20);
+        WebSocketServer initiator = new WebSocketServer("Initiator", 20, false, 0, "Hi", MessageMode.COMPACT,
+                new WireOptions(options), PlayerMetrics.DISABLED, initiatorJournal);
+        Thread server = new Thread(initiator::play);
+        server.start();
+        WebSocketPlayer player = new WebSocketPlayer("Responder", 20, false, initiator.awaitLocalPort(),
+                MessageMode.COMPACT, new WireOptions(options), PlayerMetrics.DISABLED, playerJournal);
+        player.play();
+        server.join();
+        initiatorJournal.close();
+        playerJournal.close();
+
+        List<String> sentByInitiator = messages("Initiator", Direction.SENT);
+        Assertions.assertEquals(20, sentByInitiator.size());
+        Assertions.assertEquals(sentByInitiator, messages("Responder", Direction.RECEIVED));
+        Assertions.assertEquals(messages("Responder", Direction.SENT), messages("Initiator", Direction.RECEIVED));
+        Assertions.assertEquals(20, messages("Responder", Direction.SENT).size());
+    }
+
+    private List<String> messages(String player, Direction direction) throws Exception {
+        List<String> messages = new ArrayList<>();
+        try (JournalReader reader = JournalReader.open(directory, player)) {
+            while (reader.next()) {
+                if (reader.getDirection() == direction) {
+                    messages.add(reader.getMessage());
+                }
+            }
+        }
+        return messages;
+    }
+
+    private long segments(String prefix) throws Exception {
+        try (Stream<Path> files = Files.list(directory)) {
+            return files.filter(file -> file.getFileName().toString().startsWith(prefix)).count();
+        }
+    }
+}
@@ -0,0 +1,58 @@
+package common.logging;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayOutputStream;
+import java.io.PrintStream;
+import java.util.ArrayList;
+import java.util.List;
+
+public class AsyncLogTest {
+
+    @Test
+    public void testFullRingDropsRecords() {
+        LogRing ring = new LogRing(4);
+        for (int i = 0; i < 4; i++) {
+            Assertions.assertTrue(ring.offer(null, "Player", "record ", String.valueOf(i)));
+        }
+        Assertions.assertFalse(ring.offer(null, "Player", "record ", "4"));
+
+        List<String> drained = new ArrayList<>();
+        Assertions.assertEquals(4, ring.drain((prefix, name, text, detail) -> drained.add(detail), 10));
+        Assertions.assertEquals(List.of("0", "1", "2", "3"), drained);
+        Assertions.assertTrue(ring.offer(null, "Player", "record ", "5"));
+    }
+
+    @Test
+    public void testRecordsOfManyThreadsAreWrittenInOrder() throws InterruptedException {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        AsyncLog log = new AsyncLog(1 << 16, new PrintStream(bytes, true));
+        int threads = 4;
+        int records = 5000;
+        Thread[] producers = new Thread[threads];
+        for (int t = 0; t < threads; t++) {
+            String name = "Player-" + t;
+            producers[t] = new Thread(() -> {
+                for (int i = 0; i < records; i++) {
+                    log.log("\t", name, "record ", String.valueOf(i));
+                }
+            });
+            producers[t].start();
+        }
+        for (Thread producer : producers) {
+            producer.join();
+        }
+        log.flush();
+
+        String[] lines = bytes.toString().split(System.lineSeparator());
+        Assertions.assertEquals(threads * records, lines.length);
+        int[] next = new int[threads];
+        for (String line : lines) {
+            // eg. '\tPlayer-2: record 17'
+            int player = line.charAt("\tPlayer-".length()) - '0';
+            Assertions.assertEquals("\tPlayer-" + player + ": record " + next[player], line);
+            next[player]++;
+        }
+    }
+}
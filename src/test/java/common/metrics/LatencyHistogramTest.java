@@ -0,0 +1,58 @@
+package common.metrics;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+public class LatencyHistogramTest {
+
+    @Test
+    public void testBucketsCoverTheWholeRange() {
+        Assertions.assertEquals(0, LatencyHistogram.index(0));
+        Assertions.assertEquals(63, LatencyHistogram.index(63));
+        Assertions.assertEquals(64, LatencyHistogram.index(64));
+        int previous = -1;
+        for (long value = 1; value > 0 && value < Long.MAX_VALUE / 3; value = value * 3 + 1) {
+            int index = LatencyHistogram.index(value);
+            Assertions.assertTrue(index >= previous);
+            Assertions.assertTrue(LatencyHistogram.highestValue(index) >= value);
+            // relative error below 1/32
+            Assertions.assertTrue(LatencyHistogram.highestValue(index) - value <= value / 32);
+            previous = index;
+        }
+        Assertions.assertEquals(Long.MAX_VALUE, LatencyHistogram.highestValue(LatencyHistogram.index(Long.MAX_VALUE)));
+    }
+
+    @Test
+    public void testPercentiles() {
+        LatencyHistogram histogram = new LatencyHistogram();
+        Assertions.assertEquals(0, histogram.getValueAtPercentile(99));
+        for (long i = 1; i <= 100_000; i++) {
+            histogram.record(i * 1000);
+        }
+        Assertions.assertEquals(100_000, histogram.getCount());
+        Assertions.assertEquals(100_000_000, histogram.getMax());
+        assertClose(50_000_000, histogram.getValueAtPercentile(50));
+        assertClose(99_000_000, histogram.getValueAtPercentile(99));
+        assertClose(99_900_000, histogram.getValueAtPercentile(99.9));
+        Assertions.assertEquals(100_000_000, histogram.getValueAtPercentile(100));
+    }
+
+    @Test
+    public void testAdd() {
+        LatencyHistogram histogram = new LatencyHistogram();
+        LatencyHistogram other = new LatencyHistogram();
+        for (long i = 1; i <= 1000; i++) {
+            histogram.record(i);
+            other.record(i + 1000);
+        }
+        histogram.add(other);
+        Assertions.assertEquals(2000, histogram.getCount());
+        Assertions.assertEquals(2000, histogram.getMax());
+        assertClose(1000, histogram.getValueAtPercentile(50));
+        Assertions.assertEquals(1000, other.getCount());
+    }
+
+    private static void assertClose(long expected, long actual) {
+        Assertions.assertTrue(Math.abs(expected - actual) <= expected / 32, "expected ~" + expected + " but was " + actual);
+    }
+}
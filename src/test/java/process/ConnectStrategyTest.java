@@ -0,0 +1,77 @@
+package process;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+import process.wire.ConnectStrategy;
+
+import java.net.ConnectException;
+import java.net.InetSocketAddress;
+import java.nio.channels.ServerSocketChannel;
+import java.nio.channels.SocketChannel;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Connects before the server is listening, the way orchestrated runs start server and client together.
+ */
+public class ConnectStrategyTest {
+
+    final int port = 1109;
+    final InetSocketAddress address = new InetSocketAddress("localhost", port);
+
+    @Test
+    public void testConnectsSoonAfterServerStartsListening() throws Exception {
+        ServerSocketChannel[] server = new ServerSocketChannel[1];
+        long[] listening = new long[1];
+        Thread starter = new Thread(() -> {
+            try {
+                Thread.sleep(300);
+                server[0] = ServerSocketChannel.open().bind(address);
+                listening[0] = System.nanoTime();
+            } catch (Exception e) {
+                e.printStackTrace();
+            }
+        });
+        starter.start();
+
+        try (SocketChannel channel = new ConnectStrategy(1, 20, 10_000).connect(address)) {
+            long connected = System.nanoTime();
+            starter.join();
+            Assertions.assertTrue(channel.isConnected());
+            // one maximum delay after the server is bound, the bound only leaves room for a loaded machine
+            Assertions.assertTrue(TimeUnit.NANOSECONDS.toMillis(connected - listening[0]) < 5000,
+                    "connected " + TimeUnit.NANOSECONDS.toMillis(connected - listening[0]) + " ms after listening");
+        } finally {
+            server[0].close();
+        }
+    }
+
+    @Test
+    public void testDelaysDoubleUpToMaximum() {
+        ConnectStrategy strategy = new ConnectStrategy(1, 20, 5000);
+
+        long[] expected = {1, 2, 4, 8, 16, 20, 20};
+        for (int attempt = 1; attempt <= expected.length; attempt++) {
+            Assertions.assertEquals(expected[attempt - 1], strategy.delayMillis(attempt), "attempt " + attempt);
+        }
+        Assertions.assertEquals(20, strategy.delayMillis(Integer.MAX_VALUE));
+    }
+
+    @Test
+    public void testGivesUpAtDeadline() {
+        long start = System.nanoTime();
+        ConnectException e = Assertions.assertThrows(ConnectException.class,
+                () -> new ConnectStrategy(1, 50, 200).connect(address));
+        long elapsedMillis = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start);
+
+        Assertions.assertTrue(elapsedMillis >= 200, "gave up after " + elapsedMillis + " ms");
+        Assertions.assertTrue(elapsedMillis < 1000, "gave up after " + elapsedMillis + " ms");
+        Assertions.assertTrue(e.getMessage().contains("attempts"), e.getMessage());
+    }
+
+    @Test
+    public void testInvalidSettings() {
+        Assertions.assertThrows(IllegalArgumentException.class, () -> new ConnectStrategy(0, 50, 1000));
+        Assertions.assertThrows(IllegalArgumentException.class, () -> new ConnectStrategy(10, 5, 1000));
+        Assertions.assertThrows(IllegalArgumentException.class, () -> new ConnectStrategy(1, 50, 1000, 1.5));
+    }
+}
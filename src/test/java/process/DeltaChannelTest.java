@@ -0,0 +1,159 @@
+package process;
+
+import common.MessageMode;
+import common.journal.Direction;
+import common.journal.Journal;
+import common.journal.JournalReader;
+import common.metrics.PlayerMetrics;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import process.player.WebSocketPlayer;
+import process.player.WebSocketServer;
+import process.wire.DeltaChannel;
+import process.wire.Framing;
+import process.wire.Handshake;
+import process.wire.MessageChannel;
+import process.wire.WireOptions;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.List;
+
+/**
+ * Runs server and client in the same JVM on a port picked by the system, and checks the deltas on a channel that
+ * keeps what is sent.
+ */
+public class DeltaChannelTest {
+
+    @TempDir
+    Path directory;
+
+    @Test
+    public void testSendsOnlyWhatIsAppended() throws Exception {
+        QueueChannel wire = new QueueChannel();
+        DeltaChannel sender = new DeltaChannel(wire);
+        DeltaChannel receiver = new DeltaChannel(wire);
+        String[] messages = {"Tëst 0", "Tëst 0 1 1", "Tëst 0 1 1 2 2", "Other", "a😀", "a😃", "a😃 1", ""};
+        for (String message : messages) {
+            sender.send(message);
+        }
+        Assertions.assertEquals(List.of("1:0:Tëst 0", "2:6: 1 1", "3:10: 2 2", "4:0:Other", "5:0:a😀", "6:1:😃",
+                "7:3: 1", "8:0:"), new ArrayList<>(wire.messages));
+        for (String message : messages) {
+            Assertions.assertEquals(message, receiver.receive());
+        }
+        Assertions.assertNull(receiver.receive());
+    }
+
+    @Test
+    public void testRejectsMissingMessage() throws Exception {
+        QueueChannel wire = new QueueChannel();
+        DeltaChannel receiver = new DeltaChannel(wire);
+        wire.send("1:0:Test 0");
+        wire.send("3:6: 1 1");
+        Assertions.assertEquals("Test 0", receiver.receive());
+        Assertions.assertThrows(IOException.class, receiver::receive);
+
+        wire.send("1:7:Test");
+        Assertions.assertThrows(IOException.class, new DeltaChannel(wire)::receive);
+        wire.send("not a delta");
+        Assertions.assertThrows(IOException.class, new DeltaChannel(wire)::receive);
+    }
+
+    @Test
+    public void testAgreedOnlyIfBothAsk() throws Exception {
+        WireOptions options = new WireOptions();
+        Assertions.assertFalse(Handshake.agree("HELLO framing=TEXT delta=true", options).isDelta());
+        options.setDelta(true);
+        Assertions.assertFalse(Handshake.agree("HELLO framing=TEXT", options).isDelta());
+        Assertions.assertTrue(Handshake.agree("HELLO framing=TEXT delta=true", options).isDelta());
+    }
+
+    @Test
+    public void testGameWithTextFraming() throws Exception {
+        play(Framing.TEXT, 1, "Tëst 😀");
+    }
+
+    @Test
+    public void testGameWithBinaryFramingAndWindow() throws Exception {
+        play(Framing.BINARY, 8, "Tëst 😀");
+    }
+
+    /**
+     * The journals see the complete messages, the same on both sides.
+     */
+    private void play(Framing framing, int window, String initialMessage) throws Exception {
+        int stopCondition = 200;
+        WireOptions options = new WireOptions();
+        options.setFraming(framing);
+        options.setWindow(window);
+        options.setDelta(true);
+        Journal initiatorJournal = new Journal(directory, "Initiator", 1 << 22);
+        Journal playerJournal = new Journal(directory, "Responder", 1 << 22);
+        WebSocketServer initiator = new WebSocketServer("Initiator", stopCondition, false, 0, initialMessage,
+                MessageMode.CONCATENATED, new WireOptions(options), PlayerMetrics.DISABLED, initiatorJournal);
+        Thread server = new Thread(initiator::play);
+        server.start();
+        WebSocketPlayer player = new WebSocketPlayer("Responder", stopCondition, false, initiator.awaitLocalPort(),
+                MessageMode.CONCATENATED, new WireOptions(options), PlayerMetrics.DISABLED, playerJournal);
+        player.play();
+        server.join();
+        initiatorJournal.close();
+        playerJournal.close();
+
+        Assertions.assertEquals(stopCondition, initiator.getReceivedMessagesCount());
+        Assertions.assertEquals(stopCondition, player.getSentMessagesCount());
+        List<String> sentByInitiator = messages("Initiator", Direction.SENT);
+        Assertions.assertEquals(stopCondition, sentByInitiator.size());
+        Assertions.assertTrue(sentByInitiator.get(stopCondition - 1).startsWith(initialMessage + " 0 "));
+        Assertions.assertEquals(sentByInitiator, messages("Responder", Direction.RECEIVED));
+        Assertions.assertEquals(messages("Responder", Direction.SENT), messages("Initiator", Direction.RECEIVED));
+    }
+
+    private List<String> messages(String player, Direction direction) throws Exception {
+        List<String> messages = new ArrayList<>();
+        try (JournalReader reader = JournalReader.open(directory, player)) {
+            while (reader.next()) {
+                if (reader.getDirection() == direction) {
+                    messages.add(reader.getMessage());
+                }
+            }
+        }
+        return messages;
+    }
+
+    /**
+     * Keeps what is sent until it is received.
+     */
+    private static class QueueChannel implements MessageChannel {
+
+        final Deque<String> messages = new ArrayDeque<>();
+
+        @Override
+        public void send(String message) {
+            messages.add(message);
+        }
+
+        @Override
+        public String receive() {
+            return messages.poll();
+        }
+
+        @Override
+        public boolean ready() {
+            return !messages.isEmpty();
+        }
+
+        @Override
+        public void flush() {
+        }
+
+        @Override
+        public void close() {
+        }
+    }
+}
@@ -0,0 +1,185 @@
+package process;
+
+import common.MessageMode;
+import common.Stats;
+import common.ThreadMode;
+import common.journal.Journal;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+import process.wire.DirectChannel;
+import process.wire.FrameChannel;
+import process.wire.Framing;
+import process.wire.WireConnection;
+import process.wire.WireOptions;
+
+import java.io.IOException;
+import java.lang.management.ManagementFactory;
+import java.net.InetSocketAddress;
+import java.net.ServerSocket;
+import java.nio.ByteBuffer;
+import java.nio.channels.ServerSocketChannel;
+import java.nio.channels.SocketChannel;
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Games over DirectChannel, against itself and against BinaryChannel, and the in-place reply loop.
+ */
+public class DirectChannelTest {
+
+    final int stopCondition = 5000;
+    final int port = 1108;
+
+    @Test
+    public void testCompactBothDirect() throws InterruptedException {
+        play(MessageMode.COMPACT, true, true);
+    }
+
+    @Test
+    public void testConcatenatedBothDirect() throws InterruptedException {
+        play(MessageMode.CONCATENATED, true, true);
+    }
+
+    @Test
+    public void testDirectServerBinaryClient() throws InterruptedException {
+        play(MessageMode.COMPACT, true, false);
+    }
+
+    @Test
+    public void testBinaryServerDirectClient() throws InterruptedException {
+        play(MessageMode.CONCATENATED, false, true);
+    }
+
+    @Test
+    public void testReplyInPlaceMatchesString() {
+        byte[] origin = "Player".getBytes(StandardCharsets.UTF_8);
+        for (MessageMode mode : MessageMode.values()) {
+            String received = mode.reply(mode.initial("Hello wörld", "Initiator", 0), "Player", 1);
+            byte[] bytes = received.getBytes(StandardCharsets.UTF_8);
+            ByteBuffer in = ByteBuffer.allocateDirect(bytes.length + 3);
+            in.position(3).put(bytes);
+            ByteBuffer out = ByteBuffer.allocate(256);
+
+            mode.reply(in, 3, bytes.length, out, origin, 12);
+
+            Assertions.assertEquals(mode.reply(received, "Player", 12),
+                    new String(out.array(), 0, out.position(), StandardCharsets.UTF_8), mode.name());
+        }
+    }
+
+    @Test
+    public void testReplyInPlaceDoesNotAllocate() throws Exception {
+        com.sun.management.ThreadMXBean threads = (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+        byte[] origin = "Initiator".getBytes(StandardCharsets.UTF_8);
+        try (ServerSocketChannel server = ServerSocketChannel.open().bind(new InetSocketAddress("localhost", 0))) {
+            DirectChannel client = new DirectChannel(SocketChannel.open(server.getLocalAddress()));
+            DirectChannel accepted = new DirectChannel(server.accept());
+            Thread echo = new Thread(() -> {
+                try {
+                    while (accepted.receiveFrame() >= 0) {
+                        accepted.sendReply(MessageMode.COMPACT, origin, 0);
+                    }
+                    accepted.close();
+                } catch (Exception e) {
+                    e.printStackTrace();
+                }
+            });
+            echo.start();
+
+            client.send(MessageMode.COMPACT.initial("Hello", "Player", 0));
+            for (int i = 1; i <= 10_000; i++) {
+                client.receiveFrame();
+                client.sendReply(MessageMode.COMPACT, origin, i);
+            }
+            long before = threads.getCurrentThreadAllocatedBytes();
+            for (int i = 1; i <= 10_000; i++) {
+                client.receiveFrame();
+                client.sendReply(MessageMode.COMPACT, origin, i);
+            }
+            long allocated = threads.getCurrentThreadAllocatedBytes() - before;
+            // the last reply, so that nothing unread is left when the connection is closed
+            client.receiveFrame();
+            client.close();
+            echo.join();
+
+            // a String reply alone would be tens of bytes per message
+            Assertions.assertTrue(allocated < 10_000, "allocated " + allocated + " bytes");
+        }
+    }
+
+    @Test
+    public void testReplyInPlaceWithConfiguredOptions() throws Exception {
+        com.sun.management.ThreadMXBean threads = (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+        byte[] origin = "Initiator".getBytes(StandardCharsets.UTF_8);
+        // heartbeats and idle timeout as shipped
+        WireOptions options = WireOptions.fromConfiguration();
+        options.setFraming(Framing.BINARY);
+        options.setDirectBuffers(true);
+        try (ServerSocket serverSocket = WireConnection.listen(0, options)) {
+            CompletableFuture<WireConnection> accepting = CompletableFuture.supplyAsync(() -> {
+                try {
+                    return WireConnection.accept(serverSocket, options, 0);
+                } catch (IOException e) {
+                    throw new IllegalStateException(e);
+                }
+            });
+            try (WireConnection client = WireConnection.connect(serverSocket.getLocalPort(), options, 0);
+                 WireConnection server = accepting.get(10, TimeUnit.SECONDS)) {
+                Assertions.assertInstanceOf(FrameChannel.class, client.getChannel());
+                Assertions.assertInstanceOf(FrameChannel.class, server.getChannel());
+                FrameChannel accepted = (FrameChannel) server.getChannel();
+                Thread echo = new Thread(() -> {
+                    try {
+                        while (accepted.receiveFrame() >= 0) {
+                            accepted.sendReply(MessageMode.COMPACT, origin, 0, Journal.DISABLED);
+                        }
+                    } catch (IOException e) {
+                        // closed
+                    }
+                });
+                echo.start();
+
+                FrameChannel channel = (FrameChannel) client.getChannel();
+                channel.send(MessageMode.COMPACT.initial("Hello", "Player", 0));
+                for (int i = 1; i <= 10_000; i++) {
+                    channel.receiveFrame();
+                    channel.sendReply(MessageMode.COMPACT, origin, i, Journal.DISABLED);
+                }
+                long before = threads.getCurrentThreadAllocatedBytes();
+                for (int i = 1; i <= 10_000; i++) {
+                    channel.receiveFrame();
+                    channel.sendReply(MessageMode.COMPACT, origin, i, Journal.DISABLED);
+                }
+                long allocated = threads.getCurrentThreadAllocatedBytes() - before;
+                channel.receiveFrame();
+                client.close();
+                echo.join(10_000);
+
+                Assertions.assertTrue(allocated < 10_000, "allocated " + allocated + " bytes");
+            }
+        }
+    }
+
+    private void play(MessageMode messageMode, boolean directServer, boolean directClient)
+            throws InterruptedException {
+        WireOptions serverOptions = new WireOptions();
+        serverOptions.setFraming(Framing.BINARY);
+        serverOptions.setDirectBuffers(directServer);
+        WireOptions clientOptions = new WireOptions(serverOptions);
+        clientOptions.setDirectBuffers(directClient);
+
+        Stats[] serverStats = new Stats[1];
+        Thread server = new Thread(() -> serverStats[0] = ProcessCommunicationServer.play(stopCondition, false, port,
+                "Test", messageMode, ThreadMode.PLATFORM, serverOptions));
+        server.start();
+        Stats clientStats = ProcessCommunicationClient.play(stopCondition, false, port, messageMode,
+                ThreadMode.PLATFORM, clientOptions);
+        server.join();
+
+        Assertions.assertEquals(stopCondition, serverStats[0].getInitiatorSentMessagesCount());
+        Assertions.assertEquals(stopCondition, serverStats[0].getInitiatorReceivedMessagesCount());
+        Assertions.assertEquals(stopCondition, clientStats.getPlayerSentMessagesCount());
+        Assertions.assertEquals(stopCondition, clientStats.getPlayerReceivedMessagesCount());
+    }
+}
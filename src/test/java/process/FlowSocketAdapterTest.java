@@ -0,0 +1,156 @@
+package process;
+
+import common.Message;
+import common.MessageMode;
+import common.ThreadMode;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+import process.player.FlowSocketAdapter;
+import process.player.WebSocketPlayer;
+import process.player.WebSocketServer;
+import process.wire.Framing;
+import process.wire.Handshake;
+import process.wire.Transport;
+import process.wire.WireOptions;
+import thread.flow.FlowInitiator;
+import thread.flow.FlowPlayer;
+
+import java.net.InetSocketAddress;
+import java.net.ServerSocket;
+import java.net.Socket;
+import java.nio.channels.ServerSocketChannel;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Flow;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Runs a socket player and a Flow player in the same JVM, on a port picked by the system.
+ */
+public class FlowSocketAdapterTest {
+
+    final int stopCondition = 100;
+
+    @Test
+    public void testFlowPlayerAgainstSocketInitiator() throws Exception {
+        WireOptions options = new WireOptions();
+        options.setFraming(Framing.BINARY);
+        options.setDelta(true);
+        WebSocketServer initiator = new WebSocketServer("Initiator", stopCondition, false, 0, "Test",
+                MessageMode.CONCATENATED, new WireOptions(options));
+        Thread server = new Thread(initiator::play);
+        server.start();
+
+        ExecutorService executor = new ForkJoinPool(1);
+        try (FlowSocketAdapter adapter = FlowSocketAdapter.connect("Responder-reader", initiator.awaitLocalPort(),
+                new WireOptions(options), executor, 8, ThreadMode.PLATFORM)) {
+            FlowPlayer player = new FlowPlayer("Responder", stopCondition, false, MessageMode.CONCATENATED,
+                    executor, 8);
+            adapter.subscribe(player);
+            player.subscribe(adapter);
+            adapter.start();
+            player.start();
+            player.getCompletion().get(30, TimeUnit.SECONDS);
+            server.join();
+
+            Assertions.assertEquals(stopCondition, player.getReceivedMessagesCount());
+            Assertions.assertEquals(stopCondition, player.getSentMessagesCount());
+            Assertions.assertEquals(stopCondition, initiator.getReceivedMessagesCount());
+            Assertions.assertEquals(stopCondition, initiator.getSentMessagesCount());
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    @Test
+    public void testFlowPlayerOverSharedMemoryWithWindow() throws Exception {
+        // the reader thread receives while the executor sends, on the same channel
+        int stopCondition = 5000;
+        String initialMessage = "Test".repeat(500);
+        WireOptions options = new WireOptions();
+        options.setTransport(Transport.SHARED_MEMORY);
+        options.setWindow(16);
+        WebSocketServer initiator = new WebSocketServer("Initiator", stopCondition, false, 0, initialMessage,
+                MessageMode.COMPACT, new WireOptions(options));
+        Thread server = new Thread(initiator::play);
+        server.start();
+
+        ExecutorService executor = new ForkJoinPool(1);
+        try (FlowSocketAdapter adapter = FlowSocketAdapter.connect("Responder-reader", initiator.awaitLocalPort(),
+                new WireOptions(options), executor, 16, ThreadMode.PLATFORM)) {
+            FlowPlayer player = new FlowPlayer("Responder", stopCondition, false, MessageMode.COMPACT, executor, 16);
+            List<String> received = new CopyOnWriteArrayList<>();
+            adapter.subscribe(new Flow.Subscriber<>() {
+                @Override
+                public void onSubscribe(Flow.Subscription subscription) {
+                    subscription.request(Long.MAX_VALUE);
+                }
+
+                @Override
+                public void onNext(String message) {
+                    received.add(message);
+                }
+
+                @Override
+                public void onError(Throwable throwable) {
+                }
+
+                @Override
+                public void onComplete() {
+                }
+            });
+            adapter.subscribe(player);
+            player.subscribe(adapter);
+            adapter.start();
+            player.start();
+            player.getCompletion().get(30, TimeUnit.SECONDS);
+            server.join();
+
+            Assertions.assertEquals(stopCondition, player.getReceivedMessagesCount());
+            Assertions.assertEquals(stopCondition, initiator.getReceivedMessagesCount());
+            Assertions.assertEquals(stopCondition, initiator.getSentMessagesCount());
+            // the initiator builds its messages on the replies, a corrupted reply shows up in them
+            for (String message : received) {
+                Assertions.assertEquals(initialMessage, Message.decode(message).getPayload(), message);
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    @Test
+    public void testFlowInitiatorAgainstSocketPlayer() throws Exception {
+        WireOptions options = new WireOptions();
+        ExecutorService executor = new ForkJoinPool(1);
+        try (ServerSocket serverSocket = ServerSocketChannel.open().socket()) {
+            serverSocket.bind(new InetSocketAddress(0));
+            WebSocketPlayer player = new WebSocketPlayer("Responder", stopCondition, false,
+                    serverSocket.getLocalPort(), MessageMode.COMPACT, new WireOptions(options));
+            Thread client = new Thread(player::play);
+            client.start();
+
+            Socket socket = serverSocket.accept();
+            WireOptions agreed = Handshake.accept(socket, options);
+            try (FlowSocketAdapter adapter = new FlowSocketAdapter("Initiator-reader",
+                    agreed.getTransport().open(socket, agreed, true), executor, 1, ThreadMode.PLATFORM)) {
+                FlowPlayer initiator = new FlowInitiator("Initiator", stopCondition, false, "Test",
+                        MessageMode.COMPACT, executor, 1);
+                adapter.subscribe(initiator);
+                initiator.subscribe(adapter);
+                adapter.start();
+                initiator.start();
+                initiator.getCompletion().get(30, TimeUnit.SECONDS);
+                client.join();
+
+                Assertions.assertEquals(stopCondition, initiator.getReceivedMessagesCount());
+                Assertions.assertEquals(stopCondition, initiator.getSentMessagesCount());
+                Assertions.assertEquals(stopCondition, player.getReceivedMessagesCount());
+                Assertions.assertEquals(stopCondition, player.getSentMessagesCount());
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+}
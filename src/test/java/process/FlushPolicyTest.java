@@ -0,0 +1,63 @@
+package process;
+
+import common.MessageMode;
+import common.Stats;
+import common.ThreadMode;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+import process.wire.FlushPolicy;
+import process.wire.Framing;
+import process.wire.WireOptions;
+
+/**
+ * Runs server and client in the same JVM with buffered writes. A batch larger than the window (or an interval longer
+ * than the game) only completes if the buffer is flushed before each blocking read.
+ */
+public class FlushPolicyTest {
+
+    final int stopCondition = 5000;
+    final int port = 1106;
+
+    @Test
+    public void testBatchLargerThanStopAndWait() throws InterruptedException {
+        WireOptions options = new WireOptions();
+        options.setFlushPolicy(FlushPolicy.BATCH);
+        options.setFlushBatchSize(64);
+        play(options);
+    }
+
+    @Test
+    public void testBatchWithWindow() throws InterruptedException {
+        WireOptions options = new WireOptions();
+        options.setFraming(Framing.BINARY);
+        options.setWindow(32);
+        options.setFlushPolicy(FlushPolicy.BATCH);
+        options.setFlushBatchSize(8);
+        play(options);
+    }
+
+    @Test
+    public void testIntervalWithWindow() throws InterruptedException {
+        WireOptions options = new WireOptions();
+        options.setWindow(32);
+        options.setFlushPolicy(FlushPolicy.INTERVAL);
+        options.setFlushIntervalMicros(60_000_000);
+        options.setTcpNoDelay(false);
+        play(options);
+    }
+
+    private void play(WireOptions options) throws InterruptedException {
+        Stats[] serverStats = new Stats[1];
+        Thread server = new Thread(() -> serverStats[0] = ProcessCommunicationServer.play(stopCondition, false, port,
+                "Test", MessageMode.COMPACT, ThreadMode.PLATFORM, options));
+        server.start();
+        Stats clientStats = ProcessCommunicationClient.play(stopCondition, false, port, MessageMode.COMPACT,
+                ThreadMode.PLATFORM, new WireOptions(options));
+        server.join();
+
+        Assertions.assertEquals(stopCondition, serverStats[0].getInitiatorSentMessagesCount());
+        Assertions.assertEquals(stopCondition, serverStats[0].getInitiatorReceivedMessagesCount());
+        Assertions.assertEquals(stopCondition, clientStats.getPlayerSentMessagesCount());
+        Assertions.assertEquals(stopCondition, clientStats.getPlayerReceivedMessagesCount());
+    }
+}
@@ -0,0 +1,235 @@
+package process;
+
+import common.MessageMode;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+import process.player.WebSocketPlayer;
+import process.player.WebSocketServer;
+import process.wire.Framing;
+import process.wire.Handshake;
+import process.wire.MessageChannel;
+import process.wire.Transport;
+import process.wire.WireConnection;
+import process.wire.WireOptions;
+
+import java.io.BufferedReader;
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.net.ServerSocket;
+import java.net.Socket;
+import java.net.SocketTimeoutException;
+import java.nio.channels.ServerSocketChannel;
+import java.nio.channels.SocketChannel;
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Runs both sides in the same JVM, on ports picked by the system. A game that cannot be played must end, not hang.
+ */
+public class LivenessTest {
+
+    @Test
+    public void testStopConditionMismatchEndsBothSides() throws Exception {
+        WebSocketServer initiator = new WebSocketServer("Initiator", 10, false, 0, "Test", MessageMode.COMPACT,
+                new WireOptions());
+        Thread server = new Thread(initiator::play);
+        server.start();
+        WebSocketPlayer player = new WebSocketPlayer("Responder", 20, false, initiator.awaitLocalPort(),
+                MessageMode.COMPACT, new WireOptions());
+        player.play();
+        server.join(10_000);
+
+        Assertions.assertFalse(server.isAlive());
+        Assertions.assertEquals(0, initiator.getSentMessagesCount());
+        Assertions.assertEquals(0, player.getReceivedMessagesCount());
+    }
+
+    @Test
+    public void testProtocolVersionMismatch() throws Exception {
+        try (ServerSocket serverSocket = new ServerSocket(0);
+             Socket client = new Socket("localhost", serverSocket.getLocalPort());
+             Socket socket = serverSocket.accept()) {
+            OutputStream out = client.getOutputStream();
+            out.write("HELLO version=99 framing=TEXT\n".getBytes(StandardCharsets.US_ASCII));
+            out.flush();
+
+            IOException e = Assertions.assertThrows(IOException.class,
+                    () -> Handshake.accept(socket, new WireOptions(), 10));
+            Assertions.assertTrue(e.getMessage().contains("99"), e.getMessage());
+            // the client gets the server's version to report
+            String response = new BufferedReader(new InputStreamReader(client.getInputStream())).readLine();
+            Assertions.assertTrue(response.contains("version=" + Handshake.PROTOCOL_VERSION), response);
+            Assertions.assertTrue(response.contains("stopCondition=10"), response);
+        }
+    }
+
+    @Test
+    public void testPlayerLeavingEndsGame() throws Exception {
+        WebSocketServer initiator = new WebSocketServer("Initiator", 1000, false, 0, "Test", MessageMode.COMPACT,
+                new WireOptions());
+        Thread server = new Thread(initiator::play);
+        server.start();
+        try (Socket socket = SocketChannel.open(new InetSocketAddress("localhost", initiator.awaitLocalPort()))
+                .socket()) {
+            WireOptions agreed = Handshake.connect(socket, new WireOptions(), 1000);
+            MessageChannel channel = agreed.getTransport().open(socket, agreed, false);
+            Assertions.assertNotNull(channel.receive());
+            channel.close();
+        }
+        server.join(10_000);
+
+        Assertions.assertFalse(server.isAlive());
+        // the end of the stream is not a message
+        Assertions.assertEquals(1, initiator.getSentMessagesCount());
+        Assertions.assertEquals(0, initiator.getReceivedMessagesCount());
+    }
+
+    @Test
+    public void testHeartbeatsKeepSlowPlayerAlive() throws Exception {
+        WireOptions options = new WireOptions();
+        options.setFraming(Framing.BINARY);
+        options.setHeartbeatIntervalMillis(50);
+        options.setIdleTimeoutMillis(400);
+        MessageChannel[] channels = connect(options, options);
+        try {
+            CompletableFuture<String> reply = CompletableFuture.supplyAsync(() -> {
+                try {
+                    return channels[0].receive();
+                } catch (IOException e) {
+                    throw new IllegalStateException(e);
+                }
+            });
+            // far longer than the idle timeout, but heartbeats keep coming
+            Thread.sleep(1200);
+            channels[1].send("late");
+            channels[1].flush();
+            Assertions.assertEquals("late", reply.get(10, TimeUnit.SECONDS));
+        } finally {
+            channels[0].close();
+            channels[1].close();
+        }
+    }
+
+    @Test
+    public void testIdleTimeout() throws Exception {
+        WireOptions serverOptions = new WireOptions();
+        serverOptions.setIdleTimeoutMillis(300);
+        // the client neither asks for heartbeats nor sends anything
+        MessageChannel[] channels = connect(serverOptions, new WireOptions());
+        try {
+            long start = System.nanoTime();
+            Assertions.assertThrows(SocketTimeoutException.class, channels[0]::receive);
+            long elapsedMillis = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start);
+            Assertions.assertTrue(elapsedMillis >= 300 && elapsedMillis < 5000, elapsedMillis + " ms");
+        } finally {
+            channels[0].close();
+            channels[1].close();
+        }
+    }
+
+    @Test
+    public void testHandshakeTimeout() throws Exception {
+        WireOptions options = new WireOptions();
+        options.setIdleTimeoutMillis(300);
+        try (ServerSocket serverSocket = WireConnection.listen(0, options);
+             Socket client = new Socket("localhost", serverSocket.getLocalPort())) {
+            // connected, but never says HELLO
+            long start = System.nanoTime();
+            Assertions.assertThrows(SocketTimeoutException.class,
+                    () -> WireConnection.accept(serverSocket, options, 0));
+            long elapsedMillis = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start);
+            Assertions.assertTrue(elapsedMillis >= 300 && elapsedMillis < 5000, elapsedMillis + " ms");
+            // nobody connects at all
+            Assertions.assertThrows(SocketTimeoutException.class,
+                    () -> WireConnection.accept(serverSocket, options, 0));
+        }
+    }
+
+    @Test
+    public void testSharedMemoryPeerGone() throws Exception {
+        WireOptions options = new WireOptions();
+        options.setTransport(Transport.SHARED_MEMORY);
+        WireConnection[] connections = connectShared(options, options);
+        try {
+            CompletableFuture<String> receive = CompletableFuture.supplyAsync(() -> {
+                try {
+                    return connections[0].getChannel().receive();
+                } catch (IOException e) {
+                    throw new IllegalStateException(e);
+                }
+            });
+            // the socket goes, the ring is never closed, like when the process dies
+            connections[1].getSocket().close();
+            ExecutionException e = Assertions.assertThrows(ExecutionException.class,
+                    () -> receive.get(10, TimeUnit.SECONDS));
+            Assertions.assertInstanceOf(EOFException.class, e.getCause().getCause());
+        } finally {
+            connections[0].close();
+            connections[1].close();
+        }
+    }
+
+    @Test
+    public void testSharedMemoryIdleTimeout() throws Exception {
+        WireOptions serverOptions = new WireOptions();
+        serverOptions.setTransport(Transport.SHARED_MEMORY);
+        serverOptions.setIdleTimeoutMillis(300);
+        WireOptions clientOptions = new WireOptions();
+        clientOptions.setTransport(Transport.SHARED_MEMORY);
+        WireConnection[] connections = connectShared(serverOptions, clientOptions);
+        try {
+            long start = System.nanoTime();
+            Assertions.assertThrows(SocketTimeoutException.class, connections[0].getChannel()::receive);
+            long elapsedMillis = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start);
+            Assertions.assertTrue(elapsedMillis >= 300 && elapsedMillis < 5000, elapsedMillis + " ms");
+        } finally {
+            connections[0].close();
+            connections[1].close();
+        }
+    }
+
+    /**
+     * @return server and client side of a new connection
+     */
+    private WireConnection[] connectShared(WireOptions serverOptions, WireOptions clientOptions) throws Exception {
+        try (ServerSocket serverSocket = WireConnection.listen(0, serverOptions)) {
+            CompletableFuture<WireConnection> client = CompletableFuture.supplyAsync(() -> {
+                try {
+                    return WireConnection.connect(serverSocket.getLocalPort(), clientOptions, 0);
+                } catch (IOException | InterruptedException e) {
+                    throw new IllegalStateException(e);
+                }
+            });
+            WireConnection server = WireConnection.accept(serverSocket, serverOptions, 0);
+            return new WireConnection[]{server, client.get(10, TimeUnit.SECONDS)};
+        }
+    }
+
+    /**
+     * @return server channel and client channel of a new connection
+     */
+    private MessageChannel[] connect(WireOptions serverOptions, WireOptions clientOptions) throws Exception {
+        try (ServerSocket serverSocket = ServerSocketChannel.open().socket()) {
+            serverSocket.bind(new InetSocketAddress(0));
+            CompletableFuture<MessageChannel> client = CompletableFuture.supplyAsync(() -> {
+                try {
+                    Socket socket = SocketChannel.open(new InetSocketAddress("localhost", serverSocket.getLocalPort()))
+                            .socket();
+                    WireOptions agreed = Handshake.connect(socket, clientOptions);
+                    return agreed.getTransport().open(socket, agreed, false);
+                } catch (IOException e) {
+                    throw new IllegalStateException(e);
+                }
+            });
+            Socket socket = serverSocket.accept();
+            WireOptions agreed = Handshake.accept(socket, serverOptions);
+            return new MessageChannel[]{agreed.getTransport().open(socket, agreed, true),
+                    client.get(10, TimeUnit.SECONDS)};
+        }
+    }
+}
@@ -0,0 +1,67 @@
+package process;
+
+import common.ArgsReader;
+import common.MessageMode;
+import common.Stats;
+import common.ThreadMode;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+import process.player.NioWebSocketServer;
+import process.wire.Framing;
+import process.wire.WireOptions;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+/**
+ * Runs one NioWebSocketServer and many clients in the same JVM, on a port of its own so that it does not interfere
+ * with the other socket tests.
+ */
+public class NioWebSocketServerTest {
+
+    final int stopCondition = 10;
+    final int clients = 20;
+    final int port = 1104;
+
+    @Test
+    public void testManyClientsOnOnePort() throws Exception {
+
+        WireOptions serverOptions = new WireOptions();
+        serverOptions.setFraming(Framing.BINARY);
+
+        Stats[] serverStats = new Stats[1];
+        Thread server = new Thread(() -> serverStats[0] = ProcessCommunicationServer.playNio(stopCondition, false,
+                port, "Test", MessageMode.CONCATENATED, serverOptions, 2, clients));
+        server.start();
+
+        ExecutorService executor = Executors.newFixedThreadPool(clients);
+        List<Future<Stats>> clientStats = new ArrayList<>();
+        for (int i = 0; i < clients; i++) {
+            // half of the clients ask for binary framing, the other half stay with text
+            WireOptions clientOptions = new WireOptions();
+            clientOptions.setFraming(i % 2 == 0 ? Framing.BINARY : Framing.TEXT);
+            clientStats.add(executor.submit(() -> ProcessCommunicationClient.play(stopCondition, false, port,
+                    MessageMode.CONCATENATED, ThreadMode.PLATFORM, clientOptions)));
+        }
+        for (Future<Stats> stats : clientStats) {
+            Assertions.assertEquals(stopCondition, stats.get().getPlayerSentMessagesCount());
+            Assertions.assertEquals(stopCondition, stats.get().getPlayerReceivedMessagesCount());
+        }
+        executor.shutdown();
+        server.join();
+
+        Assertions.assertEquals(clients * stopCondition, serverStats[0].getInitiatorSentMessagesCount());
+        Assertions.assertEquals(clients * stopCondition, serverStats[0].getInitiatorReceivedMessagesCount());
+    }
+
+    @Test
+    public void testRejectsNoEventLoops() {
+        Assertions.assertThrows(IllegalArgumentException.class, () -> new NioWebSocketServer("Initiator",
+                stopCondition, false, port, "Test", MessageMode.CONCATENATED, new WireOptions(), 0, clients));
+        Assertions.assertThrows(IllegalArgumentException.class,
+                () -> ArgsReader.readEventLoops(new String[]{"0"}, 0));
+    }
+}
@@ -0,0 +1,37 @@
+package process;
+
+import common.MessageMode;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+import process.wire.WireOptions;
+
+import java.util.List;
+
+/**
+ * Runs a small benchmark, server and client on ports picked by the system.
+ */
+public class ProcessCommunicationBenchmarkTest {
+
+    @Test
+    public void testRunAndReport() {
+        List<ProcessCommunicationBenchmark.Result> results = ProcessCommunicationBenchmark.run(new int[]{10, 100},
+                new int[]{5, 200}, 1, 3, MessageMode.COMPACT, new WireOptions());
+
+        Assertions.assertEquals(4, results.size());
+        ProcessCommunicationBenchmark.Result last = results.get(3);
+        Assertions.assertEquals(100, last.getStopCondition());
+        Assertions.assertEquals(200, last.getMessageSize());
+        // the initiator measures one round trip per message it receives
+        Assertions.assertEquals(3 * 100, last.getMetrics().getRoundTrip().getCount());
+        Assertions.assertTrue(last.getRoundTripsPerSecond() > 0);
+        Assertions.assertTrue(last.getGameMinMillis() <= last.getGameMeanMillis());
+
+        String[] csv = ProcessCommunicationBenchmark.toCsv(results).split("\n");
+        Assertions.assertEquals(5, csv.length);
+        Assertions.assertTrue(csv[4].startsWith("100,200,3,"), csv[4]);
+
+        String json = ProcessCommunicationBenchmark.toJson(results);
+        Assertions.assertTrue(json.startsWith("[\n  {\"stopCondition\": 10, \"messageSize\": 5, \"games\": 3,"), json);
+        Assertions.assertTrue(json.endsWith("}\n]\n"), json);
+    }
+}
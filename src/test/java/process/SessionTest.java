@@ -0,0 +1,64 @@
+package process;
+
+import common.MessageMode;
+import common.Stats;
+import common.ThreadMode;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+import process.wire.Framing;
+import process.wire.WireOptions;
+
+import java.util.Map;
+
+/**
+ * Plays games of different lengths over a single connection, each game with its own counts.
+ */
+public class SessionTest {
+
+    final int port = 1110;
+    final int[] stopConditions = {100, 1, 2000, 7};
+
+    @Test
+    public void testSessionWithTextFraming() throws InterruptedException {
+        WireOptions options = new WireOptions();
+        playSession(MessageMode.CONCATENATED, options);
+    }
+
+    @Test
+    public void testSessionWithBinaryFramingAndWindow() throws InterruptedException {
+        WireOptions options = new WireOptions();
+        options.setFraming(Framing.BINARY);
+        options.setWindow(16);
+        playSession(MessageMode.COMPACT, options);
+    }
+
+    @Test
+    public void testSessionWithDirectBuffers() throws InterruptedException {
+        WireOptions options = new WireOptions();
+        options.setFraming(Framing.BINARY);
+        options.setDirectBuffers(true);
+        playSession(MessageMode.COMPACT, options);
+    }
+
+    private void playSession(MessageMode messageMode, WireOptions options) throws InterruptedException {
+        @SuppressWarnings("unchecked")
+        Map<Integer, Stats>[] serverStats = new Map[1];
+        Thread server = new Thread(() -> serverStats[0] = ProcessCommunicationServer.playSession(stopConditions,
+                false, port, "Test", messageMode, ThreadMode.PLATFORM, options));
+        server.start();
+        Map<Integer, Stats> clientStats = ProcessCommunicationClient.playSession(false, port, messageMode,
+                ThreadMode.PLATFORM, new WireOptions(options));
+        server.join();
+
+        Assertions.assertEquals(stopConditions.length, serverStats[0].size());
+        Assertions.assertEquals(stopConditions.length, clientStats.size());
+        for (int i = 0; i < stopConditions.length; i++) {
+            Stats initiator = serverStats[0].get(i + 1);
+            Stats player = clientStats.get(i + 1);
+            Assertions.assertEquals(stopConditions[i], initiator.getInitiatorSentMessagesCount());
+            Assertions.assertEquals(stopConditions[i], initiator.getInitiatorReceivedMessagesCount());
+            Assertions.assertEquals(stopConditions[i], player.getPlayerSentMessagesCount());
+            Assertions.assertEquals(stopConditions[i], player.getPlayerReceivedMessagesCount());
+        }
+    }
+}
@@ -0,0 +1,72 @@
+package process;
+
+import common.MessageMode;
+import common.Stats;
+import common.ThreadMode;
+import common.WaitStrategy;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+import process.wire.SharedMemoryChannel;
+import process.wire.Transport;
+import process.wire.WireOptions;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+/**
+ * Runs server and client in the same JVM, exchanging the messages through shared memory. Only the handshake goes
+ * through the socket.
+ */
+public class SharedMemoryTransportTest {
+
+    final int port = 1107;
+
+    @Test
+    public void testSharedMemoryTransport() throws InterruptedException {
+        play(MessageMode.COMPACT, 20_000, 1, 1 << 20);
+    }
+
+    @Test
+    public void testRingWrapsAround() throws InterruptedException {
+        // growing messages in a small ring, with several of them in flight
+        play(MessageMode.CONCATENATED, 300, 4, 4096);
+    }
+
+    @Test
+    public void testCloseEndsTheStream() throws IOException {
+        Path file = SharedMemoryChannel.createFile(null);
+        SharedMemoryChannel server = new SharedMemoryChannel(file, 256, WaitStrategy.YIELD, true);
+        SharedMemoryChannel client = new SharedMemoryChannel(file, 256, WaitStrategy.YIELD, false);
+        server.send("Hello");
+        server.send("été");
+        server.close();
+        Assertions.assertFalse(Files.exists(file));
+        Assertions.assertTrue(client.ready());
+        Assertions.assertEquals("Hello", client.receive());
+        Assertions.assertEquals("été", client.receive());
+        Assertions.assertNull(client.receive());
+        client.close();
+    }
+
+    private void play(MessageMode messageMode, int stopCondition, int window, int capacity)
+            throws InterruptedException {
+        WireOptions options = new WireOptions();
+        options.setTransport(Transport.SHARED_MEMORY);
+        options.setSharedMemoryCapacity(capacity);
+        options.setWindow(window);
+
+        Stats[] serverStats = new Stats[1];
+        Thread server = new Thread(() -> serverStats[0] = ProcessCommunicationServer.play(stopCondition, false, port,
+                "Test", messageMode, ThreadMode.PLATFORM, options));
+        server.start();
+        Stats clientStats = ProcessCommunicationClient.play(stopCondition, false, port, messageMode,
+                ThreadMode.PLATFORM, new WireOptions(options));
+        server.join();
+
+        Assertions.assertEquals(stopCondition, serverStats[0].getInitiatorSentMessagesCount());
+        Assertions.assertEquals(stopCondition, serverStats[0].getInitiatorReceivedMessagesCount());
+        Assertions.assertEquals(stopCondition, clientStats.getPlayerSentMessagesCount());
+        Assertions.assertEquals(stopCondition, clientStats.getPlayerReceivedMessagesCount());
+    }
+}
@@ -0,0 +1,101 @@
+package process;
+
+import common.MessageMode;
+import common.Stats;
+import common.ThreadMode;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+import process.wire.Framing;
+import process.wire.TextChannel;
+import process.wire.WireOptions;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.time.Duration;
+
+/**
+ * Runs server and client in the same JVM, on a port of its own so that it does not interfere with the other socket
+ * tests.
+ */
+public class WindowedMessagingTest {
+
+    final int stopCondition = 5000;
+    final int port = 1105;
+
+    @Test
+    public void testWindowedMessagingWithTextFraming() throws InterruptedException {
+        playWindowed(Framing.TEXT, 32, stopCondition);
+    }
+
+    @Test
+    public void testWindowedMessagingWithBinaryFraming() throws InterruptedException {
+        playWindowed(Framing.BINARY, 32, stopCondition);
+    }
+
+    @Test
+    public void testWindowLargerThanStopCondition() throws InterruptedException {
+        playWindowed(Framing.BINARY, WireOptions.MAX_WINDOW, 100);
+    }
+
+    @Test
+    public void testWindowOfLongMessagesWithSmallBuffers() {
+        // concatenated messages grow to kilobytes, a whole window of them does not fit into the socket buffers
+        WireOptions serverOptions = new WireOptions();
+        serverOptions.setWindow(WireOptions.MAX_WINDOW);
+        serverOptions.setSendBufferSize(8192);
+        serverOptions.setReceiveBufferSize(8192);
+        WireOptions clientOptions = new WireOptions(serverOptions);
+        clientOptions.setWindow(1);
+
+        Assertions.assertTimeoutPreemptively(Duration.ofSeconds(60),
+                () -> playWindowed(serverOptions, clientOptions, MessageMode.CONCATENATED, 1000));
+    }
+
+    @Test
+    public void testNumberedTextLines() throws IOException {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        TextChannel sender = new TextChannel(InputStream.nullInputStream(), out, true);
+        sender.send("Test 0");
+        sender.send("Test 0");
+        sender.flush();
+        TextChannel receiver = new TextChannel(new ByteArrayInputStream(out.toByteArray()),
+                OutputStream.nullOutputStream(), true);
+        Assertions.assertEquals("Test 0", receiver.receive());
+        Assertions.assertEquals("Test 0", receiver.receive());
+        Assertions.assertNull(receiver.receive());
+
+        // the second message of the window got lost
+        TextChannel gap = new TextChannel(new ByteArrayInputStream("0 Test 0\n2 Test 0\n".getBytes()),
+                OutputStream.nullOutputStream(), true);
+        Assertions.assertEquals("Test 0", gap.receive());
+        Assertions.assertThrows(IOException.class, gap::receive);
+    }
+
+    private void playWindowed(Framing framing, int window, int stopCondition) throws InterruptedException {
+        WireOptions serverOptions = new WireOptions();
+        serverOptions.setFraming(framing);
+        serverOptions.setWindow(window);
+        WireOptions clientOptions = new WireOptions();
+        clientOptions.setFraming(framing);
+        playWindowed(serverOptions, clientOptions, MessageMode.COMPACT, stopCondition);
+    }
+
+    private void playWindowed(WireOptions serverOptions, WireOptions clientOptions, MessageMode messageMode,
+                              int stopCondition) throws InterruptedException {
+        Stats[] serverStats = new Stats[1];
+        Thread server = new Thread(() -> serverStats[0] = ProcessCommunicationServer.play(stopCondition, false, port,
+                "Test", messageMode, ThreadMode.PLATFORM, serverOptions));
+        server.start();
+        Stats clientStats = ProcessCommunicationClient.play(stopCondition, false, port, messageMode,
+                ThreadMode.PLATFORM, clientOptions);
+        server.join();
+
+        Assertions.assertEquals(stopCondition, serverStats[0].getInitiatorSentMessagesCount());
+        Assertions.assertEquals(stopCondition, serverStats[0].getInitiatorReceivedMessagesCount());
+        Assertions.assertEquals(stopCondition, clientStats.getPlayerSentMessagesCount());
+        Assertions.assertEquals(stopCondition, clientStats.getPlayerReceivedMessagesCount());
+    }
+}
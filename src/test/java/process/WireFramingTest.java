@@ -0,0 +1,39 @@
+package process;
+
+import common.MessageMode;
+import common.Stats;
+import common.ThreadMode;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+import process.wire.Framing;
+import process.wire.WireOptions;
+
+/**
+ * Runs server and client in the same JVM, on a port of its own so that it does not interfere with the
+ * ProcessCommunication tests.
+ */
+public class WireFramingTest {
+
+    final int stopCondition = 10;
+    final int port = 1103;
+
+    @Test
+    public void testBinaryFraming() throws InterruptedException {
+
+        WireOptions options = new WireOptions();
+        options.setFraming(Framing.BINARY);
+
+        Stats[] serverStats = new Stats[1];
+        Thread server = new Thread(() -> serverStats[0] = ProcessCommunicationServer.play(stopCondition, true, port,
+                "Tëst 😀", MessageMode.CONCATENATED, ThreadMode.PLATFORM, options));
+        server.start();
+        Stats clientStats = ProcessCommunicationClient.play(stopCondition, true, port, MessageMode.CONCATENATED,
+                ThreadMode.PLATFORM, options);
+        server.join();
+
+        Assertions.assertEquals(stopCondition, serverStats[0].getInitiatorSentMessagesCount());
+        Assertions.assertEquals(stopCondition, serverStats[0].getInitiatorReceivedMessagesCount());
+        Assertions.assertEquals(stopCondition, clientStats.getPlayerSentMessagesCount());
+        Assertions.assertEquals(stopCondition, clientStats.getPlayerReceivedMessagesCount());
+    }
+}
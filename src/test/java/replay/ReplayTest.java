@@ -0,0 +1,91 @@
+package replay;
+
+import common.MessageMode;
+import common.WaitStrategy;
+import common.journal.Journal;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import process.wire.WireOptions;
+import thread.mailbox.JournalMailbox;
+import thread.mailbox.Mailbox;
+import thread.mailbox.MailboxType;
+import thread.player.Initiator;
+import thread.player.Player;
+
+import java.nio.file.Path;
+
+public class ReplayTest {
+
+    private static final int MESSAGES = 30;
+
+    @TempDir
+    Path directory;
+
+    @BeforeEach
+    public void record() throws Exception {
+        // an earlier, shorter run that must not be replayed
+        play(5, MessageMode.CONCATENATED);
+        play(MESSAGES, MessageMode.COMPACT);
+    }
+
+    @Test
+    public void testLoadsLastRun() throws Exception {
+        Recording recording = Recording.load(directory, "Initiator");
+        Assertions.assertEquals(MESSAGES, recording.size());
+        Assertions.assertEquals(MessageMode.COMPACT.initial("Hi", "Initiator", 0), recording.getMessage(0));
+        Assertions.assertEquals(0, recording.getSendOffset(0));
+        for (int i = 0; i < MESSAGES; i++) {
+            Assertions.assertNotNull(recording.getReply(i));
+            Assertions.assertTrue(recording.getRoundTrip(i) >= 0);
+            Assertions.assertTrue(recording.getSendOffset(i) >= 0);
+        }
+        Assertions.assertNull(recording.getReply(MESSAGES));
+        Assertions.assertEquals(-1, recording.getRoundTrip(MESSAGES));
+    }
+
+    @Test
+    public void testReplaysThroughPlayer() throws Exception {
+        Recording recording = Recording.load(directory, "Initiator");
+        for (Pacing pacing : Pacing.values()) {
+            ReplayReport report = Replay.throughPlayer(recording, "Responder", pacing, MessageMode.COMPACT,
+                    MailboxType.SPSC_RING, 4, WaitStrategy.PARK);
+            Assertions.assertEquals(MESSAGES, report.getCount());
+            Assertions.assertEquals(0, report.getMismatchedReplies(), report.toString());
+            Assertions.assertEquals(MESSAGES, report.getReplayed().getCount());
+            Assertions.assertTrue(report.getSlowestOriginal() >= 0);
+        }
+
+        // replies built another way are counted, but do not stop the replay
+        ReplayReport report = Replay.throughPlayer(recording, "Responder", Pacing.FAST, MessageMode.CONCATENATED,
+                MailboxType.SYNCHRONOUS, 1, null);
+        Assertions.assertEquals(MESSAGES, report.getCount());
+        Assertions.assertEquals(MESSAGES, report.getMismatchedReplies());
+    }
+
+    @Test
+    public void testReplaysThroughSocket() throws Exception {
+        ReplayReport report = Replay.throughSocket(Recording.load(directory, "Initiator"), "Responder", Pacing.FAST,
+                MessageMode.COMPACT, new WireOptions());
+        Assertions.assertEquals(MESSAGES, report.getCount());
+        Assertions.assertEquals(0, report.getMismatchedReplies(), report.toString());
+        Assertions.assertTrue(report.toString().contains("p99"));
+    }
+
+    private void play(int messages, MessageMode messageMode) throws Exception {
+        try (Journal initiatorJournal = new Journal(directory, "Initiator", 1 << 20)) {
+            Mailbox<String> toInitiator = new JournalMailbox(MailboxType.SYNCHRONOUS.create(1, null), Journal.DISABLED,
+                    initiatorJournal);
+            Mailbox<String> toPlayer = new JournalMailbox(MailboxType.SYNCHRONOUS.create(1, null), initiatorJournal,
+                    Journal.DISABLED);
+            Thread initiator = new Thread(new Initiator("Initiator", toInitiator, toPlayer, messages, false, "Hi",
+                    messageMode));
+            Thread player = new Thread(new Player("Responder", toPlayer, toInitiator, messages, false, messageMode));
+            initiator.start();
+            player.start();
+            initiator.join();
+            player.join();
+        }
+    }
+}
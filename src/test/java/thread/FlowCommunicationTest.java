@@ -0,0 +1,59 @@
+package thread;
+
+import common.MessageMode;
+import common.Stats;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+import thread.flow.FlowPlayer;
+
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.SubmissionPublisher;
+import java.util.concurrent.TimeUnit;
+
+public class FlowCommunicationTest {
+
+    final int pairs = 200;
+    final int stopCondition = 20;
+
+    @Test
+    public void testGamesOnSingleThread() {
+
+        // a Tournament needs a thread per player at a time, Flow players need none
+        Stats stats = FlowCommunication.play(pairs, stopCondition, "Test", false, MessageMode.COMPACT, 1, 16);
+
+        assertCounts(stats);
+    }
+
+    @Test
+    public void testGamesOnCommonPoolWithDemandOfOne() {
+
+        Stats stats = FlowCommunication.play(pairs, stopCondition, "Test", false, MessageMode.CONCATENATED, 0, 1);
+
+        assertCounts(stats);
+    }
+
+    @Test
+    public void testOtherPlayerCompletingEarly() throws Exception {
+        try (SubmissionPublisher<String> other = new SubmissionPublisher<>()) {
+            FlowPlayer player = new FlowPlayer("Responder", stopCondition, false, MessageMode.CONCATENATED,
+                    Runnable::run, 4);
+            other.subscribe(player);
+            other.submit("Test 0");
+            other.close();
+
+            ExecutionException e = Assertions.assertThrows(ExecutionException.class,
+                    () -> player.getCompletion().get(10, TimeUnit.SECONDS));
+            Assertions.assertTrue(e.getCause() instanceof IllegalStateException);
+            Assertions.assertEquals(1, player.getReceivedMessagesCount());
+            Assertions.assertEquals(1, player.getSentMessagesCount());
+        }
+    }
+
+    private void assertCounts(Stats stats) {
+        Assertions.assertNotNull(stats);
+        Assertions.assertEquals(pairs * stopCondition, stats.getInitiatorSentMessagesCount());
+        Assertions.assertEquals(pairs * stopCondition, stats.getInitiatorReceivedMessagesCount());
+        Assertions.assertEquals(pairs * stopCondition, stats.getPlayerSentMessagesCount());
+        Assertions.assertEquals(pairs * stopCondition, stats.getPlayerReceivedMessagesCount());
+    }
+}
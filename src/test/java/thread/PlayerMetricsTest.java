@@ -0,0 +1,82 @@
+package thread;
+
+import common.MessageMode;
+import common.metrics.PlayerMetrics;
+import common.metrics.RoundTrips;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+import thread.mailbox.Mailbox;
+import thread.mailbox.MailboxType;
+import thread.mailbox.TimedMailbox;
+import thread.player.Initiator;
+import thread.player.Player;
+
+public class PlayerMetricsTest {
+
+    final int stopCondition = 10_000;
+
+    @Test
+    public void testMetricsOfAGame() throws InterruptedException {
+        PlayerMetrics initiatorMetrics = new PlayerMetrics("Initiator");
+        PlayerMetrics playerMetrics = new PlayerMetrics("Responder");
+        Mailbox<String> mailBox1 = new TimedMailbox<>(MailboxType.ARRAY_BLOCKING.create(4, null), 4, initiatorMetrics);
+        Mailbox<String> mailBox2 = new TimedMailbox<>(MailboxType.ARRAY_BLOCKING.create(4, null), 4, playerMetrics);
+        Player initiator = new Initiator("Initiator", mailBox1, mailBox2, stopCondition, false, "Hi",
+                MessageMode.COMPACT, initiatorMetrics);
+        Player player = new Player("Responder", mailBox2, mailBox1, stopCondition, false, MessageMode.COMPACT,
+                playerMetrics);
+
+        Thread t1 = new Thread(initiator);
+        Thread t2 = new Thread(player);
+        t1.start();
+        t2.start();
+        t1.join();
+        t2.join();
+
+        Assertions.assertEquals(stopCondition, initiatorMetrics.getSentMessages());
+        Assertions.assertEquals(stopCondition, initiatorMetrics.getReceivedMessages());
+        Assertions.assertEquals(stopCondition, playerMetrics.getSentMessages());
+        Assertions.assertEquals(stopCondition, playerMetrics.getReceivedMessages());
+        Assertions.assertTrue(initiatorMetrics.getBytesSent() > 0);
+        Assertions.assertEquals(initiatorMetrics.getBytesSent(), playerMetrics.getBytesReceived());
+
+        // every message of the initiator gets a reply, the responder's first message is a reply itself
+        Assertions.assertEquals(stopCondition, initiatorMetrics.getRoundTrip().getCount());
+        Assertions.assertEquals(stopCondition - 1, playerMetrics.getRoundTrip().getCount());
+        Assertions.assertEquals(stopCondition, initiatorMetrics.getHop().getCount());
+        Assertions.assertEquals(stopCondition, playerMetrics.getHop().getCount());
+        Assertions.assertEquals(stopCondition, playerMetrics.getQueueWait().getCount());
+        Assertions.assertTrue(initiatorMetrics.getRoundTripP99Micros() > 0);
+    }
+
+    @Test
+    public void testGroupAddsUpItsParts() {
+        PlayerMetrics group = new PlayerMetrics("Group");
+        PlayerMetrics part1 = group.part("Part-1");
+        PlayerMetrics part2 = group.part("Part-2");
+        RoundTrips roundTrips1 = new RoundTrips();
+        RoundTrips roundTrips2 = new RoundTrips();
+
+        part1.sent("abc", part1.now(), roundTrips1);
+        part1.received("abc", part1.now(), roundTrips1);
+        // 2 bytes for the e acute, 3 for the euro sign and 4 for the emoji
+        part2.sent("\u00e9\u20ac\ud83d\ude00", part2.now(), roundTrips2);
+
+        Assertions.assertEquals(2, group.getSentMessages());
+        Assertions.assertEquals(1, group.getReceivedMessages());
+        Assertions.assertEquals(3 + 9, group.getBytesSent());
+        Assertions.assertEquals(9, part2.getBytesSent());
+        Assertions.assertEquals(1, group.getRoundTrip().getCount());
+        Assertions.assertEquals(0, part2.getRoundTrip().getCount());
+        Assertions.assertEquals(1, group.getQueueWait().getCount());
+        Assertions.assertSame(PlayerMetrics.DISABLED, PlayerMetrics.DISABLED.part("Part"));
+    }
+
+    @Test
+    public void testDisabledMetricsRecordNothing() {
+        PlayerMetrics.DISABLED.sent("message", 0, null);
+        PlayerMetrics.DISABLED.received("message", 0, null);
+        Assertions.assertEquals(0, PlayerMetrics.DISABLED.getSentMessages());
+        Assertions.assertEquals(0, PlayerMetrics.DISABLED.now());
+    }
+}
@@ -1,9 +1,14 @@
 package thread;
 
 import common.Configuration;
+import common.MessageMode;
 import common.Stats;
+import common.ThreadMode;
+import common.WaitStrategy;
 import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Assumptions;
 import org.junit.jupiter.api.Test;
+import thread.mailbox.MailboxType;
 
 public class ThreadCommunicationTest {
 
@@ -21,4 +26,55 @@ public class ThreadCommunicationTest {
         Assertions.assertEquals(stopCondition, stats.getPlayerReceivedMessagesCount());
     }
 
+    @Test
+    public void testThreadCommunicationWithArrayBlockingMailbox() {
+
+        Stats stats = ThreadCommunication.play(stopCondition, "Test", true, MailboxType.ARRAY_BLOCKING, 1, WaitStrategy.PARK,
+                MessageMode.CONCATENATED, ThreadMode.PLATFORM);
+
+        assertCounts(stats);
+    }
+
+    @Test
+    public void testThreadCommunicationWithSpscRingMailbox() {
+
+        Stats stats = ThreadCommunication.play(stopCondition, "Test", true, MailboxType.SPSC_RING, 4, WaitStrategy.YIELD,
+                MessageMode.CONCATENATED, ThreadMode.PLATFORM);
+
+        assertCounts(stats);
+    }
+
+    @Test
+    public void testThreadCommunicationWithCompactMessages() {
+
+        // far beyond stop.condition.max, which is only feasible because compact messages do not grow
+        int rounds = 100_000;
+        Stats stats = ThreadCommunication.play(rounds, "Test", false, MailboxType.SYNCHRONOUS, 1, WaitStrategy.PARK,
+                MessageMode.COMPACT, ThreadMode.PLATFORM);
+
+        assertCounts(stats, rounds);
+    }
+
+    @Test
+    public void testThreadCommunicationOnVirtualThreads() {
+        Assumptions.assumeTrue(Runtime.version().feature() >= 21, "virtual threads require Java 21");
+
+        Stats stats = ThreadCommunication.play(stopCondition, "Test", true, MailboxType.SYNCHRONOUS, 1, WaitStrategy.PARK,
+                MessageMode.CONCATENATED, ThreadMode.VIRTUAL);
+
+        assertCounts(stats);
+    }
+
+    private void assertCounts(Stats stats) {
+        assertCounts(stats, stopCondition);
+    }
+
+    private void assertCounts(Stats stats, int expected) {
+        Assertions.assertNotNull(stats);
+        Assertions.assertEquals(expected, stats.getInitiatorSentMessagesCount());
+        Assertions.assertEquals(expected, stats.getInitiatorReceivedMessagesCount());
+        Assertions.assertEquals(expected, stats.getPlayerSentMessagesCount());
+        Assertions.assertEquals(expected, stats.getPlayerReceivedMessagesCount());
+    }
+
 }
@@ -0,0 +1,91 @@
+package thread;
+
+import common.MessageMode;
+import common.ThreadMode;
+import common.WaitStrategy;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+import thread.mailbox.MailboxType;
+import thread.topology.NodeStats;
+import thread.topology.Topology;
+import thread.topology.TopologyGame;
+
+import java.util.List;
+
+public class TopologyGameTest {
+
+    final int nodes = 6;
+    final long messages = 5000;
+
+    @Test
+    public void testRing() {
+        List<NodeStats> stats = play(Topology.RING, MailboxType.SPSC_RING);
+
+        // a single message goes round, so every node sees the same share of it
+        for (NodeStats node : stats) {
+            Assertions.assertTrue(Math.abs(node.getReceivedMessagesCount() - messages / nodes) <= 1, node.toString());
+        }
+    }
+
+    @Test
+    public void testStar() {
+        List<NodeStats> stats = play(Topology.STAR, MailboxType.ARRAY_BLOCKING);
+
+        NodeStats hub = stats.get(0);
+        Assertions.assertEquals(nodes - 1, hub.getInDegree());
+        Assertions.assertEquals(nodes - 1, hub.getOutDegree());
+        // the hub sends and receives half of all messages
+        Assertions.assertEquals(messages / 2, hub.getSentMessagesCount());
+        Assertions.assertEquals(messages / 2, hub.getReceivedMessagesCount());
+    }
+
+    @Test
+    public void testAllToAll() {
+        List<NodeStats> stats = play(Topology.ALL_TO_ALL, MailboxType.SPSC_RING);
+
+        for (NodeStats node : stats) {
+            Assertions.assertEquals(nodes - 1, node.getInDegree());
+            Assertions.assertTrue(node.getReceivedMessagesCount() > 0, node.toString());
+        }
+    }
+
+    @Test
+    public void testRandomMesh() {
+        TopologyGame game = game(Topology.RANDOM_MESH, MailboxType.SPSC_RING);
+        for (int[] targets : game.getTargets()) {
+            Assertions.assertEquals(2, targets.length);
+        }
+        assertTotals(game.play(ThreadMode.PLATFORM));
+    }
+
+    @Test
+    public void testSynchronousMailboxesAreRejected() {
+        Assertions.assertThrows(IllegalArgumentException.class, () -> game(Topology.RING, MailboxType.SYNCHRONOUS));
+    }
+
+    private List<NodeStats> play(Topology topology, MailboxType mailboxType) {
+        List<NodeStats> stats = game(topology, mailboxType).play(ThreadMode.PLATFORM);
+        assertTotals(stats);
+        return stats;
+    }
+
+    private TopologyGame game(Topology topology, MailboxType mailboxType) {
+        return new TopologyGame(topology, nodes, 2, 42, messages, "Test", false, mailboxType, 4, WaitStrategy.YIELD,
+                MessageMode.COMPACT);
+    }
+
+    /**
+     * every message of the budget is sent and received exactly once
+     */
+    private void assertTotals(List<NodeStats> stats) {
+        Assertions.assertEquals(nodes, stats.size());
+        long sent = 0;
+        long received = 0;
+        for (NodeStats node : stats) {
+            sent += node.getSentMessagesCount();
+            received += node.getReceivedMessagesCount();
+        }
+        Assertions.assertEquals(messages, sent);
+        Assertions.assertEquals(messages, received);
+    }
+}
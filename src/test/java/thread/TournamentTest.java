@@ -0,0 +1,46 @@
+package thread;
+
+import common.Stats;
+import common.ThreadMode;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Assumptions;
+import org.junit.jupiter.api.Test;
+
+public class TournamentTest {
+
+    final int pairs = 200;
+    final int stopCondition = 10;
+
+    @Test
+    public void testTournamentOnPlatformThreadPool() {
+
+        // far fewer threads than players, so the games have to run in waves
+        Stats stats = Tournament.play(pairs, stopCondition, "Test", false, ThreadMode.PLATFORM, 4);
+
+        assertCounts(stats);
+    }
+
+    @Test
+    public void testTournamentOnVirtualThreads() {
+        Assumptions.assumeTrue(Runtime.version().feature() >= 21, "virtual threads require Java 21");
+
+        Stats stats = Tournament.play(pairs, stopCondition, "Test", false, ThreadMode.VIRTUAL, 0);
+
+        assertCounts(stats);
+    }
+
+    @Test
+    public void testTotalBeyondIntIsRejected() {
+        // 10k pairs of 215k messages would wrap the summed counts
+        Assertions.assertThrows(IllegalArgumentException.class,
+                () -> Tournament.play(10_000, 215_000, "Test", false, ThreadMode.PLATFORM, 4));
+    }
+
+    private void assertCounts(Stats stats) {
+        Assertions.assertNotNull(stats);
+        Assertions.assertEquals(pairs * stopCondition, stats.getInitiatorSentMessagesCount());
+        Assertions.assertEquals(pairs * stopCondition, stats.getInitiatorReceivedMessagesCount());
+        Assertions.assertEquals(pairs * stopCondition, stats.getPlayerSentMessagesCount());
+        Assertions.assertEquals(pairs * stopCondition, stats.getPlayerReceivedMessagesCount());
+    }
+}
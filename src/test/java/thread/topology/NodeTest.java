@@ -0,0 +1,44 @@
+package thread.topology;
+
+import common.MessageMode;
+import common.WaitStrategy;
+import common.metrics.PlayerMetrics;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+import thread.mailbox.Mailbox;
+import thread.mailbox.MailboxType;
+
+import java.util.List;
+import java.util.Random;
+
+public class NodeTest {
+
+    @Test
+    public void testBroadcastWaitsForEveryIncomingEdge() throws InterruptedException {
+        Mailbox<String> first = MailboxType.ARRAY_BLOCKING.create(4, null);
+        Mailbox<String> second = MailboxType.ARRAY_BLOCKING.create(4, null);
+        Mailbox<String> outbox = MailboxType.ARRAY_BLOCKING.create(4, null);
+        // the start of the node and the two messages below are in flight
+        Termination termination = new Termination(10, 3);
+        Node node = new Node("Node", toArray(List.of(first, second)), toArray(List.of(outbox)), true, false, "Test",
+                termination, MessageMode.COMPACT, WaitStrategy.YIELD, false, PlayerMetrics.DISABLED, new Random(42));
+
+        // two messages on the same edge are two rounds, neither of them complete
+        first.offer(MessageMode.COMPACT.initial("Test", "Other", 0));
+        first.offer(MessageMode.COMPACT.initial("Test", "Other", 1));
+        Thread thread = new Thread(node);
+        thread.start();
+        thread.join(10_000);
+        thread.interrupt();
+
+        Assertions.assertFalse(thread.isAlive());
+        Assertions.assertNull(outbox.poll());
+        Assertions.assertEquals(2, node.getStats().getReceivedMessagesCount());
+        Assertions.assertEquals(0, node.getStats().getSentMessagesCount());
+    }
+
+    @SuppressWarnings("unchecked")
+    private static Mailbox<String>[] toArray(List<Mailbox<String>> mailboxes) {
+        return (Mailbox<String>[]) mailboxes.toArray(new Mailbox<?>[0]);
+    }
+}